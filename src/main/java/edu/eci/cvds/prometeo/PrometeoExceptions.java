@@ -35,6 +35,7 @@ public class PrometeoExceptions extends RuntimeException {
     public static final String NIVEL_DIFICULTAD_NO_VALIDO = "El nivel de dificultad no es válido";
     public static final String FECHA_PASADA = "La fecha de reserva no puede ser en el pasado";
     public static final String CAPACIDAD_EXCEDIDA = "La capacidad máxima de la sesión ha sido excedida";
+    public static final String CAPACIDAD_MENOR_A_RESERVADOS = "La capacidad no puede ser menor que los cupos ya reservados";
     public static final String PESO_NO_VALIDO = "El peso ingresado no es válido";
     public static final String REPETICIONES_NO_VALIDAS = "El número de repeticiones no es válido";
     public static final String SERIES_NO_VALIDAS = "El número de series no es válido";
@@ -54,6 +55,12 @@ public class PrometeoExceptions extends RuntimeException {
     public static final String NO_EXISTE_EQUIPAMIENTO = "El equipamiento solicitado no existe";
     public static final String SESION_YA_EXISTE_HORARIO = "Una sesión ya ha sido agendada en este horario";
     public static final String NO_EXISTE_EQUIPO = "El equipo solicitado no existe";
+    public static final String COLA_RESERVAS_LLENA = "Hay demasiadas solicitudes de reserva para esta sesión, intenta de nuevo más tarde";
+    public static final String CURSOR_NO_VALIDO = "El cursor de paginación no es válido";
+    public static final String RANGO_FECHAS_NO_VALIDO = "El rango de fechas no es válido";
+    public static final String SIN_CUPO_RETENIDO = "No tienes un cupo retenido vigente para esta sesión";
+    public static final String RESUMEN_OCUPACION_DESHABILITADO = "El resumen de ocupación no está habilitado";
+    public static final String MODELO_NO_DISPONIBLE = "El servicio de recomendaciones del modelo no está disponible temporalmente";
     
     
     /**
@@ -0,0 +1,18 @@
+package edu.eci.cvds.prometeo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs: the notification dispatcher, the session
+ * reminders and the availability push.
+ *
+ * Spring Boot runs them on a single thread by default, where a long outbox drain would hold
+ * back the availability push and the reminders. {@code spring.task.scheduling.pool.size} in
+ * application.properties gives each job a thread of its own, so keep it at least as large as
+ * the number of {@code @Scheduled} methods.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
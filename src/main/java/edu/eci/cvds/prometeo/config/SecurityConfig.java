@@ -30,6 +30,8 @@ public class SecurityConfig {
                 .cors(cors -> {})
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // El navegador no puede enviar el token en el handshake; se valida en el CONNECT de STOMP
+                        .requestMatchers("/ws/**").permitAll()
                         .requestMatchers("/api/users/create").authenticated()
                         .requestMatchers("/api/users/trainer/sessions").hasAnyRole("STUDENT", "TRAINER")
                         .requestMatchers("/api/users/trainer/**").hasRole("TRAINER")
@@ -0,0 +1,73 @@
+package edu.eci.cvds.prometeo.config;
+
+import edu.eci.cvds.prometeo.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Authenticates STOMP sessions on CONNECT with the same JWT the REST API uses.
+ *
+ * Browsers cannot set an {@code Authorization} header on the WebSocket handshake, so the
+ * handshake at {@code /ws} is open and the token travels in the {@code Authorization} header
+ * of the STOMP CONNECT frame instead. Connections without a valid token for one of the
+ * application roles are refused, and frames of sessions that never authenticated are rejected.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final Set<String> ALLOWED_ROLES = Set.of("TRAINER", "STUDENT", "ADMIN");
+
+    private final JwtUtil jwtUtil;
+
+    public StompAuthChannelInterceptor(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            // El usuario queda asociado a la sesión STOMP para los frames siguientes
+            accessor.setUser(authenticate(accessor.getFirstNativeHeader(AUTHORIZATION_HEADER)));
+        } else if ((StompCommand.SUBSCRIBE.equals(accessor.getCommand()) || StompCommand.SEND.equals(accessor.getCommand()))
+                && accessor.getUser() == null) {
+            throw new AccessDeniedException("STOMP session is not authenticated");
+        }
+        return message;
+    }
+
+    private UsernamePasswordAuthenticationToken authenticate(String header) {
+        if (header == null || !header.startsWith("Bearer ")) {
+            throw new BadCredentialsException("Missing bearer token in STOMP CONNECT");
+        }
+        Claims claims;
+        try {
+            claims = jwtUtil.extractClaims(header);
+        } catch (RuntimeException e) {
+            throw new BadCredentialsException("Invalid token", e);
+        }
+        String role = claims.get("role", String.class);
+        if (role == null || !ALLOWED_ROLES.contains(role.toUpperCase())) {
+            throw new AccessDeniedException("Role not allowed to open a STOMP session");
+        }
+        return new UsernamePasswordAuthenticationToken(claims.get("userName", String.class), null,
+                List.of(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase())));
+    }
+}
@@ -1,18 +1,25 @@
 package edu.eci.cvds.prometeo.controller;
 
 import edu.eci.cvds.prometeo.model.*;
+import edu.eci.cvds.prometeo.model.enums.AggregationPeriod;
 import edu.eci.cvds.prometeo.model.enums.ReportFormat;
 import edu.eci.cvds.prometeo.repository.RoutineExerciseRepository;
 import edu.eci.cvds.prometeo.repository.RoutineRepository;
 import edu.eci.cvds.prometeo.service.*;
+import edu.eci.cvds.prometeo.service.admission.AdmissionTicket;
+import edu.eci.cvds.prometeo.service.admission.ReservationAdmissionQueue;
+import edu.eci.cvds.prometeo.service.waitlist.WaitlistStreamRegistry;
 import edu.eci.cvds.prometeo.dto.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -20,6 +27,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -29,6 +40,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * REST Controller for managing user-related operations in the Prometeo
@@ -65,6 +77,9 @@ public class UserController {
     @Autowired
     private GymReservationService gymReservationService;
 
+    @Autowired
+    private ReservationAdmissionQueue reservationAdmissionQueue;
+
     // TODO: Move this logic to userservice layer
     @Autowired
     private RoutineRepository routineRepository;
@@ -81,6 +96,16 @@ public class UserController {
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private NotificationService notificationService;
+
+    // Flujos SSE de posición en lista de espera, opcional (prometeo.waitlist-stream.enabled)
+    @Autowired(required = false)
+    private WaitlistStreamRegistry waitlistStreamRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // -----------------------------------------------------
     // User profile endpoints
     // -----------------------------------------------------
@@ -119,6 +144,29 @@ public class UserController {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Get users page", description = "Retrieves users ordered by creation time, one page at a time")
+    @ApiResponse(responseCode = "200", description = "Page retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    public ResponseEntity<Object> getUsersPage(
+            @Parameter(description = "Cursor returned with the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 500)") @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(userService.getUsersPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all users", description = "Streams every user as newline-delimited JSON without loading the whole table in memory")
+    @ApiResponse(responseCode = "200", description = "Users streamed successfully")
+    public void streamUsers(HttpServletResponse response) throws IOException {
+        writeNdjson(response, userService::streamAllUsers);
+    }
+
     @GetMapping("/by-role/{role}")
     @Operation(summary = "Get users by role", description = "Retrieves all users with a specific role")
     @ApiResponse(responseCode = "200", description = "Users retrieved successfully")
@@ -620,20 +668,31 @@ public class UserController {
     }
 
     @PostMapping("/{userId}/reservations")
-    @Operation(summary = "Create reservation", description = "Creates a new gym reservation")
+    @Operation(summary = "Create reservation", description = "Creates a new gym reservation. Requests go through the admission queue; if the booking is not processed within the wait timeout a ticket is returned instead")
     @ApiResponse(responseCode = "201", description = "Reservation created successfully")
+    @ApiResponse(responseCode = "202", description = "Reservation queued, poll the returned ticket")
     @ApiResponse(responseCode = "404", description = "User not found")
     @ApiResponse(responseCode = "400", description = "No available slots for the requested time")
+    @ApiResponse(responseCode = "429", description = "Too many pending reservations for the session")
     public ResponseEntity<Object> createReservation(
             @Parameter(description = "User ID") @PathVariable UUID userId,
             @RequestBody ReservationDTO reservationDTO) {
         try {
             // Asegurarse de que el userId del path coincide con el del DTO
             reservationDTO.setUserId(userId);
-            ReservationDTO created = gymReservationService.create(reservationDTO);
+            AdmissionTicket ticket = reservationAdmissionQueue.await(reservationAdmissionQueue.submit(reservationDTO));
+
+            if (ticket.getStatus() == AdmissionTicket.Status.REJECTED) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", ticket.getError());
+                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+            }
+            if (ticket.getStatus() != AdmissionTicket.Status.CONFIRMED) {
+                return new ResponseEntity<>(reservationAdmissionQueue.toDTO(ticket), HttpStatus.ACCEPTED);
+            }
 
             Map<String, Object> response = new HashMap<>();
-            response.put("reservationId", created.getId());
+            response.put("reservationId", ticket.getReservation().getId());
             response.put("message", "Reserva creada exitosamente");
 
             return new ResponseEntity<>(response, HttpStatus.CREATED);
@@ -641,7 +700,31 @@ public class UserController {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
             return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.TOO_MANY_REQUESTS);
+        }
+    }
+
+    @GetMapping("/{userId}/reservations/tickets/{ticketId}")
+    @Operation(summary = "Get reservation ticket", description = "Returns the status of a queued reservation, optionally waiting for it to be processed")
+    @ApiResponse(responseCode = "200", description = "Ticket retrieved successfully")
+    @ApiResponse(responseCode = "404", description = "Ticket not found or expired")
+    public ResponseEntity<ReservationTicketDTO> getReservationTicket(
+            @Parameter(description = "User ID") @PathVariable UUID userId,
+            @Parameter(description = "Ticket ID") @PathVariable UUID ticketId,
+            @Parameter(description = "Seconds to wait for the ticket to be processed (max 30)") @RequestParam(defaultValue = "0") int waitSeconds) {
+
+        Optional<AdmissionTicket> ticket = reservationAdmissionQueue.getTicket(ticketId)
+                .filter(t -> t.getUserId().equals(userId));
+        if (ticket.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (waitSeconds > 0 && !ticket.get().isDone()) {
+            reservationAdmissionQueue.await(ticket.get(), Duration.ofSeconds(Math.min(waitSeconds, 30)));
         }
+        return ResponseEntity.ok(reservationAdmissionQueue.toDTO(ticket.get()));
     }
 
     @GetMapping("/{userId}/reservations")
@@ -736,6 +819,19 @@ public class UserController {
         return ResponseEntity.ok(status);
     }
 
+    @GetMapping(value = "/{userId}/sessions/{sessionId}/waitlist/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream waitlist status", description = "Streams the user's waitlist position as server-sent events, sending only changes")
+    @ApiResponse(responseCode = "200", description = "Stream opened")
+    @ApiResponse(responseCode = "404", description = "Waitlist streams are disabled")
+    public ResponseEntity<SseEmitter> streamWaitlistStatus(
+            @Parameter(description = "User ID") @PathVariable UUID userId,
+            @Parameter(description = "Session ID") @PathVariable UUID sessionId) {
+        if (waitlistStreamRegistry == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(waitlistStreamRegistry.subscribe(userId, sessionId));
+    }
+
     @GetMapping("/{userId}/waitlists")
     @Operation(summary = "Get all user waitlists", description = "Gets all sessions where user is in waitlist")
     @ApiResponse(responseCode = "200", description = "Waitlists retrieved successfully")
@@ -746,6 +842,23 @@ public class UserController {
         return ResponseEntity.ok(waitlists);
     }
 
+    @PostMapping("/{userId}/sessions/{sessionId}/waitlist/accept")
+    @Operation(summary = "Accept waitlist seat", description = "Turns the seat held for the user after a waitlist promotion into a reservation")
+    @ApiResponse(responseCode = "201", description = "Reservation created successfully")
+    @ApiResponse(responseCode = "400", description = "No running seat hold for the user")
+    public ResponseEntity<Object> acceptWaitlistHold(
+            @Parameter(description = "User ID") @PathVariable UUID userId,
+            @Parameter(description = "Session ID") @PathVariable UUID sessionId) {
+        try {
+            ReservationDTO reservation = gymReservationService.acceptWaitlistHold(userId, sessionId);
+            return new ResponseEntity<>(reservation, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @DeleteMapping("/{userId}/sessions/{sessionId}/waitlist")
     @Operation(summary = "Leave waitlist", description = "Removes user from waitlist for a session")
     @ApiResponse(responseCode = "200", description = "Removed from waitlist successfully")
@@ -765,6 +878,59 @@ public class UserController {
         }
     }
 
+    // -----------------------------------------------------
+    // Notification inbox endpoints
+    // -----------------------------------------------------
+
+    @GetMapping("/{userId}/notifications")
+    @Operation(summary = "Get notifications", description = "Retrieves the user's notifications, newest first, one page at a time")
+    @ApiResponse(responseCode = "200", description = "Page retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    public ResponseEntity<Object> getNotifications(
+            @Parameter(description = "User ID") @PathVariable UUID userId,
+            @Parameter(description = "List only unread notifications") @RequestParam(defaultValue = "false") boolean unreadOnly,
+            @Parameter(description = "Cursor returned with the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 500)") @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(notificationService.getInbox(userId, unreadOnly, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @GetMapping("/{userId}/notifications/unread-count")
+    @Operation(summary = "Get unread notification count", description = "Gets the number of unread notifications of the user")
+    @ApiResponse(responseCode = "200", description = "Count retrieved successfully")
+    public ResponseEntity<Map<String, Long>> getUnreadNotificationCount(
+            @Parameter(description = "User ID") @PathVariable UUID userId) {
+        Map<String, Long> response = new HashMap<>();
+        response.put("unread", notificationService.getUnreadCount(userId));
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{userId}/notifications/read")
+    @Operation(summary = "Mark notifications as read", description = "Marks the given notifications of the user as read")
+    @ApiResponse(responseCode = "200", description = "Notifications marked as read")
+    public ResponseEntity<Map<String, Integer>> markNotificationsAsRead(
+            @Parameter(description = "User ID") @PathVariable UUID userId,
+            @RequestBody List<UUID> notificationIds) {
+        Map<String, Integer> response = new HashMap<>();
+        response.put("updated", notificationService.markAsRead(userId, notificationIds));
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{userId}/notifications/read-all")
+    @Operation(summary = "Mark all notifications as read", description = "Marks every notification of the user as read")
+    @ApiResponse(responseCode = "200", description = "Notifications marked as read")
+    public ResponseEntity<Map<String, Integer>> markAllNotificationsAsRead(
+            @Parameter(description = "User ID") @PathVariable UUID userId) {
+        Map<String, Integer> response = new HashMap<>();
+        response.put("updated", notificationService.markAllAsRead(userId));
+        return ResponseEntity.ok(response);
+    }
+
     // -----------------------------------------------------
     // Gym session management endpoints (trainers)
     // -----------------------------------------------------
@@ -920,6 +1086,47 @@ public class UserController {
         }
     }
 
+    @GetMapping("/trainer/reservations")
+    @Operation(summary = "Get reservations page", description = "Retrieves all reservations ordered by creation time, one page at a time")
+    @ApiResponse(responseCode = "200", description = "Page retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    @PreAuthorize("hasRole('TRAINER') or hasRole('ADMIN')")
+    public ResponseEntity<Object> getReservationsPage(
+            @Parameter(description = "Cursor returned with the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 500)") @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(gymReservationService.getPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @GetMapping(value = "/trainer/reservations/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all reservations", description = "Streams every reservation as newline-delimited JSON without loading the whole table in memory")
+    @ApiResponse(responseCode = "200", description = "Reservations streamed successfully")
+    @PreAuthorize("hasRole('TRAINER') or hasRole('ADMIN')")
+    public void streamReservations(HttpServletResponse response) throws IOException {
+        writeNdjson(response, gymReservationService::streamAll);
+    }
+
+    @PostMapping("/trainer/sessions/schedule")
+    @Operation(summary = "Create a recurring schedule", description = "Creates recurring gym sessions for several weekday and time rules in a single request")
+    @ApiResponse(responseCode = "201", description = "Schedule created, overlapping occurrences are reported as conflicts")
+    @ApiResponse(responseCode = "400", description = "Invalid date range, weekday, time or capacity")
+    @PreAuthorize("hasRole('TRAINER') or hasRole('ADMIN')")
+    public ResponseEntity<Object> createRecurringSchedule(@RequestBody RecurringScheduleDTO scheduleDTO) {
+        try {
+            RecurringScheduleResultDTO result = gymSessionService.configureRecurringSchedule(scheduleDTO);
+            return new ResponseEntity<>(result, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping("/trainer/sessions/stats")
     @Operation(summary = "Get occupancy statistics", description = "Retrieves occupancy statistics for gym sessions")
     @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully")
@@ -946,6 +1153,32 @@ public class UserController {
         return ResponseEntity.ok(students);
     }
 
+    @PostMapping("/trainer/sessions/{sessionId}/reservations")
+    @Operation(summary = "Book a group of students", description = "Creates reservations for a whole class roster in a single request")
+    @ApiResponse(responseCode = "200", description = "Bulk booking processed, see per-user results")
+    @ApiResponse(responseCode = "400", description = "Session not found or already started")
+    @PreAuthorize("hasRole('TRAINER') or hasRole('ADMIN')")
+    public ResponseEntity<Object> createBulkReservations(
+            @Parameter(description = "Session ID") @PathVariable UUID sessionId,
+            @RequestBody BulkReservationDTO bulkReservationDTO) {
+
+        try {
+            // Asegurarse de que el sessionId del path coincide con el del DTO
+            bulkReservationDTO.setSessionId(sessionId);
+            List<UUID> userIds = bulkReservationDTO.getUserIds() != null
+                    ? bulkReservationDTO.getUserIds()
+                    : new ArrayList<>();
+
+            BulkReservationResultDTO result = gymReservationService.createBulk(
+                    sessionId, userIds, bulkReservationDTO.getNotes());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @PostMapping("/trainer/attendance")
     @Operation(summary = "Record student attendance", description = "Records attendance for a student at a gym session")
     @ApiResponse(responseCode = "200", description = "Attendance recorded successfully")
@@ -982,6 +1215,27 @@ public class UserController {
         return ResponseEntity.ok(statistics);
     }
 
+    @GetMapping("/trainer/attendance/stats")
+    @Operation(summary = "Get attendance statistics for several trainers", description = "Retrieves attendance statistics for many trainers at once, bucketed by day, week or month")
+    @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid date range")
+    @PreAuthorize("hasRole('TRAINER') or hasRole('ADMIN')")
+    public ResponseEntity<Object> getAttendanceStatisticsByTrainers(
+            @Parameter(description = "Trainer IDs, all trainers when omitted") @RequestParam(required = false) List<UUID> trainerIds,
+            @Parameter(description = "Start date") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "End date") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "Bucket size") @RequestParam(defaultValue = "DAY") AggregationPeriod period) {
+
+        try {
+            List<TrainerAttendanceStatsDTO> statistics = gymSessionService.getAttendanceStatistics(trainerIds, startDate, endDate, period);
+            return ResponseEntity.ok(statistics);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping("/gym/sessions/{sessionId}")
     @Operation(summary = "Get session by ID", description = "Retrieves details of a specific gym session")
     @ApiResponse(responseCode = "200", description = "Session found")
@@ -1073,6 +1327,25 @@ public class UserController {
         return buildResponse(report, format, "attendance_report");
     }
 
+    @PostMapping("/admin/occupancy-rollup/rebuild")
+    @Operation(summary = "Rebuild occupancy rollup", description = "Recomputes the daily occupancy rollup used by the usage reports for a date range")
+    @ApiResponse(responseCode = "200", description = "Rollup rebuilt successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid date range or rollup disabled")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildOccupancyRollup(
+            @Parameter(description = "Start date") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "End date") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("rowsWritten", reportService.rebuildOccupancyRollup(startDate, endDate));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     /**
      * Builds an HTTP response with appropriate headers for file download,
      * based on the specified report format.
@@ -1122,6 +1395,29 @@ public class UserController {
         return new ResponseEntity<>(content, headers, HttpStatus.OK);
     }
 
+    /**
+     * Writes the items produced by a streaming source as newline-delimited JSON, one
+     * object per line, straight to the response output.
+     */
+    private <T> void writeNdjson(HttpServletResponse response, Consumer<Consumer<T>> source) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        OutputStream out = response.getOutputStream();
+        try {
+            source.accept(item -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(item));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
     // // ------------------------------------------------------
     // // Equipment reservations endpoints
     // // -----------------------------------------------------
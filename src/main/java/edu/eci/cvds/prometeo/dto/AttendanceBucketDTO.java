@@ -0,0 +1,16 @@
+package edu.eci.cvds.prometeo.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class AttendanceBucketDTO {
+    private LocalDate periodStart;
+    private long sessions;
+    private long capacity;
+    private long reserved;
+    private long attended;
+    private double occupancyRate;
+    private double attendanceRate;
+}
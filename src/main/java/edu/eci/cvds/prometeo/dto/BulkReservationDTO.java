@@ -0,0 +1,13 @@
+package edu.eci.cvds.prometeo.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class BulkReservationDTO {
+    private UUID sessionId;
+    private List<UUID> userIds;
+    private String notes;
+}
@@ -0,0 +1,15 @@
+package edu.eci.cvds.prometeo.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class BulkReservationResultDTO {
+    private UUID sessionId;
+    private int requested;
+    private int reserved;
+    private List<ReservationOutcomeDTO> results = new ArrayList<>();
+}
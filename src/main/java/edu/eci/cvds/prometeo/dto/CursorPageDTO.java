@@ -0,0 +1,13 @@
+package edu.eci.cvds.prometeo.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class CursorPageDTO<T> {
+    private List<T> items = new ArrayList<>();
+    private String nextCursor; // null cuando no hay más páginas
+    private boolean hasMore;
+}
@@ -0,0 +1,15 @@
+package edu.eci.cvds.prometeo.dto;
+
+import lombok.Data;
+
+import java.time.LocalTime;
+import java.util.UUID;
+
+@Data
+public class RecurrenceRuleDTO {
+    private int dayOfWeek; // 1=Monday, 7=Sunday
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private Integer capacity; // opcional, reemplaza la capacidad del horario
+    private UUID trainerId; // opcional, reemplaza el entrenador del horario
+}
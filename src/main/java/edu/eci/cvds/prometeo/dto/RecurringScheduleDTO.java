@@ -0,0 +1,17 @@
+package edu.eci.cvds.prometeo.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class RecurringScheduleDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int capacity;
+    private UUID trainerId;
+    private List<RecurrenceRuleDTO> rules = new ArrayList<>();
+}
@@ -0,0 +1,14 @@
+package edu.eci.cvds.prometeo.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class RecurringScheduleResultDTO {
+    private int created;
+    private List<UUID> sessionIds = new ArrayList<>();
+    private List<GymSessionDTO> conflicts = new ArrayList<>();
+}
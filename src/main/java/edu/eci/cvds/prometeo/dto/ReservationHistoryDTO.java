@@ -0,0 +1,17 @@
+package edu.eci.cvds.prometeo.dto;
+
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+@Data
+public class ReservationHistoryDTO {
+    private UUID id;
+    private LocalDate date;
+    private LocalTime time;
+    private ReservationStatus status;
+    private SessionSummaryDTO session; // null si la sesión ya no existe
+}
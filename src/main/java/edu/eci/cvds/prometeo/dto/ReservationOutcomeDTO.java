@@ -0,0 +1,25 @@
+package edu.eci.cvds.prometeo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationOutcomeDTO {
+    private UUID userId;
+    private boolean success;
+    private UUID reservationId;
+    private String error;
+
+    public static ReservationOutcomeDTO reserved(UUID userId, UUID reservationId) {
+        return new ReservationOutcomeDTO(userId, true, reservationId, null);
+    }
+
+    public static ReservationOutcomeDTO rejected(UUID userId, String error) {
+        return new ReservationOutcomeDTO(userId, false, null, error);
+    }
+}
@@ -0,0 +1,18 @@
+package edu.eci.cvds.prometeo.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class ReservationTicketDTO {
+    private UUID ticketId;
+    private UUID userId;
+    private UUID sessionId;
+    private String status;
+    private int position;
+    private UUID reservationId;
+    private String error;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,19 @@
+package edu.eci.cvds.prometeo.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+@Data
+public class SessionAvailabilityDTO {
+    private UUID sessionId;
+    private LocalDate sessionDate;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private int capacity;
+    private int availableSpots;
+    private int delta; // cambio de cupos disponibles desde el último mensaje de la sesión
+    private boolean cancelled;
+}
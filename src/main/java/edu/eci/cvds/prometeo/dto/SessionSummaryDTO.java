@@ -0,0 +1,14 @@
+package edu.eci.cvds.prometeo.dto;
+
+import lombok.Data;
+
+import java.time.LocalTime;
+import java.util.UUID;
+
+@Data
+public class SessionSummaryDTO {
+    private UUID id;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private int capacity;
+}
@@ -0,0 +1,19 @@
+package edu.eci.cvds.prometeo.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class TrainerAttendanceStatsDTO {
+    private UUID trainerId;
+    private long sessions;
+    private long capacity;
+    private long reserved;
+    private long attended;
+    private double occupancyRate;
+    private double attendanceRate;
+    private List<AttendanceBucketDTO> buckets = new ArrayList<>();
+}
@@ -0,0 +1,17 @@
+package edu.eci.cvds.prometeo.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class WaitlistPositionDTO {
+    private UUID sessionId;
+    private UUID userId;
+    private int position; // 0 cuando el usuario ya no está en la lista de espera
+    private boolean inWaitlist;
+    private LocalDateTime holdExpiresAt; // cupo retenido para el usuario, si lo hay
+    private int capacity;
+    private boolean sessionCancelled;
+}
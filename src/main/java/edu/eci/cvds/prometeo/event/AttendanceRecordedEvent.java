@@ -0,0 +1,40 @@
+package edu.eci.cvds.prometeo.event;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published when a reservation is checked in at the gym.
+ * Listeners should react after the publishing transaction commits.
+ */
+public class AttendanceRecordedEvent {
+    private final UUID sessionId;
+    private final LocalDate sessionDate;
+    private final UUID reservationId;
+    private final LocalDateTime attendanceTime;
+
+    public AttendanceRecordedEvent(UUID sessionId, LocalDate sessionDate, UUID reservationId,
+                                   LocalDateTime attendanceTime) {
+        this.sessionId = sessionId;
+        this.sessionDate = sessionDate;
+        this.reservationId = reservationId;
+        this.attendanceTime = attendanceTime;
+    }
+
+    public UUID getSessionId() {
+        return sessionId;
+    }
+
+    public LocalDate getSessionDate() {
+        return sessionDate;
+    }
+
+    public UUID getReservationId() {
+        return reservationId;
+    }
+
+    public LocalDateTime getAttendanceTime() {
+        return attendanceTime;
+    }
+}
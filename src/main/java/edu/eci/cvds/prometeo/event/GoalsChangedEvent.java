@@ -0,0 +1,22 @@
+package edu.eci.cvds.prometeo.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a user's goals are added, edited or removed.
+ * Listeners should react after the publishing transaction commits.
+ */
+public class GoalsChangedEvent {
+    private final UUID userId;
+
+    /**
+     * @param userId User whose goals changed
+     */
+    public GoalsChangedEvent(UUID userId) {
+        this.userId = userId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+}
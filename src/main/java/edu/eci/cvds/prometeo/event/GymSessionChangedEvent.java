@@ -0,0 +1,52 @@
+package edu.eci.cvds.prometeo.event;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Published when a gym session is created, updated or cancelled.
+ * Listeners should react after the publishing transaction commits.
+ */
+public class GymSessionChangedEvent {
+
+    public enum Change {
+        CREATED,
+        UPDATED,
+        CANCELLED
+    }
+
+    private final UUID sessionId;
+    private final Change change;
+    private final LocalDate sessionDate;
+    private final LocalDate previousDate;
+
+    public GymSessionChangedEvent(UUID sessionId, Change change, LocalDate sessionDate) {
+        this(sessionId, change, sessionDate, sessionDate);
+    }
+
+    /**
+     * @param previousDate Date the session had before an update, same as sessionDate otherwise
+     */
+    public GymSessionChangedEvent(UUID sessionId, Change change, LocalDate sessionDate, LocalDate previousDate) {
+        this.sessionId = sessionId;
+        this.change = change;
+        this.sessionDate = sessionDate;
+        this.previousDate = previousDate;
+    }
+
+    public UUID getSessionId() {
+        return sessionId;
+    }
+
+    public Change getChange() {
+        return change;
+    }
+
+    public LocalDate getSessionDate() {
+        return sessionDate;
+    }
+
+    public LocalDate getPreviousDate() {
+        return previousDate;
+    }
+}
@@ -0,0 +1,24 @@
+package edu.eci.cvds.prometeo.event;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published when notifications of some users are queued or marked as read.
+ * Listeners should react after the publishing transaction commits.
+ */
+public class NotificationsChangedEvent {
+    private final Set<UUID> userIds;
+
+    /**
+     * @param userIds Users whose notifications changed
+     */
+    public NotificationsChangedEvent(Collection<UUID> userIds) {
+        this.userIds = Set.copyOf(userIds);
+    }
+
+    public Set<UUID> getUserIds() {
+        return userIds;
+    }
+}
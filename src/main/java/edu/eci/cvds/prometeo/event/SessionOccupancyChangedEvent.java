@@ -0,0 +1,46 @@
+package edu.eci.cvds.prometeo.event;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Published when reservations take or give back spots in a gym session.
+ * Listeners should react after the publishing transaction commits.
+ */
+public class SessionOccupancyChangedEvent {
+    private final UUID sessionId;
+    private final LocalDate sessionDate;
+    private final int delta;
+    private final long publishedAtNanos = System.nanoTime();
+
+    /**
+     * @param sessionId Session whose occupancy changed
+     * @param sessionDate Date of the session
+     * @param delta Reserved spots added (positive) or released (negative)
+     */
+    public SessionOccupancyChangedEvent(UUID sessionId, LocalDate sessionDate, int delta) {
+        this.sessionId = sessionId;
+        this.sessionDate = sessionDate;
+        this.delta = delta;
+    }
+
+    public UUID getSessionId() {
+        return sessionId;
+    }
+
+    public LocalDate getSessionDate() {
+        return sessionDate;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    /**
+     * {@link System#nanoTime()} when the event was created, inside the publishing transaction;
+     * anything read before this instant cannot include the change.
+     */
+    public long getPublishedAtNanos() {
+        return publishedAtNanos;
+    }
+}
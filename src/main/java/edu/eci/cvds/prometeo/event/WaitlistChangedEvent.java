@@ -0,0 +1,22 @@
+package edu.eci.cvds.prometeo.event;
+
+import java.util.UUID;
+
+/**
+ * Published when entries of a session's waitlist are added, notified, promoted or removed.
+ * Listeners should react after the publishing transaction commits.
+ */
+public class WaitlistChangedEvent {
+    private final UUID sessionId;
+
+    /**
+     * @param sessionId Session whose waitlist changed
+     */
+    public WaitlistChangedEvent(UUID sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public UUID getSessionId() {
+        return sessionId;
+    }
+}
@@ -11,6 +11,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import java.time.Duration;
 import java.time.LocalDate;
@@ -21,7 +22,11 @@ import java.util.UUID;
  * Entity representing a gym session
  */
 @Entity
-@Table(name = "gym_sessions")
+@Table(name = "gym_sessions",
+        indexes = {
+                @Index(name = "idx_gym_sessions_trainer_date", columnList = "trainer_id, session_date"),
+                @Index(name = "idx_gym_sessions_date_start", columnList = "session_date, start_time")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
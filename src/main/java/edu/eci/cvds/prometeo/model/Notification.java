@@ -11,7 +11,12 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications",
+        indexes = {
+                @Index(name = "idx_notifications_outbox", columnList = "sent_time, next_attempt_at"),
+                @Index(name = "idx_notifications_user_read_created", columnList = "user_id, read, created_at"),
+                @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at, id")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -42,6 +47,20 @@ public class Notification extends AuditableEntity {
     @Column(name = "related_entity_id")
     private UUID relatedEntityId;
     
+    // Entrega asíncrona (outbox): intentos realizados, próximo intento y último error
+    @Column(name = "delivery_attempts", nullable = false)
+    private int deliveryAttempts = 0;
+    
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+    
+    // Clave única para notificaciones que no deben encolarse dos veces, como los recordatorios
+    @Column(name = "deduplication_key", unique = true, length = 120)
+    private String deduplicationKey;
+    
     public void markAsRead() {
         this.read = true;
     }
@@ -121,4 +140,36 @@ public class Notification extends AuditableEntity {
     public void setRelatedEntityId(UUID relatedEntityId) {
         this.relatedEntityId = relatedEntityId;
     }
-}
\ No newline at end of file
+
+    public int getDeliveryAttempts() {
+        return deliveryAttempts;
+    }
+
+    public void setDeliveryAttempts(int deliveryAttempts) {
+        this.deliveryAttempts = deliveryAttempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public String getDeduplicationKey() {
+        return deduplicationKey;
+    }
+
+    public void setDeduplicationKey(String deduplicationKey) {
+        this.deduplicationKey = deduplicationKey;
+    }
+}
@@ -0,0 +1,65 @@
+package edu.eci.cvds.prometeo.model;
+
+import edu.eci.cvds.prometeo.model.base.BaseEntity;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Pre-aggregated usage of the gym sessions that start on one date and hour with one trainer.
+ * Rows are derived data: they are rewritten whenever the sessions of their date change and
+ * can be rebuilt from gym_sessions and reservations at any time.
+ */
+@Entity
+@Table(name = "occupancy_rollup",
+        indexes = @Index(name = "idx_occupancy_rollup_date", columnList = "usage_date, start_hour"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class OccupancyBucket extends BaseEntity {
+
+    @Column(name = "usage_date", nullable = false)
+    private LocalDate usageDate;
+
+    @Column(name = "start_hour", nullable = false)
+    private int startHour;
+
+    @Column(name = "trainer_id")
+    private UUID trainerId;
+
+    @Column(name = "sessions", nullable = false)
+    private int sessions;
+
+    @Column(name = "capacity", nullable = false)
+    private int capacity;
+
+    @Column(name = "reserved", nullable = false)
+    private int reserved;
+
+    @Column(name = "attended", nullable = false)
+    private int attended;
+
+    @Column(name = "cancelled", nullable = false)
+    private int cancelled;
+
+    /** Sum of the session durations, for average duration reports */
+    @Column(name = "session_minutes", nullable = false)
+    private long sessionMinutes;
+
+    /** Sum of the per-session utilization percentages, for average utilization reports */
+    @Column(name = "utilization_sum", nullable = false)
+    private double utilizationSum;
+
+    public OccupancyBucket(LocalDate usageDate, int startHour, UUID trainerId) {
+        this.usageDate = usageDate;
+        this.startHour = startHour;
+        this.trainerId = trainerId;
+    }
+}
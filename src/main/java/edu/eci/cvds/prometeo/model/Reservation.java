@@ -18,7 +18,11 @@ import java.util.UUID;
  * Entity representing a gym reservation
  */
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations",
+        indexes = {
+                @Index(name = "idx_reservations_created_at_id", columnList = "created_at, id"),
+                @Index(name = "idx_reservations_session_id", columnList = "session_id")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -10,7 +10,8 @@ import edu.eci.cvds.prometeo.model.base.BaseEntity;
  * Entity representing a user in the system
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+        indexes = @Index(name = "idx_users_created_at_id", columnList = "created_at, id"))
 public class User extends BaseEntity {
     
     @Id
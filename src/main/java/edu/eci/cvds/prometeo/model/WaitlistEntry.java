@@ -8,10 +8,12 @@ import lombok.Setter;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
 @Entity
-@Table(name = "waitlist_entries")
+@Table(name = "waitlist_entries",
+        indexes = @Index(name = "idx_waitlist_session_request_time", columnList = "session_id, request_time"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -33,9 +35,19 @@ public class WaitlistEntry extends AuditableEntity {
     @Column(name = "notification_time")
     private LocalDateTime notificationTime;
     
+    // Fin de la retención del cupo ofrecido a esta entrada; null si no tiene cupo retenido
+    @Column(name = "hold_expires_at")
+    private LocalDateTime holdExpiresAt;
+    
+    public WaitlistEntry(UUID userId, UUID sessionId, LocalDateTime requestTime, boolean notificationSent,
+                         LocalDateTime notificationTime) {
+        this(userId, sessionId, requestTime, notificationSent, notificationTime, null);
+    }
+    
     @PrePersist
     public void prePersist() {
-        requestTime = LocalDateTime.now();
+        // Misma precisión que la columna, para que el cálculo de posición coincida con lo guardado
+        requestTime = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         notificationSent = false;
     }
 
@@ -79,4 +91,12 @@ public class WaitlistEntry extends AuditableEntity {
     public void setNotificationTime(LocalDateTime notificationTime) {
         this.notificationTime = notificationTime;
     }
-}
\ No newline at end of file
+
+    public LocalDateTime getHoldExpiresAt() {
+        return holdExpiresAt;
+    }
+
+    public void setHoldExpiresAt(LocalDateTime holdExpiresAt) {
+        this.holdExpiresAt = holdExpiresAt;
+    }
+}
@@ -0,0 +1,7 @@
+package edu.eci.cvds.prometeo.model.enums;
+
+public enum AggregationPeriod {
+    DAY,
+    WEEK,
+    MONTH
+}
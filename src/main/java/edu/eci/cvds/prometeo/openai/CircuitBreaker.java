@@ -0,0 +1,84 @@
+package edu.eci.cvds.prometeo.openai;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Consecutive-failure circuit breaker for the calls to the model.
+ *
+ * After the configured number of failed calls in a row the circuit opens and calls are
+ * rejected without reaching the network. Once the open duration has passed a single trial
+ * call is let through: if it succeeds the circuit closes, otherwise it opens again.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private Instant openedAt;
+    private boolean trialInFlight;
+    private Clock clock = Clock.systemUTC();
+
+    CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = Math.max(failureThreshold, 1);
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * Whether a call may go out now; in half-open state only one trial call at a time.
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openedAt.plus(openDuration))) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        trialInFlight = false;
+    }
+
+    synchronized void onFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.instant();
+            failures = 0;
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * Gives back the trial slot of a call that was cancelled before it had an outcome.
+     */
+    synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    void useClock(Clock clock) {
+        this.clock = clock;
+    }
+}
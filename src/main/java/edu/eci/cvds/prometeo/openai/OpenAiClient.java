@@ -1,33 +1,115 @@
 package edu.eci.cvds.prometeo.openai;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.eci.cvds.prometeo.PrometeoExceptions;
 import io.github.cdimascio.dotenv.Dotenv;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Non-blocking client for the OpenAI chat completions API.
+ *
+ * Requests go through a bounded pool of kept-alive connections with connect and response
+ * timeouts, and every call has an overall deadline that includes its retries. Rate limits
+ * (429), server errors (5xx) and connection failures are retried with jittered exponential
+ * backoff; other client errors are not. After several failed calls in a row a circuit
+ * breaker rejects calls without reaching the network until the service recovers.
+ *
+ * Without an API key the client answers with a simulated response, for development.
+ */
 @Component
 public class OpenAiClient {
     private static final Logger logger = LoggerFactory.getLogger(OpenAiClient.class);
 
+    private static final String DUMMY_KEY = "dummy-key";
+    private static final String SIMULATED_RESPONSE =
+            "{\"choices\":[{\"message\":{\"content\":\"Esta es una respuesta simulada. Configura OPEN_AI_TOKEN para usar OpenAI.\"}}]}";
+
     private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
     private final ObjectMapper objectMapper;
     private final String apiKey;
     private final String apiUrl;
+    private final Duration deadline;
+    private final int maxRetries;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final CircuitBreaker circuitBreaker;
+
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter rejected;
 
-    public OpenAiClient(WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
-        this.webClient = webClientBuilder.build();
+    public OpenAiClient(WebClient.Builder webClientBuilder,
+                        ObjectMapper objectMapper,
+                        ObjectProvider<MeterRegistry> meterRegistry,
+                        @Value("${prometeo.openai-client.connect-timeout-millis:2000}") int connectTimeoutMillis,
+                        @Value("${prometeo.openai-client.response-timeout-millis:20000}") long responseTimeoutMillis,
+                        @Value("${prometeo.openai-client.deadline-millis:30000}") long deadlineMillis,
+                        @Value("${prometeo.openai-client.max-connections:20}") int maxConnections,
+                        @Value("${prometeo.openai-client.max-retries:2}") int maxRetries,
+                        @Value("${prometeo.openai-client.initial-backoff-millis:250}") long initialBackoffMillis,
+                        @Value("${prometeo.openai-client.max-backoff-millis:2000}") long maxBackoffMillis,
+                        @Value("${prometeo.openai-client.breaker-failure-threshold:5}") int breakerFailureThreshold,
+                        @Value("${prometeo.openai-client.breaker-open-seconds:30}") long breakerOpenSeconds) {
         this.objectMapper = objectMapper;
-        
+
         // Cargar variables desde .env, similar a DatabaseConfig
         Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
-        this.apiKey = getValue(dotenv, "OPEN_AI_TOKEN", "dummy-key");
+        this.apiKey = getValue(dotenv, "OPEN_AI_TOKEN", DUMMY_KEY);
         this.apiUrl = getValue(dotenv, "OPEN_AI_MODEL", "https://api.openai.com/v1/chat/completions");
-        
+
+        // Conexiones reutilizables y acotadas; las que esperan turno no pasan del tiempo de conexión
+        this.connectionProvider = ConnectionProvider.builder("openai")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .evictInBackground(Duration.ofSeconds(30))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMillis));
+        this.webClient = webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+
+        this.deadline = Duration.ofMillis(deadlineMillis);
+        this.maxRetries = maxRetries;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMillis);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMillis);
+        this.circuitBreaker = new CircuitBreaker(breakerFailureThreshold, Duration.ofSeconds(breakerOpenSeconds));
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.succeeded = Counter.builder("prometeo.openai.calls").tag("outcome", "success").register(registry);
+        this.failed = Counter.builder("prometeo.openai.calls").tag("outcome", "failure").register(registry);
+        this.rejected = Counter.builder("prometeo.openai.calls").tag("outcome", "rejected")
+                .description("Calls rejected while the circuit breaker is open")
+                .register(registry);
+
         logger.info("OpenAI client initialized with URL: {}", this.apiUrl);
     }
 
@@ -39,33 +121,100 @@ public class OpenAiClient {
         return (value != null && !value.isEmpty()) ? value : defaultValue;
     }
 
-    public String queryModel(String prompt) {
-        try {
-            // Si apiKey es dummy-key, retornar respuesta simulada
-            if ("dummy-key".equals(apiKey)) {
-                logger.warn("Using dummy API key - this is for development only");
-                return "{\"choices\":[{\"message\":{\"content\":\"Esta es una respuesta simulada. Configura OPEN_AI_TOKEN para usar OpenAI.\"}}]}";
+    /**
+     * Whether an API key is configured; without one the client only returns a simulated answer.
+     */
+    public boolean isConfigured() {
+        return !DUMMY_KEY.equals(apiKey);
+    }
+
+    /**
+     * Sends the prompt to the model and emits the raw response body.
+     *
+     * Fails with {@link IllegalStateException} while the circuit breaker is open, with
+     * {@link TimeoutException} when the deadline passes and with the last HTTP or connection
+     * error once the retries are exhausted.
+     */
+    public Mono<String> query(String prompt) {
+        if (!isConfigured()) {
+            logger.warn("Using dummy API key - this is for development only");
+            return Mono.just(SIMULATED_RESPONSE);
+        }
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                rejected.increment();
+                return Mono.error(new IllegalStateException(PrometeoExceptions.MODELO_NO_DISPONIBLE));
             }
+            return send(prompt)
+                    .retryWhen(Retry.backoff(maxRetries, initialBackoff)
+                            .maxBackoff(maxBackoff)
+                            .jitter(0.5)
+                            .filter(OpenAiClient::isTransient)
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                    .timeout(deadline)
+                    .doOnSuccess(response -> {
+                        circuitBreaker.onSuccess();
+                        succeeded.increment();
+                    })
+                    .doOnError(this::onError)
+                    .doOnCancel(circuitBreaker::release);
+        });
+    }
+
+    /**
+     * {@link #query} as a future, for callers that wait with their own budget.
+     */
+    public CompletableFuture<String> queryModelAsync(String prompt) {
+        return query(prompt).toFuture();
+    }
+
+    /**
+     * Blocking variant of {@link #query}, bounded by the deadline.
+     */
+    public String queryModel(String prompt) {
+        return query(prompt).block();
+    }
+
+    CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+
+    private Mono<String> send(String prompt) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(Map.of(
+                        "model", "gpt-4o",
+                        "messages", List.of(Map.of("role", "user", "content", prompt)),
+                        "max_tokens", 1000,
+                        "temperature", 0.7)))
+                .flatMap(payload -> webClient.post()
+                        .uri(apiUrl)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(payload)
+                        .retrieve()
+                        .bodyToMono(String.class));
+    }
+
+    private void onError(Throwable error) {
+        failed.increment();
+        // Un 4xx distinto de 429 indica que el servicio responde; no abre el circuito
+        if (isTransient(error) || error instanceof TimeoutException) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+        logger.warn("Error querying OpenAI: {}", error.toString());
+    }
 
-            Map<String, Object> payload = Map.of(
-                    "model", "gpt-4o",
-                    "messages", List.of(Map.of("role", "user", "content", prompt)),
-                    "max_tokens", 1000,
-                    "temperature", 0.7
-            );
-
-            return webClient.post()
-                    .uri(apiUrl)
-                    .header("Authorization", "Bearer " + apiKey)
-                    .header("Content-Type", "application/json")
-                    .bodyValue(objectMapper.writeValueAsString(payload))
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-        } catch (Exception e) {
-            logger.error("Error querying OpenAI", e);
-            return "{\"choices\":[{\"message\":{\"content\":\"Error: " + e.getMessage() + "\"}}]}";
+    // Límite de tasa, errores del servidor y fallos de conexión o de lectura se reintentan
+    static boolean isTransient(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().value() == 429 || response.getStatusCode().is5xxServerError();
         }
+        return error instanceof WebClientRequestException;
     }
-}
\ No newline at end of file
+}
@@ -2,10 +2,14 @@ package edu.eci.cvds.prometeo.repository;
 
 import edu.eci.cvds.prometeo.model.GymSession;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -28,12 +32,6 @@ public interface GymSessionRepository extends JpaRepository<GymSession, UUID> {
      */
     List<GymSession> findBySessionDateBetween(LocalDate startDate, LocalDate endDate);
     
-    /**
-     * Find a session that covers the specified time slot
-     */
-    Optional<GymSession> findBySessionDateAndStartTimeLessThanEqualAndEndTimeGreaterThanEqual(
-            LocalDate date, LocalTime startTime, LocalTime endTime);
-    
     /**
      * Find sessions with available capacity
      */
@@ -48,4 +46,154 @@ public interface GymSessionRepository extends JpaRepository<GymSession, UUID> {
      * Find sessions by trainer ID and date range
      */
     List<GymSession> findByTrainerIdAndSessionDateBetween(UUID trainerId, LocalDate startDate, LocalDate endDate);
-}
\ No newline at end of file
+
+    /**
+     * IDs of the sessions starting after {@code (fromDate, fromTime)} and up to {@code (toDate, toTime)},
+     * in start order
+     */
+    @Query("SELECT s.id FROM GymSession s " +
+           "WHERE s.sessionDate BETWEEN :fromDate AND :toDate " +
+           "AND (s.sessionDate > :fromDate OR s.startTime > :fromTime) " +
+           "AND (s.sessionDate < :toDate OR s.startTime <= :toTime) " +
+           "ORDER BY s.sessionDate, s.startTime")
+    List<UUID> findIdsStartingBetween(@Param("fromDate") LocalDate fromDate,
+                                      @Param("fromTime") LocalTime fromTime,
+                                      @Param("toDate") LocalDate toDate,
+                                      @Param("toTime") LocalTime toTime);
+
+    /**
+     * Atomically claims one spot in a session if it still has capacity.
+     * The check and the increment run as a single conditional UPDATE, so
+     * concurrent bookers can never push reserved_spots past capacity.
+     *
+     * @return 1 if the spot was claimed, 0 if the session is full or does not exist
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE GymSession s SET s.reservedSpots = s.reservedSpots + 1 " +
+           "WHERE s.id = :sessionId AND s.reservedSpots < s.capacity")
+    int claimSpot(@Param("sessionId") UUID sessionId);
+
+    /**
+     * Atomically releases one previously claimed spot, never going below zero.
+     *
+     * @return 1 if a spot was released, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE GymSession s SET s.reservedSpots = s.reservedSpots - 1 " +
+           "WHERE s.id = :sessionId AND s.reservedSpots > 0")
+    int releaseSpot(@Param("sessionId") UUID sessionId);
+
+    /**
+     * Atomically claims several spots at once, only if all of them fit in the session.
+     *
+     * @return 1 if the spots were claimed, 0 if they do not fit or the session does not exist
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE GymSession s SET s.reservedSpots = s.reservedSpots + :count " +
+           "WHERE s.id = :sessionId AND s.reservedSpots + :count <= s.capacity")
+    int claimSpots(@Param("sessionId") UUID sessionId, @Param("count") int count);
+
+    /**
+     * Updates the schedule, capacity and trainer of a session without touching its reserved
+     * spots, so claims and releases committed meanwhile are kept. The update only applies when
+     * the new capacity still covers the spots already reserved.
+     *
+     * @return 1 if the session was updated, 0 if it does not exist or the capacity is too low
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE GymSession s SET s.sessionDate = :date, s.startTime = :startTime, s.endTime = :endTime, " +
+           "s.capacity = :capacity, s.trainerId = :trainerId " +
+           "WHERE s.id = :sessionId AND s.reservedSpots <= :capacity")
+    int updateSchedule(@Param("sessionId") UUID sessionId,
+                       @Param("date") LocalDate date,
+                       @Param("startTime") LocalTime startTime,
+                       @Param("endTime") LocalTime endTime,
+                       @Param("capacity") int capacity,
+                       @Param("trainerId") UUID trainerId);
+
+    /**
+     * Schedule and occupancy of one session, read as a projection without loading the entity
+     */
+    @Query("SELECT s.sessionDate AS sessionDate, s.startTime AS startTime, s.endTime AS endTime, " +
+           "s.capacity AS capacity, s.reservedSpots AS reservedSpots FROM GymSession s WHERE s.id = :sessionId")
+    Optional<SessionSummary> findSummaryById(@Param("sessionId") UUID sessionId);
+
+    /**
+     * Reads the current number of free spots straight from the database,
+     * bypassing any session entity already loaded in the persistence context.
+     */
+    @Query("SELECT s.capacity - s.reservedSpots FROM GymSession s WHERE s.id = :sessionId")
+    Optional<Integer> findAvailableSpotsById(@Param("sessionId") UUID sessionId);
+
+    /**
+     * Date of the earliest session, or null when there are none
+     */
+    @Query("SELECT MIN(s.sessionDate) FROM GymSession s")
+    LocalDate findFirstSessionDate();
+
+    /**
+     * Date of the latest session, or null when there are none
+     */
+    @Query("SELECT MAX(s.sessionDate) FROM GymSession s")
+    LocalDate findLastSessionDate();
+
+    /**
+     * Attendance totals per trainer and day for the given trainers, in a single grouped query.
+     * Attended reservations are counted per session in a derived table first, so joining them
+     * does not multiply the session capacity sums.
+     */
+    @Query("SELECT s.trainerId AS trainerId, s.sessionDate AS sessionDate, COUNT(s) AS sessions, " +
+           "SUM(s.capacity) AS capacity, SUM(s.reservedSpots) AS reserved, " +
+           "SUM(COALESCE(a.attended, 0)) AS attended " +
+           "FROM GymSession s LEFT JOIN (" + ATTENDED_PER_SESSION + ") a ON a.sessionId = s.id " +
+           "WHERE s.trainerId IN :trainerIds AND s.sessionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY s.trainerId, s.sessionDate ORDER BY s.trainerId, s.sessionDate")
+    List<TrainerDailyAttendance> sumAttendanceByTrainerAndDate(
+            @Param("trainerIds") Collection<UUID> trainerIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Attendance totals per trainer and day for every trainer, in a single grouped query.
+     */
+    @Query("SELECT s.trainerId AS trainerId, s.sessionDate AS sessionDate, COUNT(s) AS sessions, " +
+           "SUM(s.capacity) AS capacity, SUM(s.reservedSpots) AS reserved, " +
+           "SUM(COALESCE(a.attended, 0)) AS attended " +
+           "FROM GymSession s LEFT JOIN (" + ATTENDED_PER_SESSION + ") a ON a.sessionId = s.id " +
+           "WHERE s.trainerId IS NOT NULL AND s.sessionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY s.trainerId, s.sessionDate ORDER BY s.trainerId, s.sessionDate")
+    List<TrainerDailyAttendance> sumAttendanceByTrainerAndDate(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Attended reservations per session held in the requested period
+     */
+    String ATTENDED_PER_SESSION = "SELECT r.sessionId AS sessionId, COUNT(r) AS attended " +
+           "FROM Reservation r JOIN GymSession rs ON rs.id = r.sessionId " +
+           "WHERE r.attended = true AND rs.sessionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.sessionId";
+
+    /**
+     * Projection for the schedule and occupancy of one session
+     */
+    interface SessionSummary {
+        LocalDate getSessionDate();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+        int getCapacity();
+        int getReservedSpots();
+    }
+
+    /**
+     * Projection for attendance totals of one trainer on one day
+     */
+    interface TrainerDailyAttendance {
+        UUID getTrainerId();
+        LocalDate getSessionDate();
+        long getSessions();
+        long getCapacity();
+        long getReserved();
+        long getAttended();
+    }
+}
@@ -0,0 +1,99 @@
+package edu.eci.cvds.prometeo.repository;
+
+import edu.eci.cvds.prometeo.model.Notification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, UUID> {
+
+    /**
+     * Undelivered notifications whose next attempt is due, oldest first
+     */
+    @Query("SELECT n FROM Notification n WHERE n.sentTime IS NULL AND n.deliveryAttempts < :maxAttempts " +
+           "AND n.nextAttemptAt <= :now ORDER BY n.nextAttemptAt")
+    List<Notification> findDueForDelivery(@Param("now") LocalDateTime now,
+                                          @Param("maxAttempts") int maxAttempts,
+                                          Pageable pageable);
+
+    /**
+     * Leases a due notification to this dispatcher until {@code leaseUntil}.
+     * Returns 0 when another dispatcher already took it.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Notification n SET n.nextAttemptAt = :leaseUntil " +
+           "WHERE n.id = :id AND n.sentTime IS NULL AND n.nextAttemptAt <= :now")
+    int lease(@Param("id") UUID id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.sentTime = :sentTime, n.deliveryAttempts = n.deliveryAttempts + 1, " +
+           "n.lastError = NULL WHERE n.id IN :ids")
+    int markSent(@Param("ids") Collection<UUID> ids, @Param("sentTime") LocalDateTime sentTime);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.deliveryAttempts = n.deliveryAttempts + 1, " +
+           "n.nextAttemptAt = :nextAttemptAt, n.lastError = :error WHERE n.id = :id")
+    int markFailed(@Param("id") UUID id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    /**
+     * Notifications still to be delivered, including the ones waiting for a retry
+     */
+    long countBySentTimeIsNullAndDeliveryAttemptsLessThan(int maxAttempts);
+
+    /**
+     * Notifications that exhausted their delivery attempts
+     */
+    long countBySentTimeIsNullAndDeliveryAttemptsGreaterThanEqual(int maxAttempts);
+
+    /**
+     * Which of the given deduplication keys are already taken, in a single query
+     */
+    @Query("SELECT n.deduplicationKey FROM Notification n WHERE n.deduplicationKey IN :keys")
+    List<String> findExistingDeduplicationKeys(@Param("keys") Collection<String> keys);
+
+    /**
+     * First page of a user's inbox, newest first, restricted to the given read states
+     */
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId AND n.read IN :readStates " +
+           "AND n.deletedAt IS NULL ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxFirstPage(@Param("userId") UUID userId,
+                                          @Param("readStates") Collection<Boolean> readStates,
+                                          Pageable pageable);
+
+    /**
+     * Next page of a user's inbox strictly before the given {@code (created_at, id)} position
+     */
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId AND n.read IN :readStates " +
+           "AND n.deletedAt IS NULL AND (n.createdAt, n.id) < (:createdAt, :id) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxPageBefore(@Param("userId") UUID userId,
+                                           @Param("readStates") Collection<Boolean> readStates,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") UUID id,
+                                           Pageable pageable);
+
+    long countByUserIdAndReadFalseAndDeletedAtIsNull(UUID userId);
+
+    /**
+     * Marks the given notifications of a user as read; returns how many were unread
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.userId = :userId AND n.id IN :ids AND n.read = false")
+    int markRead(@Param("userId") UUID userId, @Param("ids") Collection<UUID> ids);
+
+    /**
+     * Marks every notification of a user as read; returns how many were unread
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.userId = :userId AND n.read = false")
+    int markAllRead(@Param("userId") UUID userId);
+}
@@ -0,0 +1,47 @@
+package edu.eci.cvds.prometeo.repository;
+
+import edu.eci.cvds.prometeo.model.OccupancyBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OccupancyBucketRepository extends JpaRepository<OccupancyBucket, UUID> {
+
+    /**
+     * Removes the rollup rows of a date range before they are written again
+     */
+    @Modifying
+    @Query("DELETE FROM OccupancyBucket b WHERE b.usageDate BETWEEN :startDate AND :endDate")
+    int deleteByUsageDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Totals per date, summing the hour and trainer buckets of each day
+     */
+    @Query("SELECT b.usageDate AS usageDate, SUM(b.sessions) AS sessions, SUM(b.capacity) AS capacity, " +
+           "SUM(b.reserved) AS reserved, SUM(b.attended) AS attended, SUM(b.cancelled) AS cancelled, " +
+           "SUM(b.sessionMinutes) AS sessionMinutes, SUM(b.utilizationSum) AS utilizationSum " +
+           "FROM OccupancyBucket b WHERE b.usageDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY b.usageDate ORDER BY b.usageDate")
+    List<DailyTotals> sumByUsageDate(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Projection for the usage totals of one date
+     */
+    interface DailyTotals {
+        LocalDate getUsageDate();
+        long getSessions();
+        long getCapacity();
+        long getReserved();
+        long getAttended();
+        long getCancelled();
+        long getSessionMinutes();
+        double getUtilizationSum();
+    }
+}
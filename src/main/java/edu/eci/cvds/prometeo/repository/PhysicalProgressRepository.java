@@ -2,8 +2,10 @@ package edu.eci.cvds.prometeo.repository;
 
 
 import edu.eci.cvds.prometeo.model.PhysicalProgress;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -20,4 +22,11 @@ public interface PhysicalProgressRepository extends JpaRepository<PhysicalProgre
     
     List<PhysicalProgress> findByUserIdAndRecordDateBetween(
             UUID userId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Difficulty of the active routine in the user's progress records, most recent first
+     */
+    @Query("SELECT r.difficulty FROM PhysicalProgress p JOIN p.activeRoutine r " +
+           "WHERE p.userId = :userId ORDER BY p.recordDate DESC")
+    List<String> findActiveRoutineDifficulties(@Param("userId") UUID userId, Pageable pageable);
 }
\ No newline at end of file
@@ -2,25 +2,51 @@ package edu.eci.cvds.prometeo.repository;
 
 import edu.eci.cvds.prometeo.model.Reservation;
 import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, UUID> {
     
-    List<Reservation> findByUserIdAndReservationDateGreaterThanEqualAndStatusOrderByReservationDateAsc(
-            UUID userId, LocalDateTime date, ReservationStatus status);
-            
-    List<Reservation> findByUserIdAndReservationDateBetweenOrderByReservationDateDesc(
-            UUID userId, LocalDateTime startDate, LocalDateTime endDate);
+    /**
+     * Upcoming reservations of a user with their session columns, in a single join query
+     */
+    @Query("SELECT r.id AS id, r.reservationDate AS reservationDate, r.status AS status, " +
+           "s.id AS sessionId, s.startTime AS startTime, s.endTime AS endTime, s.capacity AS capacity " +
+           "FROM Reservation r LEFT JOIN GymSession s ON s.id = r.sessionId " +
+           "WHERE r.userId = :userId AND r.reservationDate >= :from AND r.status = :status " +
+           "ORDER BY r.reservationDate ASC")
+    List<ReservationWithSession> findUpcomingWithSession(
+            @Param("userId") UUID userId,
+            @Param("from") LocalDateTime from,
+            @Param("status") ReservationStatus status);
+
+    /**
+     * Reservations of a user in a period with their session columns, in a single join query
+     */
+    @Query("SELECT r.id AS id, r.reservationDate AS reservationDate, r.status AS status, " +
+           "s.id AS sessionId, s.startTime AS startTime, s.endTime AS endTime, s.capacity AS capacity " +
+           "FROM Reservation r LEFT JOIN GymSession s ON s.id = r.sessionId " +
+           "WHERE r.userId = :userId AND r.reservationDate BETWEEN :start AND :end " +
+           "ORDER BY r.reservationDate DESC")
+    List<ReservationWithSession> findHistoryWithSession(
+            @Param("userId") UUID userId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
             
     List<Reservation> findBySessionId(UUID sessionId);
 //     // Existing methods
@@ -29,6 +55,128 @@ public interface ReservationRepository extends JpaRepository<Reservation, UUID>
     
     // Añadir este método para contar las reservas activas de un usuario
     long countByUserIdAndStatusIn(UUID userId, List<ReservationStatus> statuses);
+
+    /**
+     * Counts reservations per user for the given users and statuses in a single grouped query
+     */
+    @Query("SELECT r.userId AS userId, COUNT(r) AS reservations FROM Reservation r " +
+           "WHERE r.userId IN :userIds AND r.status IN :statuses GROUP BY r.userId")
+    List<UserReservationCount> countByUserIdInAndStatusIn(
+            @Param("userIds") Collection<UUID> userIds,
+            @Param("statuses") Collection<ReservationStatus> statuses);
+
+    /**
+     * Finds which of the given users already hold a reservation with one of the statuses in a session
+     */
+    @Query("SELECT r.userId FROM Reservation r " +
+           "WHERE r.sessionId = :sessionId AND r.userId IN :userIds AND r.status IN :statuses")
+    List<UUID> findUserIdsBySessionIdAndUserIdInAndStatusIn(
+            @Param("sessionId") UUID sessionId,
+            @Param("userIds") Collection<UUID> userIds,
+            @Param("statuses") Collection<ReservationStatus> statuses);
+
+    /**
+     * First page of reservations in {@code (created_at, id)} order
+     */
+    @Query("SELECT r FROM Reservation r ORDER BY r.createdAt, r.id")
+    List<Reservation> findFirstPage(Pageable pageable);
+
+    /**
+     * Next page of reservations strictly after the given {@code (created_at, id)} position
+     */
+    @Query("SELECT r FROM Reservation r WHERE (r.createdAt, r.id) > (:createdAt, :id) " +
+           "ORDER BY r.createdAt, r.id")
+    List<Reservation> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") UUID id,
+                                    Pageable pageable);
+
+    /**
+     * All reservations in {@code (created_at, id)} order as a forward-only cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @Query("SELECT r FROM Reservation r ORDER BY r.createdAt, r.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Reservation> streamAllOrdered();
+
+    /**
+     * Equipment IDs of several reservations in a single query
+     */
+    @Query("SELECT r.id AS reservationId, e AS equipmentId FROM Reservation r JOIN r.equipmentIds e " +
+           "WHERE r.id IN :ids")
+    List<ReservationEquipment> findEquipmentIdsByReservationIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Roster of a session: its reservations with the students that hold them, in a single join query.
+     * Reservations whose user no longer exists are left out.
+     */
+    @Query("SELECT r.id AS reservationId, u.id AS userId, u.name AS name, u.institutionalId AS institutionalId, " +
+           "r.status AS status, r.attended AS attended, r.attendanceTime AS attendanceTime " +
+           "FROM Reservation r JOIN User u ON u.id = r.userId " +
+           "WHERE r.sessionId = :sessionId ORDER BY u.name")
+    List<RosterRow> findRosterBySessionId(@Param("sessionId") UUID sessionId);
+
+    /**
+     * Users and reservations to remind for the given sessions, grouped by session
+     */
+    @Query("SELECT r.id AS reservationId, r.userId AS userId, r.sessionId AS sessionId FROM Reservation r " +
+           "WHERE r.sessionId IN :sessionIds AND r.status = :status ORDER BY r.sessionId, r.id")
+    List<ReminderTarget> findReminderTargets(@Param("sessionIds") Collection<UUID> sessionIds,
+                                             @Param("status") ReservationStatus status);
+
+    /**
+     * Projection for a reservation that gets a session reminder
+     */
+    interface ReminderTarget {
+        UUID getReservationId();
+        UUID getUserId();
+        UUID getSessionId();
+    }
+
+    /**
+     * Projection for a roster row
+     */
+    interface RosterRow {
+        UUID getReservationId();
+        UUID getUserId();
+        String getName();
+        String getInstitutionalId();
+        ReservationStatus getStatus();
+        Boolean getAttended();
+        LocalDateTime getAttendanceTime();
+    }
+
+    /**
+     * Projection for a reservation joined with its session; session columns are null
+     * when the session no longer exists
+     */
+    interface ReservationWithSession {
+        UUID getId();
+        LocalDateTime getReservationDate();
+        ReservationStatus getStatus();
+        UUID getSessionId();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+        Integer getCapacity();
+    }
+
+    /**
+     * Projection for equipment reserved by a reservation
+     */
+    interface ReservationEquipment {
+        UUID getReservationId();
+        UUID getEquipmentId();
+    }
+
+    /**
+     * Projection for grouped reservation counts per user
+     */
+    interface UserReservationCount {
+        UUID getUserId();
+        long getReservations();
+    }
     
 //     List<Reservation> findBySessionId(UUID sessionId);
     
@@ -127,4 +275,25 @@ public interface ReservationRepository extends JpaRepository<Reservation, UUID>
 //      */
 //     List<Reservation> findByEquipmentIdsContainingAndDateAndStatus(
 //             UUID equipmentId, LocalDate date, String status);
-}
\ No newline at end of file
+
+    /**
+     * Attended and cancelled reservations per session for the sessions held in a date range
+     */
+    @Query("SELECT r.sessionId AS sessionId, " +
+           "SUM(CASE WHEN r.attended = true THEN 1 ELSE 0 END) AS attended, " +
+           "SUM(CASE WHEN r.status = :cancelled THEN 1 ELSE 0 END) AS cancelled " +
+           "FROM Reservation r JOIN GymSession s ON s.id = r.sessionId " +
+           "WHERE s.sessionDate BETWEEN :startDate AND :endDate GROUP BY r.sessionId")
+    List<SessionOutcomeCount> countOutcomesBySessionDateBetween(@Param("startDate") LocalDate startDate,
+                                                                @Param("endDate") LocalDate endDate,
+                                                                @Param("cancelled") ReservationStatus cancelled);
+
+    /**
+     * Projection for attended and cancelled reservations of one session
+     */
+    interface SessionOutcomeCount {
+        UUID getSessionId();
+        long getAttended();
+        long getCancelled();
+    }
+}
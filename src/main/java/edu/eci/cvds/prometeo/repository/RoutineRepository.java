@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -30,4 +31,20 @@ public interface RoutineRepository extends JpaRepository<Routine, UUID> {
     // void deleteByRoutineId(UUID routineId);
 
     List<Routine> findByGoalAndDifficulty(String goal, String difficulty);
+
+    /**
+     * Size and last change times of the routine catalog, in one aggregate query; any
+     * routine created, updated, soft-deleted or deleted changes the result
+     */
+    @Query("SELECT COUNT(r) AS routines, MAX(r.createdAt) AS lastCreated, MAX(r.updatedAt) AS lastUpdated FROM Routine r")
+    CatalogVersion findCatalogVersion();
+
+    /**
+     * Projection for the version of the routine catalog
+     */
+    interface CatalogVersion {
+        long getRoutines();
+        LocalDateTime getLastCreated();
+        LocalDateTime getLastUpdated();
+    }
 }
\ No newline at end of file
@@ -2,12 +2,21 @@ package edu.eci.cvds.prometeo.repository;
 
 import edu.eci.cvds.prometeo.model.User;
 import edu.eci.cvds.prometeo.model.enums.UserRole;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
@@ -21,6 +30,41 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     boolean existsByInstitutionalId(String institutionalId);
 
+    /**
+     * Returns which of the given IDs belong to existing users, in a single query.
+     *
+     * @param ids candidate user IDs
+     * @return the subset of IDs that exist
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * First page of users in {@code (created_at, id)} order
+     */
+    @Query("SELECT u FROM User u ORDER BY u.createdAt, u.id")
+    List<User> findFirstPage(Pageable pageable);
+
+    /**
+     * Next page of users strictly after the given {@code (created_at, id)} position
+     */
+    @Query("SELECT u FROM User u WHERE (u.createdAt, u.id) > (:createdAt, :id) " +
+           "ORDER BY u.createdAt, u.id")
+    List<User> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                             @Param("id") UUID id,
+                             Pageable pageable);
+
+    /**
+     * All users in {@code (created_at, id)} order as a forward-only cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @Query("SELECT u FROM User u ORDER BY u.createdAt, u.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<User> streamAllOrdered();
+
     /**
      * Finds all users assigned to a specific trainer.
      * 
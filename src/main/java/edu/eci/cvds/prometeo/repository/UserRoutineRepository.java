@@ -2,6 +2,7 @@ package edu.eci.cvds.prometeo.repository;
 
 import edu.eci.cvds.prometeo.model.UserRoutine;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -15,4 +16,17 @@ public interface UserRoutineRepository extends JpaRepository<UserRoutine, UUID>
     List<UserRoutine> findByUserIdAndActiveTrue(UUID userId);
     Optional<UserRoutine> findByUserIdAndRoutineId(UUID userId, UUID routineId);
 
+    /**
+     * Number of times each routine has been assigned to a user, in one grouped query
+     */
+    @Query("SELECT ur.routineId AS routineId, COUNT(ur) AS assignments FROM UserRoutine ur GROUP BY ur.routineId")
+    List<RoutineAssignments> countAssignmentsByRoutine();
+
+    /**
+     * Projection for the assignments of a routine
+     */
+    interface RoutineAssignments {
+        UUID getRoutineId();
+        long getAssignments();
+    }
 }
\ No newline at end of file
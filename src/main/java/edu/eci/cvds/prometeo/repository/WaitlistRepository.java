@@ -1,9 +1,17 @@
 package edu.eci.cvds.prometeo.repository;
 
 import edu.eci.cvds.prometeo.model.WaitlistEntry;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,4 +28,122 @@ public interface WaitlistRepository extends JpaRepository<WaitlistEntry, UUID> {
     Optional<WaitlistEntry> findFirstBySessionIdAndNotificationSentFalseOrderByRequestTimeAsc(UUID sessionId);
     
     long countBySessionId(UUID sessionId);
-}
\ No newline at end of file
+
+    List<WaitlistEntry> findBySessionIdAndNotificationSentFalseOrderByRequestTimeAsc(UUID sessionId, Pageable pageable);
+
+    Optional<WaitlistEntry> findFirstByUserIdAndSessionIdAndHoldExpiresAtIsNotNull(UUID userId, UUID sessionId);
+
+    List<WaitlistEntry> findByHoldExpiresAtIsNotNull();
+
+    /**
+     * Offers a held seat to an entry that has not been offered one yet.
+     * Returns 0 when a concurrent promotion already took the entry.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WaitlistEntry w SET w.notificationSent = true, w.notificationTime = :now, " +
+           "w.holdExpiresAt = :expiresAt WHERE w.id = :id AND w.notificationSent = false")
+    int offerHold(@Param("id") UUID id, @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Removes an entry whose hold is still running, i.e. when the hold is accepted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM WaitlistEntry w WHERE w.id = :id AND w.holdExpiresAt > :now")
+    int deleteActiveHold(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    /**
+     * Removes an entry whose hold has run out
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM WaitlistEntry w WHERE w.id = :id AND w.holdExpiresAt <= :now")
+    int deleteExpiredHold(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    /**
+     * Removes an entry holding a seat, whether or not the hold has run out
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM WaitlistEntry w WHERE w.id = :id AND w.holdExpiresAt IS NOT NULL")
+    int deleteHold(@Param("id") UUID id);
+
+    /**
+     * Size of the waitlist of a session split by notification state, with its oldest and
+     * newest request, aggregated in the database without loading the entries
+     */
+    @Query("SELECT COUNT(w) AS total, " +
+           "COALESCE(SUM(CASE WHEN w.notificationSent = true THEN 1 ELSE 0 END), 0) AS notified, " +
+           "MIN(w.requestTime) AS oldestRequest, MAX(w.requestTime) AS newestRequest " +
+           "FROM WaitlistEntry w WHERE w.sessionId = :sessionId")
+    WaitlistStats aggregateBySessionId(@Param("sessionId") UUID sessionId);
+
+    /**
+     * 1-based position of the user in the waitlist of a session, or 0 when the user is not in it.
+     * Counts the entries requested up to the user's own on the (session_id, request_time) index
+     * instead of loading the list; ties on request time are broken by id.
+     */
+    @Query("SELECT COUNT(w) FROM WaitlistEntry w, WaitlistEntry me " +
+           "WHERE me.userId = :userId AND me.sessionId = :sessionId AND w.sessionId = me.sessionId " +
+           "AND (w.requestTime < me.requestTime OR (w.requestTime = me.requestTime AND w.id <= me.id))")
+    long findPosition(@Param("userId") UUID userId, @Param("sessionId") UUID sessionId);
+
+    /**
+     * Positions of several users in the waitlist of a session, in one grouped query; users
+     * that are not in the waitlist are left out
+     */
+    @Query("SELECT me.userId AS userId, me.holdExpiresAt AS holdExpiresAt, COUNT(w) AS position " +
+           "FROM WaitlistEntry w, WaitlistEntry me " +
+           "WHERE me.sessionId = :sessionId AND me.userId IN :userIds AND w.sessionId = me.sessionId " +
+           "AND (w.requestTime < me.requestTime OR (w.requestTime = me.requestTime AND w.id <= me.id)) " +
+           "GROUP BY me.userId, me.holdExpiresAt")
+    List<UserPosition> findPositions(@Param("sessionId") UUID sessionId, @Param("userIds") Collection<UUID> userIds);
+
+    /**
+     * Projection for the position of a user in a waitlist; the hold expiry is set while a
+     * freed seat is held for the user
+     */
+    interface UserPosition {
+        UUID getUserId();
+        LocalDateTime getHoldExpiresAt();
+        long getPosition();
+    }
+
+    /**
+     * Pending waitlist entries of a user with their position and session, in one query
+     */
+    @Query("SELECT w.id AS entryId, w.sessionId AS sessionId, w.requestTime AS requestTime, " +
+           "(SELECT COUNT(o) FROM WaitlistEntry o WHERE o.sessionId = w.sessionId " +
+           "AND (o.requestTime < w.requestTime OR (o.requestTime = w.requestTime AND o.id <= w.id))) AS position, " +
+           "s.id AS foundSessionId, s.sessionDate AS sessionDate, s.startTime AS startTime, s.endTime AS endTime, " +
+           "s.capacity AS capacity, s.reservedSpots AS reservedSpots " +
+           "FROM WaitlistEntry w LEFT JOIN GymSession s ON s.id = w.sessionId " +
+           "WHERE w.userId = :userId AND w.notificationSent = false " +
+           "ORDER BY w.requestTime")
+    List<UserWaitlistRow> findPendingWithPositionByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Projection for a pending waitlist entry of a user; session columns are null when the
+     * session no longer exists
+     */
+    interface UserWaitlistRow {
+        UUID getEntryId();
+        UUID getSessionId();
+        LocalDateTime getRequestTime();
+        long getPosition();
+        UUID getFoundSessionId();
+        LocalDate getSessionDate();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+        Integer getCapacity();
+        Integer getReservedSpots();
+    }
+
+    /**
+     * Projection for the aggregate statistics of a session's waitlist; request times are null
+     * when the waitlist is empty
+     */
+    interface WaitlistStats {
+        long getTotal();
+        long getNotified();
+        LocalDateTime getOldestRequest();
+        LocalDateTime getNewestRequest();
+    }
+}
@@ -1,5 +1,7 @@
 package edu.eci.cvds.prometeo.service;
 
+import edu.eci.cvds.prometeo.dto.BulkReservationResultDTO;
+import edu.eci.cvds.prometeo.dto.CursorPageDTO;
 import edu.eci.cvds.prometeo.dto.ReservationDTO;
 
 import java.time.LocalDate;
@@ -8,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Service for managing gym reservations
@@ -20,6 +23,21 @@ public interface GymReservationService {
      */
     List<ReservationDTO> getAll();
     
+    /**
+     * Get one page of reservations ordered by creation time
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param limit Page size, defaulted and capped when out of range
+     * @return Page of reservations with the cursor of the next page
+     */
+    CursorPageDTO<ReservationDTO> getPage(String cursor, Integer limit);
+    
+    /**
+     * Stream every reservation ordered by creation time to a consumer, reading the
+     * table through a forward-only cursor so memory use does not grow with its size
+     * @param sink Receives each reservation in order
+     */
+    void streamAll(Consumer<ReservationDTO> sink);
+    
     /**
      * Get reservations by user ID
      * @param userId User ID
@@ -41,6 +59,17 @@ public interface GymReservationService {
      */
     ReservationDTO create(ReservationDTO dto);
     
+    /**
+     * Create reservations for a whole group of users in one session.
+     * Users are validated together, seats are claimed in a single capacity update
+     * and reservations are inserted in one batch.
+     * @param sessionId Session ID
+     * @param userIds Users to book
+     * @param notes Optional notes added to every reservation
+     * @return Per-user outcome of the booking
+     */
+    BulkReservationResultDTO createBulk(UUID sessionId, List<UUID> userIds, String notes);
+    
     /**
      * Delete/cancel a reservation
      * @param id Reservation ID
@@ -85,4 +114,12 @@ public interface GymReservationService {
      * @return true if removed successfully
      */
     boolean leaveWaitlist(UUID userId, UUID sessionId);
+    
+    /**
+     * Accept the seat held for a user after being promoted from the waitlist
+     * @param userId User ID
+     * @param sessionId Session ID
+     * @return The confirmed reservation
+     */
+    ReservationDTO acceptWaitlistHold(UUID userId, UUID sessionId);
 }
\ No newline at end of file
@@ -1,7 +1,13 @@
 package edu.eci.cvds.prometeo.service;
 
+import edu.eci.cvds.prometeo.dto.RecurringScheduleDTO;
+import edu.eci.cvds.prometeo.dto.RecurringScheduleResultDTO;
+import edu.eci.cvds.prometeo.dto.TrainerAttendanceStatsDTO;
+import edu.eci.cvds.prometeo.model.enums.AggregationPeriod;
+
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -94,6 +100,16 @@ public interface GymSessionService {
             int capacity, Optional<String> description, UUID trainerId,
             LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Configures recurring sessions for several weekday and time rules at once.
+     * Occurrences that overlap an existing session, or an earlier occurrence of the
+     * same schedule, are skipped and reported as conflicts.
+     * 
+     * @param schedule Date range, default capacity and trainer, and recurrence rules
+     * @return Created session IDs and skipped occurrences
+     */
+    RecurringScheduleResultDTO configureRecurringSchedule(RecurringScheduleDTO schedule);
+
     /**
      * Gets occupancy statistics for the gym
      * 
@@ -120,6 +136,17 @@ public interface GymSessionService {
  */
 Map<String, Object> getTrainerAttendanceStatistics(UUID trainerId, LocalDate startDate, LocalDate endDate);
 
+/**
+ * Gets attendance statistics for several trainers at once, bucketed by day, week or month
+ * @param trainerIds IDs of the trainers, or null/empty for every trainer
+ * @param startDate Start date for the period
+ * @param endDate End date for the period
+ * @param period Size of each bucket
+ * @return Statistics per trainer with their buckets in chronological order
+ */
+List<TrainerAttendanceStatsDTO> getAttendanceStatistics(Collection<UUID> trainerIds, LocalDate startDate,
+        LocalDate endDate, AggregationPeriod period);
+
 /**
  * Gets a specific gym session by its ID
  * @param sessionId ID of the session to retrieve
@@ -1,10 +1,17 @@
 package edu.eci.cvds.prometeo.service;
 
+import edu.eci.cvds.prometeo.dto.CursorPageDTO;
+import edu.eci.cvds.prometeo.dto.NotificationDTO;
+
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 /**
- * Service for sending notifications to users
+ * Service for sending notifications to users and reading their inbox.
+ *
+ * Notifications are stored in the caller's transaction and delivered asynchronously once
+ * it commits, so calling these methods never waits on a delivery channel.
  */
 public interface NotificationService {
     
@@ -16,7 +23,7 @@ public interface NotificationService {
      * @param message Content of the notification
      * @param type Type of notification (e.g., RESERVATION_CONFIRMATION)
      * @param referenceId Optional ID reference (e.g., reservation ID)
-     * @return true if notification was sent successfully
+     * @return true if the notification was queued for delivery
      */
     boolean sendNotification(UUID userId, String title, String message, String type, Optional<UUID> referenceId);
 
@@ -24,7 +31,7 @@ public interface NotificationService {
      * Envía una notificación sobre liberación de cupo
      * @param userId ID del usuario a notificar
      * @param sessionId ID de la sesión disponible
-     * @return true si la notificación fue enviada correctamente
+     * @return true si la notificación quedó en cola para su envío
      */
     boolean sendSpotAvailableNotification(UUID userId, UUID sessionId);
     
@@ -32,7 +39,7 @@ public interface NotificationService {
      * Envía una confirmación de reserva
      * @param userId ID del usuario
      * @param reservationId ID de la reserva
-     * @return true si la notificación fue enviada correctamente
+     * @return true si la notificación quedó en cola para su envío
      */
     boolean sendReservationConfirmation(UUID userId, UUID reservationId);
     
@@ -40,7 +47,44 @@ public interface NotificationService {
      * Envía un recordatorio de sesión próxima
      * @param userId ID del usuario
      * @param reservationId ID de la reserva
-     * @return true si la notificación fue enviada correctamente
+     * @return true si la notificación quedó en cola para su envío
      */
     boolean sendSessionReminder(UUID userId, UUID reservationId);
-}
\ No newline at end of file
+
+    /**
+     * Gets one page of a user's notifications, newest first
+     *
+     * @param userId ID of the user
+     * @param unreadOnly Whether to list only unread notifications
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param limit Page size, defaulted and capped
+     * @return Page of notifications with the cursor of the next one
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    CursorPageDTO<NotificationDTO> getInbox(UUID userId, boolean unreadOnly, String cursor, Integer limit);
+
+    /**
+     * Gets the number of unread notifications of a user
+     *
+     * @param userId ID of the user
+     * @return Unread notifications
+     */
+    long getUnreadCount(UUID userId);
+
+    /**
+     * Marks notifications of a user as read; IDs of other users' notifications are ignored
+     *
+     * @param userId ID of the user
+     * @param notificationIds IDs of the notifications
+     * @return Number of notifications that were unread
+     */
+    int markAsRead(UUID userId, List<UUID> notificationIds);
+
+    /**
+     * Marks every notification of a user as read
+     *
+     * @param userId ID of the user
+     * @return Number of notifications that were unread
+     */
+    int markAllAsRead(UUID userId);
+}
@@ -45,4 +45,14 @@ public interface ReportService {
      * @return A byte array containing the attendance statistics in the requested format.
      */
     byte[] getAttendanceStatistics(LocalDate startDate, LocalDate endDate, ReportFormat format);
-}
\ No newline at end of file
+
+    /**
+     * Recomputes the daily occupancy rollup used by the usage reports for a date range,
+     * e.g. to backfill history or to correct it after data was changed outside the application.
+     *
+     * @param startDate The first date to rebuild.
+     * @param endDate The last date to rebuild.
+     * @return The number of rollup rows written.
+     */
+    int rebuildOccupancyRollup(LocalDate startDate, LocalDate endDate);
+}
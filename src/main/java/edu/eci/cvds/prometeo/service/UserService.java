@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Servicio central para operaciones de usuario y todas las funcionalidades relacionadas
@@ -65,6 +66,21 @@ public interface UserService {
      * @return lista de todos los usuarios registrados
      */
     List<User> getAllUsers();
+
+    /**
+     * Obtener una página de usuarios ordenados por fecha de creación
+     * @param cursor cursor devuelto con la página anterior, o null para la primera página
+     * @param limit tamaño de página, se ajusta si está fuera de rango
+     * @return página de usuarios con el cursor de la siguiente
+     */
+    CursorPageDTO<User> getUsersPage(String cursor, Integer limit);
+
+    /**
+     * Recorrer todos los usuarios ordenados por fecha de creación con un cursor de solo avance,
+     * sin cargar la tabla completa en memoria
+     * @param sink recibe cada usuario en orden
+     */
+    void streamAllUsers(Consumer<User> sink);
     
     /**
      * Obtener usuarios por rol
@@ -232,18 +248,18 @@ public interface UserService {
     /**
      * Obtener próximas reservas
      * @param userId ID del usuario
-     * @return lista de reservas
+     * @return lista de reservas con los datos de su sesión
      */
-    List<Object> getUpcomingReservations(UUID userId);
+    List<ReservationHistoryDTO> getUpcomingReservations(UUID userId);
     
     /**
      * Obtener historial de reservas
      * @param userId ID del usuario
      * @param startDate fecha de inicio opcional
      * @param endDate fecha de fin opcional
-     * @return lista de reservas
+     * @return lista de reservas con los datos de su sesión
      */
-    List<Object> getReservationHistory(UUID userId, Optional<LocalDate> startDate, Optional<LocalDate> endDate);
+    List<ReservationHistoryDTO> getReservationHistory(UUID userId, Optional<LocalDate> startDate, Optional<LocalDate> endDate);
     
     /**
      * Verificar disponibilidad de horarios
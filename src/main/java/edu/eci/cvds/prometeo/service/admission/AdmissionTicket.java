@@ -0,0 +1,106 @@
+package edu.eci.cvds.prometeo.service.admission;
+
+import edu.eci.cvds.prometeo.dto.ReservationDTO;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A reservation request waiting in the {@link ReservationAdmissionQueue}.
+ * Clients keep the ticket id to poll or await the outcome of the booking.
+ */
+public class AdmissionTicket {
+
+    /** Lifecycle of a queued reservation request */
+    public enum Status {
+        QUEUED,
+        PROCESSING,
+        CONFIRMED,
+        REJECTED
+    }
+
+    private final UUID id = UUID.randomUUID();
+    private final ReservationDTO request;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile ReservationDTO reservation;
+    private volatile String error;
+    private volatile LocalDateTime completedAt;
+
+    AdmissionTicket(ReservationDTO request) {
+        this.request = request;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getUserId() {
+        return request.getUserId();
+    }
+
+    public UUID getSessionId() {
+        return request.getSessionId();
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * The created reservation, only set once the ticket is {@link Status#CONFIRMED}.
+     */
+    public ReservationDTO getReservation() {
+        return reservation;
+    }
+
+    /**
+     * Why the booking was rejected, only set once the ticket is {@link Status#REJECTED}.
+     */
+    public String getError() {
+        return error;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public boolean isDone() {
+        return done.isDone();
+    }
+
+    ReservationDTO getRequest() {
+        return request;
+    }
+
+    CompletableFuture<Void> completion() {
+        return done;
+    }
+
+    void start() {
+        status = Status.PROCESSING;
+    }
+
+    void confirm(ReservationDTO created) {
+        reservation = created;
+        finish(Status.CONFIRMED);
+    }
+
+    void reject(String reason) {
+        error = reason;
+        finish(Status.REJECTED);
+    }
+
+    private void finish(Status finalStatus) {
+        completedAt = LocalDateTime.now();
+        status = finalStatus;
+        done.complete(null);
+    }
+}
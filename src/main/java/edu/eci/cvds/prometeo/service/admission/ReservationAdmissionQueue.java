@@ -0,0 +1,264 @@
+package edu.eci.cvds.prometeo.service.admission;
+
+import edu.eci.cvds.prometeo.PrometeoExceptions;
+import edu.eci.cvds.prometeo.dto.ReservationDTO;
+import edu.eci.cvds.prometeo.dto.ReservationTicketDTO;
+import edu.eci.cvds.prometeo.service.GymReservationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission layer in front of {@link GymReservationService#create(ReservationDTO)}.
+ *
+ * Reservation requests are queued per session in a bounded FIFO and drained by a
+ * fixed pool of workers, so the number of booking transactions running at once never
+ * exceeds the number of workers no matter how many students hit the endpoint when a
+ * week's sessions are published.
+ *
+ * Sessions with pending requests take turns in a round-robin ready queue and each
+ * session is handled by at most one worker at a time: requests for a popular class
+ * are served in arrival order without contending on the same {@code gym_sessions}
+ * row, while requests for other sessions keep flowing on the remaining workers.
+ *
+ * Finished tickets are kept for a retention period so clients can still poll them.
+ */
+@Component
+public class ReservationAdmissionQueue {
+    private static final Logger logger = LoggerFactory.getLogger(ReservationAdmissionQueue.class);
+
+    private final GymReservationService reservationService;
+    private final int workers;
+    private final int queueCapacity;
+    private final Duration awaitTimeout;
+    private final Duration ticketRetention;
+
+    private final Object lock = new Object();
+    // Guarded by lock: pending tickets per session, and sessions owned by the ready queue or a worker
+    private final Map<UUID, Deque<AdmissionTicket>> pending = new HashMap<>();
+    private final BlockingQueue<UUID> readySessions = new LinkedBlockingQueue<>();
+
+    private final Map<UUID, AdmissionTicket> tickets = new ConcurrentHashMap<>();
+    private final Queue<AdmissionTicket> finished = new ConcurrentLinkedQueue<>();
+
+    private ExecutorService executor;
+
+    public ReservationAdmissionQueue(GymReservationService reservationService,
+                                     @Value("${prometeo.reservation-admission.workers:4}") int workers,
+                                     @Value("${prometeo.reservation-admission.queue-capacity:500}") int queueCapacity,
+                                     @Value("${prometeo.reservation-admission.await-timeout-ms:5000}") long awaitTimeoutMs,
+                                     @Value("${prometeo.reservation-admission.ticket-retention-minutes:10}") long ticketRetentionMinutes) {
+        if (workers <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Admission workers and queue capacity must be positive");
+        }
+        this.reservationService = reservationService;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.awaitTimeout = Duration.ofMillis(awaitTimeoutMs);
+        this.ticketRetention = Duration.ofMinutes(ticketRetentionMinutes);
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "reservation-admission-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::drain);
+        }
+        logger.info("Reservation admission queue started with {} workers", workers);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues a reservation request behind the ones already waiting for the same session.
+     *
+     * @return the ticket to poll or await
+     * @throws IllegalArgumentException if the request has no session or user
+     * @throws IllegalStateException if the session's queue is full
+     */
+    public AdmissionTicket submit(ReservationDTO request) {
+        if (request.getSessionId() == null) {
+            throw new IllegalArgumentException(PrometeoExceptions.NO_EXISTE_SESION);
+        }
+        if (request.getUserId() == null) {
+            throw new IllegalArgumentException(PrometeoExceptions.NO_EXISTE_USUARIO);
+        }
+        purgeFinished();
+
+        AdmissionTicket ticket = new AdmissionTicket(request);
+        synchronized (lock) {
+            Deque<AdmissionTicket> queue = pending.get(request.getSessionId());
+            if (queue != null && queue.size() >= queueCapacity) {
+                throw new IllegalStateException(PrometeoExceptions.COLA_RESERVAS_LLENA);
+            }
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                pending.put(request.getSessionId(), queue);
+                // La sesión entra a la cola de turnos solo con una solicitud ya encolada
+                queue.addLast(ticket);
+                readySessions.add(request.getSessionId());
+            } else {
+                queue.addLast(ticket);
+            }
+            tickets.put(ticket.getId(), ticket);
+        }
+        return ticket;
+    }
+
+    /**
+     * Waits for a ticket to finish, up to the configured timeout.
+     */
+    public AdmissionTicket await(AdmissionTicket ticket) {
+        return await(ticket, awaitTimeout);
+    }
+
+    /**
+     * Waits for a ticket to finish, up to the given timeout.
+     *
+     * @return the same ticket, finished or still pending
+     */
+    public AdmissionTicket await(AdmissionTicket ticket, Duration timeout) {
+        try {
+            ticket.completion().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Sigue en cola: el cliente puede consultar el ticket más tarde
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return ticket;
+    }
+
+    public Optional<AdmissionTicket> getTicket(UUID ticketId) {
+        return Optional.ofNullable(tickets.get(ticketId));
+    }
+
+    /**
+     * Position of a ticket in its session queue, starting at 1, or 0 once it left the queue.
+     */
+    public int getPosition(AdmissionTicket ticket) {
+        synchronized (lock) {
+            Deque<AdmissionTicket> queue = pending.get(ticket.getSessionId());
+            if (queue == null) {
+                return 0;
+            }
+            int position = 1;
+            for (AdmissionTicket queued : queue) {
+                if (queued == ticket) {
+                    return position;
+                }
+                position++;
+            }
+            return 0;
+        }
+    }
+
+    public ReservationTicketDTO toDTO(AdmissionTicket ticket) {
+        ReservationTicketDTO dto = new ReservationTicketDTO();
+        dto.setTicketId(ticket.getId());
+        dto.setUserId(ticket.getUserId());
+        dto.setSessionId(ticket.getSessionId());
+        dto.setStatus(ticket.getStatus().name());
+        dto.setPosition(getPosition(ticket));
+        dto.setCreatedAt(ticket.getCreatedAt());
+        if (ticket.getReservation() != null) {
+            dto.setReservationId(ticket.getReservation().getId());
+        }
+        dto.setError(ticket.getError());
+        return dto;
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            UUID sessionId;
+            try {
+                sessionId = readySessions.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            AdmissionTicket ticket;
+            synchronized (lock) {
+                Deque<AdmissionTicket> queue = pending.get(sessionId);
+                ticket = queue != null ? queue.pollFirst() : null;
+            }
+
+            try {
+                if (ticket != null) {
+                    process(ticket);
+                }
+            } finally {
+                // Devolver la sesión al final de la cola de turnos si aún tiene solicitudes
+                synchronized (lock) {
+                    Deque<AdmissionTicket> queue = pending.get(sessionId);
+                    if (queue == null || queue.isEmpty()) {
+                        pending.remove(sessionId);
+                    } else {
+                        readySessions.add(sessionId);
+                    }
+                }
+            }
+        }
+    }
+
+    private void process(AdmissionTicket ticket) {
+        ticket.start();
+        try {
+            ticket.confirm(reservationService.create(ticket.getRequest()));
+        } catch (IllegalArgumentException e) {
+            ticket.reject(e.getMessage());
+        } catch (RuntimeException | Error e) {
+            // Un Error de una solicitud no debe dejar al trabajador ni a la sesión detenidos
+            logger.error("Error processing reservation ticket {}", ticket.getId(), e);
+            ticket.reject(e.getMessage());
+        }
+        finished.add(ticket);
+    }
+
+    private void purgeFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ticketRetention);
+        Iterator<AdmissionTicket> iterator = finished.iterator();
+        while (iterator.hasNext()) {
+            AdmissionTicket ticket = iterator.next();
+            if (ticket.getCompletedAt().isAfter(cutoff)) {
+                break;
+            }
+            iterator.remove();
+            tickets.remove(ticket.getId());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package edu.eci.cvds.prometeo.service.availability;
+
+import edu.eci.cvds.prometeo.dto.SessionAvailabilityDTO;
+import edu.eci.cvds.prometeo.event.GymSessionChangedEvent;
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes live session availability over STOMP so clients stop polling the availability
+ * endpoints.
+ *
+ * Committed reservation and session changes only mark the session as dirty; every flush
+ * loads the dirty sessions with one query and sends one {@link SessionAvailabilityDTO} per
+ * session to {@code /topic/availability/{date}} and {@code /topic/sessions/{sessionId}/availability}.
+ * A burst of bookings on a session within one flush window therefore produces a single
+ * message carrying the resulting {@code availableSpots} and the change since the previous one.
+ */
+@Component
+@ConditionalOnProperty(name = "prometeo.availability-push.enabled", havingValue = "true", matchIfMissing = true)
+public class AvailabilityPushPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityPushPublisher.class);
+
+    public static final String DATE_TOPIC = "/topic/availability/";
+    public static final String SESSION_TOPIC = "/topic/sessions/";
+
+    private static final int MAX_TRACKED_SESSIONS = 10_000;
+
+    private final GymSessionRepository gymSessionRepository;
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    // Sesiones pendientes de publicar con las fechas cuyos tópicos deben recibir el mensaje
+    private final Map<UUID, Set<LocalDate>> dirty = new ConcurrentHashMap<>();
+    // Cupos disponibles del último mensaje de cada sesión, para calcular el delta
+    private final Map<UUID, Integer> lastPushed = new ConcurrentHashMap<>();
+
+    public AvailabilityPushPublisher(GymSessionRepository gymSessionRepository,
+                                     SimpMessageSendingOperations messagingTemplate) {
+        this.gymSessionRepository = gymSessionRepository;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOccupancyChanged(SessionOccupancyChangedEvent event) {
+        markDirty(event.getSessionId(), event.getSessionDate());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(GymSessionChangedEvent event) {
+        markDirty(event.getSessionId(), event.getSessionDate());
+        // Una sesión movida de fecha también se anuncia en el tópico de la fecha anterior
+        markDirty(event.getSessionId(), event.getPreviousDate());
+    }
+
+    /**
+     * Publishes the sessions changed since the previous flush.
+     *
+     * @return number of sessions published
+     */
+    @Scheduled(fixedDelayString = "${prometeo.availability-push.coalesce-millis:500}")
+    public int flush() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        Map<UUID, Set<LocalDate>> batch = new HashMap<>();
+        for (UUID sessionId : Set.copyOf(dirty.keySet())) {
+            Set<LocalDate> dates = dirty.remove(sessionId);
+            if (dates != null) {
+                batch.put(sessionId, dates);
+            }
+        }
+        Map<UUID, GymSession> sessions = gymSessionRepository.findAllById(batch.keySet()).stream()
+                .collect(Collectors.toMap(GymSession::getId, Function.identity()));
+
+        if (lastPushed.size() > MAX_TRACKED_SESSIONS) {
+            // Solo se pierde el delta del siguiente mensaje de cada sesión
+            lastPushed.clear();
+        }
+        batch.forEach((sessionId, dates) -> {
+            SessionAvailabilityDTO update = toUpdate(sessionId, sessions.get(sessionId), dates);
+            for (LocalDate date : dates) {
+                send(DATE_TOPIC + date, update);
+            }
+            send(SESSION_TOPIC + sessionId + "/availability", update);
+        });
+        return batch.size();
+    }
+
+    public int pendingSessions() {
+        return dirty.size();
+    }
+
+    private void markDirty(UUID sessionId, LocalDate date) {
+        if (sessionId == null || date == null) {
+            return;
+        }
+        dirty.computeIfAbsent(sessionId, key -> ConcurrentHashMap.newKeySet()).add(date);
+    }
+
+    private SessionAvailabilityDTO toUpdate(UUID sessionId, GymSession session, Set<LocalDate> dates) {
+        SessionAvailabilityDTO update = new SessionAvailabilityDTO();
+        update.setSessionId(sessionId);
+        if (session == null) {
+            // La sesión fue cancelada (eliminada): ya no tiene cupos
+            update.setSessionDate(dates.iterator().next());
+            update.setCancelled(true);
+            Integer previous = lastPushed.remove(sessionId);
+            update.setDelta(previous == null ? 0 : -previous);
+            return update;
+        }
+        int available = session.getAvailableSpots();
+        update.setSessionDate(session.getSessionDate());
+        update.setStartTime(session.getStartTime());
+        update.setEndTime(session.getEndTime());
+        update.setCapacity(session.getCapacity());
+        update.setAvailableSpots(available);
+        Integer previous = lastPushed.put(sessionId, available);
+        update.setDelta(previous == null ? 0 : available - previous);
+        return update;
+    }
+
+    private void send(String destination, SessionAvailabilityDTO update) {
+        try {
+            messagingTemplate.convertAndSend(destination, update);
+        } catch (MessagingException e) {
+            logger.warn("Could not push availability of session {} to {}", update.getSessionId(), destination, e);
+        }
+    }
+}
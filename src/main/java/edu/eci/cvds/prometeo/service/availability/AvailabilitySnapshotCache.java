@@ -0,0 +1,178 @@
+package edu.eci.cvds.prometeo.service.availability;
+
+import edu.eci.cvds.prometeo.event.GymSessionChangedEvent;
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-date cache of session availability for the listing endpoints.
+ *
+ * Each cached date holds an immutable array of {@link SessionSlot}s sorted by start time,
+ * loaded once from the database. Reservation events patch the affected slot in place of a
+ * reload, and session events drop the affected dates, so repeated reads of the same date
+ * never touch the database. Updates are applied after the originating transaction commits;
+ * a snapshot loaded after a reservation event was published may already include its change,
+ * so it is dropped instead of patched.
+ *
+ * Snapshots also expire after the configured TTL, and the oldest snapshot is evicted
+ * once the date limit is reached. Listings are advisory: bookings are still checked
+ * against the database when they are made.
+ */
+@Component
+@ConditionalOnProperty(name = "prometeo.availability-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class AvailabilitySnapshotCache {
+
+    private static final Comparator<SessionSlot> BY_TIME = Comparator
+            .comparing(SessionSlot::getStartTime)
+            .thenComparing(SessionSlot::getEndTime);
+
+    private final GymSessionRepository gymSessionRepository;
+    private final long ttlMillis;
+    private final int maxDates;
+    private final Map<LocalDate, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    public AvailabilitySnapshotCache(GymSessionRepository gymSessionRepository,
+                                     @Value("${prometeo.availability-cache.ttl-seconds:60}") long ttlSeconds,
+                                     @Value("${prometeo.availability-cache.max-dates:366}") int maxDates) {
+        this.gymSessionRepository = gymSessionRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxDates = maxDates;
+    }
+
+    /**
+     * All sessions of a date, sorted by start time.
+     */
+    public List<SessionSlot> getSlots(LocalDate date) {
+        return snapshot(date).view;
+    }
+
+    /**
+     * Sessions of a date that are running at the given time (start and end inclusive).
+     */
+    public List<SessionSlot> getSlotsAt(LocalDate date, LocalTime time) {
+        SessionSlot[] slots = snapshot(date).slots;
+        // Primer índice cuya hora de inicio es posterior a la solicitada
+        int low = 0;
+        int high = slots.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (slots[mid].getStartTime().isAfter(time)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        List<SessionSlot> result = new ArrayList<>();
+        for (int i = 0; i < low; i++) {
+            if (!slots[i].getEndTime().isBefore(time)) {
+                result.add(slots[i]);
+            }
+        }
+        return result;
+    }
+
+    public void invalidate(LocalDate date) {
+        if (date != null) {
+            snapshots.remove(date);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOccupancyChanged(SessionOccupancyChangedEvent event) {
+        if (event.getSessionDate() == null) {
+            return;
+        }
+        // Una instantánea leída después de publicar el evento pudo ver ya el cambio confirmado
+        snapshots.computeIfPresent(event.getSessionDate(), (date, snapshot) ->
+                snapshot.readBefore(event.getPublishedAtNanos())
+                        ? snapshot.patch(event.getSessionId(), event.getDelta())
+                        : null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(GymSessionChangedEvent event) {
+        invalidate(event.getSessionDate());
+        invalidate(event.getPreviousDate());
+    }
+
+    private Snapshot snapshot(LocalDate date) {
+        long now = System.currentTimeMillis();
+        Snapshot snapshot = snapshots.get(date);
+        if (snapshot != null && !snapshot.isExpired(now, ttlMillis)) {
+            return snapshot;
+        }
+        if (snapshot == null && snapshots.size() >= maxDates) {
+            evictOldest();
+        }
+        // Una sola carga por fecha; las lecturas concurrentes esperan su resultado
+        return snapshots.compute(date, (key, current) ->
+                current != null && !current.isExpired(now, ttlMillis) ? current : load(key, now));
+    }
+
+    private Snapshot load(LocalDate date, long now) {
+        List<GymSession> sessions = gymSessionRepository.findBySessionDateOrderByStartTime(date);
+        SessionSlot[] slots = sessions.stream().map(SessionSlot::from).toArray(SessionSlot[]::new);
+        Arrays.sort(slots, BY_TIME);
+        return new Snapshot(slots, now, System.nanoTime());
+    }
+
+    private void evictOldest() {
+        snapshots.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> entry.getValue().loadedAt))
+                .ifPresent(entry -> snapshots.remove(entry.getKey(), entry.getValue()));
+    }
+
+    private static final class Snapshot {
+        private final SessionSlot[] slots;
+        private final List<SessionSlot> view;
+        private final long loadedAt;
+        // System.nanoTime() al terminar la consulta que cargó la instantánea
+        private final long readAtNanos;
+
+        private Snapshot(SessionSlot[] slots, long loadedAt, long readAtNanos) {
+            this.slots = slots;
+            this.view = Collections.unmodifiableList(Arrays.asList(slots));
+            this.loadedAt = loadedAt;
+            this.readAtNanos = readAtNanos;
+        }
+
+        private boolean isExpired(long now, long ttlMillis) {
+            return now - loadedAt >= ttlMillis;
+        }
+
+        private boolean readBefore(long nanos) {
+            return readAtNanos - nanos < 0;
+        }
+
+        /**
+         * Copy of this snapshot with one slot's occupancy moved, or null to drop the
+         * snapshot when the session is not part of it.
+         */
+        private Snapshot patch(UUID sessionId, int delta) {
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i].getSessionId().equals(sessionId)) {
+                    SessionSlot[] patched = slots.clone();
+                    patched[i] = slots[i].withReservedDelta(delta);
+                    return new Snapshot(patched, loadedAt, readAtNanos);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package edu.eci.cvds.prometeo.service.availability;
+
+import edu.eci.cvds.prometeo.model.GymSession;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Immutable view of a gym session as shown in availability listings.
+ */
+public final class SessionSlot {
+    private final UUID sessionId;
+    private final LocalDate sessionDate;
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+    private final int capacity;
+    private final int reservedSpots;
+    private final UUID trainerId;
+
+    public SessionSlot(UUID sessionId, LocalDate sessionDate, LocalTime startTime, LocalTime endTime,
+                       int capacity, int reservedSpots, UUID trainerId) {
+        this.sessionId = sessionId;
+        this.sessionDate = sessionDate;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.capacity = capacity;
+        this.reservedSpots = reservedSpots;
+        this.trainerId = trainerId;
+    }
+
+    public static SessionSlot from(GymSession session) {
+        return new SessionSlot(session.getId(), session.getSessionDate(), session.getStartTime(),
+                session.getEndTime(), session.getCapacity(), session.getReservedSpots(), session.getTrainerId());
+    }
+
+    /**
+     * Copy of this slot with its reserved spots moved by delta, kept within [0, capacity].
+     */
+    public SessionSlot withReservedDelta(int delta) {
+        int reserved = Math.max(0, Math.min(capacity, reservedSpots + delta));
+        return new SessionSlot(sessionId, sessionDate, startTime, endTime, capacity, reserved, trainerId);
+    }
+
+    public UUID getSessionId() {
+        return sessionId;
+    }
+
+    public LocalDate getSessionDate() {
+        return sessionDate;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getReservedSpots() {
+        return reservedSpots;
+    }
+
+    public UUID getTrainerId() {
+        return trainerId;
+    }
+
+    public int getAvailableSpots() {
+        return capacity - reservedSpots;
+    }
+
+    public boolean hasAvailability() {
+        return reservedSpots < capacity;
+    }
+}
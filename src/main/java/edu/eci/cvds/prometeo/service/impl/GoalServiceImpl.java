@@ -1,15 +1,16 @@
 package edu.eci.cvds.prometeo.service.impl;
 
 import edu.eci.cvds.prometeo.PrometeoExceptions;
+import edu.eci.cvds.prometeo.event.GoalsChangedEvent;
 import edu.eci.cvds.prometeo.model.Goal;
-import edu.eci.cvds.prometeo.model.Recommendation;
 import edu.eci.cvds.prometeo.repository.GoalRepository;
-import edu.eci.cvds.prometeo.repository.RecommendationRepository;
 import edu.eci.cvds.prometeo.repository.UserRepository;
 import edu.eci.cvds.prometeo.service.GoalService;
 import edu.eci.cvds.prometeo.service.RecommendationService;
+import edu.eci.cvds.prometeo.service.recommendation.RecommendationRegenerator;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -21,6 +22,8 @@ import java.util.UUID;
  * Implementation of the {@link GoalService} interface.
  * Handles the creation, update, retrieval, and soft deletion of user goals,
  * and manages the regeneration of routine recommendations accordingly.
+ * Recommendations are regenerated in the background by the {@link RecommendationRegenerator}
+ * when it is enabled, and synchronously otherwise.
  */
 @Service
 public class GoalServiceImpl implements GoalService {
@@ -31,10 +34,13 @@ public class GoalServiceImpl implements GoalService {
     private UserRepository userRepository;
 
     @Autowired
-    private RecommendationRepository recommendationRepository;
+    private RecommendationService recommendationService;
+
+    @Autowired(required = false)
+    private RecommendationRegenerator recommendationRegenerator;
 
     @Autowired
-    private RecommendationService recommendationService;
+    private ApplicationEventPublisher eventPublisher;
 
     /**
      * Retrieves all active goals for a specific user.
@@ -49,7 +55,7 @@ public class GoalServiceImpl implements GoalService {
 
     /**
      * Adds new goals to the specified user and regenerates recommendations.
-     * Existing recommendations are deactivated before new ones are generated.
+     * Existing recommendations stay active until the new ones are generated.
      *
      * @param userId The UUID of the user.
      * @param goals  A list of goal descriptions to add.
@@ -59,10 +65,6 @@ public class GoalServiceImpl implements GoalService {
         userRepository.findById(userId)
                 .orElseThrow(() -> new PrometeoExceptions(PrometeoExceptions.NO_EXISTE_USUARIO));
 
-        List<Recommendation> recommendations = recommendationRepository.findByUserIdAndActive(userId, true);
-        recommendations.forEach(r -> r.setActive(false));
-        recommendationRepository.saveAll(recommendations);
-
         goals.forEach(goalText -> {
             Goal goal = new Goal();
             goal.setUserId(userId);
@@ -71,12 +73,12 @@ public class GoalServiceImpl implements GoalService {
             goalRepository.save(goal);
         });
 
-        recommendationService.recommendRoutines(userId);
+        regenerateRecommendations(userId);
     }
 
     /**
      * Updates the text of existing user goals and regenerates recommendations.
-     * All current recommendations are deactivated and refreshed.
+     * Current recommendations are replaced once the new ones are generated.
      *
      * @param updatedGoals A map of goal IDs and their new descriptions.
      */
@@ -100,16 +102,12 @@ public class GoalServiceImpl implements GoalService {
             goalRepository.save(goal);
         }
 
-        List<Recommendation> recommendations = recommendationRepository.findByUserIdAndActive(userId, true);
-        recommendations.forEach(r -> r.setActive(false));
-        recommendationRepository.saveAll(recommendations);
-
-        recommendationService.recommendRoutines(userId);
+        regenerateRecommendations(userId);
     }
 
     /**
      * Soft deletes a goal by setting its active flag to false.
-     * Also deactivates existing recommendations and generates new ones.
+     * Also regenerates the user's recommendations.
      *
      * @param goalId The UUID of the goal to delete.
      */
@@ -120,12 +118,14 @@ public class GoalServiceImpl implements GoalService {
         goal.setActive(false);
         goalRepository.save(goal);
 
-        UUID userId = goal.getUserId();
-
-        List<Recommendation> recommendations = recommendationRepository.findByUserIdAndActive(userId, true);
-        recommendations.forEach(r -> r.setActive(false));
-        recommendationRepository.saveAll(recommendations);
+        regenerateRecommendations(goal.getUserId());
+    }
 
-        recommendationService.recommendRoutines(userId);
+    // Las recomendaciones actuales siguen activas hasta que se guarden las nuevas
+    private void regenerateRecommendations(UUID userId) {
+        eventPublisher.publishEvent(new GoalsChangedEvent(userId));
+        if (recommendationRegenerator == null) {
+            recommendationService.recommendRoutines(userId);
+        }
     }
 }
@@ -1,7 +1,11 @@
 package edu.eci.cvds.prometeo.service.impl;
 
 import edu.eci.cvds.prometeo.PrometeoExceptions;
+import edu.eci.cvds.prometeo.dto.BulkReservationResultDTO;
+import edu.eci.cvds.prometeo.dto.CursorPageDTO;
 import edu.eci.cvds.prometeo.dto.ReservationDTO;
+import edu.eci.cvds.prometeo.dto.ReservationOutcomeDTO;
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
 import edu.eci.cvds.prometeo.model.GymSession;
 import edu.eci.cvds.prometeo.model.Reservation;
 import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
@@ -11,7 +15,17 @@ import edu.eci.cvds.prometeo.repository.UserRepository;
 import edu.eci.cvds.prometeo.service.GymReservationService;
 import edu.eci.cvds.prometeo.service.NotificationService;
 import edu.eci.cvds.prometeo.service.WaitlistService;
+import edu.eci.cvds.prometeo.service.availability.AvailabilitySnapshotCache;
+import edu.eci.cvds.prometeo.service.availability.SessionSlot;
+import edu.eci.cvds.prometeo.service.inventory.SeatInventory;
+import edu.eci.cvds.prometeo.service.paging.KeysetCursor;
+import edu.eci.cvds.prometeo.service.waitlist.FreedSeatHandler;
+import edu.eci.cvds.prometeo.service.waitlist.WaitlistPromotionEngine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,7 +33,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class GymReservationServiceImpl implements GymReservationService {
@@ -39,9 +55,34 @@ public class GymReservationServiceImpl implements GymReservationService {
     @Autowired
     private WaitlistService waitlistService;
     
+    // Inventario de cupos en memoria, opcional (prometeo.seat-inventory.enabled)
+    @Autowired(required = false)
+    private SeatInventory seatInventory;
+    
+    // Caché de disponibilidad por fecha, opcional (prometeo.availability-cache.enabled)
+    @Autowired(required = false)
+    private AvailabilitySnapshotCache availabilityCache;
+    
+    // Promoción automática desde la lista de espera, opcional (prometeo.waitlist-promotion.enabled)
+    @Autowired(required = false)
+    private WaitlistPromotionEngine promotionEngine;
+    
+    @Autowired
+    private FreedSeatHandler freedSeatHandler;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     // Constantes
     private static final int MAX_ACTIVE_RESERVATIONS_PER_USER = 5;
     private static final int MIN_HOURS_BEFORE_CANCELLATION = 2;
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+    private static final int STREAM_CHUNK_SIZE = 500;
+    private static final List<ReservationStatus> ACTIVE_STATUSES =
+            Arrays.asList(ReservationStatus.CONFIRMED, ReservationStatus.CHECKED_IN);
     
     @Override
     public List<ReservationDTO> getAll() {
@@ -50,6 +91,50 @@ public class GymReservationServiceImpl implements GymReservationService {
                 .collect(Collectors.toList());
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ReservationDTO> getPage(String cursor, Integer limit) {
+        int size = KeysetCursor.pageSize(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        // Se pide una fila extra solo para saber si hay una página siguiente
+        PageRequest window = PageRequest.of(0, size + 1);
+        List<Reservation> rows = after == null
+                ? reservationRepository.findFirstPage(window)
+                : reservationRepository.findPageAfter(after.getCreatedAt(), after.getId(), window);
+        return KeysetCursor.page(rows, size,
+                reservation -> KeysetCursor.of(reservation.getCreatedAt(), reservation.getId()),
+                this::convertToDTOs);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<ReservationDTO> sink) {
+        List<Reservation> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        try (Stream<Reservation> rows = reservationRepository.streamAllOrdered()) {
+            Iterator<Reservation> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    emit(chunk, sink);
+                }
+            }
+        }
+        emit(chunk, sink);
+    }
+    
+    /**
+     * Writes a chunk of streamed reservations and detaches them so the persistence
+     * context does not keep every row read so far.
+     */
+    private void emit(List<Reservation> chunk, Consumer<ReservationDTO> sink) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        convertToDTOs(chunk).forEach(sink);
+        chunk.forEach(entityManager::detach);
+        chunk.clear();
+    }
+    
     @Override
     public List<ReservationDTO> getByUserId(UUID userId) {
         return reservationRepository.findByUserId(userId).stream()
@@ -66,6 +151,14 @@ public class GymReservationServiceImpl implements GymReservationService {
     @Override
     @Transactional
     public ReservationDTO create(ReservationDTO dto) {
+        // Rechazo inmediato en memoria si la sesión ya está llena, sin ir a la base de datos
+        if (seatInventory != null) {
+            if (!seatInventory.tryAcquire(dto.getSessionId())) {
+                throw new IllegalArgumentException(PrometeoExceptions.CAPACIDAD_EXCEDIDA);
+            }
+            seatInventory.releaseOnRollback(dto.getSessionId());
+        }
+        
         // Validar que la sesión exista
         GymSession session = gymSessionRepository.findById(dto.getSessionId())
                 .orElseThrow(() -> new IllegalArgumentException(PrometeoExceptions.NO_EXISTE_SESION));
@@ -105,9 +198,12 @@ public class GymReservationServiceImpl implements GymReservationService {
         reservation.setEquipmentIds(dto.getEquipmentIds());
         reservation.setNotes(dto.getNotes());
         
-        // Incrementar contador de reservas en la sesión
-        session.setReservedSpots(session.getReservedSpots() + 1);
-        gymSessionRepository.save(session);
+        // Reclamar el cupo de forma atómica: la verificación de capacidad y el incremento
+        // se hacen en un único UPDATE condicional para evitar sobrecupo con reservas concurrentes
+        if (gymSessionRepository.claimSpot(session.getId()) == 0) {
+            throw new IllegalArgumentException(PrometeoExceptions.CAPACIDAD_EXCEDIDA);
+        }
+        eventPublisher.publishEvent(new SessionOccupancyChangedEvent(session.getId(), session.getSessionDate(), 1));
         
         // Guardar la reserva
         Reservation saved = reservationRepository.save(reservation);
@@ -118,6 +214,105 @@ public class GymReservationServiceImpl implements GymReservationService {
         return convertToDTO(saved);
     }
     
+    @Override
+    @Transactional
+    public BulkReservationResultDTO createBulk(UUID sessionId, List<UUID> userIds, String notes) {
+        GymSession session = gymSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new IllegalArgumentException(PrometeoExceptions.NO_EXISTE_SESION));
+        
+        LocalDateTime sessionDateTime = LocalDateTime.of(session.getSessionDate(), session.getStartTime());
+        if (sessionDateTime.isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException(PrometeoExceptions.FECHA_PASADA);
+        }
+        
+        // Usuarios sin duplicados, conservando el orden del roster
+        List<UUID> requested = new ArrayList<>(new LinkedHashSet<>(userIds));
+        
+        BulkReservationResultDTO result = new BulkReservationResultDTO();
+        result.setSessionId(sessionId);
+        result.setRequested(requested.size());
+        if (requested.isEmpty()) {
+            return result;
+        }
+        
+        // Validar todos los usuarios con consultas agrupadas en lugar de una por usuario
+        Set<UUID> existing = new HashSet<>(userRepository.findExistingIds(requested));
+        Map<UUID, Long> activeByUser = reservationRepository.countByUserIdInAndStatusIn(requested, ACTIVE_STATUSES)
+                .stream()
+                .collect(Collectors.toMap(ReservationRepository.UserReservationCount::getUserId,
+                        ReservationRepository.UserReservationCount::getReservations));
+        Set<UUID> alreadyBooked = new HashSet<>(reservationRepository
+                .findUserIdsBySessionIdAndUserIdInAndStatusIn(sessionId, requested, ACTIVE_STATUSES));
+        
+        Map<UUID, ReservationOutcomeDTO> outcomes = new LinkedHashMap<>();
+        List<UUID> eligible = new ArrayList<>();
+        for (UUID userId : requested) {
+            if (!existing.contains(userId)) {
+                outcomes.put(userId, ReservationOutcomeDTO.rejected(userId, PrometeoExceptions.NO_EXISTE_USUARIO));
+            } else if (alreadyBooked.contains(userId)) {
+                outcomes.put(userId, ReservationOutcomeDTO.rejected(userId, PrometeoExceptions.YA_EXISTE_RESERVA));
+            } else if (activeByUser.getOrDefault(userId, 0L) >= MAX_ACTIVE_RESERVATIONS_PER_USER) {
+                outcomes.put(userId, ReservationOutcomeDTO.rejected(userId, PrometeoExceptions.LIMITE_RESERVAS_ALCANZADO));
+            } else {
+                outcomes.put(userId, null);
+                eligible.add(userId);
+            }
+        }
+        
+        // Reclamar todos los cupos posibles en un único UPDATE condicional
+        int claimed = claimSpots(session, eligible.size());
+        if (seatInventory != null) {
+            seatInventory.recordClaimed(sessionId, claimed);
+        }
+        if (claimed > 0) {
+            eventPublisher.publishEvent(new SessionOccupancyChangedEvent(sessionId, session.getSessionDate(), claimed));
+        }
+        
+        List<Reservation> reservations = new ArrayList<>(claimed);
+        for (UUID userId : eligible.subList(0, claimed)) {
+            Reservation reservation = new Reservation();
+            reservation.setUserId(userId);
+            reservation.setSessionId(sessionId);
+            reservation.setReservationDate(LocalDateTime.now());
+            reservation.setStatus(ReservationStatus.CONFIRMED);
+            reservation.setNotes(notes);
+            reservations.add(reservation);
+        }
+        for (UUID userId : eligible.subList(claimed, eligible.size())) {
+            outcomes.put(userId, ReservationOutcomeDTO.rejected(userId, PrometeoExceptions.CAPACIDAD_EXCEDIDA));
+        }
+        
+        // Inserción en lote (hibernate.jdbc.batch_size)
+        for (Reservation saved : reservationRepository.saveAll(reservations)) {
+            outcomes.put(saved.getUserId(), ReservationOutcomeDTO.reserved(saved.getUserId(), saved.getId()));
+            notificationService.sendReservationConfirmation(saved.getUserId(), saved.getId());
+        }
+        
+        result.setReserved(reservations.size());
+        result.setResults(new ArrayList<>(outcomes.values()));
+        return result;
+    }
+    
+    /*
+     * Claims up to the requested number of spots with a single conditional update.
+     * If the session cannot fit all of them, retries with what is actually left,
+     * re-reading the free spots from the database between attempts.
+     */
+    private int claimSpots(GymSession session, int wanted) {
+        int available = session.getCapacity() - session.getReservedSpots();
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            int toClaim = Math.min(wanted, Math.max(0, available));
+            if (toClaim == 0) {
+                return 0;
+            }
+            if (gymSessionRepository.claimSpots(session.getId(), toClaim) == 1) {
+                return toClaim;
+            }
+            available = gymSessionRepository.findAvailableSpotsById(session.getId()).orElse(0);
+        }
+        return 0;
+    }
+    
     @Override
     @Transactional
     public void delete(UUID id) {
@@ -151,12 +346,8 @@ public class GymReservationServiceImpl implements GymReservationService {
                 throw new IllegalArgumentException(PrometeoExceptions.CANCELACION_TARDIA);
             }
             
-            // Actualizar contador de reservas en la sesión
-            session.setReservedSpots(Math.max(0, session.getReservedSpots() - 1));
-            gymSessionRepository.save(session);
-            
-            // Notificar a la siguiente persona en la lista de espera
-            waitlistService.notifyNextInWaitlist(session.getId());
+            // El cupo se retiene para la lista de espera o se libera
+            freedSeatHandler.giveBack(session);
         }
         
         // Cancelar la reserva
@@ -169,12 +360,14 @@ public class GymReservationServiceImpl implements GymReservationService {
     public Map<String, Object> getAvailability(LocalDate date, LocalTime time) {
         Map<String, Object> result = new HashMap<>();
         
-        // Encontrar sesiones que incluyan la hora solicitada
-        List<GymSession> sessions = gymSessionRepository.findBySessionDate(date);
+        // Encontrar sesiones que incluyan la hora solicitada, desde la caché si está disponible
+        List<SessionSlot> sessions = availabilityCache != null
+                ? availabilityCache.getSlotsAt(date, time)
+                : gymSessionRepository.findBySessionDate(date).stream().map(SessionSlot::from).collect(Collectors.toList());
         
-        List<GymSession> availableSessions = sessions.stream()
+        List<SessionSlot> availableSessions = sessions.stream()
                 .filter(session -> !session.getStartTime().isAfter(time) && !session.getEndTime().isBefore(time))
-                .filter(session -> session.getReservedSpots() < session.getCapacity())
+                .filter(session -> availableSpots(session) > 0)
                 .collect(Collectors.toList());
         
         // Preparar respuesta
@@ -182,11 +375,11 @@ public class GymReservationServiceImpl implements GymReservationService {
         result.put("requestedTime", time);
         result.put("availableSessions", availableSessions.stream().map(session -> {
             Map<String, Object> sessionMap = new HashMap<>();
-            sessionMap.put("id", session.getId());
+            sessionMap.put("id", session.getSessionId());
             sessionMap.put("startTime", session.getStartTime());
             sessionMap.put("endTime", session.getEndTime());
             sessionMap.put("capacity", session.getCapacity());
-            sessionMap.put("availableSpots", session.getCapacity() - session.getReservedSpots());
+            sessionMap.put("availableSpots", availableSpots(session));
             sessionMap.put("trainerId", session.getTrainerId());
             return sessionMap;
         }).collect(Collectors.toList()));
@@ -220,8 +413,8 @@ public class GymReservationServiceImpl implements GymReservationService {
         result.put("inWaitlist", position > 0);
         result.put("position", position);
         
-        // Obtener detalles de la sesión
-        gymSessionRepository.findById(sessionId).ifPresent(session -> {
+        // Detalles de la sesión con una proyección, sin cargar la entidad en cada consulta de estado
+        gymSessionRepository.findSummaryById(sessionId).ifPresent(session -> {
             result.put("sessionDate", session.getSessionDate());
             result.put("startTime", session.getStartTime());
             result.put("endTime", session.getEndTime());
@@ -244,10 +437,82 @@ public class GymReservationServiceImpl implements GymReservationService {
     @Override
     @Transactional
     public boolean leaveWaitlist(UUID userId, UUID sessionId) {
+        // Si el usuario tenía un cupo retenido, el cupo pasa al siguiente en la lista
+        if (promotionEngine != null && promotionEngine.releaseHold(userId, sessionId)) {
+            return true;
+        }
         return waitlistService.removeFromWaitlist(userId, sessionId);
     }
     
+    @Override
+    @Transactional
+    public ReservationDTO acceptWaitlistHold(UUID userId, UUID sessionId) {
+        if (promotionEngine == null) {
+            throw new IllegalArgumentException(PrometeoExceptions.SIN_CUPO_RETENIDO);
+        }
+        
+        GymSession session = gymSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new IllegalArgumentException(PrometeoExceptions.NO_EXISTE_SESION));
+        
+        // Validar que el usuario no tenga demasiadas reservas activas
+        long activeReservations = reservationRepository.countByUserIdAndStatusIn(userId, ACTIVE_STATUSES);
+        if (activeReservations >= MAX_ACTIVE_RESERVATIONS_PER_USER) {
+            throw new IllegalArgumentException(PrometeoExceptions.LIMITE_RESERVAS_ALCANZADO);
+        }
+        
+        // El cupo retenido ya está contado en la sesión, así que no se reclama de nuevo
+        promotionEngine.takeHold(userId, sessionId);
+        
+        Reservation reservation = new Reservation();
+        reservation.setUserId(userId);
+        reservation.setSessionId(sessionId);
+        reservation.setReservationDate(LocalDateTime.now());
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+        Reservation saved = reservationRepository.save(reservation);
+        eventPublisher.publishEvent(new SessionOccupancyChangedEvent(sessionId, session.getSessionDate(), 0));
+        
+        notificationService.sendReservationConfirmation(userId, saved.getId());
+        
+        return convertToDTO(saved);
+    }
+    
+    // Cupos disponibles, tomados del inventario en memoria cuando la sesión está rastreada
+    private int availableSpots(SessionSlot session) {
+        if (seatInventory != null) {
+            OptionalInt tracked = seatInventory.availableSpots(session.getSessionId());
+            if (tracked.isPresent()) {
+                return tracked.getAsInt();
+            }
+        }
+        return session.getAvailableSpots();
+    }
+    
     // Método auxiliar para convertir Entidad a DTO
+    /**
+     * Converts several reservations loading their equipment in one query instead of
+     * initializing the equipment collection of each one.
+     */
+    private List<ReservationDTO> convertToDTOs(List<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<UUID, List<UUID>> equipment = reservationRepository.findEquipmentIdsByReservationIdIn(
+                        reservations.stream().map(Reservation::getId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.groupingBy(ReservationRepository.ReservationEquipment::getReservationId,
+                        Collectors.mapping(ReservationRepository.ReservationEquipment::getEquipmentId,
+                                Collectors.toList())));
+        
+        List<ReservationDTO> dtos = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            // La colección perezosa de la entidad no se inicializa, se usa la cargada en bloque
+            ReservationDTO dto = convertToDTO(reservation);
+            dto.setEquipmentIds(equipment.getOrDefault(reservation.getId(), new ArrayList<>()));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+    
     private ReservationDTO convertToDTO(Reservation reservation) {
         ReservationDTO dto = new ReservationDTO();
         dto.setId(reservation.getId());
@@ -1,20 +1,42 @@
 package edu.eci.cvds.prometeo.service.impl;
 
+import edu.eci.cvds.prometeo.dto.GymSessionDTO;
+import edu.eci.cvds.prometeo.dto.RecurrenceRuleDTO;
+import edu.eci.cvds.prometeo.dto.RecurringScheduleDTO;
+import edu.eci.cvds.prometeo.dto.RecurringScheduleResultDTO;
+import edu.eci.cvds.prometeo.dto.TrainerAttendanceStatsDTO;
+import edu.eci.cvds.prometeo.event.GymSessionChangedEvent;
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
 import edu.eci.cvds.prometeo.model.GymSession;
 import edu.eci.cvds.prometeo.model.Reservation;
 import edu.eci.cvds.prometeo.model.User;
+import edu.eci.cvds.prometeo.model.enums.AggregationPeriod;
 import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.OccupancyBucketRepository;
 import edu.eci.cvds.prometeo.repository.ReservationRepository;
 import edu.eci.cvds.prometeo.repository.UserRepository;
 import edu.eci.cvds.prometeo.service.GymSessionService;
+import edu.eci.cvds.prometeo.service.availability.AvailabilitySnapshotCache;
+import edu.eci.cvds.prometeo.service.availability.SessionSlot;
+import edu.eci.cvds.prometeo.service.inventory.SeatInventory;
+import edu.eci.cvds.prometeo.service.rollup.OccupancyRollup;
+import edu.eci.cvds.prometeo.service.roster.RosterEntry;
+import edu.eci.cvds.prometeo.service.roster.SessionRosterCache;
+import edu.eci.cvds.prometeo.service.schedule.RecurringSchedulePlanner;
+import edu.eci.cvds.prometeo.service.schedule.SessionIntervalTree;
+import edu.eci.cvds.prometeo.service.schedule.SessionScheduleIndex;
+import edu.eci.cvds.prometeo.service.stats.AttendanceAggregator;
+import edu.eci.cvds.prometeo.service.waitlist.WaitlistPromotionEngine;
 import edu.eci.cvds.prometeo.PrometeoExceptions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class GymSessionServiceImpl implements GymSessionService {
@@ -25,6 +47,18 @@ public class GymSessionServiceImpl implements GymSessionService {
     private ReservationRepository reservationRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired(required = false)
+    private SeatInventory seatInventory;
+    @Autowired(required = false)
+    private AvailabilitySnapshotCache availabilityCache;
+    @Autowired(required = false)
+    private SessionRosterCache rosterCache;
+    @Autowired(required = false)
+    private OccupancyRollup occupancyRollup;
+    @Autowired(required = false)
+    private WaitlistPromotionEngine promotionEngine;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     // @Autowired
     // public GymSessionServiceImpl(GymSessionRepository gymSessionRepository) {
@@ -36,9 +70,8 @@ public class GymSessionServiceImpl implements GymSessionService {
     public UUID createSession(LocalDate date, LocalTime startTime, LocalTime endTime, int capacity,
             Optional<String> description, UUID trainerId) {
         // Prevent overlapping sessions
-        Optional<GymSession> overlapping = gymSessionRepository
-                .findBySessionDateAndStartTimeLessThanEqualAndEndTimeGreaterThanEqual(date, startTime, endTime);
-        if (overlapping.isPresent()) {
+        SessionIntervalTree sameDay = SessionIntervalTree.of(gymSessionRepository.findBySessionDateOrderByStartTime(date));
+        if (sameDay.overlapsAny(startTime, endTime, null)) {
             throw new PrometeoExceptions(PrometeoExceptions.SESION_YA_EXISTE_HORARIO);
         }
         GymSession session = new GymSession();
@@ -49,7 +82,12 @@ public class GymSessionServiceImpl implements GymSessionService {
         session.setReservedSpots(0);
         session.setTrainerId(trainerId);
         // If you have a description field, set it here
-        return gymSessionRepository.save(session).getId();
+        GymSession saved = gymSessionRepository.save(session);
+        if (seatInventory != null) {
+            seatInventory.track(saved);
+        }
+        eventPublisher.publishEvent(new GymSessionChangedEvent(saved.getId(), GymSessionChangedEvent.Change.CREATED, date));
+        return saved.getId();
     }
 
     @Override
@@ -59,17 +97,28 @@ public class GymSessionServiceImpl implements GymSessionService {
         GymSession session = gymSessionRepository.findById(sessionId)
                 .orElseThrow(() -> new PrometeoExceptions(PrometeoExceptions.SESION_NO_ENCONTRADA));
         // Prevent overlapping with other sessions
-        Optional<GymSession> overlapping = gymSessionRepository
-                .findBySessionDateAndStartTimeLessThanEqualAndEndTimeGreaterThanEqual(date, startTime, endTime);
-        if (overlapping.isPresent() && !overlapping.get().getId().equals(sessionId)) {
+        SessionIntervalTree sameDay = SessionIntervalTree.of(gymSessionRepository.findBySessionDateOrderByStartTime(date));
+        if (sameDay.overlapsAny(startTime, endTime, sessionId)) {
             throw new PrometeoExceptions(PrometeoExceptions.SESION_YA_EXISTE_HORARIO);
         }
-        session.setSessionDate(date);
-        session.setStartTime(startTime);
-        session.setEndTime(endTime);
-        session.setCapacity(capacity);
-        session.setTrainerId(trainerId);
-        gymSessionRepository.save(session);
+        LocalDate previousDate = session.getSessionDate();
+        int previousCapacity = session.getCapacity();
+        // No se guarda la entidad: reescribiría reservedSpots con el valor leído y perdería las reservas concurrentes
+        if (gymSessionRepository.updateSchedule(sessionId, date, startTime, endTime, capacity, trainerId) == 0) {
+            throw new PrometeoExceptions(PrometeoExceptions.CAPACIDAD_MENOR_A_RESERVADOS);
+        }
+        if (seatInventory != null) {
+            seatInventory.updateCapacity(sessionId, capacity);
+        }
+        // Seats added by a capacity raise go to the waitlist first
+        if (promotionEngine != null && capacity > previousCapacity) {
+            int held = promotionEngine.holdNewSeats(sessionId, capacity - previousCapacity);
+            if (held > 0) {
+                eventPublisher.publishEvent(new SessionOccupancyChangedEvent(sessionId, date, held));
+            }
+        }
+        eventPublisher.publishEvent(new GymSessionChangedEvent(
+                sessionId, GymSessionChangedEvent.Change.UPDATED, date, previousDate));
         return true;
     }
 
@@ -81,16 +130,20 @@ public class GymSessionServiceImpl implements GymSessionService {
         // If you have a status or cancellation field, set it here
         // session.setStatus("CANCELLED");
         gymSessionRepository.delete(session);
+        if (seatInventory != null) {
+            seatInventory.untrack(sessionId);
+        }
+        eventPublisher.publishEvent(new GymSessionChangedEvent(
+                sessionId, GymSessionChangedEvent.Change.CANCELLED, session.getSessionDate()));
         return true;
     }
 
     @Override
     public List<Object> getSessionsByDate(LocalDate date) {
-        List<GymSession> sessions = gymSessionRepository.findBySessionDateOrderByStartTime(date);
         List<Object> result = new ArrayList<>();
-        for (GymSession session : sessions) {
+        for (SessionSlot session : sessionsOn(date)) {
             Map<String, Object> map = new HashMap<>();
-            map.put("id", session.getId());
+            map.put("id", session.getSessionId());
             map.put("date", session.getSessionDate());
             map.put("startTime", session.getStartTime());
             map.put("endTime", session.getEndTime());
@@ -122,12 +175,11 @@ public class GymSessionServiceImpl implements GymSessionService {
 
     @Override
     public List<Map<String, Object>> getAvailableTimeSlots(LocalDate date) {
-        List<GymSession> sessions = gymSessionRepository.findBySessionDateOrderByStartTime(date);
         List<Map<String, Object>> result = new ArrayList<>();
-        for (GymSession session : sessions) {
+        for (SessionSlot session : sessionsOn(date)) {
             if (session.hasAvailability()) {
                 Map<String, Object> map = new HashMap<>();
-                map.put("sessionId", session.getId());
+                map.put("sessionId", session.getSessionId());
                 map.put("date", session.getSessionDate());
                 map.put("startTime", session.getStartTime());
                 map.put("endTime", session.getEndTime());
@@ -139,37 +191,88 @@ public class GymSessionServiceImpl implements GymSessionService {
         return result;
     }
 
+    // Sesiones de la fecha ordenadas por hora, desde la caché si está disponible
+    private List<SessionSlot> sessionsOn(LocalDate date) {
+        if (availabilityCache != null) {
+            return availabilityCache.getSlots(date);
+        }
+        List<SessionSlot> slots = new ArrayList<>();
+        for (GymSession session : gymSessionRepository.findBySessionDateOrderByStartTime(date)) {
+            slots.add(SessionSlot.from(session));
+        }
+        return slots;
+    }
+
     @Override
     @Transactional
     public int configureRecurringSessions(int dayOfWeek, LocalTime startTime, LocalTime endTime, int capacity,
             Optional<String> description, UUID trainerId, LocalDate startDate, LocalDate endDate) {
-        int count = 0;
-        LocalDate date = startDate;
-        while (!date.isAfter(endDate)) {
-            if (date.getDayOfWeek().getValue() == dayOfWeek) {
-                // Prevent overlapping sessions for each recurrence
-                Optional<GymSession> overlapping = gymSessionRepository
-                        .findBySessionDateAndStartTimeLessThanEqualAndEndTimeGreaterThanEqual(date, startTime, endTime);
-                if (overlapping.isEmpty()) {
-                    GymSession session = new GymSession();
-                    session.setSessionDate(date);
-                    session.setStartTime(startTime);
-                    session.setEndTime(endTime);
-                    session.setCapacity(capacity);
-                    session.setReservedSpots(0);
-                    session.setTrainerId(trainerId);
-                    // If you have a description field, set it here
-                    gymSessionRepository.save(session);
-                    count++;
-                }
+        RecurrenceRuleDTO rule = new RecurrenceRuleDTO();
+        rule.setDayOfWeek(dayOfWeek);
+        rule.setStartTime(startTime);
+        rule.setEndTime(endTime);
+
+        RecurringScheduleDTO schedule = new RecurringScheduleDTO();
+        schedule.setStartDate(startDate);
+        schedule.setEndDate(endDate);
+        schedule.setCapacity(capacity);
+        schedule.setTrainerId(trainerId);
+        schedule.setRules(List.of(rule));
+        return configureRecurringSchedule(schedule).getCreated();
+    }
+
+    @Override
+    @Transactional
+    public RecurringScheduleResultDTO configureRecurringSchedule(RecurringScheduleDTO schedule) {
+        RecurringSchedulePlanner.validate(schedule);
+
+        // Cargar una sola vez las sesiones existentes del rango y planear en memoria
+        SessionScheduleIndex index = SessionScheduleIndex.of(
+                gymSessionRepository.findBySessionDateBetween(schedule.getStartDate(), schedule.getEndDate()));
+        RecurringSchedulePlanner.Plan plan = RecurringSchedulePlanner.plan(schedule, index);
+
+        RecurringScheduleResultDTO result = new RecurringScheduleResultDTO();
+        result.setConflicts(plan.getConflicts().stream().map(this::toSessionDTO).toList());
+        if (plan.getSessions().isEmpty()) {
+            return result;
+        }
+
+        // Insertar todas las sesiones nuevas en lotes (hibernate.jdbc.batch_size)
+        List<GymSession> saved = gymSessionRepository.saveAll(plan.getSessions());
+        for (GymSession session : saved) {
+            if (seatInventory != null) {
+                seatInventory.track(session);
             }
-            date = date.plusDays(1);
+            eventPublisher.publishEvent(new GymSessionChangedEvent(
+                    session.getId(), GymSessionChangedEvent.Change.CREATED, session.getSessionDate()));
+            result.getSessionIds().add(session.getId());
         }
-        return count;
+        result.setCreated(saved.size());
+        return result;
+    }
+
+    private GymSessionDTO toSessionDTO(GymSession session) {
+        GymSessionDTO dto = new GymSessionDTO();
+        dto.setSessionDate(session.getSessionDate());
+        dto.setStartTime(session.getStartTime());
+        dto.setEndTime(session.getEndTime());
+        dto.setCapacity(session.getCapacity());
+        dto.setReservedSpots(session.getReservedSpots());
+        dto.setTrainerId(session.getTrainerId());
+        return dto;
     }
 
     @Override
     public Map<LocalDate, Integer> getOccupancyStatistics(LocalDate startDate, LocalDate endDate) {
+        if (occupancyRollup != null) {
+            // Una fila agregada por día en lugar de todas las sesiones del periodo
+            Map<LocalDate, Integer> stats = new HashMap<>();
+            for (OccupancyBucketRepository.DailyTotals day : occupancyRollup.dailyTotals(startDate, endDate)) {
+                stats.put(day.getUsageDate(),
+                        day.getCapacity() > 0 ? (int) (day.getReserved() * 100 / day.getCapacity()) : 0);
+            }
+            return stats;
+        }
         List<GymSession> sessions = gymSessionRepository.findBySessionDateBetween(startDate, endDate);
         Map<LocalDate, Integer> stats = new HashMap<>();
         Map<LocalDate, List<GymSession>> grouped = new HashMap<>();
@@ -191,83 +294,78 @@ public class GymSessionServiceImpl implements GymSessionService {
 
     @Override
     public List<Map<String, Object>> getRegisteredStudentsForSession(UUID sessionId) {
-        // Verificar que existe la sesión
-        GymSession session = gymSessionRepository.findById(sessionId)
-                .orElseThrow(() -> new PrometeoExceptions(PrometeoExceptions.SESION_NO_ENCONTRADA));
+        // Lista del día desde la caché, sin ir a la base de datos
+        List<RosterEntry> roster = rosterCache != null ? rosterCache.getCached(sessionId) : null;
 
-        // Buscar todas las reservas para esa sesión
-        List<Reservation> reservations = reservationRepository.findBySessionId(sessionId);
+        if (roster == null) {
+            // Verificar que existe la sesión
+            GymSession session = gymSessionRepository.findById(sessionId)
+                    .orElseThrow(() -> new PrometeoExceptions(PrometeoExceptions.SESION_NO_ENCONTRADA));
 
-        // Transformar los resultados
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (Reservation reservation : reservations) {
-            // Obtener el usuario
-            User user = userRepository.findById(reservation.getUserId())
-                    .orElse(null);
-
-            if (user != null) {
-                Map<String, Object> studentInfo = new HashMap<>();
-                studentInfo.put("reservationId", reservation.getId());
-                studentInfo.put("userId", user.getId());
-                studentInfo.put("name", user.getName());
-                studentInfo.put("institutionalId", user.getInstitutionalId());
-                studentInfo.put("status", reservation.getStatus());
-                studentInfo.put("attended", reservation.getAttended());
-                studentInfo.put("attendanceTime", reservation.getAttendanceTime());
-
-                result.add(studentInfo);
-            }
+            // Reservas y estudiantes en una sola consulta
+            roster = rosterCache != null
+                    ? rosterCache.getRoster(sessionId, session.getSessionDate())
+                    : reservationRepository.findRosterBySessionId(sessionId).stream()
+                            .map(RosterEntry::from)
+                            .collect(Collectors.toList());
         }
 
+        // Transformar los resultados
+        List<Map<String, Object>> result = new ArrayList<>(roster.size());
+        for (RosterEntry entry : roster) {
+            result.add(entry.toMap());
+        }
         return result;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Map<String, Object> getTrainerAttendanceStatistics(UUID trainerId, LocalDate startDate, LocalDate endDate) {
-        // Buscar todas las sesiones del entrenador en el periodo
-        List<GymSession> sessions = gymSessionRepository.findByTrainerIdAndSessionDateBetween(
-                trainerId, startDate, endDate);
+        // Totales por día calculados en la base de datos con una sola consulta
+        List<GymSessionRepository.TrainerDailyAttendance> rows = gymSessionRepository
+                .sumAttendanceByTrainerAndDate(List.of(trainerId), startDate, endDate);
 
-        int totalSessions = sessions.size();
-        int totalCapacity = 0;
-        int totalReservations = 0;
-        int totalAttendance = 0;
+        long totalSessions = 0;
+        long totalCapacity = 0;
+        long totalReservations = 0;
+        long totalAttendance = 0;
 
         Map<LocalDate, Integer> dailyAttendance = new HashMap<>();
 
-        for (GymSession session : sessions) {
-            totalCapacity += session.getCapacity();
-            totalReservations += session.getReservedSpots();
-
-            // Buscar reservas para la sesión
-            List<Reservation> reservations = reservationRepository.findBySessionId(session.getId());
-            int sessionAttendance = (int) reservations.stream()
-                    .filter(r -> r.getAttended())
-                    .count();
-
-            totalAttendance += sessionAttendance;
-
-            // Agregar a estadísticas diarias
-            dailyAttendance.compute(session.getSessionDate(),
-                    (date, count) -> (count == null) ? sessionAttendance : count + sessionAttendance);
+        for (GymSessionRepository.TrainerDailyAttendance row : rows) {
+            totalSessions += row.getSessions();
+            totalCapacity += row.getCapacity();
+            totalReservations += row.getReserved();
+            totalAttendance += row.getAttended();
+            dailyAttendance.put(row.getSessionDate(), (int) row.getAttended());
         }
 
-        // Calcular porcentajes
-        double occupancyRate = totalCapacity > 0 ? (double) totalReservations / totalCapacity * 100 : 0;
-        double attendanceRate = totalReservations > 0 ? (double) totalAttendance / totalReservations * 100 : 0;
-
         Map<String, Object> statistics = new HashMap<>();
-        statistics.put("totalSessions", totalSessions);
-        statistics.put("totalCapacity", totalCapacity);
-        statistics.put("totalReservations", totalReservations);
-        statistics.put("totalAttendance", totalAttendance);
-        statistics.put("occupancyRate", Math.round(occupancyRate * 100) / 100.0); // Redondear a 2 decimales
-        statistics.put("attendanceRate", Math.round(attendanceRate * 100) / 100.0); // Redondear a 2 decimales
+        statistics.put("totalSessions", (int) totalSessions);
+        statistics.put("totalCapacity", (int) totalCapacity);
+        statistics.put("totalReservations", (int) totalReservations);
+        statistics.put("totalAttendance", (int) totalAttendance);
+        statistics.put("occupancyRate", AttendanceAggregator.rate(totalReservations, totalCapacity));
+        statistics.put("attendanceRate", AttendanceAggregator.rate(totalAttendance, totalReservations));
         statistics.put("dailyAttendance", dailyAttendance);
 
         return statistics;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<TrainerAttendanceStatsDTO> getAttendanceStatistics(Collection<UUID> trainerIds, LocalDate startDate,
+            LocalDate endDate, AggregationPeriod period) {
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException(PrometeoExceptions.RANGO_FECHAS_NO_VALIDO);
+        }
+        // Sin entrenadores explícitos se agregan todos en la misma consulta
+        List<GymSessionRepository.TrainerDailyAttendance> rows = trainerIds == null || trainerIds.isEmpty()
+                ? gymSessionRepository.sumAttendanceByTrainerAndDate(startDate, endDate)
+                : gymSessionRepository.sumAttendanceByTrainerAndDate(trainerIds, startDate, endDate);
+        return AttendanceAggregator.aggregate(rows, period != null ? period : AggregationPeriod.DAY);
+    }
+
     @Override
 public Object getSessionById(UUID sessionId) {
     GymSession session = gymSessionRepository.findById(sessionId)
@@ -1,127 +1,160 @@
 package edu.eci.cvds.prometeo.service.impl;
 
-import edu.eci.cvds.prometeo.model.GymSession;
-import edu.eci.cvds.prometeo.model.Reservation;
-import edu.eci.cvds.prometeo.repository.GymSessionRepository;
-import edu.eci.cvds.prometeo.repository.ReservationRepository;
-import edu.eci.cvds.prometeo.repository.UserRepository;
+import edu.eci.cvds.prometeo.dto.CursorPageDTO;
+import edu.eci.cvds.prometeo.dto.NotificationDTO;
+import edu.eci.cvds.prometeo.event.NotificationsChangedEvent;
+import edu.eci.cvds.prometeo.model.Notification;
+import edu.eci.cvds.prometeo.repository.NotificationRepository;
 import edu.eci.cvds.prometeo.service.NotificationService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import edu.eci.cvds.prometeo.service.notification.NotificationMessages;
+import edu.eci.cvds.prometeo.service.notification.UnreadCounterCache;
+import edu.eci.cvds.prometeo.service.paging.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
- * Implementation of the notification service
+ * Implementation of the notification service.
+ *
+ * Every notification is written to the notifications table, which doubles as an outbox:
+ * the row commits or rolls back together with the business change that caused it, and
+ * {@link edu.eci.cvds.prometeo.service.notification.NotificationDispatcher} delivers it
+ * afterwards. Session details are filled in at delivery time, so nothing is read here.
+ *
+ * The inbox is paged by {@code (created_at, id)} keyset, newest first, and unread counts
+ * are served from {@link UnreadCounterCache} when it is enabled.
  */
 @Service
 public class NotificationServiceImpl implements NotificationService {
-    private static final Logger logger = LoggerFactory.getLogger(NotificationServiceImpl.class);
-    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private static final List<Boolean> UNREAD = List.of(false);
+    private static final List<Boolean> ANY_STATE = List.of(false, true);
 
     @Autowired
-    private UserRepository userRepository;
-    
-    @Autowired
-    private GymSessionRepository gymSessionRepository;
-    
+    private NotificationRepository notificationRepository;
+
+    // Contadores de no leídas por usuario en memoria, opcional (prometeo.unread-counters.enabled)
+    @Autowired(required = false)
+    private UnreadCounterCache unreadCounterCache;
+
     @Autowired
-    private ReservationRepository reservationRepository;
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
+    @Transactional
     public boolean sendNotification(UUID userId, String title, String message, String type, Optional<UUID> referenceId) {
-        // In a real implementation, this would connect to an email service, push notification system, etc.
-        // For now, we'll just log the notification
-        logger.info("Notification sent to user {}: {} - {}", userId, title, message);
-        logger.info("Type: {}, Reference: {}", type, referenceId.orElse(null));
-        
-        // In a real implementation, handle errors and return false if sending fails
+        enqueue(userId, title, message, type, referenceId.orElse(null));
         return true;
     }
 
+    @Override
+    @Transactional
     public boolean sendSpotAvailableNotification(UUID userId, UUID sessionId) {
-        // En una implementación real, esto enviaría un email o push notification
-        // Por ahora, solo registramos en el log
-        
-        Optional<GymSession> sessionOpt = gymSessionRepository.findById(sessionId);
-        if (sessionOpt.isEmpty()) {
-            logger.error("No se pudo enviar notificación: sesión {} no encontrada", sessionId);
-            return false;
-        }
-        
-        GymSession session = sessionOpt.get();
-        
-        logger.info("NOTIFICACIÓN: Cupo disponible para usuario {}", userId);
-        logger.info("Fecha: {}, Horario: {} - {}", 
-                session.getSessionDate().format(DATE_FORMATTER),
-                session.getStartTime().format(TIME_FORMATTER),
-                session.getEndTime().format(TIME_FORMATTER));
-        
+        // Los detalles de la sesión se completan al entregar la notificación
+        enqueue(userId, "Cupo disponible",
+                "Se liberó un cupo en una sesión de tu lista de espera",
+                NotificationMessages.SPOT_AVAILABLE, sessionId);
         return true;
     }
     
     @Override
+    @Transactional
     public boolean sendReservationConfirmation(UUID userId, UUID reservationId) {
-        // En una implementación real, esto enviaría un email o push notification
-        
-        Optional<Reservation> reservationOpt = reservationRepository.findById(reservationId);
-        if (reservationOpt.isEmpty()) {
-            logger.error("No se pudo enviar confirmación: reserva {} no encontrada", reservationId);
-            return false;
-        }
-        
-        Reservation reservation = reservationOpt.get();
-        Optional<GymSession> sessionOpt = gymSessionRepository.findById(reservation.getSessionId());
-        
-        if (sessionOpt.isEmpty()) {
-            logger.error("No se pudo enviar confirmación: sesión {} no encontrada", reservation.getSessionId());
-            return false;
-        }
-        
-        GymSession session = sessionOpt.get();
-        
-        logger.info("CONFIRMACIÓN DE RESERVA para usuario {}", userId);
-        logger.info("Reserva ID: {}", reservationId);
-        logger.info("Fecha: {}, Horario: {} - {}", 
-                session.getSessionDate().format(DATE_FORMATTER),
-                session.getStartTime().format(TIME_FORMATTER),
-                session.getEndTime().format(TIME_FORMATTER));
-        
+        enqueue(userId, "Reserva confirmada",
+                "Tu reserva ha sido confirmada",
+                NotificationMessages.RESERVATION_CONFIRMATION, reservationId);
         return true;
     }
     
     @Override
+    @Transactional
     public boolean sendSessionReminder(UUID userId, UUID reservationId) {
-        // Similar a los métodos anteriores, pero para recordatorios
-        
-        Optional<Reservation> reservationOpt = reservationRepository.findById(reservationId);
-        if (reservationOpt.isEmpty()) {
-            logger.error("No se pudo enviar recordatorio: reserva {} no encontrada", reservationId);
-            return false;
+        enqueue(userId, NotificationMessages.SESSION_REMINDER_TITLE,
+                NotificationMessages.SESSION_REMINDER_MESSAGE,
+                NotificationMessages.SESSION_REMINDER, reservationId);
+        return true;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<NotificationDTO> getInbox(UUID userId, boolean unreadOnly, String cursor, Integer limit) {
+        int size = KeysetCursor.pageSize(limit);
+        KeysetCursor before = KeysetCursor.decode(cursor);
+        List<Boolean> readStates = unreadOnly ? UNREAD : ANY_STATE;
+        // Se pide una fila extra solo para saber si hay una página siguiente
+        PageRequest window = PageRequest.of(0, size + 1);
+        List<Notification> rows = before == null
+                ? notificationRepository.findInboxFirstPage(userId, readStates, window)
+                : notificationRepository.findInboxPageBefore(userId, readStates, before.getCreatedAt(), before.getId(), window);
+        return KeysetCursor.page(rows, size,
+                notification -> KeysetCursor.of(notification.getCreatedAt(), notification.getId()),
+                page -> page.stream().map(this::convertToDTO).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getUnreadCount(UUID userId) {
+        return unreadCounterCache != null
+                ? unreadCounterCache.get(userId)
+                : notificationRepository.countByUserIdAndReadFalseAndDeletedAtIsNull(userId);
+    }
+
+    @Override
+    @Transactional
+    public int markAsRead(UUID userId, List<UUID> notificationIds) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            return 0;
         }
-        
-        Reservation reservation = reservationOpt.get();
-        Optional<GymSession> sessionOpt = gymSessionRepository.findById(reservation.getSessionId());
-        
-        if (sessionOpt.isEmpty()) {
-            logger.error("No se pudo enviar recordatorio: sesión {} no encontrada", reservation.getSessionId());
-            return false;
+        int updated = notificationRepository.markRead(userId, Set.copyOf(notificationIds));
+        if (updated > 0) {
+            eventPublisher.publishEvent(new NotificationsChangedEvent(List.of(userId)));
         }
-        
-        GymSession session = sessionOpt.get();
-        
-        logger.info("RECORDATORIO DE SESIÓN para usuario {}", userId);
-        logger.info("Reserva ID: {}", reservationId);
-        logger.info("Fecha: {}, Horario: {} - {}", 
-                session.getSessionDate().format(DATE_FORMATTER),
-                session.getStartTime().format(TIME_FORMATTER),
-                session.getEndTime().format(TIME_FORMATTER));
-        
-        return true;
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int markAllAsRead(UUID userId) {
+        int updated = notificationRepository.markAllRead(userId);
+        if (updated > 0) {
+            eventPublisher.publishEvent(new NotificationsChangedEvent(List.of(userId)));
+        }
+        return updated;
+    }
+
+    private NotificationDTO convertToDTO(Notification notification) {
+        NotificationDTO dto = new NotificationDTO();
+        dto.setId(notification.getId());
+        dto.setUserId(notification.getUserId());
+        dto.setTitle(notification.getTitle());
+        dto.setMessage(notification.getMessage());
+        dto.setType(notification.getType());
+        dto.setRead(notification.isRead());
+        dto.setScheduledTime(notification.getScheduledTime());
+        dto.setSentTime(notification.getSentTime());
+        dto.setRelatedEntityId(notification.getRelatedEntityId());
+        return dto;
+    }
+
+    private Notification enqueue(UUID userId, String title, String message, String type, UUID relatedEntityId) {
+        Notification notification = new Notification();
+        notification.setUserId(userId);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setType(type);
+        notification.setRelatedEntityId(relatedEntityId);
+        notification.setNextAttemptAt(LocalDateTime.now());
+        Notification saved = notificationRepository.save(notification);
+        eventPublisher.publishEvent(new NotificationsChangedEvent(List.of(userId)));
+        return saved;
     }
 }
@@ -5,6 +5,11 @@ import edu.eci.cvds.prometeo.model.*;
 import edu.eci.cvds.prometeo.openai.OpenAiClient;
 import edu.eci.cvds.prometeo.repository.*;
 import edu.eci.cvds.prometeo.service.RecommendationService;
+import edu.eci.cvds.prometeo.service.recommendation.LocalRecommendationEngine;
+import edu.eci.cvds.prometeo.service.recommendation.RecommendationCache;
+import edu.eci.cvds.prometeo.service.recommendation.RoutineIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -14,6 +19,10 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 
@@ -23,6 +32,10 @@ import java.util.stream.Collectors;
  */
 @Service
 public class RecommendationServiceImpl implements RecommendationService {
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationServiceImpl.class);
+
+    // Las descripciones largas se recortan para acotar el tamaño del prompt
+    private static final int MAX_PROMPT_DESCRIPTION_LENGTH = 200;
 
     @Autowired
     private RoutineRepository routineRepository;
@@ -40,8 +53,21 @@ public class RecommendationServiceImpl implements RecommendationService {
     @Autowired
     private OpenAiClient openAiClient;
 
+    @Autowired(required = false)
+    private RecommendationCache recommendationCache;
+
+    @Autowired(required = false)
+    private RoutineIndex routineIndex;
+
+    @Autowired(required = false)
+    private LocalRecommendationEngine localEngine;
+
     /**
      * Generates and saves routine recommendations for a user using their goals and available routines.
+     * Users with the same active goals share the answer of the model while the routine catalog
+     * does not change, so only the first of them waits for it. With the local engine enabled,
+     * the model's answer is blended with the local ranking, and the local ranking alone is used
+     * when the model is not configured, fails or does not answer within the budget.
      *
      * @param userId The UUID of the user for whom recommendations are to be generated.
      */
@@ -51,24 +77,81 @@ public class RecommendationServiceImpl implements RecommendationService {
                 .orElseThrow(() -> new PrometeoExceptions(PrometeoExceptions.NO_EXISTE_USUARIO));
 
         List<Goal> goals = goalRepository.findByUserIdAndActive(userId, true);
-        List<Routine> allRoutines = routineRepository.findAll();
+        List<String> goalTexts = goals.stream().map(Goal::getGoal).collect(Collectors.toList());
+        String catalogVersion = recommendationCache != null || routineIndex != null || localEngine != null
+                ? RecommendationCache.catalogVersion(routineRepository.findCatalogVersion())
+                : null;
+
+        List<UUID> ids = modelRecommendations(goals, goalTexts, catalogVersion);
+        if (localEngine != null) {
+            ids = localEngine.blend(ids, localEngine.recommend(userId, goalTexts, catalogVersion));
+        }
+        return buildRecommendations(ids, user);
+    }
+
+    /*
+     * Routine IDs recommended by the model for a goal set, from the cache when possible.
+     *
+     * @return The recommended IDs, empty when the model is skipped, fails or misses its budget.
+     */
+    private List<UUID> modelRecommendations(List<Goal> goals, List<String> goalTexts, String catalogVersion) {
+        if (localEngine != null && (localEngine.isLocalOnly() || !openAiClient.isConfigured())) {
+            return List.of();
+        }
 
-        String prompt = buildPrompt(goals, allRoutines);
+        String cacheKey = null;
+        if (recommendationCache != null) {
+            cacheKey = RecommendationCache.key(goalTexts, catalogVersion);
+            Optional<List<UUID>> cached = recommendationCache.get(cacheKey);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+
+        // Con el índice solo viajan al modelo las rutinas más afines a las metas
+        List<Routine> candidates = routineIndex != null
+                ? routineIndex.candidates(goalTexts, catalogVersion)
+                : routineRepository.findAll();
+        String prompt = buildPrompt(goals, candidates);
+        String key = cacheKey;
 
         try {
-            String response = openAiClient.queryModel(prompt);
-            List<UUID> ids = parseUUIDList(response);
-            return buildRecommendations(ids, user);
+            if (localEngine == null) {
+                List<UUID> ids = parseUUIDList(openAiClient.queryModel(prompt));
+                cacheModelAnswer(key, ids);
+                return ids;
+            }
+            // Si excede el presupuesto la consulta sigue en segundo plano y su respuesta igual queda en caché
+            CompletableFuture<List<UUID>> answer = openAiClient.queryModelAsync(prompt).thenApply(this::parseUUIDList);
+            answer.thenAccept(ids -> cacheModelAnswer(key, ids));
+            return answer.get(localEngine.modelBudget().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("OpenAI did not answer within the budget, using local recommendations");
+            return List.of();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
         } catch (Exception e) {
-            e.printStackTrace();
-            return new ArrayList<>();
+            // Con el circuito abierto cada consulta falla igual; basta una línea por consulta
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            logger.warn("OpenAI recommendations unavailable: {}", cause.toString());
+            logger.debug("OpenAI recommendations failure", cause);
+            return List.of();
         }
     }
+
+    // Solo se guardan respuestas útiles; un fallo del modelo se reintenta en la siguiente consulta
+    private void cacheModelAnswer(String cacheKey, List<UUID> ids) {
+        if (cacheKey != null && !ids.isEmpty()) {
+            recommendationCache.put(cacheKey, ids);
+        }
+    }
+
     /*
      * Builds a natural language prompt to send to OpenAI based on user goals and available routines.
      *
      * @param goals        The list of active goals for the user.
-     * @param allRoutines  All available routines in the system.
+     * @param allRoutines  The candidate routines, the whole catalog when no index is available.
      * @return A formatted string prompt describing goals and routines.
      */
     private String buildPrompt(List<Goal> goals, List<Routine> allRoutines) {
@@ -82,7 +165,7 @@ public class RecommendationServiceImpl implements RecommendationService {
         for (Routine routine : allRoutines) {
             prompt.append("- ID: ").append(routine.getId())
                     .append(" | Nombre: ").append(routine.getName())
-                    .append(" | Descripción: ").append(routine.getDescription()).append("\n");
+                    .append(" | Descripción: ").append(truncate(routine.getDescription())).append("\n");
         }
 
         prompt.append("Según las metas del usuario, responde solo con los IDs de las rutinas recomendadas, separados por comas (máximo 10 recomendaciones).\n");
@@ -91,6 +174,13 @@ public class RecommendationServiceImpl implements RecommendationService {
         return prompt.toString();
     }
 
+    private static String truncate(String description) {
+        if (description == null || description.length() <= MAX_PROMPT_DESCRIPTION_LENGTH) {
+            return description;
+        }
+        return description.substring(0, MAX_PROMPT_DESCRIPTION_LENGTH) + "…";
+    }
+
     /*
      * Extracts UUIDs from OpenAI response by parsing the JSON and searching for valid UUID patterns.
      *
@@ -119,8 +209,7 @@ public class RecommendationServiceImpl implements RecommendationService {
                 }
             }
         } catch (Exception e) {
-            // Log the error
-            System.err.println("Error parsing OpenAI response: " + e.getMessage());
+            logger.warn("Error parsing OpenAI response: {}", e.getMessage());
         }
 
         return result;
@@ -162,9 +251,30 @@ public class RecommendationServiceImpl implements RecommendationService {
             });
         }
 
+        if (!recommendedRoutines.isEmpty()) {
+            deactivateStale(user.getId(), routineIds);
+        }
         return recommendedRoutines;
     }
 
+    /*
+     * Deactivates the user's active recommendations that are not part of the new set.
+     * Runs after the new set is saved, so the user always has recommendations to read.
+     *
+     * @param userId     The UUID of the user.
+     * @param routineIds The routine UUIDs of the new set.
+     */
+    private void deactivateStale(UUID userId, List<UUID> routineIds) {
+        Set<UUID> current = new HashSet<>(routineIds);
+        List<Recommendation> stale = recommendationRepository.findByUserIdAndActive(userId, true).stream()
+                .filter(rec -> rec.getRoutine() == null || !current.contains(rec.getRoutine().getId()))
+                .collect(Collectors.toList());
+        if (!stale.isEmpty()) {
+            stale.forEach(rec -> rec.setActive(false));
+            recommendationRepository.saveAll(stale);
+        }
+    }
+
     /**
      * Retrieves all active recommended routines for a specific user.
      *
@@ -1,12 +1,15 @@
 package edu.eci.cvds.prometeo.service.impl;
 
+import edu.eci.cvds.prometeo.PrometeoExceptions;
 import edu.eci.cvds.prometeo.model.GymSession;
 import edu.eci.cvds.prometeo.model.PhysicalProgress;
 import edu.eci.cvds.prometeo.repository.*;
+import edu.eci.cvds.prometeo.repository.OccupancyBucketRepository.DailyTotals;
 import edu.eci.cvds.prometeo.service.ReportService;
 import edu.eci.cvds.prometeo.model.enums.ReportFormat;
 
 import edu.eci.cvds.prometeo.service.report.ReportGenerator;
+import edu.eci.cvds.prometeo.service.rollup.OccupancyRollup;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -25,6 +28,8 @@ public class ReportServiceImpl implements ReportService {
     private PhysicalProgressRepository physicalProgressRepository;
     @Autowired
     private GymSessionRepository gymSessionRepository;
+    @Autowired(required = false)
+    private OccupancyRollup occupancyRollup;
 
     private final ReportGenerator reportGenerator = new ReportGenerator();
 
@@ -73,6 +78,9 @@ public class ReportServiceImpl implements ReportService {
      */
     @Override
     public byte[] generateGymUsageReport(LocalDate startDate, LocalDate endDate, ReportFormat format) {
+        if (occupancyRollup != null) {
+            return generateGymUsageReportFromRollup(startDate, endDate, format);
+        }
         List<GymSession> sessions = gymSessionRepository.findBySessionDateBetween(startDate, endDate);
 
         Map<String, Object> metrics = generateMetrics(sessions, startDate, endDate);
@@ -103,29 +111,100 @@ public class ReportServiceImpl implements ReportService {
      * @return A map containing key metrics (total sessions, total capacity, total reserved spots, etc.).
      */
     private Map<String, Object> generateMetrics(List<GymSession> sessions, LocalDate startDate, LocalDate endDate) {
-        long totalSessions = sessions.size();
         int totalCapacity = sessions.stream().mapToInt(GymSession::getCapacity).sum();
         int totalReserved = sessions.stream().mapToInt(GymSession::getReservedSpots).sum();
-        double utilizationRate = totalCapacity > 0 ? (totalReserved * 100.0 / totalCapacity) : 0;
-        double avgUtilization = sessions.isEmpty() ? 0.0 : sessions.stream()
+        double utilizationSum = sessions.stream()
+                .filter(s -> s.getCapacity() > 0)
                 .mapToDouble(s -> s.getReservedSpots() * 100.0 / s.getCapacity())
-                .average().orElse(0.0);
-        double avgDuration = sessions.isEmpty() ? 0.0 : sessions.stream()
-                .mapToLong(s -> s.getDuration().toMinutes())
-                .average().orElse(0.0);
+                .sum();
+        long totalMinutes = sessions.stream().mapToLong(s -> s.getDuration().toMinutes()).sum();
+        return generateMetrics(startDate, endDate, sessions.size(), totalCapacity, totalReserved,
+                utilizationSum, totalMinutes);
+    }
+
+    /*
+     * Builds the gym usage metrics from period totals.
+     *
+     * @param utilizationSum Sum of the utilization percentage of every session.
+     * @param totalMinutes Sum of the duration of every session.
+     * @return A map containing key metrics (total sessions, total capacity, total reserved spots, etc.).
+     */
+    private Map<String, Object> generateMetrics(LocalDate startDate, LocalDate endDate, long totalSessions,
+                                                long totalCapacity, long totalReserved, double utilizationSum,
+                                                long totalMinutes) {
+        double utilizationRate = totalCapacity > 0 ? (totalReserved * 100.0 / totalCapacity) : 0;
+        double avgUtilization = totalSessions > 0 ? utilizationSum / totalSessions : 0.0;
+        double avgDuration = totalSessions > 0 ? (double) totalMinutes / totalSessions : 0.0;
 
         return Map.of(
                 "startDate", startDate.toString(),
                 "endDate", endDate.toString(),
                 "totalSessions", totalSessions,
-                "totalCapacity", totalCapacity,
-                "totalReservedSpots", totalReserved,
+                "totalCapacity", (int) totalCapacity,
+                "totalReservedSpots", (int) totalReserved,
                 "utilizationRate", String.format("%.2f", utilizationRate) + "%",
                 "averageUtilizationPerSession", String.format("%.2f", avgUtilization) + "%",
                 "averageSessionDurationMinutes", String.format("%.2f", avgDuration)
         );
     }
 
+    /*
+     * Generates the gym usage report from the daily occupancy rollup, one row per day.
+     */
+    private byte[] generateGymUsageReportFromRollup(LocalDate startDate, LocalDate endDate, ReportFormat format) {
+        List<DailyTotals> days = occupancyRollup.dailyTotals(startDate, endDate);
+
+        Map<String, Object> metrics = generateMetrics(startDate, endDate,
+                days.stream().mapToLong(DailyTotals::getSessions).sum(),
+                days.stream().mapToLong(DailyTotals::getCapacity).sum(),
+                days.stream().mapToLong(DailyTotals::getReserved).sum(),
+                days.stream().mapToDouble(DailyTotals::getUtilizationSum).sum(),
+                days.stream().mapToLong(DailyTotals::getSessionMinutes).sum());
+        List<String> headers = List.of("Fecha", "Capacidad Total", "Reservas Totales", "Tasa de Utilización", "Utilización Promedio", "Duración Promedio");
+
+        try {
+            return switch (format) {
+                case PDF -> reportGenerator.generatePDF(days, "Reporte de Uso del Gimnasio", this::mapDayLine);
+                case XLSX -> reportGenerator.generateXLSX(days, headers, this::mapDayRow);
+                case CSV -> reportGenerator.generateCSV(days, headers, this::mapDayRow);
+                case JSON -> reportGenerator.generateJSON(List.of(metrics));
+            };
+        } catch (IOException e) {
+            throw new RuntimeException("Error generando reporte en formato: " + format, e);
+        }
+    }
+
+    /*
+     * Maps the usage totals of one day to a row of data for the report.
+     */
+    private List<String> mapDayRow(DailyTotals day) {
+        return List.of(
+                day.getUsageDate().toString(),
+                String.valueOf(day.getCapacity()),
+                String.valueOf(day.getReserved()),
+                String.format("%.2f", percentage(day.getReserved(), day.getCapacity())) + "%",
+                String.format("%.2f", day.getSessions() > 0 ? day.getUtilizationSum() / day.getSessions() : 0.0),
+                String.format("%.2f", day.getSessions() > 0 ? (double) day.getSessionMinutes() / day.getSessions() : 0.0)
+        );
+    }
+
+    /*
+     * Maps the usage totals of one day to a line of data for the report.
+     */
+    private String mapDayLine(DailyTotals day) {
+        return String.format(
+                "Fecha: %s | Capacidad Total: %d | Reservas Totales: %d | Tasa de Utilización: %.2f%% | Utilización Promedio: %.2f%% | Duración Promedio: %d minutos",
+                day.getUsageDate(), day.getCapacity(), day.getReserved(),
+                percentage(day.getReserved(), day.getCapacity()),
+                day.getSessions() > 0 ? day.getUtilizationSum() / day.getSessions() : 0.0,
+                day.getSessions() > 0 ? day.getSessionMinutes() / day.getSessions() : 0
+        );
+    }
+
+    private static double percentage(long part, long total) {
+        return total > 0 ? part * 100.0 / total : 0.0;
+    }
+
     /*
      * Maps a gym session to a row of data for the report.
      *
@@ -170,10 +249,16 @@ private String mapLine(GymSession session) {
      */
     @Override
     public byte[] getAttendanceStatistics(LocalDate startDate, LocalDate endDate, ReportFormat format) {
-        List<GymSession> sessions = gymSessionRepository.findBySessionDateBetween(startDate, endDate);
-        Map<LocalDate, Integer> attendanceStats = new HashMap<>();
-        for (GymSession session : sessions) {
-            attendanceStats.put(session.getSessionDate(), session.getReservedSpots());
+        Map<LocalDate, Integer> attendanceStats = new LinkedHashMap<>();
+        if (occupancyRollup != null) {
+            for (DailyTotals day : occupancyRollup.dailyTotals(startDate, endDate)) {
+                attendanceStats.put(day.getUsageDate(), (int) day.getReserved());
+            }
+        } else {
+            List<GymSession> sessions = gymSessionRepository.findBySessionDateBetween(startDate, endDate);
+            for (GymSession session : sessions) {
+                attendanceStats.merge(session.getSessionDate(), session.getReservedSpots(), Integer::sum);
+            }
         }
         List<String> headers = List.of("Fecha", "Asistencias");
         Function<Map.Entry<LocalDate, Integer>, List<String>> rowMapper = entry -> List.of(
@@ -198,4 +283,22 @@ private String mapLine(GymSession session) {
             throw new RuntimeException("Error generando reporte en formato: " + format, e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Recomputes the daily occupancy rollup for a date range.
+     *
+     * @param startDate The first date to rebuild.
+     * @param endDate The last date to rebuild.
+     * @return The number of rollup rows written.
+     */
+    @Override
+    public int rebuildOccupancyRollup(LocalDate startDate, LocalDate endDate) {
+        if (occupancyRollup == null) {
+            throw new IllegalArgumentException(PrometeoExceptions.RESUMEN_OCUPACION_DESHABILITADO);
+        }
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException(PrometeoExceptions.RANGO_FECHAS_NO_VALIDO);
+        }
+        return occupancyRollup.rebuild(startDate, endDate);
+    }
+}
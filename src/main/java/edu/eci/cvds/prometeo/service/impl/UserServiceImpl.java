@@ -1,13 +1,25 @@
 package edu.eci.cvds.prometeo.service.impl;
 
 import edu.eci.cvds.prometeo.dto.*;
+import edu.eci.cvds.prometeo.event.AttendanceRecordedEvent;
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
 import edu.eci.cvds.prometeo.model.*;
 import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
 import edu.eci.cvds.prometeo.repository.*;
 import edu.eci.cvds.prometeo.service.PhysicalProgressService;
 import edu.eci.cvds.prometeo.service.RoutineService;
 import edu.eci.cvds.prometeo.service.UserService;
+import edu.eci.cvds.prometeo.service.availability.AvailabilitySnapshotCache;
+import edu.eci.cvds.prometeo.service.availability.SessionSlot;
+import edu.eci.cvds.prometeo.service.inventory.SeatInventory;
+import edu.eci.cvds.prometeo.service.paging.KeysetCursor;
+import edu.eci.cvds.prometeo.service.schedule.SessionIntervalTree;
+import edu.eci.cvds.prometeo.service.waitlist.FreedSeatHandler;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,7 +27,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementación del servicio central de usuario que maneja todas las operaciones
@@ -76,6 +90,18 @@ public class UserServiceImpl implements UserService {
     private PhysicalProgressService physicalProgressService; // Inyectar el servicio especializado
     @Autowired
     private RoutineService routineService; // Inyectar el servicio especializado para rutinas
+    @Autowired(required = false)
+    private SeatInventory seatInventory; // Inventario de cupos en memoria, opcional
+    @Autowired(required = false)
+    private AvailabilitySnapshotCache availabilityCache; // Caché de disponibilidad por fecha, opcional
+    @Autowired
+    private FreedSeatHandler freedSeatHandler; // Retiene o libera los cupos de las reservas canceladas
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final int STREAM_CHUNK_SIZE = 500;
 
     // ------------- Operaciones básicas de usuario -------------
 
@@ -100,6 +126,36 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<User> getUsersPage(String cursor, Integer limit) {
+        int size = KeysetCursor.pageSize(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        // Una fila extra indica si existe una página siguiente
+        PageRequest window = PageRequest.of(0, size + 1);
+        List<User> rows = after == null
+                ? userRepository.findFirstPage(window)
+                : userRepository.findPageAfter(after.getCreatedAt(), after.getId(), window);
+        return KeysetCursor.page(rows, size, user -> KeysetCursor.of(user.getCreatedAt(), user.getId()),
+                ArrayList::new);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<User> sink) {
+        int read = 0;
+        try (Stream<User> users = userRepository.streamAllOrdered()) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                sink.accept(iterator.next());
+                // Vaciar el contexto de persistencia para mantener la memoria constante
+                if (++read % STREAM_CHUNK_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
     @Override
     public List<User> getUsersByRole(String role) {
         return userRepository.findByRole(role);
@@ -280,21 +336,17 @@ public class UserServiceImpl implements UserService {
     // ------------- Reservas de gimnasio -------------
 
     @Override
+@Transactional
 public UUID createGymReservation(UUID userId, LocalDate date, LocalTime startTime, LocalTime endTime, Optional<List<UUID>> equipmentIds) {
     // Verificar que el usuario existe
     User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
     
-    // Verificar disponibilidad de cupo
-    if (!checkGymAvailability(date, startTime, endTime)) {
-        throw new RuntimeException("No hay cupos disponibles para esta sesión");
-    }
-    
-    // Buscar la sesión apropiada
-    GymSession session = gymSessionRepository
-            .findBySessionDateAndStartTimeLessThanEqualAndEndTimeGreaterThanEqual(
-                date, startTime, endTime)
-            .orElseThrow(() -> new RuntimeException("No existe sesión para el horario solicitado"));
+    // Buscar la sesión apropiada: la primera que cubra el horario y tenga cupo
+    GymSession session = coveringSessions(date, startTime, endTime).stream()
+            .filter(GymSession::hasAvailability)
+            .findFirst()
+            .orElseThrow(() -> new RuntimeException("No hay cupos disponibles para esta sesión"));
     
     // Verificar si hay capacidad
     if (session.getReservedSpots() >= session.getCapacity()) {
@@ -313,9 +365,19 @@ public UUID createGymReservation(UUID userId, LocalDate date, LocalTime startTim
         reservation.setEquipmentIds(equipmentIds.get());
     }
     
-    // Actualizar la capacidad de la sesión
-    session.setReservedSpots(session.getReservedSpots() + 1);
-    gymSessionRepository.save(session);
+    // Rechazo inmediato en memoria si el inventario sabe que la sesión está llena
+    if (seatInventory != null) {
+        if (!seatInventory.tryAcquire(session.getId())) {
+            throw new RuntimeException("La sesión está a máxima capacidad");
+        }
+        seatInventory.releaseOnRollback(session.getId());
+    }
+    
+    // Reclamar el cupo de forma atómica (UPDATE condicional) para evitar sobrecupo
+    if (gymSessionRepository.claimSpot(session.getId()) == 0) {
+        throw new RuntimeException("La sesión está a máxima capacidad");
+    }
+    eventPublisher.publishEvent(new SessionOccupancyChangedEvent(session.getId(), session.getSessionDate(), 1));
     
     // Guardar la reserva
     Reservation savedReservation = reservationRepository.save(reservation);
@@ -327,6 +389,7 @@ public UUID createGymReservation(UUID userId, LocalDate date, LocalTime startTim
 }
 
 @Override
+@Transactional
 public boolean cancelGymReservation(UUID reservationId, UUID userId, Optional<String> reason) {
     // Buscar la reserva
     Reservation reservation = reservationRepository.findById(reservationId)
@@ -346,8 +409,8 @@ public boolean cancelGymReservation(UUID reservationId, UUID userId, Optional<St
     GymSession session = gymSessionRepository.findById(reservation.getSessionId())
             .orElseThrow(() -> new RuntimeException("Sesión no encontrada"));
     
-    session.setReservedSpots(session.getReservedSpots() - 1);
-    gymSessionRepository.save(session);
+    // Igual que en la cancelación desde reservas: el cupo se retiene para la lista de espera o se libera
+    freedSeatHandler.giveBack(session);
     
     // Actualizar la reserva
     reservation.setStatus(ReservationStatus.CANCELLED);
@@ -360,57 +423,58 @@ public boolean cancelGymReservation(UUID reservationId, UUID userId, Optional<St
 }
 
 @Override
-public List<Object> getUpcomingReservations(UUID userId) {
-    // Obtener reservas futuras del usuario
-    LocalDate today = LocalDate.now();
-    List<Reservation> reservations = reservationRepository
-            .findByUserIdAndReservationDateGreaterThanEqualAndStatusOrderByReservationDateAsc(
-                userId, LocalDateTime.now(), ReservationStatus.CONFIRMED);
-    
-    return convertReservationsToMaps(reservations);
+public List<ReservationHistoryDTO> getUpcomingReservations(UUID userId) {
+    // Reservas futuras con los datos de su sesión en una sola consulta
+    return reservationRepository
+            .findUpcomingWithSession(userId, LocalDateTime.now(), ReservationStatus.CONFIRMED)
+            .stream()
+            .map(this::toHistoryDTO)
+            .collect(Collectors.toList());
 }
 
 @Override
-public List<Object> getReservationHistory(UUID userId, Optional<LocalDate> startDate, Optional<LocalDate> endDate) {
+public List<ReservationHistoryDTO> getReservationHistory(UUID userId, Optional<LocalDate> startDate, Optional<LocalDate> endDate) {
     LocalDate start = startDate.orElse(LocalDate.now().minusMonths(3));
     LocalDate end = endDate.orElse(LocalDate.now());
     
     LocalDateTime startDateTime = start.atStartOfDay();
     LocalDateTime endDateTime = end.atTime(23, 59, 59);
     
-    List<Reservation> reservations = reservationRepository
-            .findByUserIdAndReservationDateBetweenOrderByReservationDateDesc(
-                userId, startDateTime, endDateTime);
-    
-    return convertReservationsToMaps(reservations);
+    return reservationRepository
+            .findHistoryWithSession(userId, startDateTime, endDateTime)
+            .stream()
+            .map(this::toHistoryDTO)
+            .collect(Collectors.toList());
 }
 
 @Override
 public boolean checkGymAvailability(LocalDate date, LocalTime startTime, LocalTime endTime) {
-    // Verificar si hay una sesión disponible
-    Optional<GymSession> sessionOpt = gymSessionRepository
-            .findBySessionDateAndStartTimeLessThanEqualAndEndTimeGreaterThanEqual(
-                date, startTime, endTime);
-    
-    if (sessionOpt.isEmpty()) {
-        return false; // No hay sesión para ese horario
-    }
-    
-    GymSession session = sessionOpt.get();
-    return session.getReservedSpots() < session.getCapacity();
+    // Verificar si alguna de las sesiones que cubren el horario tiene cupo
+    return coveringSessions(date, startTime, endTime).stream()
+            .anyMatch(session -> session.getReservedSpots() < session.getCapacity());
+}
+
+// Sesiones de la fecha que cubren todo el horario, con una sola consulta por fecha
+private List<GymSession> coveringSessions(LocalDate date, LocalTime startTime, LocalTime endTime) {
+    return SessionIntervalTree.of(gymSessionRepository.findBySessionDateOrderByStartTime(date))
+            .covering(startTime, endTime);
 }
 
 @Override
 public List<Object> getAvailableTimeSlots(LocalDate date) {
-    // Obtener todas las sesiones para la fecha
-    List<GymSession> sessions = gymSessionRepository.findBySessionDateOrderByStartTime(date);
+    // Obtener todas las sesiones para la fecha, desde la caché si está disponible
+    List<SessionSlot> sessions = availabilityCache != null
+            ? availabilityCache.getSlots(date)
+            : gymSessionRepository.findBySessionDateOrderByStartTime(date).stream()
+                    .map(SessionSlot::from)
+                    .collect(Collectors.toList());
     List<Object> availableSlots = new ArrayList<>();
     
-    for (GymSession session : sessions) {
+    for (SessionSlot session : sessions) {
         // Solo incluir sesiones que aún tengan cupo
         if (session.getReservedSpots() < session.getCapacity()) {
             Map<String, Object> slot = new HashMap<>();
-            slot.put("sessionId", session.getId());
+            slot.put("sessionId", session.getSessionId());
             slot.put("date", session.getSessionDate());
             slot.put("startTime", session.getStartTime());
             slot.put("endTime", session.getEndTime());
@@ -423,35 +487,25 @@ public List<Object> getAvailableTimeSlots(LocalDate date) {
     return availableSlots;
 }
 
-// Método auxiliar para convertir reservas a maps
-private List<Object> convertReservationsToMaps(List<Reservation> reservations) {
-    List<Object> result = new ArrayList<>();
-    
-    for (Reservation reservation : reservations) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", reservation.getId());
-        map.put("date", reservation.getReservationDate().toLocalDate());
-        map.put("time", reservation.getReservationDate().toLocalTime());
-        map.put("status", reservation.getStatus());
-        
-        // Añadir detalles de la sesión
-        GymSession session = gymSessionRepository.findById(reservation.getSessionId())
-                .orElse(null);
-        
-        if (session != null) {
-            Map<String, Object> sessionDetails = new HashMap<>();
-            sessionDetails.put("id", session.getId());
-            sessionDetails.put("startTime", session.getStartTime());
-            sessionDetails.put("endTime", session.getEndTime());
-            sessionDetails.put("capacity", session.getCapacity());
-            
-            map.put("session", sessionDetails);
-        }
-        
-        result.add(map);
-    }
-    
-    return result;
+// Método auxiliar para convertir una fila de reserva con su sesión al DTO
+private ReservationHistoryDTO toHistoryDTO(ReservationRepository.ReservationWithSession row) {
+    ReservationHistoryDTO dto = new ReservationHistoryDTO();
+    dto.setId(row.getId());
+    dto.setDate(row.getReservationDate().toLocalDate());
+    dto.setTime(row.getReservationDate().toLocalTime());
+    dto.setStatus(row.getStatus());
+    
+    // La sesión puede no existir (LEFT JOIN)
+    if (row.getSessionId() != null) {
+        SessionSummaryDTO session = new SessionSummaryDTO();
+        session.setId(row.getSessionId());
+        session.setStartTime(row.getStartTime());
+        session.setEndTime(row.getEndTime());
+        session.setCapacity(row.getCapacity() != null ? row.getCapacity() : 0);
+        dto.setSession(session);
+    }
+    
+    return dto;
 }
 
 @Override
@@ -498,6 +552,8 @@ public boolean recordGymAttendance(UUID userId, UUID reservationId, LocalDateTim
     reservation.setAttended(true);
     reservation.setAttendanceTime(attendanceTime);
     reservationRepository.save(reservation);
+    eventPublisher.publishEvent(new AttendanceRecordedEvent(session.getId(), session.getSessionDate(),
+            reservation.getId(), attendanceTime));
     
     // Registrar en el historial de asistencia (opcional, si tienes otra tabla para esto)
     // attendanceHistoryRepository.save(new AttendanceHistory(userId, reservationId, attendanceTime));
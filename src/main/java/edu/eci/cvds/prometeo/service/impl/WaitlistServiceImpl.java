@@ -1,13 +1,15 @@
 package edu.eci.cvds.prometeo.service.impl;
 
-import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.event.WaitlistChangedEvent;
 import edu.eci.cvds.prometeo.model.WaitlistEntry;
 import edu.eci.cvds.prometeo.repository.GymSessionRepository;
 import edu.eci.cvds.prometeo.repository.UserRepository;
 import edu.eci.cvds.prometeo.repository.WaitlistRepository;
 import edu.eci.cvds.prometeo.service.NotificationService;
 import edu.eci.cvds.prometeo.service.WaitlistService;
+import edu.eci.cvds.prometeo.service.waitlist.WaitlistCounterCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,6 +32,13 @@ public class WaitlistServiceImpl implements WaitlistService {
     @Autowired
     private NotificationService notificationService;
     
+    // Contadores por sesión en memoria, opcional (prometeo.waitlist-counters.enabled)
+    @Autowired(required = false)
+    private WaitlistCounterCache counterCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     @Override
     @Transactional
     public UUID addToWaitlist(UUID userId, UUID sessionId) {
@@ -57,20 +66,14 @@ public class WaitlistServiceImpl implements WaitlistService {
         entry.setNotificationSent(false);
         
         WaitlistEntry saved = waitlistRepository.save(entry);
+        eventPublisher.publishEvent(new WaitlistChangedEvent(sessionId));
         return saved.getId();
     }
     
     @Override
     public int getWaitlistPosition(UUID userId, UUID sessionId) {
-        List<WaitlistEntry> entries = waitlistRepository.findBySessionIdOrderByRequestTimeAsc(sessionId);
-        
-        for (int i = 0; i < entries.size(); i++) {
-            if (entries.get(i).getUserId().equals(userId)) {
-                return i + 1; // Posiciones basadas en 1 (primera posición = 1)
-            }
-        }
-        
-        return 0; // Usuario no está en la lista de espera
+        // Cuenta en el índice las entradas anteriores en lugar de cargar toda la lista
+        return (int) waitlistRepository.findPosition(userId, sessionId);
     }
     
     @Override
@@ -93,6 +96,7 @@ public class WaitlistServiceImpl implements WaitlistService {
             entry.setNotificationSent(true);
             entry.setNotificationTime(LocalDateTime.now());
             waitlistRepository.save(entry);
+            eventPublisher.publishEvent(new WaitlistChangedEvent(sessionId));
         }
         
         return notified;
@@ -108,6 +112,7 @@ public class WaitlistServiceImpl implements WaitlistService {
         }
         
         waitlistRepository.deleteAll(entries);
+        eventPublisher.publishEvent(new WaitlistChangedEvent(sessionId));
         return true;
     }
     
@@ -115,16 +120,18 @@ public class WaitlistServiceImpl implements WaitlistService {
     public Map<String, Object> getWaitlistStats(UUID sessionId) {
         Map<String, Object> stats = new HashMap<>();
         
-        long totalCount = waitlistRepository.countBySessionId(sessionId);
-        List<WaitlistEntry> entries = waitlistRepository.findBySessionIdOrderByRequestTimeAsc(sessionId);
+        // Una sola consulta agregada, o los contadores en memoria si están disponibles
+        WaitlistRepository.WaitlistStats counters = counterCache != null
+                ? counterCache.get(sessionId)
+                : waitlistRepository.aggregateBySessionId(sessionId);
         
-        stats.put("totalCount", totalCount);
-        stats.put("notifiedCount", entries.stream().filter(WaitlistEntry::isNotificationSent).count());
-        stats.put("pendingCount", entries.stream().filter(e -> !e.isNotificationSent()).count());
+        stats.put("totalCount", counters.getTotal());
+        stats.put("notifiedCount", counters.getNotified());
+        stats.put("pendingCount", counters.getTotal() - counters.getNotified());
         
-        if (!entries.isEmpty()) {
-            stats.put("oldestRequest", entries.get(0).getRequestTime());
-            stats.put("newestRequest", entries.get(entries.size() - 1).getRequestTime());
+        if (counters.getTotal() > 0) {
+            stats.put("oldestRequest", counters.getOldestRequest());
+            stats.put("newestRequest", counters.getNewestRequest());
         }
         
         return stats;
@@ -132,25 +139,24 @@ public class WaitlistServiceImpl implements WaitlistService {
     
     @Override
     public List<Map<String, Object>> getUserWaitlistSessions(UUID userId) {
-        List<WaitlistEntry> entries = waitlistRepository.findByUserIdAndNotificationSentFalse(userId);
+        // Entradas, posiciones y sesiones en una sola consulta
+        List<WaitlistRepository.UserWaitlistRow> rows = waitlistRepository.findPendingWithPositionByUserId(userId);
         
-        return entries.stream().map(entry -> {
+        return rows.stream().map(row -> {
             Map<String, Object> entryMap = new HashMap<>();
-            entryMap.put("entryId", entry.getId());
-            entryMap.put("requestTime", entry.getRequestTime());
-            entryMap.put("position", getWaitlistPosition(userId, entry.getSessionId()));
+            entryMap.put("entryId", row.getEntryId());
+            entryMap.put("requestTime", row.getRequestTime());
+            entryMap.put("position", (int) row.getPosition());
             
             // Añadir información de la sesión
-            Optional<GymSession> sessionOpt = gymSessionRepository.findById(entry.getSessionId());
-            if (sessionOpt.isPresent()) {
-                GymSession session = sessionOpt.get();
+            if (row.getFoundSessionId() != null) {
                 Map<String, Object> sessionMap = new HashMap<>();
-                sessionMap.put("id", session.getId());
-                sessionMap.put("date", session.getSessionDate());
-                sessionMap.put("startTime", session.getStartTime());
-                sessionMap.put("endTime", session.getEndTime());
-                sessionMap.put("capacity", session.getCapacity());
-                sessionMap.put("reservedSpots", session.getReservedSpots());
+                sessionMap.put("id", row.getFoundSessionId());
+                sessionMap.put("date", row.getSessionDate());
+                sessionMap.put("startTime", row.getStartTime());
+                sessionMap.put("endTime", row.getEndTime());
+                sessionMap.put("capacity", row.getCapacity());
+                sessionMap.put("reservedSpots", row.getReservedSpots());
                 entryMap.put("session", sessionMap);
             }
             
@@ -0,0 +1,216 @@
+package edu.eci.cvds.prometeo.service.inventory;
+
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * In-process seat inventory for upcoming gym sessions.
+ *
+ * Keeps one lock-free counter per session so that reservations for a full session
+ * are rejected without touching the database. Admitted reservations still go through
+ * {@link GymSessionRepository#claimSpot(UUID)}, which remains the source of truth;
+ * the inventory only removes the database round trip for requests that are bound
+ * to fail, which is most of them when a popular class opens.
+ *
+ * Sessions that are not tracked (past sessions, sessions beyond the horizon) are
+ * not gated and fall back to the database check.
+ *
+ * Only meaningful for single-node deployments, so it is disabled by default:
+ * set {@code prometeo.seat-inventory.enabled=true} to turn it on.
+ */
+@Component
+@ConditionalOnProperty(name = "prometeo.seat-inventory.enabled", havingValue = "true")
+public class SeatInventory {
+    private static final Logger logger = LoggerFactory.getLogger(SeatInventory.class);
+
+    private final GymSessionRepository gymSessionRepository;
+    private final int horizonDays;
+    private final ConcurrentHashMap<UUID, Seats> seats = new ConcurrentHashMap<>();
+
+    public SeatInventory(GymSessionRepository gymSessionRepository,
+                         @Value("${prometeo.seat-inventory.horizon-days:14}") int horizonDays) {
+        this.gymSessionRepository = gymSessionRepository;
+        this.horizonDays = horizonDays;
+    }
+
+    /**
+     * Rebuilds the inventory for sessions between today and the configured horizon from their
+     * reserved spots, which count confirmed reservations and seats held for waitlisted users.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDate today = LocalDate.now();
+        List<GymSession> upcoming = gymSessionRepository.findBySessionDateBetween(today, today.plusDays(horizonDays));
+
+        Map<UUID, Seats> rebuilt = upcoming.stream().collect(Collectors.toMap(GymSession::getId,
+                session -> new Seats(session.getCapacity(), session.getReservedSpots()),
+                (a, b) -> a));
+
+        seats.clear();
+        seats.putAll(rebuilt);
+        logger.info("Seat inventory rebuilt for {} upcoming sessions", rebuilt.size());
+    }
+
+    /**
+     * Starts tracking a session, typically right after it is created.
+     */
+    public void track(GymSession session) {
+        LocalDate today = LocalDate.now();
+        if (session.getSessionDate() == null || session.getSessionDate().isBefore(today)
+                || session.getSessionDate().isAfter(today.plusDays(horizonDays))) {
+            return;
+        }
+        seats.put(session.getId(), new Seats(session.getCapacity(), session.getReservedSpots()));
+    }
+
+    /**
+     * Stops tracking a session, e.g. when it is cancelled.
+     */
+    public void untrack(UUID sessionId) {
+        seats.remove(sessionId);
+    }
+
+    /**
+     * Updates the capacity of a tracked session.
+     */
+    public void updateCapacity(UUID sessionId, int capacity) {
+        Seats entry = seats.get(sessionId);
+        if (entry != null) {
+            entry.capacity = capacity;
+        }
+    }
+
+    public boolean isTracked(UUID sessionId) {
+        return seats.containsKey(sessionId);
+    }
+
+    /**
+     * Tries to take a seat in a session.
+     *
+     * @return false only when the session is tracked and known to be full
+     */
+    public boolean tryAcquire(UUID sessionId) {
+        Seats entry = seats.get(sessionId);
+        if (entry == null) {
+            return true;
+        }
+        while (true) {
+            int current = entry.reserved.get();
+            if (current >= entry.capacity) {
+                return false;
+            }
+            if (entry.reserved.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Records seats that were already claimed in the database, e.g. by a bulk booking,
+     * giving them back if the surrounding transaction does not commit.
+     */
+    public void recordClaimed(UUID sessionId, int count) {
+        Seats entry = seats.get(sessionId);
+        if (entry == null || count <= 0) {
+            return;
+        }
+        int before;
+        int after;
+        do {
+            before = entry.reserved.get();
+            after = Math.max(before, Math.min(entry.capacity, before + count));
+        } while (!entry.reserved.compareAndSet(before, after));
+        // Si el tope recortó la suma, un rollback solo devuelve lo que realmente se sumó
+        if (after > before) {
+            afterCompletion(sessionId, after - before, status -> status != TransactionSynchronization.STATUS_COMMITTED);
+        }
+    }
+
+    /**
+     * Gives a seat back to a tracked session.
+     */
+    public void release(UUID sessionId) {
+        release(sessionId, 1);
+    }
+
+    private void release(UUID sessionId, int count) {
+        Seats entry = seats.get(sessionId);
+        if (entry != null) {
+            entry.reserved.updateAndGet(current -> Math.max(0, current - count));
+        }
+    }
+
+    /**
+     * Gives the seat back if the surrounding transaction does not commit.
+     * Outside a transaction this is a no-op and callers must release explicitly.
+     */
+    public void releaseOnRollback(UUID sessionId) {
+        afterCompletion(sessionId, 1, status -> status != TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    /**
+     * Gives the seat back once the surrounding transaction commits, or immediately
+     * when there is no transaction.
+     */
+    public void releaseAfterCommit(UUID sessionId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(sessionId);
+            return;
+        }
+        afterCompletion(sessionId, 1, status -> status == TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    /**
+     * Available seats for a tracked session, straight from memory.
+     */
+    public OptionalInt availableSpots(UUID sessionId) {
+        Seats entry = seats.get(sessionId);
+        if (entry == null) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(Math.max(0, entry.capacity - entry.reserved.get()));
+    }
+
+    private void afterCompletion(UUID sessionId, int count, IntPredicate shouldRelease) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (shouldRelease.test(status)) {
+                    release(sessionId, count);
+                }
+            }
+        });
+    }
+
+    private static final class Seats {
+        private volatile int capacity;
+        private final AtomicInteger reserved;
+
+        private Seats(int capacity, int reserved) {
+            this.capacity = capacity;
+            this.reserved = new AtomicInteger(reserved);
+        }
+    }
+}
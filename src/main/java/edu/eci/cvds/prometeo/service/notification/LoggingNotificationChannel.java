@@ -0,0 +1,21 @@
+package edu.eci.cvds.prometeo.service.notification;
+
+import edu.eci.cvds.prometeo.model.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Channel that writes notifications to the application log.
+ */
+@Component
+public class LoggingNotificationChannel implements NotificationChannel {
+    private static final Logger logger = LoggerFactory.getLogger(LoggingNotificationChannel.class);
+
+    @Override
+    public void deliver(Notification notification, String message) {
+        // En una implementación real, esto enviaría un email o push notification
+        logger.info("Notification sent to user {}: {} - {}", notification.getUserId(), notification.getTitle(), message);
+        logger.info("Type: {}, Reference: {}", notification.getType(), notification.getRelatedEntityId());
+    }
+}
@@ -0,0 +1,19 @@
+package edu.eci.cvds.prometeo.service.notification;
+
+import edu.eci.cvds.prometeo.model.Notification;
+
+/**
+ * Channel that delivers notifications to users (email, push, ...).
+ * Called by {@link NotificationDispatcher} outside of any database transaction.
+ */
+public interface NotificationChannel {
+
+    /**
+     * Delivers a notification.
+     *
+     * @param notification Notification to deliver
+     * @param message Message with the session details filled in
+     * @throws Exception if delivery failed and should be retried
+     */
+    void deliver(Notification notification, String message) throws Exception;
+}
@@ -0,0 +1,262 @@
+package edu.eci.cvds.prometeo.service.notification;
+
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.model.Notification;
+import edu.eci.cvds.prometeo.model.Reservation;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.NotificationRepository;
+import edu.eci.cvds.prometeo.repository.ReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers the notifications queued in the notifications table (the outbox).
+ *
+ * Each poll leases a batch of due notifications, loads the reservations and sessions they
+ * refer to with one query each, and hands them to the {@link NotificationChannel} outside of
+ * any transaction, so a slow channel never holds a database connection or a booking open.
+ * Failed deliveries are retried with exponential backoff until the attempt limit, after
+ * which they are kept undelivered for inspection.
+ *
+ * The lease is a conditional update of the next attempt time, so several nodes can poll the
+ * same table without delivering a notification twice while its lease runs; a node that dies
+ * mid-batch only delays its notifications until the lease expires.
+ *
+ * Publishes {@code prometeo.notifications.outbox.pending} and
+ * {@code prometeo.notifications.outbox.dead} gauges, and delivered and failed counters.
+ */
+@Component
+@ConditionalOnProperty(name = "prometeo.notification-outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class NotificationDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final int MAX_BATCHES_PER_POLL = 10;
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final NotificationRepository notificationRepository;
+    private final ReservationRepository reservationRepository;
+    private final GymSessionRepository gymSessionRepository;
+    private final NotificationChannel channel;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+    private final Counter delivered;
+    private final Counter failed;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    public NotificationDispatcher(NotificationRepository notificationRepository,
+                                  ReservationRepository reservationRepository,
+                                  GymSessionRepository gymSessionRepository,
+                                  NotificationChannel channel,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectProvider<MeterRegistry> meterRegistry,
+                                  @Value("${prometeo.notification-outbox.batch-size:50}") int batchSize,
+                                  @Value("${prometeo.notification-outbox.max-attempts:8}") int maxAttempts,
+                                  @Value("${prometeo.notification-outbox.initial-backoff-seconds:5}") long initialBackoffSeconds,
+                                  @Value("${prometeo.notification-outbox.max-backoff-seconds:3600}") long maxBackoffSeconds,
+                                  @Value("${prometeo.notification-outbox.lease-seconds:60}") long leaseSeconds) {
+        this.notificationRepository = notificationRepository;
+        this.reservationRepository = reservationRepository;
+        this.gymSessionRepository = gymSessionRepository;
+        this.channel = channel;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofSeconds(initialBackoffSeconds);
+        this.maxBackoff = Duration.ofSeconds(maxBackoffSeconds);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("prometeo.notifications.outbox.pending", pending, AtomicLong::get)
+                .description("Notifications waiting for delivery, including retries")
+                .register(registry);
+        Gauge.builder("prometeo.notifications.outbox.dead", dead, AtomicLong::get)
+                .description("Notifications that exhausted their delivery attempts")
+                .register(registry);
+        this.delivered = Counter.builder("prometeo.notifications.delivered").register(registry);
+        this.failed = Counter.builder("prometeo.notifications.failed")
+                .description("Failed delivery attempts")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${prometeo.notification-outbox.poll-millis:1000}")
+    public void poll() {
+        try {
+            // Sigue vaciando mientras los lotes salgan llenos, con un tope por ronda
+            for (int i = 0; i < MAX_BATCHES_PER_POLL; i++) {
+                if (dispatchBatch() < batchSize) {
+                    break;
+                }
+            }
+            refreshQueueDepth();
+        } catch (RuntimeException e) {
+            logger.error("Error dispatching notifications", e);
+        }
+    }
+
+    /**
+     * Delivers one batch of due notifications.
+     *
+     * @return number of notifications taken from the outbox, delivered or not
+     */
+    public int dispatchBatch() {
+        List<Notification> batch = lease();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Map<UUID, GymSession> sessions = loadSessions(batch);
+
+        List<UUID> sent = new ArrayList<>();
+        Map<UUID, String> errors = new HashMap<>();
+        for (Notification notification : batch) {
+            try {
+                channel.deliver(notification, NotificationMessages.render(notification, sessions.get(notification.getId())));
+                sent.add(notification.getId());
+            } catch (Exception e) {
+                errors.put(notification.getId(), String.valueOf(e.getMessage()));
+            }
+        }
+
+        LocalDateTime now = now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sent.isEmpty()) {
+                notificationRepository.markSent(sent, now);
+            }
+            for (Notification notification : batch) {
+                String error = errors.get(notification.getId());
+                if (error != null) {
+                    notificationRepository.markFailed(notification.getId(),
+                            now.plus(backoff(notification.getDeliveryAttempts() + 1)), truncate(error));
+                }
+            }
+        });
+        delivered.increment(sent.size());
+        failed.increment(errors.size());
+        if (!errors.isEmpty()) {
+            logger.warn("{} of {} notifications could not be delivered and will be retried", errors.size(), batch.size());
+        }
+        return batch.size();
+    }
+
+    /**
+     * Refreshes the queue depth gauges from the outbox table.
+     */
+    public void refreshQueueDepth() {
+        pending.set(notificationRepository.countBySentTimeIsNullAndDeliveryAttemptsLessThan(maxAttempts));
+        dead.set(notificationRepository.countBySentTimeIsNullAndDeliveryAttemptsGreaterThanEqual(maxAttempts));
+    }
+
+    public long pendingCount() {
+        return pending.get();
+    }
+
+    public long deadCount() {
+        return dead.get();
+    }
+
+    /**
+     * Delay before the given attempt: the initial backoff doubled after every failure, capped.
+     */
+    Duration backoff(int attempt) {
+        int doublings = Math.min(Math.max(attempt - 1, 0), 30);
+        Duration delay = initialBackoff.multipliedBy(1L << doublings);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    void useClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private List<Notification> lease() {
+        LocalDateTime now = now();
+        LocalDateTime leaseUntil = now.plus(lease);
+        return transactionTemplate.execute(status -> {
+            List<Notification> leased = new ArrayList<>();
+            for (Notification candidate : notificationRepository.findDueForDelivery(now, maxAttempts, PageRequest.of(0, batchSize))) {
+                // Otro nodo pudo haber tomado la notificación entre la consulta y el UPDATE
+                if (notificationRepository.lease(candidate.getId(), now, leaseUntil) == 1) {
+                    leased.add(candidate);
+                }
+            }
+            return leased;
+        });
+    }
+
+    // Sesiones de cada notificación, cargadas con una consulta para reservas y otra para sesiones
+    private Map<UUID, GymSession> loadSessions(List<Notification> batch) {
+        Set<UUID> reservationIds = batch.stream()
+                .filter(NotificationMessages::refersToReservation)
+                .map(Notification::getRelatedEntityId)
+                .collect(Collectors.toSet());
+        Map<UUID, UUID> sessionOfReservation = reservationIds.isEmpty() ? Map.of()
+                : reservationRepository.findAllById(reservationIds).stream()
+                        .collect(Collectors.toMap(Reservation::getId, Reservation::getSessionId));
+
+        Map<UUID, UUID> sessionOfNotification = new HashMap<>();
+        for (Notification notification : batch) {
+            UUID sessionId = NotificationMessages.refersToSession(notification)
+                    ? notification.getRelatedEntityId()
+                    : NotificationMessages.refersToReservation(notification)
+                            ? sessionOfReservation.get(notification.getRelatedEntityId())
+                            : null;
+            if (sessionId != null) {
+                sessionOfNotification.put(notification.getId(), sessionId);
+            }
+        }
+        if (sessionOfNotification.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<UUID, GymSession> sessions = gymSessionRepository.findAllById(new HashSet<>(sessionOfNotification.values())).stream()
+                .collect(Collectors.toMap(GymSession::getId, Function.identity()));
+        Map<UUID, GymSession> result = new HashMap<>();
+        sessionOfNotification.forEach((notificationId, sessionId) -> {
+            GymSession session = sessions.get(sessionId);
+            if (session != null) {
+                result.put(notificationId, session);
+            }
+        });
+        return result;
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
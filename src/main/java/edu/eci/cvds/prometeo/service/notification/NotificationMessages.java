@@ -0,0 +1,51 @@
+package edu.eci.cvds.prometeo.service.notification;
+
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.model.Notification;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Notification types whose message is completed with the details of a gym session when it
+ * is delivered, and the rendering of those details.
+ */
+public final class NotificationMessages {
+    /** Related entity is the session with a freed spot */
+    public static final String SPOT_AVAILABLE = "SPOT_AVAILABLE";
+    /** Related entity is the confirmed reservation */
+    public static final String RESERVATION_CONFIRMATION = "RESERVATION_CONFIRMATION";
+    /** Related entity is the reservation of the upcoming session */
+    public static final String SESSION_REMINDER = "SESSION_REMINDER";
+
+    public static final String SESSION_REMINDER_TITLE = "Recordatorio de sesión";
+    public static final String SESSION_REMINDER_MESSAGE = "Tienes una sesión próxima en el gimnasio";
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private NotificationMessages() {
+    }
+
+    public static boolean refersToReservation(Notification notification) {
+        return notification.getRelatedEntityId() != null
+                && (RESERVATION_CONFIRMATION.equals(notification.getType())
+                    || SESSION_REMINDER.equals(notification.getType()));
+    }
+
+    public static boolean refersToSession(Notification notification) {
+        return notification.getRelatedEntityId() != null && SPOT_AVAILABLE.equals(notification.getType());
+    }
+
+    /**
+     * Message to deliver: the stored message followed by the date and time of the session,
+     * when the session is known.
+     */
+    public static String render(Notification notification, GymSession session) {
+        if (session == null) {
+            return notification.getMessage();
+        }
+        return notification.getMessage() + ". Fecha: " + session.getSessionDate().format(DATE_FORMATTER)
+                + ", Horario: " + session.getStartTime().format(TIME_FORMATTER)
+                + " - " + session.getEndTime().format(TIME_FORMATTER);
+    }
+}
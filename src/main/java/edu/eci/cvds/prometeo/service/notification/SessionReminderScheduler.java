@@ -0,0 +1,185 @@
+package edu.eci.cvds.prometeo.service.notification;
+
+import edu.eci.cvds.prometeo.event.NotificationsChangedEvent;
+import edu.eci.cvds.prometeo.model.Notification;
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.NotificationRepository;
+import edu.eci.cvds.prometeo.repository.ReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Queues session reminders in the notification outbox for confirmed reservations whose
+ * session starts within one of the configured lead times (24 hours and 1 hour by default).
+ *
+ * Each lead time covers the sessions starting between the next shorter lead and itself, so a
+ * reservation gets one reminder per lead it is booked in time for. Every tick only looks at
+ * the sessions that entered a window since the previous tick, using the session start index,
+ * and loads their reservations per group of sessions; reminders are inserted in batches.
+ *
+ * Each reminder carries a deduplication key (reservation and lead time) that is unique in the
+ * notifications table, which makes queuing idempotent across restarts and nodes. After a
+ * restart the whole window is scanned once and reminders already queued are skipped; if two
+ * nodes race on the same batch, the loser's window is scanned again on its next tick.
+ */
+@Component
+@ConditionalOnProperty(name = "prometeo.session-reminders.enabled", havingValue = "true", matchIfMissing = true)
+public class SessionReminderScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(SessionReminderScheduler.class);
+
+    private static final String KEY_PREFIX = "REMINDER:";
+
+    private final GymSessionRepository gymSessionRepository;
+    private final ReservationRepository reservationRepository;
+    private final NotificationRepository notificationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int[] leadMinutes;
+    private final int batchSize;
+    private final int sessionsPerQuery;
+    private final Counter queued;
+
+    // Límite superior ya revisado de cada ventana; null hasta la primera ronda
+    private final LocalDateTime[] scannedUntil;
+    private Clock clock = Clock.systemDefaultZone();
+
+    public SessionReminderScheduler(GymSessionRepository gymSessionRepository,
+                                    ReservationRepository reservationRepository,
+                                    NotificationRepository notificationRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    ApplicationEventPublisher eventPublisher,
+                                    ObjectProvider<MeterRegistry> meterRegistry,
+                                    @Value("${prometeo.session-reminders.lead-minutes:1440,60}") int[] leadMinutes,
+                                    @Value("${prometeo.session-reminders.batch-size:500}") int batchSize,
+                                    @Value("${prometeo.session-reminders.sessions-per-query:100}") int sessionsPerQuery) {
+        this.gymSessionRepository = gymSessionRepository;
+        this.reservationRepository = reservationRepository;
+        this.notificationRepository = notificationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.leadMinutes = leadMinutes.clone();
+        Arrays.sort(this.leadMinutes);
+        this.batchSize = batchSize;
+        this.sessionsPerQuery = sessionsPerQuery;
+        this.scannedUntil = new LocalDateTime[this.leadMinutes.length];
+        this.queued = Counter.builder("prometeo.notifications.reminders.queued")
+                .description("Session reminders queued for delivery")
+                .register(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Scheduled(fixedDelayString = "${prometeo.session-reminders.poll-millis:60000}")
+    public void poll() {
+        try {
+            scan();
+        } catch (RuntimeException e) {
+            logger.warn("Session reminders could not be queued, the window will be scanned again", e);
+        }
+    }
+
+    /**
+     * Queues the reminders of the sessions that entered a reminder window since the last scan.
+     *
+     * @return number of reminders queued
+     */
+    public synchronized int scan() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        int total = 0;
+        for (int i = 0; i < leadMinutes.length; i++) {
+            LocalDateTime from = i == 0 ? now : now.plusMinutes(leadMinutes[i - 1]);
+            if (scannedUntil[i] != null && scannedUntil[i].isAfter(from)) {
+                from = scannedUntil[i];
+            }
+            LocalDateTime to = now.plusMinutes(leadMinutes[i]);
+            if (from.isBefore(to)) {
+                total += remind(leadMinutes[i], from, to, now);
+            }
+            // Solo avanza si la ventana se procesó completa
+            scannedUntil[i] = to;
+        }
+        return total;
+    }
+
+    void useClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private int remind(int lead, LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        List<UUID> sessionIds = gymSessionRepository.findIdsStartingBetween(
+                from.toLocalDate(), from.toLocalTime(), to.toLocalDate(), to.toLocalTime());
+        int total = 0;
+        for (int start = 0; start < sessionIds.size(); start += sessionsPerQuery) {
+            List<UUID> group = sessionIds.subList(start, Math.min(start + sessionsPerQuery, sessionIds.size()));
+            // Vienen ordenadas por sesión, así que cada lote agrupa las reservas de pocas sesiones
+            List<ReservationRepository.ReminderTarget> targets =
+                    reservationRepository.findReminderTargets(group, ReservationStatus.CONFIRMED);
+            for (int batchStart = 0; batchStart < targets.size(); batchStart += batchSize) {
+                total += queue(targets.subList(batchStart, Math.min(batchStart + batchSize, targets.size())), lead, now);
+            }
+        }
+        if (total > 0) {
+            logger.info("Queued {} reminders for sessions starting within {} minutes", total, lead);
+        }
+        return total;
+    }
+
+    private int queue(List<ReservationRepository.ReminderTarget> batch, int lead, LocalDateTime now) {
+        Integer inserted = transactionTemplate.execute(status -> {
+            Set<String> existing = new HashSet<>(notificationRepository.findExistingDeduplicationKeys(
+                    batch.stream().map(target -> key(target, lead)).collect(Collectors.toList())));
+            List<Notification> reminders = new ArrayList<>();
+            for (ReservationRepository.ReminderTarget target : batch) {
+                String key = key(target, lead);
+                if (!existing.contains(key)) {
+                    reminders.add(reminder(target, key, now));
+                }
+            }
+            if (!reminders.isEmpty()) {
+                notificationRepository.saveAll(reminders);
+                eventPublisher.publishEvent(new NotificationsChangedEvent(
+                        reminders.stream().map(Notification::getUserId).collect(Collectors.toSet())));
+            }
+            return reminders.size();
+        });
+        int count = inserted == null ? 0 : inserted;
+        queued.increment(count);
+        return count;
+    }
+
+    private static Notification reminder(ReservationRepository.ReminderTarget target, String key, LocalDateTime now) {
+        Notification notification = new Notification();
+        notification.setUserId(target.getUserId());
+        notification.setTitle(NotificationMessages.SESSION_REMINDER_TITLE);
+        notification.setMessage(NotificationMessages.SESSION_REMINDER_MESSAGE);
+        notification.setType(NotificationMessages.SESSION_REMINDER);
+        notification.setRelatedEntityId(target.getReservationId());
+        notification.setDeduplicationKey(key);
+        notification.setNextAttemptAt(now);
+        return notification;
+    }
+
+    private static String key(ReservationRepository.ReminderTarget target, int lead) {
+        return KEY_PREFIX + target.getReservationId() + ":" + lead;
+    }
+}
@@ -0,0 +1,50 @@
+package edu.eci.cvds.prometeo.service.notification;
+
+import edu.eci.cvds.prometeo.event.NotificationsChangedEvent;
+import edu.eci.cvds.prometeo.repository.NotificationRepository;
+import edu.eci.cvds.prometeo.util.ExpiringLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Per-user cache of unread notification counts, read by clients every time the app opens.
+ *
+ * A count is loaded with one indexed count and served from memory until the notifications
+ * of the user change; changes drop the entry after the originating transaction commits so
+ * the next read reloads it. Entries also expire after the configured TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "prometeo.unread-counters.enabled", havingValue = "true", matchIfMissing = true)
+public class UnreadCounterCache {
+
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final ExpiringLoader<UUID, Long> counts;
+
+    public UnreadCounterCache(NotificationRepository notificationRepository,
+                              @Value("${prometeo.unread-counters.ttl-seconds:60}") long ttlSeconds) {
+        this.counts = new ExpiringLoader<>(notificationRepository::countByUserIdAndReadFalseAndDeletedAtIsNull,
+                Duration.ofSeconds(ttlSeconds), PRUNE_THRESHOLD);
+    }
+
+    /**
+     * Unread notifications of a user, loading the count if needed.
+     */
+    public long get(UUID userId) {
+        return counts.get(userId);
+    }
+
+    public void invalidate(UUID userId) {
+        counts.invalidate(userId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationsChanged(NotificationsChangedEvent event) {
+        event.getUserIds().forEach(this::invalidate);
+    }
+}
@@ -0,0 +1,106 @@
+package edu.eci.cvds.prometeo.service.paging;
+
+import edu.eci.cvds.prometeo.PrometeoExceptions;
+import edu.eci.cvds.prometeo.dto.CursorPageDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Position in a listing ordered by {@code (created_at, id)}.
+ *
+ * The next page is read with {@code WHERE (created_at, id) > (cursor)} instead of an
+ * offset, so every page costs the same index range scan no matter how deep the client
+ * has paged, and rows inserted meanwhile do not shift the pages.
+ * Encoded as an opaque URL-safe token.
+ */
+public final class KeysetCursor {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdAt;
+    private final UUID id;
+
+    private KeysetCursor(LocalDateTime createdAt, UUID id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static KeysetCursor of(LocalDateTime createdAt, UUID id) {
+        return new KeysetCursor(createdAt, id);
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @return the cursor, or null for a missing token (first page)
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException(PrometeoExceptions.CURSOR_NO_VALIDO, e);
+        }
+    }
+
+    /**
+     * Page size to use for a requested limit, defaulting and capping it.
+     */
+    public static int pageSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(requested, MAX_LIMIT);
+    }
+
+    /**
+     * Builds a page from rows fetched with one extra row beyond {@code size}; the extra
+     * row only tells whether there is a next page and is not returned.
+     *
+     * @param rows     rows in {@code (created_at, id)} order, at most {@code size + 1}
+     * @param size     page size
+     * @param position cursor of a row
+     * @param convert  converts the rows of the page into items
+     */
+    public static <E, T> CursorPageDTO<T> page(List<E> rows, int size, Function<E, KeysetCursor> position,
+                                               Function<List<E>, List<T>> convert) {
+        boolean hasMore = rows.size() > size;
+        List<E> window = hasMore ? rows.subList(0, size) : rows;
+
+        CursorPageDTO<T> page = new CursorPageDTO<>();
+        page.setItems(convert.apply(window));
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            page.setNextCursor(position.apply(window.get(size - 1)).encode());
+        }
+        return page;
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
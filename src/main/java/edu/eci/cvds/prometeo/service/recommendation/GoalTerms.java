@@ -0,0 +1,69 @@
+package edu.eci.cvds.prometeo.service.recommendation;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Normalization and tokenization of goal and routine texts, shared by the recommendation
+ * cache and the routine index so that both see "Ganar músculo" and "ganar musculos" alike.
+ */
+final class GoalTerms {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los", "mi", "mis",
+            "para", "por", "que", "se", "sin", "su", "sus", "un", "una", "unos", "unas", "y", "o",
+            "the", "and", "of", "to", "for", "my", "in", "on", "with");
+
+    private GoalTerms() {
+    }
+
+    /**
+     * Lowercase text without accents or punctuation, one space between words.
+     */
+    static String normalize(String text) {
+        return String.join(" ", words(text));
+    }
+
+    /**
+     * Index terms of a text: normalized words without stop words, singular when plural.
+     */
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String word : words(text)) {
+            if (word.length() < 2 || STOP_WORDS.contains(word)) {
+                continue;
+            }
+            // Plural simple: "brazos" y "brazo" comparten término
+            tokens.add(word.length() > 3 && word.endsWith("s") ? word.substring(0, word.length() - 1) : word);
+        }
+        return tokens;
+    }
+
+    // Recorre el texto una sola vez; solo los caracteres no ASCII pasan por Normalizer
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 128) {
+                String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+                c = decomposed.charAt(0);
+            }
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+}
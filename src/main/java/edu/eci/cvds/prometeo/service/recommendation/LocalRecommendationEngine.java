@@ -0,0 +1,250 @@
+package edu.eci.cvds.prometeo.service.recommendation;
+
+import edu.eci.cvds.prometeo.model.Routine;
+import edu.eci.cvds.prometeo.repository.PhysicalProgressRepository;
+import edu.eci.cvds.prometeo.repository.RoutineRepository;
+import edu.eci.cvds.prometeo.repository.UserRoutineRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Ranks routines in memory for a user, as a fast path that does not need the model and as
+ * its fallback when the model is not configured, fails or misses its latency budget.
+ *
+ * Each routine is scored by how well it matches the user's goals (BM25 from the
+ * {@link RoutineIndex}), how well its difficulty fits the difficulty of the user's latest
+ * active routine, and how often it has been assigned to users. Only the user's level is
+ * loaded per request; difficulties and assignment counts are kept in memory, aligned with
+ * the indexed catalog, and refreshed when it changes or the popularity TTL runs out.
+ *
+ * In {@code local} mode the model is never called; in {@code blend} mode the model's answer,
+ * when it arrives within the budget, is merged with the local ranking by reciprocal rank.
+ */
+@Component
+@ConditionalOnProperty(name = "prometeo.local-recommendations.enabled", havingValue = "true", matchIfMissing = true)
+public class LocalRecommendationEngine {
+
+    static final int BEGINNER = 0;
+    static final int INTERMEDIATE = 1;
+    static final int ADVANCED = 2;
+    static final int UNKNOWN = -1;
+
+    private static final double GOAL_WEIGHT = 0.6;
+    private static final double FIT_WEIGHT = 0.25;
+    private static final double POPULARITY_WEIGHT = 0.15;
+    // Constante habitual de la fusión por rango recíproco
+    private static final int RANK_CONSTANT = 60;
+
+    private final PhysicalProgressRepository physicalProgressRepository;
+    private final UserRoutineRepository userRoutineRepository;
+    private final RoutineIndex routineIndex;
+    private final boolean localOnly;
+    private final Duration modelBudget;
+    private final int limit;
+    private final long popularityTtlMillis;
+
+    private final Map<String, Integer> difficultyRanks = new ConcurrentHashMap<>();
+    private volatile Features features;
+
+    public LocalRecommendationEngine(RoutineRepository routineRepository,
+                                     PhysicalProgressRepository physicalProgressRepository,
+                                     UserRoutineRepository userRoutineRepository,
+                                     ObjectProvider<RoutineIndex> routineIndex,
+                                     @Value("${prometeo.local-recommendations.mode:blend}") String mode,
+                                     @Value("${prometeo.local-recommendations.model-budget-millis:4000}") long modelBudgetMillis,
+                                     @Value("${prometeo.local-recommendations.limit:10}") int limit,
+                                     @Value("${prometeo.local-recommendations.popularity-ttl-minutes:10}") long popularityTtlMinutes) {
+        this.physicalProgressRepository = physicalProgressRepository;
+        this.userRoutineRepository = userRoutineRepository;
+        // Sin índice compartido el motor usa uno propio
+        this.routineIndex = routineIndex.getIfAvailable(() -> new RoutineIndex(routineRepository, limit));
+        this.localOnly = "local".equalsIgnoreCase(mode);
+        this.modelBudget = Duration.ofMillis(modelBudgetMillis);
+        this.limit = limit;
+        this.popularityTtlMillis = popularityTtlMinutes * 60_000;
+    }
+
+    /**
+     * Whether recommendations are served by this engine alone, without calling the model.
+     */
+    public boolean isLocalOnly() {
+        return localOnly;
+    }
+
+    /**
+     * How long a request waits for the model before answering with the local ranking.
+     */
+    public Duration modelBudget() {
+        return modelBudget;
+    }
+
+    /**
+     * Best routines for the user's goals and level, best first.
+     *
+     * @param userId         User to recommend to
+     * @param goals          Texts of the user's active goals
+     * @param catalogVersion Current version of the routine catalog, see {@link RecommendationCache#catalogVersion}
+     */
+    public List<UUID> recommend(UUID userId, Collection<String> goals, String catalogVersion) {
+        List<String> difficulties = physicalProgressRepository.findActiveRoutineDifficulties(userId, PageRequest.of(0, 1));
+        // Sin historial de rutinas se empieza por lo más sencillo
+        int level = difficulties.isEmpty() ? BEGINNER : difficultyRank(difficulties.get(0));
+        return rank(routineIndex.match(goals, catalogVersion), level);
+    }
+
+    /**
+     * Merges the model's routines with the local ranking by reciprocal rank; routines both agree
+     * on rise to the top. Without an answer from the model the local ranking is returned.
+     */
+    public List<UUID> blend(List<UUID> modelIds, List<UUID> localIds) {
+        if (modelIds.isEmpty()) {
+            return localIds;
+        }
+        Map<UUID, Double> fused = new LinkedHashMap<>();
+        for (int i = 0; i < modelIds.size(); i++) {
+            fused.merge(modelIds.get(i), 1.0 / (RANK_CONSTANT + i + 1), Double::sum);
+        }
+        for (int i = 0; i < localIds.size(); i++) {
+            fused.merge(localIds.get(i), 1.0 / (RANK_CONSTANT + i + 1), Double::sum);
+        }
+        return fused.entrySet().stream()
+                .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    List<UUID> rank(RoutineIndex.Matches matches, int level) {
+        Features features = features(matches.routines());
+        int size = features.routines.size();
+        double maxGoal = 0;
+        for (int i = 0; i < size; i++) {
+            maxGoal = Math.max(maxGoal, matches.score(i));
+        }
+
+        double[] scores = new double[size];
+        PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, (left, right) -> {
+            int compared = Double.compare(scores[left], scores[right]);
+            return compared != 0 ? compared : Integer.compare(right, left);
+        });
+        for (int i = 0; i < size; i++) {
+            double goal = maxGoal > 0 ? matches.score(i) / maxGoal : 0;
+            scores[i] = GOAL_WEIGHT * goal + FIT_WEIGHT * fit(level, features.difficulties[i])
+                    + POPULARITY_WEIGHT * features.popularity[i];
+            // Solo entra al montículo si supera al peor de los mejores
+            if (best.size() < limit) {
+                best.add(i);
+            } else if (scores[i] > scores[best.peek()]) {
+                best.poll();
+                best.add(i);
+            }
+        }
+
+        List<UUID> ranked = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ranked.add(features.routines.get(best.poll()).getId());
+        }
+        Collections.reverse(ranked);
+        return ranked;
+    }
+
+    /**
+     * Level of a free-text difficulty: beginner, intermediate, advanced or unknown.
+     */
+    int difficultyRank(String difficulty) {
+        if (difficulty == null) {
+            return UNKNOWN;
+        }
+        return difficultyRanks.computeIfAbsent(difficulty, LocalRecommendationEngine::parseDifficulty);
+    }
+
+    /**
+     * Fit of a routine's difficulty for a user's level: the same level fits best, one step up
+     * is a reasonable progression, one step down is still useful.
+     */
+    static double fit(int level, int difficulty) {
+        if (level == UNKNOWN || difficulty == UNKNOWN) {
+            return 0.5;
+        }
+        int gap = difficulty - level;
+        if (gap == 0) {
+            return 1.0;
+        }
+        if (gap == 1) {
+            return 0.6;
+        }
+        return gap == -1 ? 0.4 : 0.0;
+    }
+
+    private static int parseDifficulty(String difficulty) {
+        String text = GoalTerms.normalize(difficulty);
+        if (text.matches(".*\\b(princip|basic|facil|inicia|novat|bajo|beginner|easy).*")) {
+            return BEGINNER;
+        }
+        if (text.matches(".*\\b(intermed|medi|moderad|intermediate).*")) {
+            return INTERMEDIATE;
+        }
+        if (text.matches(".*\\b(avanzad|dificil|alto|expert|advanced|hard|intens).*")) {
+            return ADVANCED;
+        }
+        return UNKNOWN;
+    }
+
+    // Dificultad y popularidad de cada rutina, alineadas con el catálogo; la popularidad cambia
+    // despacio y se recarga cada cierto tiempo con una sola consulta agrupada
+    private Features features(List<Routine> routines) {
+        long now = System.currentTimeMillis();
+        Features current = features;
+        if (current != null && current.routines == routines && now - current.loadedAt < popularityTtlMillis) {
+            return current;
+        }
+        Map<UUID, Long> assignments = new HashMap<>();
+        long maxAssignments = 0;
+        for (UserRoutineRepository.RoutineAssignments row : userRoutineRepository.countAssignmentsByRoutine()) {
+            assignments.put(row.getRoutineId(), row.getAssignments());
+            maxAssignments = Math.max(maxAssignments, row.getAssignments());
+        }
+        int[] difficulties = new int[routines.size()];
+        double[] popularity = new double[routines.size()];
+        for (int i = 0; i < routines.size(); i++) {
+            Routine routine = routines.get(i);
+            difficulties[i] = difficultyRank(routine.getDifficulty());
+            popularity[i] = maxAssignments > 0
+                    ? Math.log1p(assignments.getOrDefault(routine.getId(), 0L)) / Math.log1p(maxAssignments)
+                    : 0;
+        }
+        current = new Features(routines, difficulties, popularity, now);
+        features = current;
+        return current;
+    }
+
+    private static final class Features {
+        private final List<Routine> routines;
+        private final int[] difficulties;
+        private final double[] popularity;
+        private final long loadedAt;
+
+        private Features(List<Routine> routines, int[] difficulties, double[] popularity, long loadedAt) {
+            this.routines = routines;
+            this.difficulties = difficulties;
+            this.popularity = popularity;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
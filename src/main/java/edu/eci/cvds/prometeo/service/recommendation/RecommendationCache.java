@@ -0,0 +1,142 @@
+package edu.eci.cvds.prometeo.service.recommendation;
+
+import edu.eci.cvds.prometeo.repository.RoutineRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Routine recommendations of the model, shared by every user with the same active goals.
+ *
+ * Entries are keyed by a hash of the normalized goal set (case, accents, punctuation,
+ * spacing, order and duplicates ignored) together with the version of the routine catalog,
+ * so a change to the catalog makes every previous answer unreachable. The least recently
+ * used entry is evicted beyond the size limit, and entries expire after a TTL.
+ *
+ * Publishes {@code prometeo.recommendations.cache.requests} counters tagged hit or miss,
+ * an evictions counter and a size gauge.
+ */
+@Component
+@ConditionalOnProperty(name = "prometeo.recommendation-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class RecommendationCache {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    private Clock clock = Clock.systemUTC();
+
+    public RecommendationCache(ObjectProvider<MeterRegistry> meterRegistry,
+                               @Value("${prometeo.recommendation-cache.max-entries:1000}") int maxEntries,
+                               @Value("${prometeo.recommendation-cache.ttl-minutes:360}") long ttlMinutes) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMinutes * 60_000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                boolean evict = size() > RecommendationCache.this.maxEntries;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.hits = Counter.builder("prometeo.recommendations.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("prometeo.recommendations.cache.requests").tag("result", "miss").register(registry);
+        this.evictions = Counter.builder("prometeo.recommendations.cache.evictions").register(registry);
+        Gauge.builder("prometeo.recommendations.cache.size", this, RecommendationCache::size).register(registry);
+    }
+
+    /**
+     * Cache key of a goal set for a version of the routine catalog.
+     */
+    public static String key(Collection<String> goals, String catalogVersion) {
+        String normalized = goals.stream()
+                .filter(Objects::nonNull)
+                .map(GoalTerms::normalize)
+                .filter(goal -> !goal.isEmpty())
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining("\n"));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((normalized + "|" + catalogVersion).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Version string of the routine catalog, as returned by {@link RoutineRepository#findCatalogVersion()}.
+     */
+    public static String catalogVersion(RoutineRepository.CatalogVersion version) {
+        if (version == null) {
+            return "";
+        }
+        return version.getRoutines() + ":" + version.getLastCreated() + ":" + version.getLastUpdated();
+    }
+
+    public synchronized Optional<List<UUID>> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expiresAt <= clock.millis()) {
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.routineIds);
+    }
+
+    public synchronized void put(String key, List<UUID> routineIds) {
+        entries.put(key, new Entry(List.copyOf(routineIds), clock.millis() + ttlMillis));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    void useClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private static final class Entry {
+        private final List<UUID> routineIds;
+        private final long expiresAt;
+
+        private Entry(List<UUID> routineIds, long expiresAt) {
+            this.routineIds = routineIds;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package edu.eci.cvds.prometeo.service.recommendation;
+
+import edu.eci.cvds.prometeo.event.GoalsChangedEvent;
+import edu.eci.cvds.prometeo.service.RecommendationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Regenerates routine recommendations in the background after a user's goals change, so goal
+ * edits never wait for the model.
+ *
+ * Requests are debounced per user: each one pushes the regeneration back by the debounce
+ * window, so a burst of edits ends in a single run with the final goals. A request arriving
+ * while the user's regeneration is running schedules one more run after it, never two at
+ * once for the same user. The pool size bounds the model calls in flight.
+ *
+ * The user's current recommendations stay active until the new set is saved.
+ *
+ * Publishes {@code prometeo.recommendations.regenerations} counters tagged requested,
+ * coalesced, completed and failed.
+ */
+@Component
+@ConditionalOnProperty(name = "prometeo.recommendation-regeneration.enabled", havingValue = "true", matchIfMissing = true)
+public class RecommendationRegenerator {
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationRegenerator.class);
+
+    private final RecommendationService recommendationService;
+    private final int workers;
+    private final long debounceMillis;
+
+    private final Object lock = new Object();
+    // Guarded by lock: regeneration state of the users with a run scheduled or in progress
+    private final Map<UUID, Regeneration> regenerations = new HashMap<>();
+
+    private final Counter requested;
+    private final Counter coalesced;
+    private final Counter completed;
+    private final Counter failed;
+
+    private ScheduledExecutorService executor;
+
+    public RecommendationRegenerator(RecommendationService recommendationService,
+                                     ObjectProvider<MeterRegistry> meterRegistry,
+                                     @Value("${prometeo.recommendation-regeneration.workers:2}") int workers,
+                                     @Value("${prometeo.recommendation-regeneration.debounce-millis:3000}") long debounceMillis) {
+        this.recommendationService = recommendationService;
+        this.workers = workers;
+        this.debounceMillis = debounceMillis;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.requested = counter(registry, "requested");
+        this.coalesced = counter(registry, "coalesced");
+        this.completed = counter(registry, "completed");
+        this.failed = counter(registry, "failed");
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-regenerator-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGoalsChanged(GoalsChangedEvent event) {
+        request(event.getUserId());
+    }
+
+    /**
+     * Schedules a regeneration of the user's recommendations after the debounce window,
+     * replacing the one already waiting for the same user.
+     */
+    public void request(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+        requested.increment();
+        synchronized (lock) {
+            Regeneration regeneration = regenerations.computeIfAbsent(userId, id -> new Regeneration());
+            if (regeneration.running) {
+                // Se ejecuta otra vez al terminar la actual, con las metas más recientes
+                if (regeneration.rerun) {
+                    coalesced.increment();
+                }
+                regeneration.rerun = true;
+                return;
+            }
+            if (regeneration.scheduled != null) {
+                regeneration.scheduled.cancel(false);
+                coalesced.increment();
+            }
+            schedule(userId, regeneration);
+        }
+    }
+
+    /**
+     * Number of users with a regeneration scheduled or in progress.
+     */
+    public int pendingCount() {
+        synchronized (lock) {
+            return regenerations.size();
+        }
+    }
+
+    // Llamar con lock tomado
+    private void schedule(UUID userId, Regeneration regeneration) {
+        long generation = ++regeneration.generation;
+        regeneration.scheduled = executor.schedule(() -> run(userId, generation), debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void run(UUID userId, long generation) {
+        Regeneration regeneration;
+        synchronized (lock) {
+            regeneration = regenerations.get(userId);
+            // Una tarea cancelada tarde puede arrancar igual; solo corre la última programada
+            if (regeneration == null || regeneration.generation != generation) {
+                return;
+            }
+            regeneration.scheduled = null;
+            regeneration.running = true;
+        }
+        try {
+            recommendationService.recommendRoutines(userId);
+            completed.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            logger.warn("Recommendations of user {} could not be regenerated", userId, e);
+        } finally {
+            synchronized (lock) {
+                regeneration.running = false;
+                if (regeneration.rerun) {
+                    regeneration.rerun = false;
+                    schedule(userId, regeneration);
+                } else {
+                    regenerations.remove(userId);
+                }
+            }
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("prometeo.recommendations.regenerations").tag("result", result).register(registry);
+    }
+
+    private static final class Regeneration {
+        private ScheduledFuture<?> scheduled;
+        private long generation;
+        private boolean running;
+        private boolean rerun;
+    }
+}
@@ -0,0 +1,257 @@
+package edu.eci.cvds.prometeo.service.recommendation;
+
+import edu.eci.cvds.prometeo.model.Routine;
+import edu.eci.cvds.prometeo.repository.RoutineRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * In-memory inverted index over the routine catalog, used to pick the candidate routines
+ * sent to the model instead of the whole catalog.
+ *
+ * Routines are scored against the user's goals with BM25 over their name, goal, difficulty
+ * and description; name and goal terms count twice. The best matches are returned up to
+ * the candidate limit and, when fewer routines match, the rest of the slots are filled in
+ * catalog order, so small catalogs still reach the model whole.
+ *
+ * The index is rebuilt when the version of the routine catalog changes.
+ */
+@Component
+@ConditionalOnProperty(name = "prometeo.routine-index.enabled", havingValue = "true", matchIfMissing = true)
+public class RoutineIndex {
+    private static final Logger logger = LoggerFactory.getLogger(RoutineIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int STRONG_FIELD_WEIGHT = 2;
+
+    private final RoutineRepository routineRepository;
+    private final int candidateLimit;
+
+    private volatile Snapshot snapshot;
+
+    public RoutineIndex(RoutineRepository routineRepository,
+                        @Value("${prometeo.routine-index.candidates:30}") int candidateLimit) {
+        this.routineRepository = routineRepository;
+        this.candidateLimit = candidateLimit;
+    }
+
+    /**
+     * Routines that best match the goals, at most the candidate limit, best first.
+     *
+     * @param goals          Texts of the user's active goals
+     * @param catalogVersion Current version of the routine catalog, see {@link RecommendationCache#catalogVersion}
+     */
+    public List<Routine> candidates(Collection<String> goals, String catalogVersion) {
+        return current(catalogVersion).search(goals, candidateLimit);
+    }
+
+    /**
+     * BM25 score of every routine of the catalog against the goals; zero when nothing matches.
+     */
+    public Matches match(Collection<String> goals, String catalogVersion) {
+        Snapshot current = current(catalogVersion);
+        return new Matches(current.routines, current.score(goals));
+    }
+
+    public int candidateLimit() {
+        return candidateLimit;
+    }
+
+    private Snapshot current(String catalogVersion) {
+        Snapshot current = snapshot;
+        if (current != null && current.version.equals(catalogVersion)) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || !current.version.equals(catalogVersion)) {
+                long start = System.nanoTime();
+                current = Snapshot.build(routineRepository.findAll(), catalogVersion);
+                snapshot = current;
+                logger.info("Routine index built with {} routines and {} terms in {} ms",
+                        current.routines.size(), current.postings.size(), (System.nanoTime() - start) / 1_000_000);
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Routines of one catalog version, in catalog order, with their scores for a set of goals.
+     */
+    public static final class Matches {
+        private final List<Routine> routines;
+        private final double[] scores;
+
+        private Matches(List<Routine> routines, double[] scores) {
+            this.routines = routines;
+            this.scores = scores;
+        }
+
+        public List<Routine> routines() {
+            return routines;
+        }
+
+        public double score(int position) {
+            return scores[position];
+        }
+    }
+
+    /**
+     * Immutable index of one version of the catalog.
+     */
+    static final class Snapshot {
+        private final String version;
+        private final List<Routine> routines;
+        private final int[] lengths;
+        private final double averageLength;
+        private final Map<String, Postings> postings;
+
+        private Snapshot(String version, List<Routine> routines, int[] lengths, double averageLength,
+                         Map<String, Postings> postings) {
+            this.version = version;
+            this.routines = routines;
+            this.lengths = lengths;
+            this.averageLength = averageLength;
+            this.postings = postings;
+        }
+
+        static Snapshot build(List<Routine> routines, String version) {
+            List<Routine> docs = List.copyOf(routines);
+            int[] lengths = new int[docs.size()];
+            Map<String, PostingsBuilder> builders = new HashMap<>();
+            long totalLength = 0;
+            for (int doc = 0; doc < docs.size(); doc++) {
+                Routine routine = docs.get(doc);
+                Map<String, Integer> frequencies = new HashMap<>();
+                addTerms(frequencies, routine.getName(), STRONG_FIELD_WEIGHT);
+                addTerms(frequencies, routine.getGoal(), STRONG_FIELD_WEIGHT);
+                addTerms(frequencies, routine.getDifficulty(), 1);
+                addTerms(frequencies, routine.getDescription(), 1);
+                int length = 0;
+                for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                    builders.computeIfAbsent(entry.getKey(), term -> new PostingsBuilder()).add(doc, entry.getValue());
+                    length += entry.getValue();
+                }
+                lengths[doc] = length;
+                totalLength += length;
+            }
+            Map<String, Postings> postings = new HashMap<>();
+            builders.forEach((term, builder) -> postings.put(term, builder.build()));
+            double averageLength = docs.isEmpty() ? 0 : (double) totalLength / docs.size();
+            return new Snapshot(version, docs, lengths, averageLength, postings);
+        }
+
+        List<Routine> search(Collection<String> goals, int limit) {
+            int total = routines.size();
+            if (total <= limit) {
+                return routines;
+            }
+            double[] scores = score(goals);
+
+            // Montículo de mínimos con los mejores puntajes; a igual puntaje gana el orden del catálogo
+            Comparator<Integer> byScore = (left, right) -> {
+                int compared = Double.compare(scores[left], scores[right]);
+                return compared != 0 ? compared : Integer.compare(right, left);
+            };
+            PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, byScore);
+            for (int doc = 0; doc < total; doc++) {
+                if (scores[doc] > 0) {
+                    best.add(doc);
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+
+            List<Routine> result = new ArrayList<>(limit);
+            boolean[] taken = new boolean[total];
+            Integer[] ranked = best.toArray(new Integer[0]);
+            Arrays.sort(ranked, byScore.reversed());
+            for (int doc : ranked) {
+                result.add(routines.get(doc));
+                taken[doc] = true;
+            }
+            for (int doc = 0; doc < total && result.size() < limit; doc++) {
+                if (!taken[doc]) {
+                    result.add(routines.get(doc));
+                }
+            }
+            return result;
+        }
+
+        double[] score(Collection<String> goals) {
+            int total = routines.size();
+            Set<String> terms = new LinkedHashSet<>();
+            for (String goal : goals) {
+                terms.addAll(GoalTerms.tokens(goal));
+            }
+
+            double[] scores = new double[total];
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (total - list.docs.length + 0.5) / (list.docs.length + 0.5));
+                for (int i = 0; i < list.docs.length; i++) {
+                    int doc = list.docs[i];
+                    int frequency = list.frequencies[i];
+                    double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    scores[doc] += idf * frequency * (K1 + 1) / (frequency + norm);
+                }
+            }
+            return scores;
+        }
+
+        private static void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+            for (String token : GoalTerms.tokens(text)) {
+                frequencies.merge(token, weight, Integer::sum);
+            }
+        }
+    }
+
+    private static final class Postings {
+        private final int[] docs;
+        private final int[] frequencies;
+
+        private Postings(int[] docs, int[] frequencies) {
+            this.docs = docs;
+            this.frequencies = frequencies;
+        }
+    }
+
+    private static final class PostingsBuilder {
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        private void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        private Postings build() {
+            return new Postings(Arrays.copyOf(docs, size), Arrays.copyOf(frequencies, size));
+        }
+    }
+}
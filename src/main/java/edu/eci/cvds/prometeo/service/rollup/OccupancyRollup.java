@@ -0,0 +1,302 @@
+package edu.eci.cvds.prometeo.service.rollup;
+
+import edu.eci.cvds.prometeo.event.AttendanceRecordedEvent;
+import edu.eci.cvds.prometeo.event.GymSessionChangedEvent;
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.model.OccupancyBucket;
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.OccupancyBucketRepository;
+import edu.eci.cvds.prometeo.repository.ReservationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the {@code occupancy_rollup} table: capacity, reserved, attended and cancelled
+ * counts per date, start hour and trainer.
+ *
+ * Usage reports read a few rows per day from the rollup instead of scanning every session of
+ * the period. The rows of a date are recomputed from the sessions of that date: right away
+ * after a session is created, edited or cancelled, and for bookings, cancellations and
+ * check-ins on a dedicated thread that refreshes each changed date once per coalescing
+ * interval, however many changes it got. Bursts of bookings therefore cost one recompute per
+ * date and interval and never run on the booking thread. {@link #rebuild(LocalDate, LocalDate)}
+ * recomputes whole ranges for backfills, and an empty rollup is backfilled once at startup.
+ *
+ * Refreshes of the same date are serialized within this node. Rebuilding the affected range
+ * corrects any interleaving between nodes.
+ */
+@Component
+@ConditionalOnProperty(name = "prometeo.occupancy-rollup.enabled", havingValue = "true", matchIfMissing = true)
+public class OccupancyRollup {
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyRollup.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final GymSessionRepository gymSessionRepository;
+    private final ReservationRepository reservationRepository;
+    private final OccupancyBucketRepository bucketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final Set<LocalDate> dirtyDates = ConcurrentHashMap.newKeySet();
+    private final long coalesceMillis;
+
+    private ScheduledExecutorService executor;
+
+    public OccupancyRollup(GymSessionRepository gymSessionRepository,
+                           ReservationRepository reservationRepository,
+                           OccupancyBucketRepository bucketRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${prometeo.occupancy-rollup.coalesce-millis:1000}") long coalesceMillis) {
+        this.gymSessionRepository = gymSessionRepository;
+        this.reservationRepository = reservationRepository;
+        this.bucketRepository = bucketRepository;
+        this.coalesceMillis = coalesceMillis;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Los listeners corren después del commit, así que cada escritura necesita su propia transacción
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "occupancy-rollup-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flush, coalesceMillis, coalesceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Usage totals per date, one row for each date that has sessions.
+     */
+    public List<OccupancyBucketRepository.DailyTotals> dailyTotals(LocalDate startDate, LocalDate endDate) {
+        return bucketRepository.sumByUsageDate(startDate, endDate);
+    }
+
+    /**
+     * Backfills the rollup from the whole session history when it is empty, e.g. on first deploy.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (bucketRepository.count() > 0) {
+            return;
+        }
+        LocalDate first = gymSessionRepository.findFirstSessionDate();
+        LocalDate last = gymSessionRepository.findLastSessionDate();
+        if (first != null && last != null) {
+            int written = rebuild(first, last);
+            logger.info("Occupancy rollup backfilled with {} rows from {} to {}", written, first, last);
+        }
+    }
+
+    /**
+     * Recomputes the rollup rows of a date range from the sessions and reservations tables,
+     * one month per transaction.
+     *
+     * @return number of rollup rows written
+     */
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        int written = 0;
+        LocalDate chunkStart = startDate;
+        while (!chunkStart.isAfter(endDate)) {
+            LocalDate monthEnd = chunkStart.with(TemporalAdjusters.lastDayOfMonth());
+            LocalDate chunkEnd = monthEnd.isBefore(endDate) ? monthEnd : endDate;
+            written += refresh(chunkStart, chunkEnd);
+            chunkStart = chunkEnd.plusDays(1);
+        }
+        return written;
+    }
+
+    /**
+     * Recomputes every date changed by bookings or check-ins since the last flush. Runs on the
+     * refresh thread every coalescing interval.
+     *
+     * @return number of dates refreshed
+     */
+    public int flush() {
+        int refreshed = 0;
+        for (LocalDate date : List.copyOf(dirtyDates)) {
+            // Se quita antes de recalcular: un cambio que llegue durante el cálculo la vuelve a marcar
+            dirtyDates.remove(date);
+            refreshQuietly(date);
+            refreshed++;
+        }
+        return refreshed;
+    }
+
+    /**
+     * Number of dates waiting for the next flush.
+     */
+    public int pendingDates() {
+        return dirtyDates.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOccupancyChanged(SessionOccupancyChangedEvent event) {
+        markDirty(event.getSessionDate());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(GymSessionChangedEvent event) {
+        refreshQuietly(event.getSessionDate());
+        if (event.getPreviousDate() != null && !event.getPreviousDate().equals(event.getSessionDate())) {
+            refreshQuietly(event.getPreviousDate());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttendanceRecorded(AttendanceRecordedEvent event) {
+        markDirty(event.getSessionDate());
+    }
+
+    private void markDirty(LocalDate date) {
+        if (date != null) {
+            dirtyDates.add(date);
+        }
+    }
+
+    private void refreshQuietly(LocalDate date) {
+        if (date == null) {
+            return;
+        }
+        try {
+            refresh(date, date);
+        } catch (RuntimeException e) {
+            // El cambio ya se confirmó; la fecha queda desactualizada hasta la próxima reconstrucción
+            logger.warn("Could not refresh occupancy rollup for {}", date, e);
+        }
+    }
+
+    private int refresh(LocalDate startDate, LocalDate endDate) {
+        SortedSet<Integer> stripes = stripesFor(startDate, endDate);
+        stripes.forEach(stripe -> locks[stripe].lock());
+        try {
+            Integer written = transactionTemplate.execute(status -> {
+                List<OccupancyBucket> buckets = compute(startDate, endDate);
+                bucketRepository.deleteByUsageDateBetween(startDate, endDate);
+                bucketRepository.saveAll(buckets);
+                return buckets.size();
+            });
+            return written != null ? written : 0;
+        } finally {
+            stripes.forEach(stripe -> locks[stripe].unlock());
+        }
+    }
+
+    private List<OccupancyBucket> compute(LocalDate startDate, LocalDate endDate) {
+        List<GymSession> sessions = gymSessionRepository.findBySessionDateBetween(startDate, endDate);
+        if (sessions.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, ReservationRepository.SessionOutcomeCount> outcomes = reservationRepository
+                .countOutcomesBySessionDateBetween(startDate, endDate, ReservationStatus.CANCELLED)
+                .stream()
+                .collect(Collectors.toMap(ReservationRepository.SessionOutcomeCount::getSessionId,
+                        Function.identity()));
+
+        Map<BucketKey, OccupancyBucket> buckets = new HashMap<>();
+        for (GymSession session : sessions) {
+            BucketKey key = new BucketKey(session.getSessionDate(), session.getStartTime().getHour(),
+                    session.getTrainerId());
+            OccupancyBucket bucket = buckets.computeIfAbsent(key,
+                    k -> new OccupancyBucket(k.date, k.hour, k.trainerId));
+            ReservationRepository.SessionOutcomeCount outcome = outcomes.get(session.getId());
+
+            bucket.setSessions(bucket.getSessions() + 1);
+            bucket.setCapacity(bucket.getCapacity() + session.getCapacity());
+            bucket.setReserved(bucket.getReserved() + session.getReservedSpots());
+            if (outcome != null) {
+                bucket.setAttended(bucket.getAttended() + (int) outcome.getAttended());
+                bucket.setCancelled(bucket.getCancelled() + (int) outcome.getCancelled());
+            }
+            bucket.setSessionMinutes(bucket.getSessionMinutes() + session.getDuration().toMinutes());
+            if (session.getCapacity() > 0) {
+                bucket.setUtilizationSum(bucket.getUtilizationSum()
+                        + session.getReservedSpots() * 100.0 / session.getCapacity());
+            }
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    private static SortedSet<Integer> stripesFor(LocalDate startDate, LocalDate endDate) {
+        // Orden ascendente para que dos reconstrucciones solapadas no se bloqueen entre sí
+        SortedSet<Integer> stripes = new TreeSet<>();
+        long days = ChronoUnit.DAYS.between(startDate, endDate);
+        for (long i = 0; i <= days && stripes.size() < LOCK_STRIPES; i++) {
+            stripes.add(Math.floorMod(startDate.plusDays(i).hashCode(), LOCK_STRIPES));
+        }
+        return stripes;
+    }
+
+    private static final class BucketKey {
+        private final LocalDate date;
+        private final int hour;
+        private final UUID trainerId;
+
+        private BucketKey(LocalDate date, int hour, UUID trainerId) {
+            this.date = date;
+            this.hour = hour;
+            this.trainerId = trainerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BucketKey)) {
+                return false;
+            }
+            BucketKey other = (BucketKey) o;
+            return hour == other.hour && date.equals(other.date) && Objects.equals(trainerId, other.trainerId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(date, hour, trainerId);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package edu.eci.cvds.prometeo.service.roster;
+
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import edu.eci.cvds.prometeo.repository.ReservationRepository;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable row of a session roster: a reservation together with the student who holds it.
+ */
+public final class RosterEntry {
+    private final UUID reservationId;
+    private final UUID userId;
+    private final String name;
+    private final String institutionalId;
+    private final ReservationStatus status;
+    private final Boolean attended;
+    private final LocalDateTime attendanceTime;
+
+    public RosterEntry(UUID reservationId, UUID userId, String name, String institutionalId,
+                       ReservationStatus status, Boolean attended, LocalDateTime attendanceTime) {
+        this.reservationId = reservationId;
+        this.userId = userId;
+        this.name = name;
+        this.institutionalId = institutionalId;
+        this.status = status;
+        this.attended = attended;
+        this.attendanceTime = attendanceTime;
+    }
+
+    public static RosterEntry from(ReservationRepository.RosterRow row) {
+        return new RosterEntry(row.getReservationId(), row.getUserId(), row.getName(), row.getInstitutionalId(),
+                row.getStatus(), row.getAttended(), row.getAttendanceTime());
+    }
+
+    /**
+     * Copy of this entry marked as attended at the given time.
+     */
+    public RosterEntry withAttendance(LocalDateTime time) {
+        return new RosterEntry(reservationId, userId, name, institutionalId, status, true, time);
+    }
+
+    /**
+     * Roster row in the format returned by the trainer endpoints.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> studentInfo = new HashMap<>();
+        studentInfo.put("reservationId", reservationId);
+        studentInfo.put("userId", userId);
+        studentInfo.put("name", name);
+        studentInfo.put("institutionalId", institutionalId);
+        studentInfo.put("status", status);
+        studentInfo.put("attended", attended);
+        studentInfo.put("attendanceTime", attendanceTime);
+        return studentInfo;
+    }
+
+    public UUID getReservationId() {
+        return reservationId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getInstitutionalId() {
+        return institutionalId;
+    }
+
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public Boolean getAttended() {
+        return attended;
+    }
+
+    public LocalDateTime getAttendanceTime() {
+        return attendanceTime;
+    }
+}
@@ -0,0 +1,122 @@
+package edu.eci.cvds.prometeo.service.roster;
+
+import edu.eci.cvds.prometeo.event.AttendanceRecordedEvent;
+import edu.eci.cvds.prometeo.event.GymSessionChangedEvent;
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
+import edu.eci.cvds.prometeo.repository.ReservationRepository;
+import edu.eci.cvds.prometeo.util.ExpiringLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Short-lived cache of today's session rosters for the check-in screens.
+ *
+ * Rosters of sessions held today are loaded once with a single join query and then served
+ * from memory. Check-ins patch the affected entry, while bookings and cancellations drop the
+ * roster so the next read reloads it with the new student. Updates are applied after the
+ * originating transaction commits. Rosters of other days are never cached, and cached ones
+ * also expire after the configured TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "prometeo.roster-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class SessionRosterCache {
+
+    private static final int PRUNE_THRESHOLD = 1024;
+
+    private final ReservationRepository reservationRepository;
+    private final ExpiringLoader<UUID, Roster> rosters;
+
+    public SessionRosterCache(ReservationRepository reservationRepository,
+                              @Value("${prometeo.roster-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.reservationRepository = reservationRepository;
+        this.rosters = new ExpiringLoader<>(sessionId -> new Roster(load(sessionId), LocalDate.now()),
+                Duration.ofSeconds(ttlSeconds), PRUNE_THRESHOLD);
+    }
+
+    /**
+     * Cached roster of a session, if it is held today and still fresh.
+     *
+     * @return the roster, or null when it has to be loaded
+     */
+    public List<RosterEntry> getCached(UUID sessionId) {
+        Roster roster = rosters.getIfFresh(sessionId);
+        if (roster == null || !roster.date.equals(LocalDate.now())) {
+            return null;
+        }
+        return roster.view;
+    }
+
+    /**
+     * Roster of a session, loading it if needed. Only rosters of today's sessions are kept.
+     */
+    public List<RosterEntry> getRoster(UUID sessionId, LocalDate sessionDate) {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(sessionDate)) {
+            return load(sessionId);
+        }
+        // Al cambiar de día se descartan las listas del día anterior
+        rosters.invalidateIf(roster -> !roster.date.equals(today));
+        return rosters.get(sessionId).view;
+    }
+
+    public void invalidate(UUID sessionId) {
+        rosters.invalidate(sessionId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOccupancyChanged(SessionOccupancyChangedEvent event) {
+        invalidate(event.getSessionId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(GymSessionChangedEvent event) {
+        invalidate(event.getSessionId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttendanceRecorded(AttendanceRecordedEvent event) {
+        rosters.patch(event.getSessionId(), roster -> roster.checkIn(event.getReservationId(), event.getAttendanceTime()));
+    }
+
+    private List<RosterEntry> load(UUID sessionId) {
+        return reservationRepository.findRosterBySessionId(sessionId).stream()
+                .map(RosterEntry::from)
+                .collect(Collectors.toList());
+    }
+
+    private static final class Roster {
+        private final List<RosterEntry> view;
+        private final LocalDate date;
+
+        private Roster(List<RosterEntry> entries, LocalDate date) {
+            this.view = Collections.unmodifiableList(entries);
+            this.date = date;
+        }
+
+        /**
+         * Copy of this roster with one reservation checked in, or null to drop the roster
+         * when the reservation is not part of it.
+         */
+        private Roster checkIn(UUID reservationId, LocalDateTime time) {
+            List<RosterEntry> patched = new ArrayList<>(view);
+            for (int i = 0; i < patched.size(); i++) {
+                if (patched.get(i).getReservationId().equals(reservationId)) {
+                    patched.set(i, patched.get(i).withAttendance(time));
+                    return new Roster(patched, date);
+                }
+            }
+            return null;
+        }
+    }
+}
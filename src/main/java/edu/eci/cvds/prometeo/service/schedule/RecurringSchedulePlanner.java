@@ -0,0 +1,106 @@
+package edu.eci.cvds.prometeo.service.schedule;
+
+import edu.eci.cvds.prometeo.PrometeoExceptions;
+import edu.eci.cvds.prometeo.dto.RecurrenceRuleDTO;
+import edu.eci.cvds.prometeo.dto.RecurringScheduleDTO;
+import edu.eci.cvds.prometeo.model.GymSession;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Expands weekday/time rules into the gym sessions they describe.
+ *
+ * Each rule jumps straight from one matching weekday to the next instead of walking
+ * every calendar day. Occurrences are checked in chronological order against a
+ * {@link SessionScheduleIndex} that already holds the existing sessions of the range,
+ * and accepted occurrences are added to it, so rules that collide with each other are
+ * caught as well. Nothing is persisted here.
+ */
+public final class RecurringSchedulePlanner {
+
+    private static final Comparator<GymSession> CHRONOLOGICAL = Comparator
+            .comparing(GymSession::getSessionDate)
+            .thenComparing(GymSession::getStartTime)
+            .thenComparing(GymSession::getEndTime);
+
+    private RecurringSchedulePlanner() {
+    }
+
+    /**
+     * Sessions to create and occurrences left out because they overlap another session.
+     */
+    public static final class Plan {
+        private final List<GymSession> sessions = new ArrayList<>();
+        private final List<GymSession> conflicts = new ArrayList<>();
+
+        public List<GymSession> getSessions() {
+            return sessions;
+        }
+
+        public List<GymSession> getConflicts() {
+            return conflicts;
+        }
+    }
+
+    public static void validate(RecurringScheduleDTO schedule) {
+        if (schedule.getStartDate() == null || schedule.getEndDate() == null
+                || schedule.getEndDate().isBefore(schedule.getStartDate())) {
+            throw new IllegalArgumentException(PrometeoExceptions.DIA_NO_VALIDO);
+        }
+        for (RecurrenceRuleDTO rule : schedule.getRules()) {
+            if (rule.getDayOfWeek() < 1 || rule.getDayOfWeek() > 7) {
+                throw new IllegalArgumentException(PrometeoExceptions.DIA_NO_VALIDO);
+            }
+            if (rule.getStartTime() == null || rule.getEndTime() == null
+                    || !rule.getStartTime().isBefore(rule.getEndTime())) {
+                throw new IllegalArgumentException(PrometeoExceptions.HORA_NO_VALIDA);
+            }
+            int capacity = rule.getCapacity() != null ? rule.getCapacity() : schedule.getCapacity();
+            if (capacity <= 0) {
+                throw new IllegalArgumentException(PrometeoExceptions.CAPACIDAD_NO_VALIDA);
+            }
+        }
+    }
+
+    public static Plan plan(RecurringScheduleDTO schedule, SessionScheduleIndex index) {
+        validate(schedule);
+
+        List<GymSession> occurrences = new ArrayList<>();
+        for (RecurrenceRuleDTO rule : schedule.getRules()) {
+            DayOfWeek day = DayOfWeek.of(rule.getDayOfWeek());
+            for (LocalDate date = schedule.getStartDate().with(TemporalAdjusters.nextOrSame(day));
+                 !date.isAfter(schedule.getEndDate());
+                 date = date.plusWeeks(1)) {
+                occurrences.add(occurrence(schedule, rule, date));
+            }
+        }
+        occurrences.sort(CHRONOLOGICAL);
+
+        Plan plan = new Plan();
+        for (GymSession session : occurrences) {
+            if (index.overlapsAny(session.getSessionDate(), session.getStartTime(), session.getEndTime())) {
+                plan.conflicts.add(session);
+            } else {
+                index.add(session);
+                plan.sessions.add(session);
+            }
+        }
+        return plan;
+    }
+
+    private static GymSession occurrence(RecurringScheduleDTO schedule, RecurrenceRuleDTO rule, LocalDate date) {
+        GymSession session = new GymSession();
+        session.setSessionDate(date);
+        session.setStartTime(rule.getStartTime());
+        session.setEndTime(rule.getEndTime());
+        session.setCapacity(rule.getCapacity() != null ? rule.getCapacity() : schedule.getCapacity());
+        session.setReservedSpots(0);
+        session.setTrainerId(rule.getTrainerId() != null ? rule.getTrainerId() : schedule.getTrainerId());
+        return session;
+    }
+}
@@ -0,0 +1,174 @@
+package edu.eci.cvds.prometeo.service.schedule;
+
+import edu.eci.cvds.prometeo.model.GymSession;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Immutable interval tree over the sessions of a single day.
+ *
+ * Sessions are kept in an array sorted by start time and viewed as a balanced binary
+ * search tree (the middle element of every range is its root). Each node stores the
+ * latest end time in its subtree, so subtrees that end before the queried range are
+ * skipped and overlap queries run in O(log n + k) for k matches.
+ *
+ * Intervals are half-open: a session from 8:00 to 9:00 does not overlap one that
+ * starts at 9:00.
+ */
+public final class SessionIntervalTree {
+
+    private static final Comparator<GymSession> BY_TIME = Comparator
+            .comparing(GymSession::getStartTime)
+            .thenComparing(GymSession::getEndTime);
+
+    private static final SessionIntervalTree EMPTY = new SessionIntervalTree(new GymSession[0]);
+
+    private final GymSession[] sessions;
+    // maxEnd[i]: latest end time in the subtree rooted at i
+    private final LocalTime[] maxEnd;
+
+    private SessionIntervalTree(GymSession[] sorted) {
+        this.sessions = sorted;
+        this.maxEnd = new LocalTime[sorted.length];
+        computeMaxEnd(0, sorted.length - 1);
+    }
+
+    public static SessionIntervalTree empty() {
+        return EMPTY;
+    }
+
+    public static SessionIntervalTree of(Collection<GymSession> sessions) {
+        if (sessions.isEmpty()) {
+            return EMPTY;
+        }
+        GymSession[] sorted = sessions.toArray(new GymSession[0]);
+        Arrays.sort(sorted, BY_TIME);
+        return new SessionIntervalTree(sorted);
+    }
+
+    /**
+     * New tree with one more session.
+     */
+    public SessionIntervalTree with(GymSession session) {
+        GymSession[] sorted = Arrays.copyOf(sessions, sessions.length + 1);
+        int index = Arrays.binarySearch(sessions, session, BY_TIME);
+        int insertAt = index >= 0 ? index : -index - 1;
+        System.arraycopy(sessions, insertAt, sorted, insertAt + 1, sessions.length - insertAt);
+        sorted[insertAt] = session;
+        return new SessionIntervalTree(sorted);
+    }
+
+    public int size() {
+        return sessions.length;
+    }
+
+    /**
+     * Sessions that overlap the range [start, end), sorted by start time.
+     */
+    public List<GymSession> overlapping(LocalTime start, LocalTime end) {
+        List<GymSession> result = new ArrayList<>();
+        collectOverlapping(0, sessions.length - 1, start, end, null, result, Integer.MAX_VALUE);
+        return result;
+    }
+
+    /**
+     * Whether any session other than the excluded one overlaps the range [start, end).
+     */
+    public boolean overlapsAny(LocalTime start, LocalTime end, UUID excludedSessionId) {
+        List<GymSession> result = new ArrayList<>(1);
+        collectOverlapping(0, sessions.length - 1, start, end, excludedSessionId, result, 1);
+        return !result.isEmpty();
+    }
+
+    /**
+     * Sessions that fully contain the range [start, end], sorted by start time.
+     */
+    public List<GymSession> covering(LocalTime start, LocalTime end) {
+        List<GymSession> result = new ArrayList<>();
+        for (GymSession session : overlappingOrTouching(start, end)) {
+            if (!session.getStartTime().isAfter(start) && !session.getEndTime().isBefore(end)) {
+                result.add(session);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * First session, by start time, that fully contains the range [start, end].
+     */
+    public Optional<GymSession> findCovering(LocalTime start, LocalTime end) {
+        return covering(start, end).stream().findFirst();
+    }
+
+    // Sesiones que se cruzan o tocan el rango cerrado [start, end]
+    private List<GymSession> overlappingOrTouching(LocalTime start, LocalTime end) {
+        List<GymSession> result = new ArrayList<>();
+        collectTouching(0, sessions.length - 1, start, end, result);
+        return result;
+    }
+
+    private LocalTime computeMaxEnd(int low, int high) {
+        if (low > high) {
+            return null;
+        }
+        int mid = (low + high) >>> 1;
+        LocalTime max = sessions[mid].getEndTime();
+        LocalTime left = computeMaxEnd(low, mid - 1);
+        LocalTime right = computeMaxEnd(mid + 1, high);
+        if (left != null && left.isAfter(max)) {
+            max = left;
+        }
+        if (right != null && right.isAfter(max)) {
+            max = right;
+        }
+        maxEnd[mid] = max;
+        return max;
+    }
+
+    private void collectOverlapping(int low, int high, LocalTime start, LocalTime end, UUID excluded,
+                                    List<GymSession> result, int limit) {
+        if (low > high || result.size() >= limit) {
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        // Nada en este subárbol termina después del inicio buscado
+        if (!maxEnd[mid].isAfter(start)) {
+            return;
+        }
+        collectOverlapping(low, mid - 1, start, end, excluded, result, limit);
+        GymSession session = sessions[mid];
+        if (result.size() < limit && session.getStartTime().isBefore(end) && session.getEndTime().isAfter(start)
+                && (excluded == null || !excluded.equals(session.getId()))) {
+            result.add(session);
+        }
+        // Los nodos de la derecha empiezan igual o más tarde: si éste ya empieza después del fin, se descartan
+        if (session.getStartTime().isBefore(end)) {
+            collectOverlapping(mid + 1, high, start, end, excluded, result, limit);
+        }
+    }
+
+    private void collectTouching(int low, int high, LocalTime start, LocalTime end, List<GymSession> result) {
+        if (low > high) {
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        if (maxEnd[mid].isBefore(start)) {
+            return;
+        }
+        collectTouching(low, mid - 1, start, end, result);
+        GymSession session = sessions[mid];
+        if (!session.getStartTime().isAfter(end) && !session.getEndTime().isBefore(start)) {
+            result.add(session);
+        }
+        if (!session.getStartTime().isAfter(end)) {
+            collectTouching(mid + 1, high, start, end, result);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package edu.eci.cvds.prometeo.service.schedule;
+
+import edu.eci.cvds.prometeo.model.GymSession;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-date {@link SessionIntervalTree}s for a range of days, built from a single load of
+ * the sessions in that range. Sessions added while planning a schedule are indexed
+ * too, so conflicts between new sessions are detected without going back to the database.
+ *
+ * Not thread-safe: meant to live for the duration of one operation.
+ */
+public class SessionScheduleIndex {
+
+    private final Map<LocalDate, SessionIntervalTree> trees = new HashMap<>();
+
+    public static SessionScheduleIndex of(Collection<GymSession> sessions) {
+        Map<LocalDate, List<GymSession>> byDate = new HashMap<>();
+        for (GymSession session : sessions) {
+            byDate.computeIfAbsent(session.getSessionDate(), date -> new ArrayList<>()).add(session);
+        }
+        SessionScheduleIndex index = new SessionScheduleIndex();
+        byDate.forEach((date, daySessions) -> index.trees.put(date, SessionIntervalTree.of(daySessions)));
+        return index;
+    }
+
+    public SessionIntervalTree forDate(LocalDate date) {
+        return trees.getOrDefault(date, SessionIntervalTree.empty());
+    }
+
+    public boolean overlapsAny(LocalDate date, LocalTime start, LocalTime end) {
+        return forDate(date).overlapsAny(start, end, null);
+    }
+
+    public boolean overlapsAny(LocalDate date, LocalTime start, LocalTime end, UUID excludedSessionId) {
+        return forDate(date).overlapsAny(start, end, excludedSessionId);
+    }
+
+    public void add(GymSession session) {
+        trees.put(session.getSessionDate(), forDate(session.getSessionDate()).with(session));
+    }
+}
@@ -0,0 +1,93 @@
+package edu.eci.cvds.prometeo.service.stats;
+
+import edu.eci.cvds.prometeo.dto.AttendanceBucketDTO;
+import edu.eci.cvds.prometeo.dto.TrainerAttendanceStatsDTO;
+import edu.eci.cvds.prometeo.model.enums.AggregationPeriod;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository.TrainerDailyAttendance;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Folds the per-trainer daily totals computed by the database into week or month
+ * buckets. The heavy lifting (counting sessions, seats and attended reservations)
+ * already happened in SQL; this only sums at most one row per trainer and day.
+ */
+public final class AttendanceAggregator {
+
+    private AttendanceAggregator() {
+    }
+
+    /**
+     * Groups daily rows by trainer and period. Rows are expected ordered by trainer,
+     * which keeps trainers in the order the query returned them.
+     */
+    public static List<TrainerAttendanceStatsDTO> aggregate(List<? extends TrainerDailyAttendance> rows,
+                                                            AggregationPeriod period) {
+        Map<UUID, TreeMap<LocalDate, AttendanceBucketDTO>> byTrainer = new LinkedHashMap<>();
+        for (TrainerDailyAttendance row : rows) {
+            LocalDate periodStart = periodStart(row.getSessionDate(), period);
+            AttendanceBucketDTO bucket = byTrainer
+                    .computeIfAbsent(row.getTrainerId(), id -> new TreeMap<>())
+                    .computeIfAbsent(periodStart, start -> {
+                        AttendanceBucketDTO created = new AttendanceBucketDTO();
+                        created.setPeriodStart(start);
+                        return created;
+                    });
+            bucket.setSessions(bucket.getSessions() + row.getSessions());
+            bucket.setCapacity(bucket.getCapacity() + row.getCapacity());
+            bucket.setReserved(bucket.getReserved() + row.getReserved());
+            bucket.setAttended(bucket.getAttended() + row.getAttended());
+        }
+
+        List<TrainerAttendanceStatsDTO> result = new ArrayList<>(byTrainer.size());
+        byTrainer.forEach((trainerId, buckets) -> {
+            TrainerAttendanceStatsDTO stats = new TrainerAttendanceStatsDTO();
+            stats.setTrainerId(trainerId);
+            for (AttendanceBucketDTO bucket : buckets.values()) {
+                bucket.setOccupancyRate(rate(bucket.getReserved(), bucket.getCapacity()));
+                bucket.setAttendanceRate(rate(bucket.getAttended(), bucket.getReserved()));
+                stats.setSessions(stats.getSessions() + bucket.getSessions());
+                stats.setCapacity(stats.getCapacity() + bucket.getCapacity());
+                stats.setReserved(stats.getReserved() + bucket.getReserved());
+                stats.setAttended(stats.getAttended() + bucket.getAttended());
+                stats.getBuckets().add(bucket);
+            }
+            stats.setOccupancyRate(rate(stats.getReserved(), stats.getCapacity()));
+            stats.setAttendanceRate(rate(stats.getAttended(), stats.getReserved()));
+            result.add(stats);
+        });
+        return result;
+    }
+
+    /**
+     * First day of the period containing the date: the date itself, the Monday of its
+     * week or the first of its month.
+     */
+    public static LocalDate periodStart(LocalDate date, AggregationPeriod period) {
+        switch (period) {
+            case WEEK:
+                return date.with(DayOfWeek.MONDAY);
+            case MONTH:
+                return date.withDayOfMonth(1);
+            default:
+                return date;
+        }
+    }
+
+    /**
+     * Percentage rounded to two decimals, 0 when the denominator is empty.
+     */
+    public static double rate(long part, long total) {
+        if (total <= 0) {
+            return 0;
+        }
+        return Math.round((double) part / total * 100 * 100) / 100.0;
+    }
+}
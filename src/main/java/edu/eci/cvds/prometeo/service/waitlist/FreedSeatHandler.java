@@ -0,0 +1,65 @@
+package edu.eci.cvds.prometeo.service.waitlist;
+
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.service.WaitlistService;
+import edu.eci.cvds.prometeo.service.inventory.SeatInventory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides where the seat of a cancelled reservation goes, for every cancellation path.
+ *
+ * With the {@link WaitlistPromotionEngine} enabled the seat is held for the next user in the
+ * waitlist and stays counted in the session. Otherwise, or when nobody is waiting, the seat
+ * is released to the pool and the next waitlisted user is notified.
+ */
+@Component
+public class FreedSeatHandler {
+
+    private final GymSessionRepository gymSessionRepository;
+    private final WaitlistService waitlistService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<WaitlistPromotionEngine> promotionEngine;
+    private final ObjectProvider<SeatInventory> seatInventory;
+
+    public FreedSeatHandler(GymSessionRepository gymSessionRepository,
+                            WaitlistService waitlistService,
+                            ApplicationEventPublisher eventPublisher,
+                            ObjectProvider<WaitlistPromotionEngine> promotionEngine,
+                            ObjectProvider<SeatInventory> seatInventory) {
+        this.gymSessionRepository = gymSessionRepository;
+        this.waitlistService = waitlistService;
+        this.eventPublisher = eventPublisher;
+        this.promotionEngine = promotionEngine;
+        this.seatInventory = seatInventory;
+    }
+
+    /**
+     * Gives back the seat of a reservation being cancelled. Must run in the transaction that
+     * cancels the reservation.
+     *
+     * @return true if the seat was held for a waitlisted user, false if it was released
+     */
+    public boolean giveBack(GymSession session) {
+        WaitlistPromotionEngine engine = promotionEngine.getIfAvailable();
+        if (engine != null && engine.holdFreedSeat(session.getId())) {
+            // El cupo queda retenido para el siguiente en la lista de espera y no se libera
+            eventPublisher.publishEvent(new SessionOccupancyChangedEvent(session.getId(), session.getSessionDate(), 0));
+            return true;
+        }
+        // Liberar el cupo en la sesión de forma atómica
+        gymSessionRepository.releaseSpot(session.getId());
+        SeatInventory inventory = seatInventory.getIfAvailable();
+        if (inventory != null) {
+            inventory.releaseAfterCommit(session.getId());
+        }
+        eventPublisher.publishEvent(new SessionOccupancyChangedEvent(session.getId(), session.getSessionDate(), -1));
+
+        // Notificar a la siguiente persona en la lista de espera
+        waitlistService.notifyNextInWaitlist(session.getId());
+        return false;
+    }
+}
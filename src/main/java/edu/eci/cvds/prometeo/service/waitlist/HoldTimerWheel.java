@@ -0,0 +1,122 @@
+package edu.eci.cvds.prometeo.service.waitlist;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hashed timing wheel for seat hold deadlines.
+ *
+ * Deadlines are rounded up to ticks and hashed into a fixed ring of slots, so scheduling and
+ * cancelling are O(1) and each tick only visits the slot whose time has come, no matter how
+ * many holds are pending. Deadlines further away than one turn of the wheel share a slot with
+ * nearer ones and are simply skipped until their own turn. Cancelled timeouts are dropped
+ * lazily when their slot is visited.
+ *
+ * The wheel does not own a thread: callers drive it with {@link #advance(long)}.
+ */
+public class HoldTimerWheel {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<Timeout>[] slots;
+    private final Map<UUID, Timeout> timeouts = new HashMap<>();
+    private long currentTick;
+
+    /**
+     * @param tickMillis Resolution of the wheel
+     * @param wheelSize Number of slots, rounded up to a power of two
+     * @param startMillis Current time, deadlines before it fire on the first advance
+     */
+    @SuppressWarnings("unchecked")
+    public HoldTimerWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.slots = new List[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new LinkedList<>();
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules (or reschedules) the deadline of a key.
+     */
+    public synchronized void schedule(UUID key, long deadlineMillis) {
+        cancel(key);
+        long deadlineTick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        Timeout timeout = new Timeout(key, deadlineTick);
+        slots[(int) (deadlineTick & mask)].add(timeout);
+        timeouts.put(key, timeout);
+    }
+
+    /**
+     * Cancels the deadline of a key.
+     *
+     * @return true if the key had a pending deadline
+     */
+    public synchronized boolean cancel(UUID key) {
+        Timeout timeout = timeouts.remove(key);
+        if (timeout == null) {
+            return false;
+        }
+        timeout.cancelled = true;
+        return true;
+    }
+
+    /**
+     * Moves the wheel up to the given time.
+     *
+     * @return keys whose deadline has passed, each returned only once
+     */
+    public synchronized List<UUID> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        List<UUID> expired = new ArrayList<>();
+        if (targetTick <= currentTick) {
+            return expired;
+        }
+        // Si el reloj avanzó más de una vuelta basta con visitar cada casilla una vez
+        long from = Math.max(currentTick + 1, targetTick - mask);
+        for (long tick = from; tick <= targetTick; tick++) {
+            Iterator<Timeout> slot = slots[(int) (tick & mask)].iterator();
+            while (slot.hasNext()) {
+                Timeout timeout = slot.next();
+                if (timeout.cancelled) {
+                    slot.remove();
+                } else if (timeout.deadlineTick <= targetTick) {
+                    slot.remove();
+                    timeouts.remove(timeout.key);
+                    expired.add(timeout.key);
+                }
+            }
+        }
+        currentTick = targetTick;
+        return expired;
+    }
+
+    /**
+     * Number of pending deadlines.
+     */
+    public synchronized int size() {
+        return timeouts.size();
+    }
+
+    private static final class Timeout {
+        private final UUID key;
+        private final long deadlineTick;
+        private boolean cancelled;
+
+        private Timeout(UUID key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
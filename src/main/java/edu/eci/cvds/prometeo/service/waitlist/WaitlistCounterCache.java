@@ -0,0 +1,56 @@
+package edu.eci.cvds.prometeo.service.waitlist;
+
+import edu.eci.cvds.prometeo.event.GymSessionChangedEvent;
+import edu.eci.cvds.prometeo.event.WaitlistChangedEvent;
+import edu.eci.cvds.prometeo.repository.WaitlistRepository;
+import edu.eci.cvds.prometeo.util.ExpiringLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Per-session cache of waitlist counters for the waitlist status screens, which poll them.
+ *
+ * Counters are loaded with a single aggregate query and served from memory until the
+ * waitlist of the session changes; changes drop the entry after the originating transaction
+ * commits so the next read reloads it. Entries also expire after the configured TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "prometeo.waitlist-counters.enabled", havingValue = "true", matchIfMissing = true)
+public class WaitlistCounterCache {
+
+    private static final int PRUNE_THRESHOLD = 1024;
+
+    private final ExpiringLoader<UUID, WaitlistRepository.WaitlistStats> counters;
+
+    public WaitlistCounterCache(WaitlistRepository waitlistRepository,
+                                @Value("${prometeo.waitlist-counters.ttl-seconds:15}") long ttlSeconds) {
+        this.counters = new ExpiringLoader<>(waitlistRepository::aggregateBySessionId,
+                Duration.ofSeconds(ttlSeconds), PRUNE_THRESHOLD);
+    }
+
+    /**
+     * Waitlist counters of a session, loading them if needed.
+     */
+    public WaitlistRepository.WaitlistStats get(UUID sessionId) {
+        return counters.get(sessionId);
+    }
+
+    public void invalidate(UUID sessionId) {
+        counters.invalidate(sessionId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWaitlistChanged(WaitlistChangedEvent event) {
+        invalidate(event.getSessionId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(GymSessionChangedEvent event) {
+        invalidate(event.getSessionId());
+    }
+}
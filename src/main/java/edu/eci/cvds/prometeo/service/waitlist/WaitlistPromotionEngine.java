@@ -0,0 +1,333 @@
+package edu.eci.cvds.prometeo.service.waitlist;
+
+import edu.eci.cvds.prometeo.PrometeoExceptions;
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
+import edu.eci.cvds.prometeo.event.WaitlistChangedEvent;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.model.WaitlistEntry;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.WaitlistRepository;
+import edu.eci.cvds.prometeo.service.NotificationService;
+import edu.eci.cvds.prometeo.service.inventory.SeatInventory;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Promotes waitlisted users automatically when seats free up.
+ *
+ * A seat freed by a cancellation, or added by a capacity raise, is not returned to the pool:
+ * it stays counted in the session's reserved spots and is held for the next user in the
+ * waitlist for a limited window. Accepting turns the hold into a reservation; declining,
+ * leaving the waitlist or letting the window run out passes the seat to the next user, and
+ * only when nobody is left waiting is the seat released.
+ *
+ * Holds are stored on the waitlist entry ({@code hold_expires_at}) and every state change
+ * is a conditional statement, so exactly one of accept, decline and expiry wins for a hold
+ * even across nodes. Deadlines are tracked in a {@link HoldTimerWheel} driven by a single
+ * ticker thread instead of polling the waitlist table; the wheel is reloaded from the table
+ * at startup.
+ */
+@Component
+@ConditionalOnProperty(name = "prometeo.waitlist-promotion.enabled", havingValue = "true", matchIfMissing = true)
+public class WaitlistPromotionEngine {
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistPromotionEngine.class);
+
+    private static final int WHEEL_SIZE = 512;
+    private static final int CANDIDATES_PER_ATTEMPT = 5;
+    private static final int MAX_OFFER_ATTEMPTS = 3;
+    private static final DateTimeFormatter HOLD_TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final WaitlistRepository waitlistRepository;
+    private final GymSessionRepository gymSessionRepository;
+    private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<SeatInventory> seatInventory;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration holdWindow;
+    private final long tickMillis;
+
+    private Clock clock = Clock.systemDefaultZone();
+    private HoldTimerWheel wheel;
+    private ScheduledExecutorService ticker;
+
+    public WaitlistPromotionEngine(WaitlistRepository waitlistRepository,
+                                   GymSessionRepository gymSessionRepository,
+                                   NotificationService notificationService,
+                                   ApplicationEventPublisher eventPublisher,
+                                   ObjectProvider<SeatInventory> seatInventory,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${prometeo.waitlist-promotion.hold-minutes:15}") long holdMinutes,
+                                   @Value("${prometeo.waitlist-promotion.tick-millis:1000}") long tickMillis) {
+        this.waitlistRepository = waitlistRepository;
+        this.gymSessionRepository = gymSessionRepository;
+        this.notificationService = notificationService;
+        this.eventPublisher = eventPublisher;
+        this.seatInventory = seatInventory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.holdWindow = Duration.ofMinutes(holdMinutes);
+        this.tickMillis = tickMillis;
+        this.wheel = new HoldTimerWheel(tickMillis, WHEEL_SIZE, clock.millis());
+    }
+
+    /**
+     * Reloads the pending holds and starts the ticker thread.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<WaitlistEntry> held = waitlistRepository.findByHoldExpiresAtIsNotNull();
+        for (WaitlistEntry entry : held) {
+            wheel.schedule(entry.getId(), toMillis(entry.getHoldExpiresAt()));
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "waitlist-hold-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        logger.info("Waitlist promotion started with {} pending holds", held.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Holds a seat that a cancellation is giving back for the next user in the waitlist.
+     * Must run in the transaction that frees the seat: when it returns true the caller must
+     * not release the seat.
+     *
+     * @return true if a waitlisted user got the seat
+     */
+    public boolean holdFreedSeat(UUID sessionId) {
+        return offerNext(sessionId);
+    }
+
+    /**
+     * Claims up to {@code seats} free seats of a session and holds them for the first users
+     * in its waitlist, e.g. after its capacity was raised.
+     *
+     * @return number of seats held
+     */
+    public int holdNewSeats(UUID sessionId, int seats) {
+        if (seats <= 0) {
+            return 0;
+        }
+        int waiting = waitlistRepository.findBySessionIdAndNotificationSentFalseOrderByRequestTimeAsc(
+                sessionId, PageRequest.of(0, seats)).size();
+        int claimed = claimUpTo(sessionId, waiting);
+        if (claimed == 0) {
+            return 0;
+        }
+        SeatInventory inventory = seatInventory.getIfAvailable();
+        if (inventory != null) {
+            inventory.recordClaimed(sessionId, claimed);
+        }
+
+        int held = 0;
+        while (held < claimed && offerNext(sessionId)) {
+            held++;
+        }
+        // Los cupos que otro proceso dejó sin candidato vuelven a quedar libres
+        for (int i = held; i < claimed; i++) {
+            gymSessionRepository.releaseSpot(sessionId);
+            if (inventory != null) {
+                inventory.releaseAfterCommit(sessionId);
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Consumes the running hold of a user so that the seat can become a reservation.
+     * The seat stays counted in the session, so the caller must not claim it again.
+     *
+     * @throws IllegalArgumentException if the user has no running hold for the session
+     */
+    public WaitlistEntry takeHold(UUID userId, UUID sessionId) {
+        WaitlistEntry entry = waitlistRepository.findFirstByUserIdAndSessionIdAndHoldExpiresAtIsNotNull(userId, sessionId)
+                .orElseThrow(() -> new IllegalArgumentException(PrometeoExceptions.SIN_CUPO_RETENIDO));
+        if (waitlistRepository.deleteActiveHold(entry.getId(), now()) == 0) {
+            throw new IllegalArgumentException(PrometeoExceptions.SIN_CUPO_RETENIDO);
+        }
+        afterCommit(() -> wheel.cancel(entry.getId()));
+        eventPublisher.publishEvent(new WaitlistChangedEvent(sessionId));
+        return entry;
+    }
+
+    /**
+     * Gives up the hold of a user, if any, passing the seat to the next user in the waitlist.
+     *
+     * @return true if the user had a hold for the session
+     */
+    public boolean releaseHold(UUID userId, UUID sessionId) {
+        Optional<WaitlistEntry> entry = waitlistRepository.findFirstByUserIdAndSessionIdAndHoldExpiresAtIsNotNull(userId, sessionId);
+        if (entry.isEmpty() || waitlistRepository.deleteHold(entry.get().getId()) == 0) {
+            return false;
+        }
+        afterCommit(() -> wheel.cancel(entry.get().getId()));
+        eventPublisher.publishEvent(new WaitlistChangedEvent(sessionId));
+        passOn(sessionId);
+        return true;
+    }
+
+    /**
+     * Number of holds waiting for their deadline on this node.
+     */
+    public int pendingHolds() {
+        return wheel.size();
+    }
+
+    void tick() {
+        try {
+            expireDue(clock.millis());
+        } catch (RuntimeException e) {
+            logger.error("Error expiring waitlist holds", e);
+        }
+    }
+
+    /**
+     * Expires the holds whose deadline has passed at the given time.
+     *
+     * @return number of holds expired
+     */
+    int expireDue(long nowMillis) {
+        int expired = 0;
+        for (UUID entryId : wheel.advance(nowMillis)) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> expire(entryId)))) {
+                    expired++;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not expire waitlist hold {}", entryId, e);
+            }
+        }
+        return expired;
+    }
+
+    void useClock(Clock clock) {
+        this.clock = clock;
+        this.wheel = new HoldTimerWheel(tickMillis, WHEEL_SIZE, clock.millis());
+    }
+
+    private boolean expire(UUID entryId) {
+        Optional<WaitlistEntry> entry = waitlistRepository.findById(entryId);
+        // Aceptada, rechazada o vencida ya en otro nodo: nada que hacer
+        if (entry.isEmpty() || waitlistRepository.deleteExpiredHold(entryId, now()) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(new WaitlistChangedEvent(entry.get().getSessionId()));
+        passOn(entry.get().getSessionId());
+        return true;
+    }
+
+    // El cupo pasa al siguiente en la lista; si no queda nadie esperando, se libera
+    private void passOn(UUID sessionId) {
+        Optional<GymSession> session = gymSessionRepository.findById(sessionId);
+        if (session.isEmpty() || offerNext(sessionId)) {
+            return;
+        }
+        gymSessionRepository.releaseSpot(sessionId);
+        SeatInventory inventory = seatInventory.getIfAvailable();
+        if (inventory != null) {
+            inventory.releaseAfterCommit(sessionId);
+        }
+        eventPublisher.publishEvent(new SessionOccupancyChangedEvent(sessionId, session.get().getSessionDate(), -1));
+    }
+
+    private boolean offerNext(UUID sessionId) {
+        for (int attempt = 0; attempt < MAX_OFFER_ATTEMPTS; attempt++) {
+            List<WaitlistEntry> candidates = waitlistRepository.findBySessionIdAndNotificationSentFalseOrderByRequestTimeAsc(
+                    sessionId, PageRequest.of(0, CANDIDATES_PER_ATTEMPT));
+            if (candidates.isEmpty()) {
+                return false;
+            }
+            LocalDateTime now = now();
+            LocalDateTime expiresAt = now.plus(holdWindow);
+            for (WaitlistEntry candidate : candidates) {
+                // Otro proceso pudo haber ofrecido el cupo a este candidato primero
+                if (waitlistRepository.offerHold(candidate.getId(), now, expiresAt) == 1) {
+                    UUID entryId = candidate.getId();
+                    UUID userId = candidate.getUserId();
+                    afterCommit(() -> wheel.schedule(entryId, toMillis(expiresAt)));
+                    // La notificación se guarda en la misma transacción que la retención
+                    notifyHold(userId, sessionId, expiresAt);
+                    eventPublisher.publishEvent(new WaitlistChangedEvent(sessionId));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int claimUpTo(UUID sessionId, int wanted) {
+        int available = gymSessionRepository.findAvailableSpotsById(sessionId).orElse(0);
+        for (int attempt = 0; attempt < MAX_OFFER_ATTEMPTS; attempt++) {
+            int toClaim = Math.min(wanted, available);
+            if (toClaim <= 0) {
+                return 0;
+            }
+            if (gymSessionRepository.claimSpots(sessionId, toClaim) == 1) {
+                return toClaim;
+            }
+            available = gymSessionRepository.findAvailableSpotsById(sessionId).orElse(0);
+        }
+        return 0;
+    }
+
+    private void notifyHold(UUID userId, UUID sessionId, LocalDateTime expiresAt) {
+        notificationService.sendNotification(userId,
+                "Cupo disponible",
+                "Se liberó un cupo en una sesión de tu lista de espera y está reservado para ti hasta las "
+                        + expiresAt.format(HOLD_TIME_FORMAT) + ". Acéptalo antes de que pase al siguiente.",
+                "WAITLIST_HOLD",
+                Optional.of(sessionId));
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    private long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,303 @@
+package edu.eci.cvds.prometeo.service.waitlist;
+
+import edu.eci.cvds.prometeo.dto.WaitlistPositionDTO;
+import edu.eci.cvds.prometeo.event.GymSessionChangedEvent;
+import edu.eci.cvds.prometeo.event.WaitlistChangedEvent;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.WaitlistRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Server-sent event streams of waitlist positions, one per user, session and open client.
+ *
+ * A subscription is an emitter with the last state sent to it; nothing runs for it until
+ * the waitlist or the session it watches changes. Committed changes only mark the session as
+ * dirty, so the booking or promotion that caused them never waits for a client. A dedicated
+ * push thread flushes the dirty sessions: the positions of all subscribed users of a session
+ * are computed with one grouped query and only the subscribers whose position, seat hold or
+ * session capacity changed receive an event. The same thread sends a periodic comment that
+ * keeps idle connections open through proxies and detects the clients that went away.
+ */
+@Component
+@ConditionalOnProperty(name = "prometeo.waitlist-stream.enabled", havingValue = "true", matchIfMissing = true)
+public class WaitlistStreamRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistStreamRegistry.class);
+
+    static final String EVENT_NAME = "waitlist";
+
+    private enum Change { WAITLIST, SESSION, CANCELLED }
+
+    private final WaitlistRepository waitlistRepository;
+    private final GymSessionRepository gymSessionRepository;
+    private final long timeoutMillis;
+    private final long coalesceMillis;
+    private final long heartbeatMillis;
+
+    private final Map<UUID, Set<Subscription>> bySession = new ConcurrentHashMap<>();
+    // Sesiones pendientes de publicar con los cambios acumulados desde el último envío
+    private final Map<UUID, Set<Change>> dirty = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    public WaitlistStreamRegistry(WaitlistRepository waitlistRepository,
+                                  GymSessionRepository gymSessionRepository,
+                                  @Value("${prometeo.waitlist-stream.timeout-minutes:30}") long timeoutMinutes,
+                                  @Value("${prometeo.waitlist-stream.coalesce-millis:500}") long coalesceMillis,
+                                  @Value("${prometeo.waitlist-stream.heartbeat-millis:25000}") long heartbeatMillis) {
+        this.waitlistRepository = waitlistRepository;
+        this.gymSessionRepository = gymSessionRepository;
+        this.timeoutMillis = timeoutMinutes * 60_000;
+        this.coalesceMillis = coalesceMillis;
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "waitlist-stream-push");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> run(this::flush), coalesceMillis, coalesceMillis, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(() -> run(this::heartbeat), heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Opens a stream for a user's position in the waitlist of a session; the current state
+     * is sent right away.
+     */
+    public SseEmitter subscribe(UUID userId, UUID sessionId) {
+        Subscription subscription = new Subscription(userId, sessionId, createEmitter());
+        subscription.emitter.onCompletion(() -> remove(subscription));
+        subscription.emitter.onTimeout(() -> remove(subscription));
+        subscription.emitter.onError(error -> remove(subscription));
+        bySession.computeIfAbsent(sessionId, key -> ConcurrentHashMap.newKeySet()).add(subscription);
+
+        Optional<GymSession> session = gymSessionRepository.findById(sessionId);
+        Map<UUID, WaitlistRepository.UserPosition> positions = positions(sessionId, Set.of(userId));
+        push(subscription, state(subscription, positions.get(userId), session.orElse(null)), true);
+        return subscription.emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWaitlistChanged(WaitlistChangedEvent event) {
+        markDirty(event.getSessionId(), Change.WAITLIST);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(GymSessionChangedEvent event) {
+        markDirty(event.getSessionId(),
+                event.getChange() == GymSessionChangedEvent.Change.CANCELLED ? Change.CANCELLED : Change.SESSION);
+    }
+
+    /**
+     * Pushes the sessions changed since the previous flush to their subscribers.
+     *
+     * @return number of sessions flushed
+     */
+    public int flush() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        Map<UUID, Set<Change>> batch = new HashMap<>();
+        for (UUID sessionId : Set.copyOf(dirty.keySet())) {
+            Set<Change> changes = dirty.remove(sessionId);
+            if (changes != null) {
+                batch.put(sessionId, changes);
+            }
+        }
+        Set<UUID> reload = batch.entrySet().stream()
+                .filter(entry -> entry.getValue().contains(Change.SESSION) && !entry.getValue().contains(Change.CANCELLED))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        Map<UUID, GymSession> sessions = reload.isEmpty() ? Map.of()
+                : gymSessionRepository.findAllById(reload).stream()
+                        .collect(Collectors.toMap(GymSession::getId, Function.identity()));
+
+        batch.forEach((sessionId, changes) -> {
+            Set<Subscription> subscriptions = bySession.get(sessionId);
+            if (subscriptions == null || subscriptions.isEmpty()) {
+                return;
+            }
+            // Una sesión que ya no se encuentra al recargarla se trata como cancelada
+            if (changes.contains(Change.CANCELLED) || (reload.contains(sessionId) && !sessions.containsKey(sessionId))) {
+                cancel(subscriptions);
+            } else {
+                update(sessionId, subscriptions, changes.contains(Change.WAITLIST), sessions.get(sessionId));
+            }
+        });
+        return batch.size();
+    }
+
+    public int pendingSessions() {
+        return dirty.size();
+    }
+
+    /**
+     * Sends a comment to every open stream, dropping the ones whose client went away.
+     */
+    public void heartbeat() {
+        for (Set<Subscription> subscriptions : bySession.values()) {
+            for (Subscription subscription : subscriptions) {
+                synchronized (subscription) {
+                    try {
+                        subscription.emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } catch (IOException | IllegalStateException e) {
+                        remove(subscription);
+                    }
+                }
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return bySession.values().stream().mapToInt(Set::size).sum();
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void markDirty(UUID sessionId, Change change) {
+        // Sin suscriptores no hay nada que enviar; evita acumular sesiones que nadie mira
+        if (sessionId == null || !bySession.containsKey(sessionId)) {
+            return;
+        }
+        dirty.computeIfAbsent(sessionId, key -> ConcurrentHashMap.newKeySet()).add(change);
+    }
+
+    private void update(UUID sessionId, Set<Subscription> subscriptions, boolean waitlistChanged, GymSession session) {
+        Map<UUID, WaitlistRepository.UserPosition> positions = waitlistChanged
+                ? positions(sessionId, subscriptions.stream().map(subscription -> subscription.userId).collect(Collectors.toSet()))
+                : null;
+        for (Subscription subscription : subscriptions) {
+            WaitlistPositionDTO state = positions != null
+                    ? state(subscription, positions.get(subscription.userId), null)
+                    : subscription.copyOfLast();
+            // Sin recargar la sesión se conserva la última capacidad enviada
+            state.setCapacity(session != null ? session.getCapacity() : subscription.capacity());
+            push(subscription, state, false);
+        }
+    }
+
+    private void cancel(Set<Subscription> subscriptions) {
+        for (Subscription subscription : subscriptions) {
+            WaitlistPositionDTO state = subscription.copyOfLast();
+            state.setSessionCancelled(true);
+            push(subscription, state, false);
+            subscription.emitter.complete();
+        }
+    }
+
+    private static void run(Runnable task) {
+        // Una excepción cancelaría las siguientes ejecuciones de la tarea periódica
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            logger.warn("Error pushing waitlist streams", e);
+        }
+    }
+
+    private Map<UUID, WaitlistRepository.UserPosition> positions(UUID sessionId, Set<UUID> userIds) {
+        return waitlistRepository.findPositions(sessionId, userIds).stream()
+                .collect(Collectors.toMap(WaitlistRepository.UserPosition::getUserId, Function.identity(), (a, b) -> a));
+    }
+
+    private static WaitlistPositionDTO state(Subscription subscription, WaitlistRepository.UserPosition position,
+                                             GymSession session) {
+        WaitlistPositionDTO state = new WaitlistPositionDTO();
+        state.setUserId(subscription.userId);
+        state.setSessionId(subscription.sessionId);
+        if (position != null) {
+            state.setPosition((int) position.getPosition());
+            state.setInWaitlist(true);
+            state.setHoldExpiresAt(position.getHoldExpiresAt());
+        }
+        if (session != null) {
+            state.setCapacity(session.getCapacity());
+        }
+        return state;
+    }
+
+    private void push(Subscription subscription, WaitlistPositionDTO state, boolean always) {
+        synchronized (subscription) {
+            if (!always && state.equals(subscription.last)) {
+                return;
+            }
+            try {
+                subscription.emitter.send(SseEmitter.event().name(EVENT_NAME).data(state));
+                subscription.last = state;
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Waitlist stream of user {} closed", subscription.userId, e);
+                remove(subscription);
+            }
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        bySession.computeIfPresent(subscription.sessionId, (key, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+
+    private static final class Subscription {
+        private final UUID userId;
+        private final UUID sessionId;
+        private final SseEmitter emitter;
+        private WaitlistPositionDTO last;
+
+        private Subscription(UUID userId, UUID sessionId, SseEmitter emitter) {
+            this.userId = Objects.requireNonNull(userId);
+            this.sessionId = Objects.requireNonNull(sessionId);
+            this.emitter = emitter;
+        }
+
+        private synchronized int capacity() {
+            return last == null ? 0 : last.getCapacity();
+        }
+
+        private synchronized WaitlistPositionDTO copyOfLast() {
+            WaitlistPositionDTO copy = new WaitlistPositionDTO();
+            copy.setUserId(userId);
+            copy.setSessionId(sessionId);
+            if (last != null) {
+                copy.setPosition(last.getPosition());
+                copy.setInWaitlist(last.isInWaitlist());
+                copy.setHoldExpiresAt(last.getHoldExpiresAt());
+                copy.setCapacity(last.getCapacity());
+            }
+            return copy;
+        }
+    }
+}
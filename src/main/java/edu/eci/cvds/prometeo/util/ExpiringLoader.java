@@ -0,0 +1,103 @@
+package edu.eci.cvds.prometeo.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory map of loaded values that expire after a TTL, shared by the read caches that
+ * sit in front of hot queries and are invalidated by domain events.
+ *
+ * A missing or expired value is loaded once per key even when several readers ask for it
+ * at the same time; the others wait for that load. The TTL bounds staleness for changes made
+ * by other application nodes, which never reach this node's event listeners. Expired values
+ * are swept once the map grows past the prune threshold.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public final class ExpiringLoader<K, V> {
+
+    private final Function<K, V> loader;
+    private final long ttlMillis;
+    private final int pruneThreshold;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param loader         Loads the value of a key, e.g. with one database query
+     * @param ttl            How long a loaded value is served
+     * @param pruneThreshold Size above which expired values are swept on reads
+     */
+    public ExpiringLoader(Function<K, V> loader, Duration ttl, int pruneThreshold) {
+        this.loader = loader;
+        this.ttlMillis = ttl.toMillis();
+        this.pruneThreshold = pruneThreshold;
+    }
+
+    /**
+     * Value of a key, loading it when it is missing or expired.
+     */
+    public V get(K key) {
+        long now = System.currentTimeMillis();
+        if (entries.size() > pruneThreshold) {
+            entries.values().removeIf(entry -> !entry.isFresh(now, ttlMillis));
+        }
+        // compute bloquea la clave mientras carga, así las lecturas concurrentes esperan una sola consulta
+        return entries.compute(key, (k, current) ->
+                current != null && current.isFresh(now, ttlMillis) ? current : new Entry<>(loader.apply(k), now)).value;
+    }
+
+    /**
+     * Value of a key if it is loaded and still fresh, without loading it.
+     *
+     * @return the value, or null
+     */
+    public V getIfFresh(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && entry.isFresh(System.currentTimeMillis(), ttlMillis) ? entry.value : null;
+    }
+
+    /**
+     * Replaces a loaded value with a patched copy, keeping its load time; a null patch drops it.
+     */
+    public void patch(K key, UnaryOperator<V> patch) {
+        entries.computeIfPresent(key, (k, entry) -> {
+            V patched = patch.apply(entry.value);
+            return patched == null ? null : new Entry<>(patched, entry.loadedAt);
+        });
+    }
+
+    public void invalidate(K key) {
+        if (key != null) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Drops every loaded value that matches the filter.
+     */
+    public void invalidateIf(Predicate<V> filter) {
+        entries.values().removeIf(entry -> filter.test(entry.value));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long loadedAt;
+
+        private Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+
+        private boolean isFresh(long now, long ttlMillis) {
+            return now - loadedAt < ttlMillis;
+        }
+    }
+}
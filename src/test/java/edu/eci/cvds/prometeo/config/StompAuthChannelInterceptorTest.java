@@ -0,0 +1,89 @@
+package edu.eci.cvds.prometeo.config;
+
+import edu.eci.cvds.prometeo.util.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.security.Principal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class StompAuthChannelInterceptorTest {
+
+    private final StompAuthChannelInterceptor interceptor = new StompAuthChannelInterceptor(new JwtUtil());
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    static String token(String role) {
+        return Jwts.builder()
+                .setClaims(Map.of("userName", "student@mail.com", "role", role, "name", "Student", "id", "1"))
+                .signWith(SignatureAlgorithm.HS256, "supersecretpassword1234567891011121314".getBytes())
+                .compact();
+    }
+
+    @Test
+    void preSend_ConnectWithValidToken_ShouldSetTheUser() {
+        Message<?> connect = frame(StompCommand.CONNECT, "Bearer " + token("student"), null);
+
+        Message<?> result = interceptor.preSend(connect, channel);
+
+        Principal user = MessageHeaderAccessor.getAccessor(result, StompHeaderAccessor.class).getUser();
+        assertInstanceOf(UsernamePasswordAuthenticationToken.class, user);
+        assertEquals("student@mail.com", user.getName());
+        assertEquals("ROLE_STUDENT",
+                ((UsernamePasswordAuthenticationToken) user).getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void preSend_ConnectWithoutToken_ShouldBeRejected() {
+        assertThrows(BadCredentialsException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, null, null), channel));
+    }
+
+    @Test
+    void preSend_ConnectWithInvalidToken_ShouldBeRejected() {
+        assertThrows(BadCredentialsException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, "Bearer not-a-jwt", null), channel));
+    }
+
+    @Test
+    void preSend_ConnectWithUnknownRole_ShouldBeRejected() {
+        assertThrows(AccessDeniedException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, "Bearer " + token("guest"), null), channel));
+    }
+
+    @Test
+    void preSend_SubscribeWithoutAuthenticatedSession_ShouldBeRejected() {
+        assertThrows(AccessDeniedException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, null, null), channel));
+    }
+
+    @Test
+    void preSend_SubscribeWithAuthenticatedSession_ShouldPass() {
+        Message<?> subscribe = frame(StompCommand.SUBSCRIBE, null,
+                new UsernamePasswordAuthenticationToken("student@mail.com", null));
+
+        assertSame(subscribe, interceptor.preSend(subscribe, channel));
+    }
+
+    private static Message<?> frame(StompCommand command, String authorization, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        if (authorization != null) {
+            accessor.setNativeHeader(StompAuthChannelInterceptor.AUTHORIZATION_HEADER, authorization);
+        }
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,49 @@
+package edu.eci.cvds.prometeo.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.StompWebSocketEndpointRegistration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class WebSocketConfigTest {
+
+    @Test
+    public void testRegisterStompEndpoints() {
+        WebSocketConfig config = new WebSocketConfig(mock(StompAuthChannelInterceptor.class));
+        StompEndpointRegistry registry = mock(StompEndpointRegistry.class);
+        StompWebSocketEndpointRegistration registration = mock(StompWebSocketEndpointRegistration.class);
+        when(registry.addEndpoint("/ws")).thenReturn(registration);
+        when(registration.setAllowedOrigins(any(String[].class))).thenReturn(registration);
+
+        config.registerStompEndpoints(registry);
+
+        verify(registry).addEndpoint("/ws");
+        verify(registration).setAllowedOrigins(any(String[].class));
+    }
+
+    @Test
+    public void testConfigureMessageBroker() {
+        WebSocketConfig config = new WebSocketConfig(mock(StompAuthChannelInterceptor.class));
+        MessageBrokerRegistry registry = mock(MessageBrokerRegistry.class);
+
+        config.configureMessageBroker(registry);
+
+        verify(registry).enableSimpleBroker("/topic");
+        verify(registry).setApplicationDestinationPrefixes("/app");
+    }
+
+    @Test
+    public void testConfigureClientInboundChannel() {
+        StompAuthChannelInterceptor interceptor = mock(StompAuthChannelInterceptor.class);
+        WebSocketConfig config = new WebSocketConfig(interceptor);
+        ChannelRegistration registration = mock(ChannelRegistration.class);
+
+        config.configureClientInboundChannel(registration);
+
+        verify(registration).interceptors(interceptor);
+    }
+}
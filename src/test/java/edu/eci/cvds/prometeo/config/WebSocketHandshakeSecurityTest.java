@@ -0,0 +1,80 @@
+package edu.eci.cvds.prometeo.config;
+
+import edu.eci.cvds.prometeo.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Opens real STOMP sessions at {@code /ws} through the HTTP security chain, the way a browser
+ * does: no header on the handshake and the token in the CONNECT frame.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        classes = WebSocketHandshakeSecurityTest.WebSocketTestApplication.class)
+class WebSocketHandshakeSecurityTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+
+    @AfterEach
+    void tearDown() {
+        stompClient.stop();
+    }
+
+    @Test
+    void connect_WithTokenInConnectFrame_ShouldOpenTheSession() throws Exception {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add(StompAuthChannelInterceptor.AUTHORIZATION_HEADER,
+                "Bearer " + StompAuthChannelInterceptorTest.token("STUDENT"));
+
+        StompSession session = connect(connectHeaders).get(10, TimeUnit.SECONDS);
+
+        assertTrue(session.isConnected());
+        session.disconnect();
+    }
+
+    @Test
+    void connect_WithoutToken_ShouldPassTheHandshakeButBeRefusedOnConnect() {
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> connect(new StompHeaders()).get(10, TimeUnit.SECONDS));
+
+        // El handshake no recibe 403: es el frame CONNECT el que se rechaza
+        assertFalse(String.valueOf(error.getCause().getMessage()).contains("403"));
+    }
+
+    private java.util.concurrent.CompletableFuture<StompSession> connect(StompHeaders connectHeaders) {
+        return stompClient.connectAsync("ws://localhost:" + port + "/ws", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() { });
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {
+            DataSourceAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class,
+            JpaRepositoriesAutoConfiguration.class
+    })
+    @Import({WebSocketConfig.class, SecurityConfig.class, JwtRequestFilter.class, JwtUtil.class,
+            StompAuthChannelInterceptor.class})
+    static class WebSocketTestApplication {
+    }
+}
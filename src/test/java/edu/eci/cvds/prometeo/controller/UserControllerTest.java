@@ -1,22 +1,30 @@
 package edu.eci.cvds.prometeo.controller;
 
+import edu.eci.cvds.prometeo.PrometeoExceptions;
 import edu.eci.cvds.prometeo.dto.*;
 import edu.eci.cvds.prometeo.model.*;
+import edu.eci.cvds.prometeo.model.enums.AggregationPeriod;
 import edu.eci.cvds.prometeo.model.enums.ReportFormat;
 import edu.eci.cvds.prometeo.repository.RoutineExerciseRepository;
 import edu.eci.cvds.prometeo.repository.RoutineRepository;
 import edu.eci.cvds.prometeo.service.*;
+import edu.eci.cvds.prometeo.service.admission.AdmissionTicket;
+import edu.eci.cvds.prometeo.service.admission.ReservationAdmissionQueue;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.function.Consumer;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -50,9 +58,18 @@ class UserControllerTest {
     @Mock
     private GymSessionService gymSessionService;
     
+    @Mock
+    private ReservationAdmissionQueue reservationAdmissionQueue;
+    
     @Mock
     private ReportService reportService;
+
+    @Mock
+    private NotificationService notificationService;
     
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @InjectMocks
     private UserController userController;
     
@@ -367,7 +384,11 @@ class UserControllerTest {
         ReservationDTO reservationDTO = new ReservationDTO();
         reservationDTO.setId(reservationId);
         
-        when(gymReservationService.create(any(ReservationDTO.class))).thenReturn(reservationDTO);
+        AdmissionTicket ticket = mock(AdmissionTicket.class);
+        when(ticket.getStatus()).thenReturn(AdmissionTicket.Status.CONFIRMED);
+        when(ticket.getReservation()).thenReturn(reservationDTO);
+        when(reservationAdmissionQueue.submit(any(ReservationDTO.class))).thenReturn(ticket);
+        when(reservationAdmissionQueue.await(ticket)).thenReturn(ticket);
         
         ResponseEntity<Object> response = userController.createReservation(userId, reservationDTO);
         
@@ -376,7 +397,81 @@ class UserControllerTest {
         @SuppressWarnings("unchecked")
         Map<String, Object> responseMap = (Map<String, Object>) response.getBody();
         assertEquals(reservationId, responseMap.get("reservationId"));
-        verify(gymReservationService).create(any(ReservationDTO.class));
+        verify(reservationAdmissionQueue).submit(reservationDTO);
+    }
+    
+    @Test
+    public void testCreateReservationWhenRejected() {
+        ReservationDTO reservationDTO = new ReservationDTO();
+        
+        AdmissionTicket ticket = mock(AdmissionTicket.class);
+        when(ticket.getStatus()).thenReturn(AdmissionTicket.Status.REJECTED);
+        when(ticket.getError()).thenReturn("Sin cupo");
+        when(reservationAdmissionQueue.submit(any(ReservationDTO.class))).thenReturn(ticket);
+        when(reservationAdmissionQueue.await(ticket)).thenReturn(ticket);
+        
+        ResponseEntity<Object> response = userController.createReservation(userId, reservationDTO);
+        
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Sin cupo", ((Map<?, ?>) response.getBody()).get("error"));
+    }
+    
+    @Test
+    public void testCreateReservationWhenStillQueued() {
+        ReservationDTO reservationDTO = new ReservationDTO();
+        ReservationTicketDTO ticketDTO = new ReservationTicketDTO();
+        
+        AdmissionTicket ticket = mock(AdmissionTicket.class);
+        when(ticket.getStatus()).thenReturn(AdmissionTicket.Status.QUEUED);
+        when(reservationAdmissionQueue.submit(any(ReservationDTO.class))).thenReturn(ticket);
+        when(reservationAdmissionQueue.await(ticket)).thenReturn(ticket);
+        when(reservationAdmissionQueue.toDTO(ticket)).thenReturn(ticketDTO);
+        
+        ResponseEntity<Object> response = userController.createReservation(userId, reservationDTO);
+        
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(ticketDTO, response.getBody());
+    }
+    
+    @Test
+    public void testCreateReservationWhenQueueIsFull() {
+        ReservationDTO reservationDTO = new ReservationDTO();
+        when(reservationAdmissionQueue.submit(any(ReservationDTO.class)))
+                .thenThrow(new IllegalStateException("Cola llena"));
+        
+        ResponseEntity<Object> response = userController.createReservation(userId, reservationDTO);
+        
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+    }
+    
+    @Test
+    public void testGetReservationTicket() {
+        UUID ticketId = UUID.randomUUID();
+        ReservationTicketDTO ticketDTO = new ReservationTicketDTO();
+        
+        AdmissionTicket ticket = mock(AdmissionTicket.class);
+        when(ticket.getUserId()).thenReturn(userId);
+        when(ticket.isDone()).thenReturn(true);
+        when(reservationAdmissionQueue.getTicket(ticketId)).thenReturn(Optional.of(ticket));
+        when(reservationAdmissionQueue.toDTO(ticket)).thenReturn(ticketDTO);
+        
+        ResponseEntity<ReservationTicketDTO> response = userController.getReservationTicket(userId, ticketId, 5);
+        
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ticketDTO, response.getBody());
+        verify(reservationAdmissionQueue, never()).await(any(AdmissionTicket.class), any());
+    }
+    
+    @Test
+    public void testGetReservationTicketOfAnotherUser() {
+        UUID ticketId = UUID.randomUUID();
+        AdmissionTicket ticket = mock(AdmissionTicket.class);
+        when(ticket.getUserId()).thenReturn(UUID.randomUUID());
+        when(reservationAdmissionQueue.getTicket(ticketId)).thenReturn(Optional.of(ticket));
+        
+        ResponseEntity<ReservationTicketDTO> response = userController.getReservationTicket(userId, ticketId, 0);
+        
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
     
     // Gym session endpoint tests
@@ -1329,6 +1424,99 @@ class UserControllerTest {
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
     
+    @Test
+    public void testAcceptWaitlistHold() {
+        UUID sessionId = UUID.randomUUID();
+        ReservationDTO reservation = new ReservationDTO();
+        reservation.setUserId(userId);
+        reservation.setSessionId(sessionId);
+        
+        when(gymReservationService.acceptWaitlistHold(userId, sessionId)).thenReturn(reservation);
+        
+        ResponseEntity<Object> response = userController.acceptWaitlistHold(userId, sessionId);
+        
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(reservation, response.getBody());
+    }
+    
+    @Test
+    public void testAcceptWaitlistHold_WithoutHold() {
+        UUID sessionId = UUID.randomUUID();
+        
+        when(gymReservationService.acceptWaitlistHold(userId, sessionId))
+                .thenThrow(new IllegalArgumentException(PrometeoExceptions.SIN_CUPO_RETENIDO));
+        
+        ResponseEntity<Object> response = userController.acceptWaitlistHold(userId, sessionId);
+        
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        @SuppressWarnings("unchecked")
+        Map<String, String> responseBody = (Map<String, String>) response.getBody();
+        assertEquals(PrometeoExceptions.SIN_CUPO_RETENIDO, responseBody.get("error"));
+    }
+    
+    @Test
+    public void testStreamWaitlistStatus_Disabled() {
+        ResponseEntity<?> response = userController.streamWaitlistStatus(userId, UUID.randomUUID());
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void testGetNotifications() {
+        CursorPageDTO<NotificationDTO> page = new CursorPageDTO<>();
+        page.setItems(List.of(new NotificationDTO()));
+        when(notificationService.getInbox(userId, true, null, 20)).thenReturn(page);
+
+        ResponseEntity<Object> response = userController.getNotifications(userId, true, null, 20);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    public void testGetNotifications_InvalidCursor() {
+        when(notificationService.getInbox(userId, false, "bad", null))
+                .thenThrow(new IllegalArgumentException(PrometeoExceptions.CURSOR_NO_VALIDO));
+
+        ResponseEntity<Object> response = userController.getNotifications(userId, false, "bad", null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        @SuppressWarnings("unchecked")
+        Map<String, String> responseBody = (Map<String, String>) response.getBody();
+        assertEquals(PrometeoExceptions.CURSOR_NO_VALIDO, responseBody.get("error"));
+    }
+
+    @Test
+    public void testGetUnreadNotificationCount() {
+        when(notificationService.getUnreadCount(userId)).thenReturn(3L);
+
+        ResponseEntity<Map<String, Long>> response = userController.getUnreadNotificationCount(userId);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3L, response.getBody().get("unread"));
+    }
+
+    @Test
+    public void testMarkNotificationsAsRead() {
+        List<UUID> ids = List.of(UUID.randomUUID());
+        when(notificationService.markAsRead(userId, ids)).thenReturn(1);
+
+        ResponseEntity<Map<String, Integer>> response = userController.markNotificationsAsRead(userId, ids);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().get("updated"));
+    }
+
+    @Test
+    public void testMarkAllNotificationsAsRead() {
+        when(notificationService.markAllAsRead(userId)).thenReturn(5);
+
+        ResponseEntity<Map<String, Integer>> response = userController.markAllNotificationsAsRead(userId);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(5, response.getBody().get("updated"));
+    }
+
     @Test
     public void testLeaveWaitlist() {
         // Prepare test data
@@ -1377,6 +1565,62 @@ class UserControllerTest {
         assertEquals(statistics, response.getBody());
     }
     
+    @Test
+    public void testGetAttendanceStatisticsByTrainers() {
+        List<UUID> trainerIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        LocalDate startDate = LocalDate.now().minusMonths(1);
+        LocalDate endDate = LocalDate.now();
+        List<TrainerAttendanceStatsDTO> statistics = List.of(new TrainerAttendanceStatsDTO());
+
+        when(gymSessionService.getAttendanceStatistics(trainerIds, startDate, endDate, AggregationPeriod.WEEK))
+                .thenReturn(statistics);
+
+        ResponseEntity<Object> response = userController.getAttendanceStatisticsByTrainers(
+                trainerIds, startDate, endDate, AggregationPeriod.WEEK);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(statistics, response.getBody());
+    }
+
+    @Test
+    public void testGetAttendanceStatisticsByTrainersWithInvalidRange() {
+        LocalDate startDate = LocalDate.now();
+        LocalDate endDate = startDate.minusDays(1);
+
+        when(gymSessionService.getAttendanceStatistics(null, startDate, endDate, AggregationPeriod.DAY))
+                .thenThrow(new IllegalArgumentException(PrometeoExceptions.RANGO_FECHAS_NO_VALIDO));
+
+        ResponseEntity<Object> response = userController.getAttendanceStatisticsByTrainers(
+                null, startDate, endDate, AggregationPeriod.DAY);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(Map.of("error", PrometeoExceptions.RANGO_FECHAS_NO_VALIDO), response.getBody());
+    }
+
+    @Test
+    public void testRebuildOccupancyRollup() {
+        LocalDate startDate = LocalDate.of(2024, 1, 1);
+        LocalDate endDate = LocalDate.of(2024, 12, 31);
+        when(reportService.rebuildOccupancyRollup(startDate, endDate)).thenReturn(365);
+
+        ResponseEntity<Map<String, Object>> response = userController.rebuildOccupancyRollup(startDate, endDate);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(365, response.getBody().get("rowsWritten"));
+    }
+
+    @Test
+    public void testRebuildOccupancyRollupWhenDisabled() {
+        LocalDate today = LocalDate.now();
+        when(reportService.rebuildOccupancyRollup(today, today))
+                .thenThrow(new IllegalArgumentException(PrometeoExceptions.RESUMEN_OCUPACION_DESHABILITADO));
+
+        ResponseEntity<Map<String, Object>> response = userController.rebuildOccupancyRollup(today, today);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(PrometeoExceptions.RESUMEN_OCUPACION_DESHABILITADO, response.getBody().get("error"));
+    }
+
     @Test
     public void testGetOccupancyStatistics() {
         // Prepare test data
@@ -1414,6 +1658,149 @@ class UserControllerTest {
         assertEquals(students, response.getBody());
     }
     
+    @Test
+    public void testCreateBulkReservations() {
+        UUID sessionId = UUID.randomUUID();
+        List<UUID> userIds = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+        BulkReservationDTO request = new BulkReservationDTO();
+        request.setUserIds(userIds);
+        request.setNotes("Clase grupal");
+        
+        BulkReservationResultDTO result = new BulkReservationResultDTO();
+        result.setSessionId(sessionId);
+        result.setRequested(2);
+        result.setReserved(2);
+        
+        when(gymReservationService.createBulk(sessionId, userIds, "Clase grupal")).thenReturn(result);
+        
+        ResponseEntity<Object> response = userController.createBulkReservations(sessionId, request);
+        
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(result, response.getBody());
+        assertEquals(sessionId, request.getSessionId());
+    }
+    
+    @Test
+    public void testCreateBulkReservationsWhenSessionNotExists() {
+        UUID sessionId = UUID.randomUUID();
+        BulkReservationDTO request = new BulkReservationDTO();
+        
+        when(gymReservationService.createBulk(eq(sessionId), anyList(), isNull()))
+                .thenThrow(new IllegalArgumentException("Session not found"));
+        
+        ResponseEntity<Object> response = userController.createBulkReservations(sessionId, request);
+        
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Session not found", ((Map<?, ?>) response.getBody()).get("error"));
+    }
+    
+    @Test
+    public void testGetUsersPage() {
+        CursorPageDTO<User> page = new CursorPageDTO<>();
+        page.setItems(List.of(new User()));
+        page.setNextCursor("next");
+        page.setHasMore(true);
+
+        when(userService.getUsersPage("cursor", 10)).thenReturn(page);
+
+        ResponseEntity<Object> response = userController.getUsersPage("cursor", 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    public void testGetUsersPageWithInvalidCursor() {
+        when(userService.getUsersPage("bad", null)).thenThrow(new IllegalArgumentException("El cursor de paginación no es válido"));
+
+        ResponseEntity<Object> response = userController.getUsersPage("bad", null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("El cursor de paginación no es válido", ((Map<?, ?>) response.getBody()).get("error"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamUsersWritesOneJsonObjectPerLine() throws Exception {
+        User first = new User();
+        first.setName("Ana");
+        User second = new User();
+        second.setName("Luis");
+        doAnswer(invocation -> {
+            Consumer<User> sink = invocation.getArgument(0);
+            sink.accept(first);
+            sink.accept(second);
+            return null;
+        }).when(userService).streamAllUsers(any(Consumer.class));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        userController.streamUsers(response);
+
+        assertTrue(response.getContentType().startsWith(MediaType.APPLICATION_NDJSON_VALUE));
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Ana", objectMapper.readTree(lines[0]).get("name").asText());
+        assertEquals("Luis", objectMapper.readTree(lines[1]).get("name").asText());
+    }
+
+    @Test
+    public void testGetReservationsPage() {
+        CursorPageDTO<ReservationDTO> page = new CursorPageDTO<>();
+        when(gymReservationService.getPage(null, 100)).thenReturn(page);
+
+        ResponseEntity<Object> response = userController.getReservationsPage(null, 100);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamReservations() throws Exception {
+        ReservationDTO reservation = new ReservationDTO();
+        reservation.setId(UUID.randomUUID());
+        reservation.setReservationDate(LocalDateTime.of(2025, 4, 1, 9, 0));
+        doAnswer(invocation -> {
+            Consumer<ReservationDTO> sink = invocation.getArgument(0);
+            sink.accept(reservation);
+            return null;
+        }).when(gymReservationService).streamAll(any(Consumer.class));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        userController.streamReservations(response);
+
+        String body = response.getContentAsString();
+        assertTrue(body.endsWith("\n"));
+        assertEquals(reservation.getId().toString(), objectMapper.readTree(body.trim()).get("id").asText());
+    }
+
+    @Test
+    public void testCreateRecurringSchedule() {
+        RecurringScheduleDTO request = new RecurringScheduleDTO();
+        RecurringScheduleResultDTO result = new RecurringScheduleResultDTO();
+        result.setCreated(8);
+
+        when(gymSessionService.configureRecurringSchedule(request)).thenReturn(result);
+
+        ResponseEntity<Object> response = userController.createRecurringSchedule(request);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(result, response.getBody());
+    }
+
+    @Test
+    public void testCreateRecurringScheduleWithInvalidRule() {
+        RecurringScheduleDTO request = new RecurringScheduleDTO();
+
+        when(gymSessionService.configureRecurringSchedule(request))
+                .thenThrow(new IllegalArgumentException("Día no válido"));
+
+        ResponseEntity<Object> response = userController.createRecurringSchedule(request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Día no válido", ((Map<?, ?>) response.getBody()).get("error"));
+    }
+
     @Test
     public void testLambdaUpdateRoutine() {
         // This test covers the lambda function used in updateRoutine
@@ -0,0 +1,42 @@
+package edu.eci.cvds.prometeo.dto;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AttendanceBucketDTOTest {
+
+    @Test
+    public void testPeriodStartGetterAndSetter() {
+        AttendanceBucketDTO dto = new AttendanceBucketDTO();
+        LocalDate periodStart = LocalDate.of(2025, 5, 5);
+
+        assertNull(dto.getPeriodStart());
+        dto.setPeriodStart(periodStart);
+        assertEquals(periodStart, dto.getPeriodStart());
+    }
+
+    @Test
+    public void testCountsGetterAndSetter() {
+        AttendanceBucketDTO dto = new AttendanceBucketDTO();
+
+        dto.setSessions(3);
+        dto.setCapacity(60);
+        dto.setReserved(45);
+        dto.setAttended(30);
+        assertEquals(3, dto.getSessions());
+        assertEquals(60, dto.getCapacity());
+        assertEquals(45, dto.getReserved());
+        assertEquals(30, dto.getAttended());
+    }
+
+    @Test
+    public void testRatesGetterAndSetter() {
+        AttendanceBucketDTO dto = new AttendanceBucketDTO();
+
+        dto.setOccupancyRate(75.0);
+        dto.setAttendanceRate(66.67);
+        assertEquals(75.0, dto.getOccupancyRate());
+        assertEquals(66.67, dto.getAttendanceRate());
+    }
+}
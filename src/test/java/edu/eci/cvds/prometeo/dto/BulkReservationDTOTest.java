@@ -0,0 +1,40 @@
+package edu.eci.cvds.prometeo.dto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkReservationDTOTest {
+
+    @Test
+    public void testSessionIdGetterAndSetter() {
+        BulkReservationDTO dto = new BulkReservationDTO();
+        UUID sessionId = UUID.randomUUID();
+        
+        assertNull(dto.getSessionId());
+        dto.setSessionId(sessionId);
+        assertEquals(sessionId, dto.getSessionId());
+    }
+    
+    @Test
+    public void testUserIdsGetterAndSetter() {
+        BulkReservationDTO dto = new BulkReservationDTO();
+        List<UUID> userIds = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+        
+        assertNull(dto.getUserIds());
+        dto.setUserIds(userIds);
+        assertEquals(userIds, dto.getUserIds());
+    }
+    
+    @Test
+    public void testNotesGetterAndSetter() {
+        BulkReservationDTO dto = new BulkReservationDTO();
+        String notes = "Clase de spinning";
+        
+        assertNull(dto.getNotes());
+        dto.setNotes(notes);
+        assertEquals(notes, dto.getNotes());
+    }
+}
@@ -0,0 +1,39 @@
+package edu.eci.cvds.prometeo.dto;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkReservationResultDTOTest {
+
+    @Test
+    public void testDefaultValues() {
+        BulkReservationResultDTO dto = new BulkReservationResultDTO();
+        
+        assertNull(dto.getSessionId());
+        assertEquals(0, dto.getRequested());
+        assertEquals(0, dto.getReserved());
+        assertNotNull(dto.getResults());
+        assertTrue(dto.getResults().isEmpty());
+    }
+    
+    @Test
+    public void testGettersAndSetters() {
+        BulkReservationResultDTO dto = new BulkReservationResultDTO();
+        UUID sessionId = UUID.randomUUID();
+        List<ReservationOutcomeDTO> results = Collections.singletonList(
+                ReservationOutcomeDTO.rejected(UUID.randomUUID(), "Sin cupo"));
+        
+        dto.setSessionId(sessionId);
+        dto.setRequested(3);
+        dto.setReserved(2);
+        dto.setResults(results);
+        
+        assertEquals(sessionId, dto.getSessionId());
+        assertEquals(3, dto.getRequested());
+        assertEquals(2, dto.getReserved());
+        assertEquals(results, dto.getResults());
+    }
+}
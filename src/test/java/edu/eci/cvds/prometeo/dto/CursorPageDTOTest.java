@@ -0,0 +1,36 @@
+package edu.eci.cvds.prometeo.dto;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CursorPageDTOTest {
+
+    @Test
+    public void testItemsGetterAndSetter() {
+        CursorPageDTO<String> dto = new CursorPageDTO<>();
+        List<String> items = List.of("a", "b");
+
+        assertTrue(dto.getItems().isEmpty());
+        dto.setItems(items);
+        assertEquals(items, dto.getItems());
+    }
+
+    @Test
+    public void testNextCursorGetterAndSetter() {
+        CursorPageDTO<String> dto = new CursorPageDTO<>();
+
+        assertNull(dto.getNextCursor());
+        dto.setNextCursor("cursor");
+        assertEquals("cursor", dto.getNextCursor());
+    }
+
+    @Test
+    public void testHasMoreGetterAndSetter() {
+        CursorPageDTO<String> dto = new CursorPageDTO<>();
+
+        assertFalse(dto.isHasMore());
+        dto.setHasMore(true);
+        assertTrue(dto.isHasMore());
+    }
+}
@@ -0,0 +1,45 @@
+package edu.eci.cvds.prometeo.dto;
+
+import java.time.LocalTime;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecurrenceRuleDTOTest {
+
+    @Test
+    public void testDayOfWeekGetterAndSetter() {
+        RecurrenceRuleDTO dto = new RecurrenceRuleDTO();
+
+        assertEquals(0, dto.getDayOfWeek());
+        dto.setDayOfWeek(3);
+        assertEquals(3, dto.getDayOfWeek());
+    }
+
+    @Test
+    public void testTimesGetterAndSetter() {
+        RecurrenceRuleDTO dto = new RecurrenceRuleDTO();
+        LocalTime startTime = LocalTime.of(7, 0);
+        LocalTime endTime = LocalTime.of(8, 0);
+
+        assertNull(dto.getStartTime());
+        assertNull(dto.getEndTime());
+        dto.setStartTime(startTime);
+        dto.setEndTime(endTime);
+        assertEquals(startTime, dto.getStartTime());
+        assertEquals(endTime, dto.getEndTime());
+    }
+
+    @Test
+    public void testOverridesGetterAndSetter() {
+        RecurrenceRuleDTO dto = new RecurrenceRuleDTO();
+        UUID trainerId = UUID.randomUUID();
+
+        assertNull(dto.getCapacity());
+        assertNull(dto.getTrainerId());
+        dto.setCapacity(12);
+        dto.setTrainerId(trainerId);
+        assertEquals(12, dto.getCapacity());
+        assertEquals(trainerId, dto.getTrainerId());
+    }
+}
@@ -0,0 +1,45 @@
+package edu.eci.cvds.prometeo.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecurringScheduleDTOTest {
+
+    @Test
+    public void testDatesGetterAndSetter() {
+        RecurringScheduleDTO dto = new RecurringScheduleDTO();
+        LocalDate startDate = LocalDate.of(2025, 2, 1);
+        LocalDate endDate = LocalDate.of(2025, 5, 31);
+
+        assertNull(dto.getStartDate());
+        assertNull(dto.getEndDate());
+        dto.setStartDate(startDate);
+        dto.setEndDate(endDate);
+        assertEquals(startDate, dto.getStartDate());
+        assertEquals(endDate, dto.getEndDate());
+    }
+
+    @Test
+    public void testCapacityAndTrainerGetterAndSetter() {
+        RecurringScheduleDTO dto = new RecurringScheduleDTO();
+        UUID trainerId = UUID.randomUUID();
+
+        dto.setCapacity(25);
+        dto.setTrainerId(trainerId);
+        assertEquals(25, dto.getCapacity());
+        assertEquals(trainerId, dto.getTrainerId());
+    }
+
+    @Test
+    public void testRulesGetterAndSetter() {
+        RecurringScheduleDTO dto = new RecurringScheduleDTO();
+        List<RecurrenceRuleDTO> rules = List.of(new RecurrenceRuleDTO());
+
+        assertTrue(dto.getRules().isEmpty());
+        dto.setRules(rules);
+        assertEquals(rules, dto.getRules());
+    }
+}
@@ -0,0 +1,38 @@
+package edu.eci.cvds.prometeo.dto;
+
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecurringScheduleResultDTOTest {
+
+    @Test
+    public void testCreatedGetterAndSetter() {
+        RecurringScheduleResultDTO dto = new RecurringScheduleResultDTO();
+
+        assertEquals(0, dto.getCreated());
+        dto.setCreated(16);
+        assertEquals(16, dto.getCreated());
+    }
+
+    @Test
+    public void testSessionIdsGetterAndSetter() {
+        RecurringScheduleResultDTO dto = new RecurringScheduleResultDTO();
+        List<UUID> sessionIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+        assertTrue(dto.getSessionIds().isEmpty());
+        dto.setSessionIds(sessionIds);
+        assertEquals(sessionIds, dto.getSessionIds());
+    }
+
+    @Test
+    public void testConflictsGetterAndSetter() {
+        RecurringScheduleResultDTO dto = new RecurringScheduleResultDTO();
+        List<GymSessionDTO> conflicts = List.of(new GymSessionDTO());
+
+        assertTrue(dto.getConflicts().isEmpty());
+        dto.setConflicts(conflicts);
+        assertEquals(conflicts, dto.getConflicts());
+    }
+}
@@ -0,0 +1,52 @@
+package edu.eci.cvds.prometeo.dto;
+
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReservationHistoryDTOTest {
+
+    @Test
+    public void testIdGetterAndSetter() {
+        ReservationHistoryDTO dto = new ReservationHistoryDTO();
+        UUID id = UUID.randomUUID();
+
+        assertNull(dto.getId());
+        dto.setId(id);
+        assertEquals(id, dto.getId());
+    }
+
+    @Test
+    public void testDateAndTimeGetterAndSetter() {
+        ReservationHistoryDTO dto = new ReservationHistoryDTO();
+        LocalDate date = LocalDate.of(2025, 5, 20);
+        LocalTime time = LocalTime.of(18, 0);
+
+        dto.setDate(date);
+        dto.setTime(time);
+        assertEquals(date, dto.getDate());
+        assertEquals(time, dto.getTime());
+    }
+
+    @Test
+    public void testStatusGetterAndSetter() {
+        ReservationHistoryDTO dto = new ReservationHistoryDTO();
+
+        assertNull(dto.getStatus());
+        dto.setStatus(ReservationStatus.CONFIRMED);
+        assertEquals(ReservationStatus.CONFIRMED, dto.getStatus());
+    }
+
+    @Test
+    public void testSessionGetterAndSetter() {
+        ReservationHistoryDTO dto = new ReservationHistoryDTO();
+        SessionSummaryDTO session = new SessionSummaryDTO();
+
+        assertNull(dto.getSession());
+        dto.setSession(session);
+        assertEquals(session, dto.getSession());
+    }
+}
@@ -0,0 +1,50 @@
+package edu.eci.cvds.prometeo.dto;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReservationOutcomeDTOTest {
+
+    @Test
+    public void testGettersAndSetters() {
+        ReservationOutcomeDTO dto = new ReservationOutcomeDTO();
+        UUID userId = UUID.randomUUID();
+        UUID reservationId = UUID.randomUUID();
+        
+        dto.setUserId(userId);
+        dto.setSuccess(true);
+        dto.setReservationId(reservationId);
+        dto.setError("error");
+        
+        assertEquals(userId, dto.getUserId());
+        assertTrue(dto.isSuccess());
+        assertEquals(reservationId, dto.getReservationId());
+        assertEquals("error", dto.getError());
+    }
+    
+    @Test
+    public void testReservedFactory() {
+        UUID userId = UUID.randomUUID();
+        UUID reservationId = UUID.randomUUID();
+        
+        ReservationOutcomeDTO dto = ReservationOutcomeDTO.reserved(userId, reservationId);
+        
+        assertEquals(userId, dto.getUserId());
+        assertTrue(dto.isSuccess());
+        assertEquals(reservationId, dto.getReservationId());
+        assertNull(dto.getError());
+    }
+    
+    @Test
+    public void testRejectedFactory() {
+        UUID userId = UUID.randomUUID();
+        
+        ReservationOutcomeDTO dto = ReservationOutcomeDTO.rejected(userId, "Sin cupo");
+        
+        assertEquals(userId, dto.getUserId());
+        assertFalse(dto.isSuccess());
+        assertNull(dto.getReservationId());
+        assertEquals("Sin cupo", dto.getError());
+    }
+}
@@ -0,0 +1,37 @@
+package edu.eci.cvds.prometeo.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReservationTicketDTOTest {
+
+    @Test
+    public void testGettersAndSetters() {
+        ReservationTicketDTO dto = new ReservationTicketDTO();
+        UUID ticketId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        UUID sessionId = UUID.randomUUID();
+        UUID reservationId = UUID.randomUUID();
+        LocalDateTime createdAt = LocalDateTime.now();
+        
+        dto.setTicketId(ticketId);
+        dto.setUserId(userId);
+        dto.setSessionId(sessionId);
+        dto.setStatus("QUEUED");
+        dto.setPosition(3);
+        dto.setReservationId(reservationId);
+        dto.setError("error");
+        dto.setCreatedAt(createdAt);
+        
+        assertEquals(ticketId, dto.getTicketId());
+        assertEquals(userId, dto.getUserId());
+        assertEquals(sessionId, dto.getSessionId());
+        assertEquals("QUEUED", dto.getStatus());
+        assertEquals(3, dto.getPosition());
+        assertEquals(reservationId, dto.getReservationId());
+        assertEquals("error", dto.getError());
+        assertEquals(createdAt, dto.getCreatedAt());
+    }
+}
@@ -0,0 +1,42 @@
+package edu.eci.cvds.prometeo.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionAvailabilityDTOTest {
+
+    @Test
+    public void testSessionGetterAndSetter() {
+        SessionAvailabilityDTO dto = new SessionAvailabilityDTO();
+        UUID sessionId = UUID.randomUUID();
+        LocalDate date = LocalDate.of(2030, 3, 10);
+
+        dto.setSessionId(sessionId);
+        dto.setSessionDate(date);
+        dto.setStartTime(LocalTime.of(6, 0));
+        dto.setEndTime(LocalTime.of(7, 0));
+        assertEquals(sessionId, dto.getSessionId());
+        assertEquals(date, dto.getSessionDate());
+        assertEquals(LocalTime.of(6, 0), dto.getStartTime());
+        assertEquals(LocalTime.of(7, 0), dto.getEndTime());
+    }
+
+    @Test
+    public void testSpotsGetterAndSetter() {
+        SessionAvailabilityDTO dto = new SessionAvailabilityDTO();
+
+        assertEquals(0, dto.getAvailableSpots());
+        assertFalse(dto.isCancelled());
+        dto.setCapacity(20);
+        dto.setAvailableSpots(12);
+        dto.setDelta(-3);
+        dto.setCancelled(true);
+        assertEquals(20, dto.getCapacity());
+        assertEquals(12, dto.getAvailableSpots());
+        assertEquals(-3, dto.getDelta());
+        assertTrue(dto.isCancelled());
+    }
+}
@@ -0,0 +1,40 @@
+package edu.eci.cvds.prometeo.dto;
+
+import java.time.LocalTime;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionSummaryDTOTest {
+
+    @Test
+    public void testIdGetterAndSetter() {
+        SessionSummaryDTO dto = new SessionSummaryDTO();
+        UUID id = UUID.randomUUID();
+
+        assertNull(dto.getId());
+        dto.setId(id);
+        assertEquals(id, dto.getId());
+    }
+
+    @Test
+    public void testTimesGetterAndSetter() {
+        SessionSummaryDTO dto = new SessionSummaryDTO();
+        LocalTime startTime = LocalTime.of(6, 0);
+        LocalTime endTime = LocalTime.of(7, 30);
+
+        dto.setStartTime(startTime);
+        dto.setEndTime(endTime);
+        assertEquals(startTime, dto.getStartTime());
+        assertEquals(endTime, dto.getEndTime());
+    }
+
+    @Test
+    public void testCapacityGetterAndSetter() {
+        SessionSummaryDTO dto = new SessionSummaryDTO();
+
+        assertEquals(0, dto.getCapacity());
+        dto.setCapacity(15);
+        assertEquals(15, dto.getCapacity());
+    }
+}
@@ -0,0 +1,47 @@
+package edu.eci.cvds.prometeo.dto;
+
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrainerAttendanceStatsDTOTest {
+
+    @Test
+    public void testTrainerIdGetterAndSetter() {
+        TrainerAttendanceStatsDTO dto = new TrainerAttendanceStatsDTO();
+        UUID trainerId = UUID.randomUUID();
+
+        assertNull(dto.getTrainerId());
+        dto.setTrainerId(trainerId);
+        assertEquals(trainerId, dto.getTrainerId());
+    }
+
+    @Test
+    public void testTotalsGetterAndSetter() {
+        TrainerAttendanceStatsDTO dto = new TrainerAttendanceStatsDTO();
+
+        dto.setSessions(4);
+        dto.setCapacity(80);
+        dto.setReserved(40);
+        dto.setAttended(20);
+        dto.setOccupancyRate(50.0);
+        dto.setAttendanceRate(50.0);
+        assertEquals(4, dto.getSessions());
+        assertEquals(80, dto.getCapacity());
+        assertEquals(40, dto.getReserved());
+        assertEquals(20, dto.getAttended());
+        assertEquals(50.0, dto.getOccupancyRate());
+        assertEquals(50.0, dto.getAttendanceRate());
+    }
+
+    @Test
+    public void testBucketsDefaultsToEmptyList() {
+        TrainerAttendanceStatsDTO dto = new TrainerAttendanceStatsDTO();
+        AttendanceBucketDTO bucket = new AttendanceBucketDTO();
+
+        assertTrue(dto.getBuckets().isEmpty());
+        dto.setBuckets(List.of(bucket));
+        assertEquals(List.of(bucket), dto.getBuckets());
+    }
+}
@@ -0,0 +1,40 @@
+package edu.eci.cvds.prometeo.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WaitlistPositionDTOTest {
+
+    @Test
+    public void testIdsGetterAndSetter() {
+        WaitlistPositionDTO dto = new WaitlistPositionDTO();
+        UUID sessionId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+
+        dto.setSessionId(sessionId);
+        dto.setUserId(userId);
+        assertEquals(sessionId, dto.getSessionId());
+        assertEquals(userId, dto.getUserId());
+    }
+
+    @Test
+    public void testPositionGetterAndSetter() {
+        WaitlistPositionDTO dto = new WaitlistPositionDTO();
+        LocalDateTime holdExpiresAt = LocalDateTime.of(2030, 3, 10, 7, 15);
+
+        assertFalse(dto.isInWaitlist());
+        assertNull(dto.getHoldExpiresAt());
+        dto.setPosition(2);
+        dto.setInWaitlist(true);
+        dto.setHoldExpiresAt(holdExpiresAt);
+        dto.setCapacity(12);
+        dto.setSessionCancelled(true);
+        assertEquals(2, dto.getPosition());
+        assertTrue(dto.isInWaitlist());
+        assertEquals(holdExpiresAt, dto.getHoldExpiresAt());
+        assertEquals(12, dto.getCapacity());
+        assertTrue(dto.isSessionCancelled());
+    }
+}
@@ -42,6 +42,10 @@ public class NotificationTest {
         notification.setScheduledTime(scheduledTime);
         notification.setSentTime(sentTime);
         notification.setRelatedEntityId(relatedEntityId);
+        notification.setDeliveryAttempts(2);
+        notification.setNextAttemptAt(scheduledTime);
+        notification.setLastError("timeout");
+        notification.setDeduplicationKey("REMINDER:key");
 
         // Verify properties
         assertEquals(userId, notification.getUserId());
@@ -52,6 +56,10 @@ public class NotificationTest {
         assertEquals(scheduledTime, notification.getScheduledTime());
         assertEquals(sentTime, notification.getSentTime());
         assertEquals(relatedEntityId, notification.getRelatedEntityId());
+        assertEquals(2, notification.getDeliveryAttempts());
+        assertEquals(scheduledTime, notification.getNextAttemptAt());
+        assertEquals("timeout", notification.getLastError());
+        assertEquals("REMINDER:key", notification.getDeduplicationKey());
     }
 
     @Test
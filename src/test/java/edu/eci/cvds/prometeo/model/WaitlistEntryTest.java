@@ -55,12 +55,14 @@ public class WaitlistEntryTest {
         waitlistEntry.setRequestTime(requestTime);
         waitlistEntry.setNotificationSent(notificationSent);
         waitlistEntry.setNotificationTime(notificationTime);
+        waitlistEntry.setHoldExpiresAt(notificationTime.plusMinutes(15));
         
         assertEquals(userId, waitlistEntry.getUserId());
         assertEquals(sessionId, waitlistEntry.getSessionId());
         assertEquals(requestTime, waitlistEntry.getRequestTime());
         assertEquals(notificationSent, waitlistEntry.isNotificationSent());
         assertEquals(notificationTime, waitlistEntry.getNotificationTime());
+        assertEquals(notificationTime.plusMinutes(15), waitlistEntry.getHoldExpiresAt());
     }
     
     @Test
@@ -1,160 +1,251 @@
 package edu.eci.cvds.prometeo.openai;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;  
-
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.eci.cvds.prometeo.PrometeoExceptions;
 import io.github.cdimascio.dotenv.Dotenv;
 import io.github.cdimascio.dotenv.DotenvBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
 import org.mockito.MockedStatic;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
-import java.util.function.Function;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
-
-@ExtendWith(MockitoExtension.class)
+/**
+ * Runs the client against a local HTTP server that answers with scripted statuses and delays.
+ */
 public class OpenAiClientTest {
 
-    @Mock
-    private WebClient.Builder webClientBuilder;
+    private static final String SIMULATED_RESPONSE =
+            "{\"choices\":[{\"message\":{\"content\":\"Esta es una respuesta simulada. Configura OPEN_AI_TOKEN para usar OpenAI.\"}}]}";
+    private static final String ANSWER = "{\"choices\":[{\"message\":{\"content\":\"API response\"}}]}";
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final Queue<Reply> replies = new ConcurrentLinkedQueue<>();
+    private volatile Reply fallbackReply = new Reply(200, ANSWER, 0);
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private volatile String lastAuthorization;
+    private volatile String lastContentType;
+    private volatile String lastBody;
+
+    private final List<OpenAiClient> clients = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", this::handle);
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+    }
 
-    @Mock
-    private WebClient webClient;
+    @AfterEach
+    void tearDown() {
+        clients.forEach(OpenAiClient::close);
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
 
-    @Mock
-    private WebClient.RequestBodyUriSpec requestBodyUriSpec;
+    @Test
+    void testQueryModelWithDummyKey() {
+        OpenAiClient client = client(null, 20_000, 30_000);
 
-    @Mock
-    private WebClient.RequestBodySpec requestBodySpec;
+        assertFalse(client.isConfigured());
+        assertEquals(SIMULATED_RESPONSE, client.queryModel("Test prompt"));
+        assertEquals(0, requests.get());
+    }
 
-    @Mock
-    private WebClient.RequestHeadersSpec requestHeadersSpec;
+    @Test
+    void testQueryModelWithValidKey() {
+        OpenAiClient client = client("real-api-key", 20_000, 30_000);
 
-    @Mock
-    private WebClient.ResponseSpec responseSpec;
+        String result = client.queryModel("Test prompt");
 
-    @Mock
-    private ObjectMapper objectMapper;
+        assertTrue(client.isConfigured());
+        assertEquals(ANSWER, result);
+        assertEquals("Bearer real-api-key", lastAuthorization);
+        assertTrue(lastContentType.startsWith("application/json"));
+        assertTrue(lastBody.contains("gpt-4o"));
+        assertTrue(lastBody.contains("Test prompt"));
+    }
 
-    @Mock
-    private Dotenv dotenv;
+    @Test
+    void testServerErrorIsRetried() {
+        replies.add(new Reply(503, "{}", 0));
+        OpenAiClient client = client("real-api-key", 20_000, 30_000);
 
-    private OpenAiClient openAiClient;    @BeforeEach
-    void setUp() {
-        try (MockedStatic<Dotenv> dotenvMockedStatic = mockStatic(Dotenv.class)) {
-            // Mock the static method chain
-            DotenvBuilder dotenvBuilder = mock(DotenvBuilder.class);
-            dotenvMockedStatic.when(Dotenv::configure).thenReturn(dotenvBuilder);
-            when(dotenvBuilder.ignoreIfMissing()).thenReturn(dotenvBuilder);
-            when(dotenvBuilder.load()).thenReturn(dotenv);
-            
-            // Mock WebClient.Builder
-            when(webClientBuilder.build()).thenReturn(webClient);
-
-            // Default behavior for dotenv
-            when(dotenv.get("OPEN_AI_TOKEN")).thenReturn(null);
-            when(dotenv.get("OPEN_AI_MODEL")).thenReturn(null);
-            
-            openAiClient = new OpenAiClient(webClientBuilder, objectMapper);
-        }
-    }    @Test
-    void testQueryModelWithDummyKey() {
-        // The API key should be "dummy-key" by default in our setup
-        String result = openAiClient.queryModel("Test prompt");
-        
-        assertEquals("{\"choices\":[{\"message\":{\"content\":\"Esta es una respuesta simulada. Configura OPEN_AI_TOKEN para usar OpenAI.\"}}]}", result);
-    }@Test
-    void testQueryModelWithValidKey() throws JsonProcessingException {
-        // Create a new instance with mocked environment variables
-        try (MockedStatic<Dotenv> dotenvMockedStatic = mockStatic(Dotenv.class)) {
-            // Setup the dotenv mock chain
-            DotenvBuilder dotenvBuilder = mock(DotenvBuilder.class);
-            dotenvMockedStatic.when(Dotenv::configure).thenReturn(dotenvBuilder);
-            when(dotenvBuilder.ignoreIfMissing()).thenReturn(dotenvBuilder);
-            when(dotenvBuilder.load()).thenReturn(dotenv);
-            
-            when(dotenv.get("OPEN_AI_TOKEN")).thenReturn("real-api-key");
-            when(dotenv.get("OPEN_AI_MODEL")).thenReturn("https://api.openai.com/v1/chat/completions");
-            when(webClientBuilder.build()).thenReturn(webClient);
-
-            // Set up the WebClient mock chain
-            when(webClient.post()).thenReturn(requestBodyUriSpec);
-            when(requestBodyUriSpec.uri(anyString())).thenReturn(requestBodySpec);
-            when(requestBodySpec.header(eq("Authorization"), anyString())).thenReturn(requestBodySpec);
-            when(requestBodySpec.header(eq("Content-Type"), anyString())).thenReturn(requestBodySpec);
-            when(requestBodySpec.bodyValue(anyString())).thenReturn(requestHeadersSpec);
-            when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-            when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just("{\"choices\":[{\"message\":{\"content\":\"API response\"}}]}"));
-
-            when(objectMapper.writeValueAsString(any())).thenReturn("{}");
-
-            OpenAiClient client = new OpenAiClient(webClientBuilder, objectMapper);
-            String result = client.queryModel("Test prompt");
-
-            assertEquals("{\"choices\":[{\"message\":{\"content\":\"API response\"}}]}", result);
-            verify(requestBodySpec).header(eq("Authorization"), eq("Bearer real-api-key"));
+        assertEquals(ANSWER, client.queryModel("Test prompt"));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void testRateLimitIsRetriedUntilTheRetriesRunOut() {
+        fallbackReply = new Reply(429, "{}", 0);
+        OpenAiClient client = client("real-api-key", 20_000, 30_000);
+
+        assertThrows(WebClientResponseException.TooManyRequests.class, () -> client.queryModel("Test prompt"));
+        // Intento original más dos reintentos
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    void testClientErrorIsNotRetriedNorOpensTheCircuit() {
+        fallbackReply = new Reply(400, "{}", 0);
+        OpenAiClient client = client("real-api-key", 20_000, 30_000);
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(WebClientResponseException.BadRequest.class, () -> client.queryModel("Test prompt"));
         }
-    }    @Test
-    void testQueryModelWithException() throws JsonProcessingException {
-        // Create a new instance with mocked environment variables
-        try (MockedStatic<Dotenv> dotenvMockedStatic = mockStatic(Dotenv.class)) {
-            // Setup the dotenv mock chain
-            DotenvBuilder dotenvBuilder = mock(DotenvBuilder.class);
-            dotenvMockedStatic.when(Dotenv::configure).thenReturn(dotenvBuilder);
-            when(dotenvBuilder.ignoreIfMissing()).thenReturn(dotenvBuilder);
-            when(dotenvBuilder.load()).thenReturn(dotenv);
-            
-            when(dotenv.get("OPEN_AI_TOKEN")).thenReturn("real-api-key");
-            when(webClientBuilder.build()).thenReturn(webClient);
+        assertEquals(5, requests.get());
+        assertEquals(CircuitBreaker.State.CLOSED, client.circuitState());
+    }
+
+    @Test
+    void testSlowResponseIsRetriedAfterTheResponseTimeout() {
+        replies.add(new Reply(200, "{\"late\":true}", 1_000));
+        OpenAiClient client = client("real-api-key", 200, 30_000);
+
+        assertEquals(ANSWER, client.queryModel("Test prompt"));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void testDeadlineBoundsTheWholeCall() {
+        fallbackReply = new Reply(200, ANSWER, 5_000);
+        OpenAiClient client = client("real-api-key", 20_000, 300);
 
-            // Set up to throw exception
-            when(webClient.post()).thenReturn(requestBodyUriSpec);
-            when(requestBodyUriSpec.uri(anyString())).thenReturn(requestBodySpec);
-            when(requestBodySpec.header(anyString(), anyString())).thenReturn(requestBodySpec);
-            when(requestBodySpec.bodyValue(anyString())).thenThrow(new RuntimeException("Test exception"));
+        CompletableFuture<String> answer = client.queryModelAsync("Test prompt");
+        ExecutionException error = assertThrows(ExecutionException.class, () -> answer.get(5, TimeUnit.SECONDS));
 
-            when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+        // El servidor tarda 5 s: solo el plazo total puede terminar la consulta antes
+        assertInstanceOf(TimeoutException.class, error.getCause());
+    }
 
-            OpenAiClient client = new OpenAiClient(webClientBuilder, objectMapper);
-            String result = client.queryModel("Test prompt");
+    @Test
+    void testCircuitOpensAfterRepeatedFailures() {
+        fallbackReply = new Reply(500, "{}", 0);
+        OpenAiClient client = client("real-api-key", 20_000, 30_000);
 
-            assertTrue(result.contains("Error: Test exception"));
+        for (int i = 0; i < 3; i++) {
+            assertThrows(WebClientResponseException.InternalServerError.class, () -> client.queryModel("Test prompt"));
         }
-    }    @Test
-    void testEnvironmentVariablesFallback() {
-        // Use a more direct approach to test the behavior
-        
+        int sent = requests.get();
+        IllegalStateException rejected = assertThrows(IllegalStateException.class, () -> client.queryModel("Test prompt"));
+
+        assertEquals(PrometeoExceptions.MODELO_NO_DISPONIBLE, rejected.getMessage());
+        assertEquals(CircuitBreaker.State.OPEN, client.circuitState());
+        assertEquals(sent, requests.get());
+    }
+
+    @Test
+    void testConcurrentCallsShareThePool() throws Exception {
+        fallbackReply = new Reply(200, ANSWER, 200);
+        OpenAiClient client = client("real-api-key", 20_000, 30_000);
+
+        List<CompletableFuture<String>> answers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            answers.add(client.queryModelAsync("Prompt " + i));
+        }
+        for (CompletableFuture<String> answer : answers) {
+            assertEquals(ANSWER, answer.get(5, TimeUnit.SECONDS));
+        }
+
+        // Las consultas viajan en paralelo, pero nunca por más conexiones que las del pool
+        assertTrue(peakInFlight.get() > 1);
+        assertTrue(peakInFlight.get() <= 4);
+        assertEquals(8, requests.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private OpenAiClient client(String apiKey, long responseTimeoutMillis, long deadlineMillis) {
+        ObjectProvider<MeterRegistry> meterRegistry = mock(ObjectProvider.class);
+        when(meterRegistry.getIfAvailable(any())).thenReturn(new SimpleMeterRegistry());
         try (MockedStatic<Dotenv> dotenvMockedStatic = mockStatic(Dotenv.class)) {
-            // Setup the dotenv mock chain
+            Dotenv dotenv = mock(Dotenv.class);
             DotenvBuilder dotenvBuilder = mock(DotenvBuilder.class);
             dotenvMockedStatic.when(Dotenv::configure).thenReturn(dotenvBuilder);
             when(dotenvBuilder.ignoreIfMissing()).thenReturn(dotenvBuilder);
             when(dotenvBuilder.load()).thenReturn(dotenv);
-            
-            // Make dotenv return null to force fallback to dummy key
-            when(dotenv.get("OPEN_AI_TOKEN")).thenReturn(null);
-            when(dotenv.get("OPEN_AI_MODEL")).thenReturn(null);
-            
-            // Create a real client but with mocked builder
-            when(webClientBuilder.build()).thenReturn(webClient);
-            OpenAiClient client = new OpenAiClient(webClientBuilder, objectMapper);
-            
-            // Since the OpenAiClient will use a dummy key in this case, test that a mock response is returned
-            String result = client.queryModel("Test prompt");
-            
-            // Verify it returns the expected dummy response
-            assertEquals("{\"choices\":[{\"message\":{\"content\":\"Esta es una respuesta simulada. Configura OPEN_AI_TOKEN para usar OpenAI.\"}}]}", result);
-            
-            // No real web client calls should be made since it's using the dummy key
-            verifyNoInteractions(webClient);
+            when(dotenv.get("OPEN_AI_TOKEN")).thenReturn(apiKey);
+            when(dotenv.get("OPEN_AI_MODEL"))
+                    .thenReturn("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions");
+
+            OpenAiClient client = new OpenAiClient(WebClient.builder(), new ObjectMapper(), meterRegistry,
+                    1_000, responseTimeoutMillis, deadlineMillis, 4, 2, 10, 50, 3, 30);
+            clients.add(client);
+            return client;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        lastAuthorization = exchange.getRequestHeaders().getFirst("Authorization");
+        lastContentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        lastBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Reply reply = replies.poll();
+        if (reply == null) {
+            reply = fallbackReply;
+        }
+        try {
+            if (reply.delayMillis > 0) {
+                Thread.sleep(reply.delayMillis);
+            }
+            // Antes de responder, porque el cliente puede reutilizar la conexión enseguida
+            inFlight.decrementAndGet();
+            byte[] body = reply.body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(reply.status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            inFlight.decrementAndGet();
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // El cliente ya cerró la conexión por tiempo de espera
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static final class Reply {
+        private final int status;
+        private final String body;
+        private final long delayMillis;
+
+        private Reply(int status, String body, long delayMillis) {
+            this.status = status;
+            this.body = body;
+            this.delayMillis = delayMillis;
         }
     }
-}
\ No newline at end of file
+}
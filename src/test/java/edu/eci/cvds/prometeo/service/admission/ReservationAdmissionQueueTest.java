@@ -0,0 +1,191 @@
+package edu.eci.cvds.prometeo.service.admission;
+
+import edu.eci.cvds.prometeo.dto.ReservationDTO;
+import edu.eci.cvds.prometeo.dto.ReservationTicketDTO;
+import edu.eci.cvds.prometeo.service.GymReservationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationAdmissionQueueTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @Mock
+    private GymReservationService reservationService;
+
+    private ReservationAdmissionQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    private void startQueue(int workers, int capacity) {
+        queue = new ReservationAdmissionQueue(reservationService, workers, capacity, 2000, 10);
+        queue.start();
+    }
+
+    private ReservationDTO request(UUID sessionId) {
+        ReservationDTO dto = new ReservationDTO();
+        dto.setUserId(UUID.randomUUID());
+        dto.setSessionId(sessionId);
+        return dto;
+    }
+
+    @Test
+    void submit_ShouldConfirmTicketWithCreatedReservation() {
+        startQueue(2, 10);
+        ReservationDTO created = new ReservationDTO();
+        created.setId(UUID.randomUUID());
+        when(reservationService.create(any(ReservationDTO.class))).thenReturn(created);
+
+        AdmissionTicket ticket = queue.await(queue.submit(request(UUID.randomUUID())));
+
+        assertEquals(AdmissionTicket.Status.CONFIRMED, ticket.getStatus());
+        assertEquals(created, ticket.getReservation());
+        ReservationTicketDTO dto = queue.toDTO(ticket);
+        assertEquals(created.getId(), dto.getReservationId());
+        assertEquals(0, dto.getPosition());
+        assertEquals(ticket, queue.getTicket(ticket.getId()).orElseThrow());
+    }
+
+    @Test
+    void submit_WhenServiceRejects_ShouldRejectTicket() {
+        startQueue(2, 10);
+        when(reservationService.create(any(ReservationDTO.class)))
+                .thenThrow(new IllegalArgumentException("Sin cupo"));
+
+        AdmissionTicket ticket = queue.await(queue.submit(request(UUID.randomUUID())));
+
+        assertEquals(AdmissionTicket.Status.REJECTED, ticket.getStatus());
+        assertEquals("Sin cupo", ticket.getError());
+        assertNull(ticket.getReservation());
+    }
+
+    @Test
+    void submit_WhenServiceThrowsError_ShouldRejectTicketAndKeepServingTheSession() {
+        startQueue(1, 10);
+        ReservationDTO created = new ReservationDTO();
+        created.setId(UUID.randomUUID());
+        when(reservationService.create(any(ReservationDTO.class)))
+                .thenThrow(new StackOverflowError("Desbordamiento"))
+                .thenReturn(created);
+        UUID sessionId = UUID.randomUUID();
+
+        AdmissionTicket failed = queue.submit(request(sessionId));
+        AdmissionTicket next = queue.submit(request(sessionId));
+
+        assertEquals(AdmissionTicket.Status.REJECTED, queue.await(failed, WAIT).getStatus());
+        assertEquals("Desbordamiento", failed.getError());
+        assertEquals(AdmissionTicket.Status.CONFIRMED, queue.await(next, WAIT).getStatus());
+    }
+
+    @Test
+    void constructor_WithoutWorkersOrQueueCapacity_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ReservationAdmissionQueue(reservationService, 0, 10, 2000, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ReservationAdmissionQueue(reservationService, 2, 0, 2000, 10));
+    }
+
+    @Test
+    void submit_WithoutSession_ShouldThrow() {
+        startQueue(1, 10);
+        ReservationDTO dto = new ReservationDTO();
+        dto.setUserId(UUID.randomUUID());
+
+        assertThrows(IllegalArgumentException.class, () -> queue.submit(dto));
+    }
+
+    @Test
+    void submit_WhenSessionQueueIsFull_ShouldThrowAndReportPositions() throws Exception {
+        startQueue(1, 2);
+        UUID sessionId = UUID.randomUUID();
+        CountDownLatch processing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(reservationService.create(any(ReservationDTO.class))).thenAnswer(invocation -> {
+            processing.countDown();
+            release.await();
+            return new ReservationDTO();
+        });
+
+        AdmissionTicket first = queue.submit(request(sessionId));
+        assertTrue(processing.await(5, TimeUnit.SECONDS));
+        AdmissionTicket second = queue.submit(request(sessionId));
+        AdmissionTicket third = queue.submit(request(sessionId));
+
+        assertThrows(IllegalStateException.class, () -> queue.submit(request(sessionId)));
+        assertEquals(AdmissionTicket.Status.PROCESSING, first.getStatus());
+        assertEquals(1, queue.getPosition(second));
+        assertEquals(2, queue.getPosition(third));
+
+        release.countDown();
+        assertEquals(AdmissionTicket.Status.CONFIRMED, queue.await(third, WAIT).getStatus());
+    }
+
+    @Test
+    void requestsForSameSession_ShouldRunOneAtATimeInArrivalOrder() {
+        startQueue(4, 100);
+        UUID sessionId = UUID.randomUUID();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<UUID> served = Collections.synchronizedList(new ArrayList<>());
+        when(reservationService.create(any(ReservationDTO.class))).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            served.add(invocation.<ReservationDTO>getArgument(0).getUserId());
+            Thread.sleep(2);
+            running.decrementAndGet();
+            return new ReservationDTO();
+        });
+
+        List<AdmissionTicket> tickets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tickets.add(queue.submit(request(sessionId)));
+        }
+        tickets.forEach(ticket -> queue.await(ticket, WAIT));
+
+        assertEquals(1, maxRunning.get());
+        assertEquals(tickets.stream().map(AdmissionTicket::getUserId).toList(), served);
+    }
+
+    @Test
+    void requestsForManySessions_ShouldNeverExceedWorkerCount() {
+        startQueue(2, 100);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(reservationService.create(any(ReservationDTO.class))).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(2);
+            running.decrementAndGet();
+            return new ReservationDTO();
+        });
+
+        List<AdmissionTicket> tickets = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            tickets.add(queue.submit(request(UUID.randomUUID())));
+        }
+        tickets.forEach(ticket -> queue.await(ticket, WAIT));
+
+        assertTrue(tickets.stream().allMatch(AdmissionTicket::isDone));
+        assertTrue(maxRunning.get() <= 2);
+    }
+}
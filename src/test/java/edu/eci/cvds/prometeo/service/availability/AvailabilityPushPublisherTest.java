@@ -0,0 +1,140 @@
+package edu.eci.cvds.prometeo.service.availability;
+
+import edu.eci.cvds.prometeo.dto.SessionAvailabilityDTO;
+import edu.eci.cvds.prometeo.event.GymSessionChangedEvent;
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityPushPublisherTest {
+
+    @Mock
+    private GymSessionRepository gymSessionRepository;
+
+    @Mock
+    private SimpMessageSendingOperations messagingTemplate;
+
+    private AvailabilityPushPublisher publisher;
+    private GymSession session;
+    private LocalDate date;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new AvailabilityPushPublisher(gymSessionRepository, messagingTemplate);
+        date = LocalDate.now().plusDays(1);
+        session = new GymSession();
+        session.setId(UUID.randomUUID());
+        session.setSessionDate(date);
+        session.setStartTime(LocalTime.of(9, 0));
+        session.setEndTime(LocalTime.of(10, 0));
+        session.setCapacity(20);
+        session.setReservedSpots(5);
+    }
+
+    @Test
+    void flush_AfterABurst_ShouldSendOneMessagePerTopic() {
+        when(gymSessionRepository.findAllById(anyCollection())).thenReturn(List.of(session));
+        for (int i = 0; i < 50; i++) {
+            publisher.onOccupancyChanged(new SessionOccupancyChangedEvent(session.getId(), date, 1));
+        }
+
+        assertEquals(1, publisher.flush());
+
+        SessionAvailabilityDTO update = sent(AvailabilityPushPublisher.DATE_TOPIC + date);
+        assertEquals(15, update.getAvailableSpots());
+        assertEquals(20, update.getCapacity());
+        assertFalse(update.isCancelled());
+        verify(messagingTemplate).convertAndSend(eq(AvailabilityPushPublisher.SESSION_TOPIC + session.getId() + "/availability"), any(Object.class));
+        verify(messagingTemplate, times(2)).convertAndSend(anyString(), any(Object.class));
+        verify(gymSessionRepository, times(1)).findAllById(anyCollection());
+        assertEquals(0, publisher.pendingSessions());
+    }
+
+    @Test
+    void flush_ShouldCarryTheChangeSinceThePreviousMessage() {
+        when(gymSessionRepository.findAllById(anyCollection())).thenReturn(List.of(session));
+        publisher.onOccupancyChanged(new SessionOccupancyChangedEvent(session.getId(), date, 1));
+        publisher.flush();
+
+        session.setReservedSpots(8);
+        publisher.onOccupancyChanged(new SessionOccupancyChangedEvent(session.getId(), date, 3));
+        publisher.flush();
+
+        ArgumentCaptor<SessionAvailabilityDTO> captor = ArgumentCaptor.forClass(SessionAvailabilityDTO.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq(AvailabilityPushPublisher.DATE_TOPIC + date), captor.capture());
+        assertEquals(0, captor.getAllValues().get(0).getDelta());
+        assertEquals(12, captor.getAllValues().get(1).getAvailableSpots());
+        assertEquals(-3, captor.getAllValues().get(1).getDelta());
+    }
+
+    @Test
+    void flush_WithoutChanges_ShouldNotQueryOrSend() {
+        assertEquals(0, publisher.flush());
+
+        verifyNoInteractions(gymSessionRepository, messagingTemplate);
+    }
+
+    @Test
+    void flush_SessionMovedToAnotherDate_ShouldNotifyBothDates() {
+        LocalDate previous = date.minusDays(1);
+        when(gymSessionRepository.findAllById(anyCollection())).thenReturn(List.of(session));
+        publisher.onSessionChanged(new GymSessionChangedEvent(session.getId(), GymSessionChangedEvent.Change.UPDATED, date, previous));
+
+        publisher.flush();
+
+        verify(messagingTemplate).convertAndSend(eq(AvailabilityPushPublisher.DATE_TOPIC + date), any(Object.class));
+        verify(messagingTemplate).convertAndSend(eq(AvailabilityPushPublisher.DATE_TOPIC + previous), any(Object.class));
+    }
+
+    @Test
+    void flush_CancelledSession_ShouldBeSentAsCancelled() {
+        when(gymSessionRepository.findAllById(anyCollection())).thenReturn(List.of());
+        publisher.onSessionChanged(new GymSessionChangedEvent(session.getId(), GymSessionChangedEvent.Change.CANCELLED, date));
+
+        publisher.flush();
+
+        SessionAvailabilityDTO update = sent(AvailabilityPushPublisher.DATE_TOPIC + date);
+        assertTrue(update.isCancelled());
+        assertEquals(0, update.getAvailableSpots());
+        assertEquals(date, update.getSessionDate());
+    }
+
+    @Test
+    void flush_WhenTheBrokerFails_ShouldKeepPublishingOtherTopics() {
+        when(gymSessionRepository.findAllById(anyCollection())).thenReturn(List.of(session));
+        doThrow(new MessageDeliveryException("broker down"))
+                .when(messagingTemplate).convertAndSend(eq(AvailabilityPushPublisher.DATE_TOPIC + date), any(Object.class));
+        publisher.onOccupancyChanged(new SessionOccupancyChangedEvent(session.getId(), date, 1));
+
+        assertEquals(1, publisher.flush());
+
+        verify(messagingTemplate).convertAndSend(eq(AvailabilityPushPublisher.SESSION_TOPIC + session.getId() + "/availability"), any(Object.class));
+    }
+
+    private SessionAvailabilityDTO sent(String destination) {
+        ArgumentCaptor<SessionAvailabilityDTO> captor = ArgumentCaptor.forClass(SessionAvailabilityDTO.class);
+        verify(messagingTemplate).convertAndSend(eq(destination), captor.capture());
+        return captor.getValue();
+    }
+}
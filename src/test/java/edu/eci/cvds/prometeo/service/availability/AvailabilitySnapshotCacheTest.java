@@ -0,0 +1,154 @@
+package edu.eci.cvds.prometeo.service.availability;
+
+import edu.eci.cvds.prometeo.event.GymSessionChangedEvent;
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilitySnapshotCacheTest {
+
+    @Mock
+    private GymSessionRepository gymSessionRepository;
+
+    private AvailabilitySnapshotCache cache;
+    private LocalDate date;
+    private GymSession morning;
+    private GymSession evening;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AvailabilitySnapshotCache(gymSessionRepository, 60, 366);
+        date = LocalDate.now().plusDays(1);
+        morning = session(LocalTime.of(8, 0), LocalTime.of(9, 0), 3);
+        evening = session(LocalTime.of(18, 0), LocalTime.of(19, 0), 0);
+    }
+
+    private GymSession session(LocalTime start, LocalTime end, int reserved) {
+        GymSession session = new GymSession();
+        session.setId(UUID.randomUUID());
+        session.setSessionDate(date);
+        session.setStartTime(start);
+        session.setEndTime(end);
+        session.setCapacity(10);
+        session.setReservedSpots(reserved);
+        return session;
+    }
+
+    @Test
+    void getSlots_ShouldLoadDateOnceAndKeepItSorted() {
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(date)).thenReturn(Arrays.asList(evening, morning));
+
+        List<SessionSlot> first = cache.getSlots(date);
+        List<SessionSlot> second = cache.getSlots(date);
+
+        assertEquals(morning.getId(), first.get(0).getSessionId());
+        assertEquals(evening.getId(), first.get(1).getSessionId());
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, () -> first.remove(0));
+        verify(gymSessionRepository, times(1)).findBySessionDateOrderByStartTime(date);
+    }
+
+    @Test
+    void onOccupancyChanged_ShouldPatchSlotWithoutReloading() {
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(date)).thenReturn(Arrays.asList(morning, evening));
+        cache.getSlots(date);
+
+        cache.onOccupancyChanged(new SessionOccupancyChangedEvent(morning.getId(), date, 2));
+        cache.onOccupancyChanged(new SessionOccupancyChangedEvent(evening.getId(), date, -1));
+
+        List<SessionSlot> slots = cache.getSlots(date);
+        assertEquals(5, slots.get(0).getReservedSpots());
+        assertEquals(0, slots.get(1).getReservedSpots());
+        verify(gymSessionRepository, times(1)).findBySessionDateOrderByStartTime(date);
+    }
+
+    @Test
+    void onOccupancyChanged_WhenDateWasReloadedAfterThePublish_ShouldNotCountTheChangeTwice() {
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(date)).thenReturn(Arrays.asList(morning, evening));
+        SessionOccupancyChangedEvent event = new SessionOccupancyChangedEvent(morning.getId(), date, 1);
+        // Otra lectura recarga la fecha entre el commit y el listener, ya con la reserva incluida
+        morning.setReservedSpots(4);
+        cache.getSlots(date);
+
+        cache.onOccupancyChanged(event);
+
+        assertEquals(4, cache.getSlots(date).get(0).getReservedSpots());
+        verify(gymSessionRepository, times(2)).findBySessionDateOrderByStartTime(date);
+    }
+
+    @Test
+    void onOccupancyChanged_ForUnknownSession_ShouldDropSnapshot() {
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(date)).thenReturn(Arrays.asList(morning, evening));
+        cache.getSlots(date);
+
+        cache.onOccupancyChanged(new SessionOccupancyChangedEvent(UUID.randomUUID(), date, 1));
+        cache.getSlots(date);
+
+        verify(gymSessionRepository, times(2)).findBySessionDateOrderByStartTime(date);
+    }
+
+    @Test
+    void onSessionChanged_ShouldInvalidateBothDates() {
+        LocalDate previous = date.minusDays(1);
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(date)).thenReturn(Arrays.asList(morning));
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(previous)).thenReturn(Arrays.asList());
+        cache.getSlots(date);
+        cache.getSlots(previous);
+
+        cache.onSessionChanged(new GymSessionChangedEvent(
+                morning.getId(), GymSessionChangedEvent.Change.UPDATED, date, previous));
+        cache.getSlots(date);
+        cache.getSlots(previous);
+
+        verify(gymSessionRepository, times(2)).findBySessionDateOrderByStartTime(date);
+        verify(gymSessionRepository, times(2)).findBySessionDateOrderByStartTime(previous);
+    }
+
+    @Test
+    void getSlotsAt_ShouldReturnSessionsRunningAtTheTime() {
+        GymSession overlapping = session(LocalTime.of(8, 30), LocalTime.of(10, 0), 0);
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(date))
+                .thenReturn(Arrays.asList(morning, overlapping, evening));
+
+        List<SessionSlot> atNine = cache.getSlotsAt(date, LocalTime.of(9, 0));
+        List<SessionSlot> atNoon = cache.getSlotsAt(date, LocalTime.of(12, 0));
+
+        assertEquals(2, atNine.size());
+        assertTrue(atNoon.isEmpty());
+    }
+
+    @Test
+    void getSlots_WhenSnapshotExpired_ShouldReload() {
+        cache = new AvailabilitySnapshotCache(gymSessionRepository, 0, 366);
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(date)).thenReturn(Arrays.asList(morning));
+
+        cache.getSlots(date);
+        cache.getSlots(date);
+
+        verify(gymSessionRepository, times(2)).findBySessionDateOrderByStartTime(date);
+    }
+
+    @Test
+    void withReservedDelta_ShouldStayWithinCapacity() {
+        SessionSlot slot = SessionSlot.from(morning);
+
+        assertEquals(10, slot.withReservedDelta(20).getReservedSpots());
+        assertEquals(0, slot.withReservedDelta(-20).getReservedSpots());
+        assertEquals(3, slot.getReservedSpots());
+    }
+}
@@ -0,0 +1,138 @@
+package edu.eci.cvds.prometeo.service.impl;
+
+import edu.eci.cvds.prometeo.dto.TrainerAttendanceStatsDTO;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.model.Reservation;
+import edu.eci.cvds.prometeo.model.enums.AggregationPeriod;
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.ReservationRepository;
+import edu.eci.cvds.prometeo.service.GymSessionService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement count and totals of the trainer attendance statistics.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(GymSessionServiceImpl.class)
+class AttendanceStatisticsQueryCountTest {
+
+    private static final int DAYS = 14;
+    private static final int CAPACITY = 10;
+    private static final int RESERVED = 4;
+    private static final int ATTENDED = 3;
+
+    @Autowired
+    private GymSessionService gymSessionService;
+
+    @Autowired
+    private GymSessionRepository gymSessionRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Lunes, para que las semanas queden completas
+    private final LocalDate start = LocalDate.of(2025, 5, 5);
+    private final UUID trainerA = UUID.randomUUID();
+    private final UUID trainerB = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        for (UUID trainerId : List.of(trainerA, trainerB)) {
+            for (int day = 0; day < DAYS; day++) {
+                GymSession session = new GymSession();
+                session.setTrainerId(trainerId);
+                session.setSessionDate(start.plusDays(day));
+                session.setStartTime(LocalTime.of(trainerId.equals(trainerA) ? 7 : 9, 0));
+                session.setEndTime(LocalTime.of(trainerId.equals(trainerA) ? 8 : 10, 0));
+                session.setCapacity(CAPACITY);
+                session.setReservedSpots(RESERVED);
+                UUID sessionId = gymSessionRepository.save(session).getId();
+
+                List<Reservation> reservations = new ArrayList<>();
+                for (int i = 0; i < RESERVED; i++) {
+                    Reservation reservation = new Reservation();
+                    reservation.setUserId(UUID.randomUUID());
+                    reservation.setSessionId(sessionId);
+                    reservation.setReservationDate(LocalDateTime.of(session.getSessionDate(), session.getStartTime()));
+                    reservation.setStatus(ReservationStatus.CONFIRMED);
+                    reservation.setAttended(i < ATTENDED);
+                    reservations.add(reservation);
+                }
+                reservationRepository.saveAll(reservations);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getAttendanceStatistics_ForSeveralTrainers_ShouldRunOneStatement() {
+        List<TrainerAttendanceStatsDTO> stats = measure(1, () -> gymSessionService.getAttendanceStatistics(
+                List.of(trainerA, trainerB), start, start.plusDays(DAYS - 1), AggregationPeriod.WEEK));
+
+        assertEquals(2, stats.size());
+        for (TrainerAttendanceStatsDTO trainer : stats) {
+            assertEquals(DAYS, trainer.getSessions());
+            assertEquals(DAYS * CAPACITY, trainer.getCapacity());
+            assertEquals(DAYS * RESERVED, trainer.getReserved());
+            assertEquals(DAYS * ATTENDED, trainer.getAttended());
+            assertEquals(2, trainer.getBuckets().size());
+            assertEquals(75.0, trainer.getAttendanceRate());
+        }
+    }
+
+    @Test
+    void getAttendanceStatistics_ForAllTrainers_ShouldRunOneStatement() {
+        List<TrainerAttendanceStatsDTO> stats = measure(1, () -> gymSessionService.getAttendanceStatistics(
+                null, start, start.plusDays(6), AggregationPeriod.MONTH));
+
+        assertEquals(2, stats.size());
+        assertEquals(7 * ATTENDED, stats.get(0).getAttended());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getTrainerAttendanceStatistics_ShouldRunOneStatement() {
+        Map<String, Object> stats = measure(1, () -> gymSessionService.getTrainerAttendanceStatistics(
+                trainerA, start, start.plusDays(DAYS - 1)));
+
+        assertEquals(DAYS, stats.get("totalSessions"));
+        assertEquals(DAYS * ATTENDED, stats.get("totalAttendance"));
+        assertEquals(40.0, stats.get("occupancyRate"));
+        assertEquals(ATTENDED, ((Map<LocalDate, Integer>) stats.get("dailyAttendance")).get(start));
+    }
+
+    private <T> T measure(long expectedStatements, Supplier<T> action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = action.get();
+        assertEquals(expectedStatements, statistics.getPrepareStatementCount());
+        return result;
+    }
+}
@@ -1,13 +1,13 @@
 package edu.eci.cvds.prometeo.service.impl;
 
 import edu.eci.cvds.prometeo.PrometeoExceptions;
+import edu.eci.cvds.prometeo.event.GoalsChangedEvent;
 import edu.eci.cvds.prometeo.model.Goal;
-import edu.eci.cvds.prometeo.model.Recommendation;
 import edu.eci.cvds.prometeo.model.User;
 import edu.eci.cvds.prometeo.repository.GoalRepository;
-import edu.eci.cvds.prometeo.repository.RecommendationRepository;
 import edu.eci.cvds.prometeo.repository.UserRepository;
 import edu.eci.cvds.prometeo.service.RecommendationService;
+import edu.eci.cvds.prometeo.service.recommendation.RecommendationRegenerator;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +16,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -35,10 +37,10 @@ public class GoalServiceImplTest {
     private UserRepository userRepository;
 
     @Mock
-    private RecommendationRepository recommendationRepository;
+    private RecommendationService recommendationService;
 
     @Mock
-    private RecommendationService recommendationService;
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private GoalServiceImpl goalService;
@@ -47,7 +49,6 @@ public class GoalServiceImplTest {
     private UUID goalId;
     private Goal testGoal;
     private List<Goal> goalList;
-    private List<Recommendation> recommendationList;
 
     @BeforeEach
     public void setUp() {
@@ -62,13 +63,6 @@ public class GoalServiceImplTest {
         
         goalList = new ArrayList<>();
         goalList.add(testGoal);
-        
-        recommendationList = new ArrayList<>();
-        Recommendation testRecommendation = new Recommendation();
-        testRecommendation.setId(UUID.randomUUID());
-
-        testRecommendation.setActive(true);
-        recommendationList.add(testRecommendation);
     }
 
     @Test
@@ -88,13 +82,10 @@ public class GoalServiceImplTest {
         List<String> goals = Arrays.asList("Goal 1", "Goal 2");
         when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
         when(goalRepository.save(any(Goal.class))).thenReturn(testGoal);
-        when(recommendationRepository.findByUserIdAndActive(userId, true)).thenReturn(recommendationList);
         
         goalService.addUserGoal(userId, goals);
         
         verify(userRepository, times(1)).findById(userId);
-        verify(recommendationRepository, times(1)).findByUserIdAndActive(userId, true);
-        verify(recommendationRepository, times(1)).saveAll(recommendationList);
         verify(goalRepository, times(2)).save(any(Goal.class));
         verify(recommendationService, times(1)).recommendRoutines(userId);
     }
@@ -117,14 +108,11 @@ public class GoalServiceImplTest {
         updatedGoals.put(goalId, "Updated goal");
         
         when(goalRepository.findById(goalId)).thenReturn(Optional.of(testGoal));
-        when(recommendationRepository.findByUserIdAndActive(userId, true)).thenReturn(recommendationList);
         
         goalService.updateUserGoal(updatedGoals);
         
         verify(goalRepository, times(2)).findById(goalId);
         verify(goalRepository, times(1)).save(any(Goal.class));
-        verify(recommendationRepository, times(1)).findByUserIdAndActive(userId, true);
-        verify(recommendationRepository, times(1)).saveAll(recommendationList);
         verify(recommendationService, times(1)).recommendRoutines(userId);
     }    @Test
     public void testUpdateUserGoalWithInvalidGoalId() {
@@ -154,15 +142,12 @@ public class GoalServiceImplTest {
     @Test
     public void testDeleteGoal() {
         when(goalRepository.findById(goalId)).thenReturn(Optional.of(testGoal));
-        when(recommendationRepository.findByUserIdAndActive(userId, true)).thenReturn(recommendationList);
         
         goalService.deleteGoal(goalId);
         
         verify(goalRepository, times(1)).findById(goalId);
         verify(goalRepository, times(1)).save(testGoal);
         assertFalse(testGoal.isActive());
-        verify(recommendationRepository, times(1)).findByUserIdAndActive(userId, true);
-        verify(recommendationRepository, times(1)).saveAll(recommendationList);
         verify(recommendationService, times(1)).recommendRoutines(userId);
     }    @Test
     public void testDeleteGoalWithInvalidGoalId() {
@@ -175,4 +160,18 @@ public class GoalServiceImplTest {
         );
         assertEquals("Meta no encontrada.", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testUpdateUserGoalWithRegenerator_ShouldNotWaitForTheModel() {
+        ReflectionTestUtils.setField(goalService, "recommendationRegenerator", mock(RecommendationRegenerator.class));
+        Map<UUID, String> updatedGoals = new HashMap<>();
+        updatedGoals.put(goalId, "Updated goal");
+        when(goalRepository.findById(goalId)).thenReturn(Optional.of(testGoal));
+
+        goalService.updateUserGoal(updatedGoals);
+
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof GoalsChangedEvent && userId.equals(((GoalsChangedEvent) event).getUserId())));
+        verify(recommendationService, never()).recommendRoutines(any());
+    }
+}
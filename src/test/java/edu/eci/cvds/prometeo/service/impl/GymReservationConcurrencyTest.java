@@ -0,0 +1,256 @@
+package edu.eci.cvds.prometeo.service.impl;
+
+import edu.eci.cvds.prometeo.PrometeoExceptions;
+import edu.eci.cvds.prometeo.dto.ReservationDTO;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.model.User;
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.ReservationRepository;
+import edu.eci.cvds.prometeo.repository.UserRepository;
+import edu.eci.cvds.prometeo.service.GymReservationService;
+import edu.eci.cvds.prometeo.service.GymSessionService;
+import edu.eci.cvds.prometeo.service.NotificationService;
+import edu.eci.cvds.prometeo.service.WaitlistService;
+import edu.eci.cvds.prometeo.service.waitlist.FreedSeatHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrency test for the capacity claim in {@link GymReservationServiceImpl#create}.
+ * Runs against the in-memory database with real transactions so that every booker
+ * commits independently, as it would under load in production.
+ */
+@DataJpaTest
+@Import({GymReservationServiceImpl.class, GymSessionServiceImpl.class, FreedSeatHandler.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GymReservationConcurrencyTest {
+
+    private static final int CAPACITY = 25;
+    private static final int BOOKERS = 200;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private GymReservationService reservationService;
+
+    @Autowired
+    private GymSessionService gymSessionService;
+
+    @Autowired
+    private GymSessionRepository gymSessionRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    @MockitoBean
+    private WaitlistService waitlistService;
+
+    private UUID sessionId;
+    private List<UUID> userIds;
+
+    @BeforeEach
+    void setUp() {
+        GymSession session = new GymSession();
+        session.setSessionDate(LocalDate.now().plusDays(1));
+        session.setStartTime(LocalTime.of(10, 0));
+        session.setEndTime(LocalTime.of(11, 0));
+        session.setCapacity(CAPACITY);
+        session.setReservedSpots(0);
+        sessionId = gymSessionRepository.save(session).getId();
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            User user = new User();
+            user.setName("Student " + i);
+            user.setInstitutionalId("concurrency-" + i + "-" + UUID.randomUUID());
+            user.setRole("STUDENT");
+            users.add(user);
+        }
+        userIds = userRepository.saveAll(users).stream().map(User::getId).toList();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAll();
+        gymSessionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void create_WithConcurrentBookers_ShouldNeverOverbook() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (UUID userId : userIds) {
+            futures.add(executor.submit(() -> {
+                ReservationDTO dto = new ReservationDTO();
+                dto.setUserId(userId);
+                dto.setSessionId(sessionId);
+                start.await();
+                try {
+                    reservationService.create(dto);
+                    accepted.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        GymSession session = gymSessionRepository.findById(sessionId).orElseThrow();
+        long confirmed = reservationRepository.findBySessionId(sessionId).stream()
+                .filter(r -> r.getStatus() == ReservationStatus.CONFIRMED)
+                .count();
+
+        assertEquals(BOOKERS, accepted.get() + rejected.get());
+        assertEquals(CAPACITY, accepted.get());
+        assertEquals(CAPACITY, session.getReservedSpots());
+        assertEquals(session.getReservedSpots(), confirmed);
+    }
+
+    @Test
+    void createAndDelete_Interleaved_ShouldKeepCounterInSyncWithConfirmedReservations() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            UUID userId = userIds.get(i);
+            boolean cancelAfterwards = i % 3 == 0;
+            futures.add(executor.submit(() -> {
+                ReservationDTO dto = new ReservationDTO();
+                dto.setUserId(userId);
+                dto.setSessionId(sessionId);
+                start.await();
+                try {
+                    ReservationDTO created = reservationService.create(dto);
+                    if (cancelAfterwards) {
+                        reservationService.delete(created.getId());
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Session full: expected for most bookers
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        GymSession session = gymSessionRepository.findById(sessionId).orElseThrow();
+        long confirmed = reservationRepository.findBySessionId(sessionId).stream()
+                .filter(r -> r.getStatus() == ReservationStatus.CONFIRMED)
+                .count();
+
+        assertTrue(session.getReservedSpots() <= CAPACITY);
+        assertEquals(session.getReservedSpots(), confirmed);
+    }
+
+    @Test
+    void updateSession_DuringABookingBurst_ShouldKeepTheClaimedSpots() throws Exception {
+        GymSession before = gymSessionRepository.findById(sessionId).orElseThrow();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            UUID userId = userIds.get(i);
+            futures.add(executor.submit(() -> {
+                ReservationDTO dto = new ReservationDTO();
+                dto.setUserId(userId);
+                dto.setSessionId(sessionId);
+                start.await();
+                try {
+                    reservationService.create(dto);
+                    accepted.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    // Session full: expected for most bookers
+                }
+                return null;
+            }));
+            if (i % 10 == 0) {
+                // El entrenador mueve la sesión media hora y la devuelve mientras se reserva
+                int edit = i / 10;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    LocalTime startTime = before.getStartTime().plusMinutes(edit % 2 == 0 ? 30 : 0);
+                    gymSessionService.updateSession(sessionId, before.getSessionDate(), startTime,
+                            startTime.plusHours(1), CAPACITY, before.getTrainerId());
+                    return null;
+                }));
+            }
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        GymSession session = gymSessionRepository.findById(sessionId).orElseThrow();
+        long confirmed = reservationRepository.findBySessionId(sessionId).stream()
+                .filter(r -> r.getStatus() == ReservationStatus.CONFIRMED)
+                .count();
+
+        assertEquals(CAPACITY, accepted.get());
+        assertEquals(CAPACITY, session.getReservedSpots());
+        assertEquals(session.getReservedSpots(), confirmed);
+    }
+
+    @Test
+    void updateSession_BelowTheReservedSpots_ShouldBeRejected() {
+        GymSession session = gymSessionRepository.findById(sessionId).orElseThrow();
+        for (int i = 0; i < 3; i++) {
+            ReservationDTO dto = new ReservationDTO();
+            dto.setUserId(userIds.get(i));
+            dto.setSessionId(sessionId);
+            reservationService.create(dto);
+        }
+
+        PrometeoExceptions ex = assertThrows(PrometeoExceptions.class, () -> gymSessionService.updateSession(sessionId,
+                session.getSessionDate(), session.getStartTime(), session.getEndTime(), 2, session.getTrainerId()));
+
+        assertEquals(PrometeoExceptions.CAPACIDAD_MENOR_A_RESERVADOS, ex.getMessage());
+        assertEquals(CAPACITY, gymSessionRepository.findById(sessionId).orElseThrow().getCapacity());
+    }
+}
@@ -1,7 +1,11 @@
 package edu.eci.cvds.prometeo.service.impl;
 
 import edu.eci.cvds.prometeo.PrometeoExceptions;
+import edu.eci.cvds.prometeo.dto.BulkReservationResultDTO;
+import edu.eci.cvds.prometeo.dto.CursorPageDTO;
 import edu.eci.cvds.prometeo.dto.ReservationDTO;
+import edu.eci.cvds.prometeo.dto.ReservationOutcomeDTO;
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
 import edu.eci.cvds.prometeo.model.GymSession;
 import edu.eci.cvds.prometeo.model.Reservation;
 import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
@@ -10,6 +14,13 @@ import edu.eci.cvds.prometeo.repository.ReservationRepository;
 import edu.eci.cvds.prometeo.repository.UserRepository;
 import edu.eci.cvds.prometeo.service.NotificationService;
 import edu.eci.cvds.prometeo.service.WaitlistService;
+import edu.eci.cvds.prometeo.service.availability.AvailabilitySnapshotCache;
+import edu.eci.cvds.prometeo.service.availability.SessionSlot;
+import edu.eci.cvds.prometeo.service.inventory.SeatInventory;
+import edu.eci.cvds.prometeo.service.paging.KeysetCursor;
+import edu.eci.cvds.prometeo.service.waitlist.FreedSeatHandler;
+import edu.eci.cvds.prometeo.service.waitlist.WaitlistPromotionEngine;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,10 +28,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -48,6 +63,15 @@ public class GymReservationServiceImplTest {
     @Mock
     private WaitlistService waitlistService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private FreedSeatHandler freedSeatHandler;
+
     @InjectMocks
     private GymReservationServiceImpl reservationService;
 
@@ -109,6 +133,91 @@ public class GymReservationServiceImplTest {
         verify(reservationRepository).findAll();
     }
 
+    @Test
+    void getPage_ShouldReturnRequestedSizeAndCursorOfLastItem() {
+        // Given
+        reservation.setCreatedAt(LocalDateTime.of(2025, 4, 1, 9, 0));
+        Reservation second = new Reservation();
+        second.setId(UUID.randomUUID());
+        second.setCreatedAt(reservation.getCreatedAt().plusSeconds(1));
+        Reservation extra = new Reservation();
+        extra.setId(UUID.randomUUID());
+        extra.setCreatedAt(reservation.getCreatedAt().plusSeconds(2));
+        UUID equipmentId = UUID.randomUUID();
+
+        when(reservationRepository.findFirstPage(PageRequest.of(0, 3))).thenReturn(List.of(reservation, second, extra));
+        when(reservationRepository.findEquipmentIdsByReservationIdIn(List.of(reservationId, second.getId())))
+                .thenReturn(List.of(equipment(reservationId, equipmentId)));
+
+        // When
+        CursorPageDTO<ReservationDTO> page = reservationService.getPage(null, 2);
+
+        // Then
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(List.of(equipmentId), page.getItems().get(0).getEquipmentIds());
+        assertTrue(page.getItems().get(1).getEquipmentIds().isEmpty());
+        KeysetCursor next = KeysetCursor.decode(page.getNextCursor());
+        assertEquals(second.getId(), next.getId());
+        assertEquals(second.getCreatedAt(), next.getCreatedAt());
+    }
+
+    @Test
+    void getPage_WithCursor_ShouldReadAfterIt() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2025, 4, 1, 9, 0);
+        UUID lastId = UUID.randomUUID();
+        String cursor = KeysetCursor.of(createdAt, lastId).encode();
+        when(reservationRepository.findPageAfter(createdAt, lastId, PageRequest.of(0, KeysetCursor.DEFAULT_LIMIT + 1)))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        CursorPageDTO<ReservationDTO> page = reservationService.getPage(cursor, null);
+
+        // Then
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        verify(reservationRepository, never()).findEquipmentIdsByReservationIdIn(any());
+    }
+
+    @Test
+    void getPage_WithInvalidCursor_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> reservationService.getPage("%%%", 10));
+        verifyNoInteractions(reservationRepository);
+    }
+
+    @Test
+    void streamAll_ShouldEmitEveryReservationAndDetachIt() {
+        // Given
+        when(reservationRepository.streamAllOrdered()).thenReturn(Stream.of(reservation));
+        when(reservationRepository.findEquipmentIdsByReservationIdIn(List.of(reservationId)))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        List<ReservationDTO> emitted = new ArrayList<>();
+        reservationService.streamAll(emitted::add);
+
+        // Then
+        assertEquals(1, emitted.size());
+        assertEquals(reservationId, emitted.get(0).getId());
+        verify(entityManager).detach(reservation);
+    }
+
+    private ReservationRepository.ReservationEquipment equipment(UUID reservationId, UUID equipmentId) {
+        return new ReservationRepository.ReservationEquipment() {
+            @Override
+            public UUID getReservationId() {
+                return reservationId;
+            }
+
+            @Override
+            public UUID getEquipmentId() {
+                return equipmentId;
+            }
+        };
+    }
+
     @Test
     void getByUserId_ShouldReturnUserReservations() {
         // Given
@@ -154,6 +263,7 @@ public class GymReservationServiceImplTest {
         when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(gymSession));
         when(userRepository.existsById(userId)).thenReturn(true);
         when(reservationRepository.countByUserIdAndStatusIn(eq(userId), anyList())).thenReturn(0L);
+        when(gymSessionRepository.claimSpot(sessionId)).thenReturn(1);
         when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
         when(notificationService.sendReservationConfirmation(userId, reservationId)).thenReturn(true);
 
@@ -166,8 +276,30 @@ public class GymReservationServiceImplTest {
         verify(gymSessionRepository).findById(sessionId);
         verify(userRepository).existsById(userId);
         verify(reservationRepository).countByUserIdAndStatusIn(eq(userId), anyList());
+        verify(gymSessionRepository).claimSpot(sessionId);
+        verify(gymSessionRepository, never()).save(any(GymSession.class));
         verify(reservationRepository).save(any(Reservation.class));
         verify(notificationService).sendReservationConfirmation(userId, reservationId);
+        verify(eventPublisher).publishEvent(any(SessionOccupancyChangedEvent.class));
+    }
+
+    @Test
+    void getAvailability_WithAvailabilityCache_ShouldNotQueryDatabase() {
+        // Given
+        AvailabilitySnapshotCache cache = mock(AvailabilitySnapshotCache.class);
+        ReflectionTestUtils.setField(reservationService, "availabilityCache", cache);
+        LocalDate date = gymSession.getSessionDate();
+        LocalTime time = LocalTime.of(10, 30);
+        when(cache.getSlotsAt(date, time)).thenReturn(Collections.singletonList(SessionSlot.from(gymSession)));
+
+        // When
+        Map<String, Object> result = reservationService.getAvailability(date, time);
+
+        // Then
+        List<?> sessions = (List<?>) result.get("availableSessions");
+        assertEquals(1, sessions.size());
+        assertEquals(5, ((Map<?, ?>) sessions.get(0)).get("availableSpots"));
+        verify(gymSessionRepository, never()).findBySessionDate(any(LocalDate.class));
     }
 
     @Test
@@ -209,6 +341,39 @@ public class GymReservationServiceImplTest {
         assertEquals(PrometeoExceptions.CAPACIDAD_EXCEDIDA, exception.getMessage());
     }
 
+    @Test
+    void create_WhenSpotClaimedConcurrently_ShouldThrowException() {
+        // Given: the session looked free when read, but another booker took the last spot
+        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(gymSession));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(reservationRepository.countByUserIdAndStatusIn(eq(userId), anyList())).thenReturn(0L);
+        when(gymSessionRepository.claimSpot(sessionId)).thenReturn(0);
+
+        // When/Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            reservationService.create(reservationDTO);
+        });
+        assertEquals(PrometeoExceptions.CAPACIDAD_EXCEDIDA, exception.getMessage());
+        verify(reservationRepository, never()).save(any(Reservation.class));
+        verify(notificationService, never()).sendReservationConfirmation(any(), any());
+    }
+
+    @Test
+    void create_WhenSeatInventoryIsFull_ShouldRejectWithoutDatabaseAccess() {
+        // Given
+        gymSession.setReservedSpots(gymSession.getCapacity());
+        SeatInventory inventory = new SeatInventory(gymSessionRepository, 14);
+        inventory.track(gymSession);
+        ReflectionTestUtils.setField(reservationService, "seatInventory", inventory);
+
+        // When/Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            reservationService.create(reservationDTO);
+        });
+        assertEquals(PrometeoExceptions.CAPACIDAD_EXCEDIDA, exception.getMessage());
+        verifyNoInteractions(gymSessionRepository, userRepository, reservationRepository);
+    }
+
     @Test
     void create_WhenUserHasTooManyReservations_ShouldThrowException() {
         // Given
@@ -223,6 +388,139 @@ public class GymReservationServiceImplTest {
         assertEquals(PrometeoExceptions.LIMITE_RESERVAS_ALCANZADO, exception.getMessage());
     }
 
+    @Test
+    void createBulk_WhenEnoughSpots_ShouldReserveEveryoneInOneClaim() {
+        // Given
+        UUID otherUser = UUID.randomUUID();
+        List<UUID> roster = Arrays.asList(userId, otherUser, userId);
+        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(gymSession));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Arrays.asList(userId, otherUser));
+        when(reservationRepository.countByUserIdInAndStatusIn(anyCollection(), anyCollection()))
+                .thenReturn(Collections.emptyList());
+        when(reservationRepository.findUserIdsBySessionIdAndUserIdInAndStatusIn(eq(sessionId), anyCollection(), anyCollection()))
+                .thenReturn(Collections.emptyList());
+        when(gymSessionRepository.claimSpots(sessionId, 2)).thenReturn(1);
+        when(reservationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Reservation> toSave = invocation.getArgument(0);
+            toSave.forEach(r -> r.setId(UUID.randomUUID()));
+            return toSave;
+        });
+
+        // When
+        BulkReservationResultDTO result = reservationService.createBulk(sessionId, roster, "Clase grupal");
+
+        // Then
+        assertEquals(2, result.getRequested());
+        assertEquals(2, result.getReserved());
+        assertEquals(2, result.getResults().size());
+        assertTrue(result.getResults().stream().allMatch(ReservationOutcomeDTO::isSuccess));
+        verify(gymSessionRepository, times(1)).claimSpots(sessionId, 2);
+        verify(reservationRepository, times(1)).saveAll(anyList());
+        verify(reservationRepository, never()).save(any(Reservation.class));
+        verify(notificationService, times(2)).sendReservationConfirmation(any(UUID.class), any());
+    }
+
+    @Test
+    void createBulk_WhenNotEnoughSpots_ShouldReserveUntilFullAndRejectTheRest() {
+        // Given
+        gymSession.setCapacity(6);
+        gymSession.setReservedSpots(5);
+        UUID otherUser = UUID.randomUUID();
+        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(gymSession));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Arrays.asList(userId, otherUser));
+        when(reservationRepository.countByUserIdInAndStatusIn(anyCollection(), anyCollection()))
+                .thenReturn(Collections.emptyList());
+        when(reservationRepository.findUserIdsBySessionIdAndUserIdInAndStatusIn(eq(sessionId), anyCollection(), anyCollection()))
+                .thenReturn(Collections.emptyList());
+        when(gymSessionRepository.claimSpots(sessionId, 1)).thenReturn(1);
+        when(reservationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Reservation> toSave = invocation.getArgument(0);
+            toSave.forEach(r -> r.setId(UUID.randomUUID()));
+            return toSave;
+        });
+
+        // When
+        BulkReservationResultDTO result = reservationService.createBulk(sessionId, Arrays.asList(userId, otherUser), null);
+
+        // Then
+        assertEquals(1, result.getReserved());
+        assertTrue(result.getResults().get(0).isSuccess());
+        assertEquals(PrometeoExceptions.CAPACIDAD_EXCEDIDA, result.getResults().get(1).getError());
+    }
+
+    @Test
+    void createBulk_WhenClaimLosesRace_ShouldRetryWithRemainingSpots() {
+        // Given
+        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(gymSession));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Collections.singletonList(userId));
+        when(reservationRepository.countByUserIdInAndStatusIn(anyCollection(), anyCollection()))
+                .thenReturn(Collections.emptyList());
+        when(reservationRepository.findUserIdsBySessionIdAndUserIdInAndStatusIn(eq(sessionId), anyCollection(), anyCollection()))
+                .thenReturn(Collections.emptyList());
+        when(gymSessionRepository.claimSpots(sessionId, 1)).thenReturn(0);
+        when(gymSessionRepository.findAvailableSpotsById(sessionId)).thenReturn(Optional.of(0));
+        when(reservationRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        BulkReservationResultDTO result = reservationService.createBulk(sessionId, Collections.singletonList(userId), null);
+
+        // Then
+        assertEquals(0, result.getReserved());
+        assertEquals(PrometeoExceptions.CAPACIDAD_EXCEDIDA, result.getResults().get(0).getError());
+        verify(gymSessionRepository, times(1)).findAvailableSpotsById(sessionId);
+    }
+
+    @Test
+    void createBulk_ShouldRejectInvalidUsersWithoutClaimingSpots() {
+        // Given
+        UUID missingUser = UUID.randomUUID();
+        UUID bookedUser = UUID.randomUUID();
+        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(gymSession));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(Arrays.asList(userId, bookedUser));
+        when(reservationRepository.countByUserIdInAndStatusIn(anyCollection(), anyCollection()))
+                .thenReturn(Collections.singletonList(reservationCount(userId, 5)));
+        when(reservationRepository.findUserIdsBySessionIdAndUserIdInAndStatusIn(eq(sessionId), anyCollection(), anyCollection()))
+                .thenReturn(Collections.singletonList(bookedUser));
+        when(reservationRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        BulkReservationResultDTO result = reservationService.createBulk(
+                sessionId, Arrays.asList(userId, missingUser, bookedUser), null);
+
+        // Then
+        assertEquals(0, result.getReserved());
+        assertEquals(PrometeoExceptions.LIMITE_RESERVAS_ALCANZADO, result.getResults().get(0).getError());
+        assertEquals(PrometeoExceptions.NO_EXISTE_USUARIO, result.getResults().get(1).getError());
+        assertEquals(PrometeoExceptions.YA_EXISTE_RESERVA, result.getResults().get(2).getError());
+        verify(gymSessionRepository, never()).claimSpots(any(UUID.class), anyInt());
+    }
+
+    @Test
+    void createBulk_WhenSessionNotExists_ShouldThrowException() {
+        // Given
+        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+
+        // When & Then
+        List<UUID> roster = Collections.singletonList(userId);
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> reservationService.createBulk(sessionId, roster, null));
+        assertEquals(PrometeoExceptions.NO_EXISTE_SESION, exception.getMessage());
+    }
+
+    private ReservationRepository.UserReservationCount reservationCount(UUID user, long reservations) {
+        return new ReservationRepository.UserReservationCount() {
+            @Override
+            public UUID getUserId() {
+                return user;
+            }
+
+            @Override
+            public long getReservations() {
+                return reservations;
+            }
+        };
+    }
+
     @Test
     void delete_WhenValidReservation_ShouldCancelReservation() {
         // Given
@@ -239,8 +537,7 @@ public class GymReservationServiceImplTest {
         // Then
         verify(reservationRepository).findById(reservationId);
         verify(gymSessionRepository).findById(sessionId);
-        verify(gymSessionRepository).save(gymSession);
-        verify(waitlistService).notifyNextInWaitlist(sessionId);
+        verify(freedSeatHandler).giveBack(gymSession);
         verify(reservationRepository).save(reservation);
 
         assertEquals(ReservationStatus.CANCELLED, reservation.getStatus());
@@ -323,7 +620,7 @@ public class GymReservationServiceImplTest {
         // Given
         int position = 2;
         when(waitlistService.getWaitlistPosition(userId, sessionId)).thenReturn(position);
-        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(gymSession));
+        when(gymSessionRepository.findSummaryById(sessionId)).thenReturn(Optional.of(summary(gymSession)));
         
         Map<String, Object> waitlistStats = new HashMap<>();
         waitlistStats.put("totalCount", 5);
@@ -337,13 +634,45 @@ public class GymReservationServiceImplTest {
         assertTrue((Boolean) result.get("inWaitlist"));
         assertEquals(position, result.get("position"));
         assertEquals(gymSession.getSessionDate(), result.get("sessionDate"));
+        assertEquals(gymSession.getCapacity(), result.get("capacity"));
+        assertEquals(gymSession.getReservedSpots(), result.get("reservedSpots"));
         assertEquals(5, result.get("totalInWaitlist"));
         
         verify(waitlistService).getWaitlistPosition(userId, sessionId);
-        verify(gymSessionRepository).findById(sessionId);
+        verify(gymSessionRepository).findSummaryById(sessionId);
+        verify(gymSessionRepository, never()).findById(any());
         verify(waitlistService).getWaitlistStats(sessionId);
     }
 
+    private static GymSessionRepository.SessionSummary summary(GymSession session) {
+        return new GymSessionRepository.SessionSummary() {
+            @Override
+            public LocalDate getSessionDate() {
+                return session.getSessionDate();
+            }
+
+            @Override
+            public LocalTime getStartTime() {
+                return session.getStartTime();
+            }
+
+            @Override
+            public LocalTime getEndTime() {
+                return session.getEndTime();
+            }
+
+            @Override
+            public int getCapacity() {
+                return session.getCapacity();
+            }
+
+            @Override
+            public int getReservedSpots() {
+                return session.getReservedSpots();
+            }
+        };
+    }
+
     @Test
     void getUserWaitlists_ShouldReturnUserWaitlists() {
         // Given
@@ -371,4 +700,60 @@ public class GymReservationServiceImplTest {
         assertTrue(result);
         verify(waitlistService).removeFromWaitlist(userId, sessionId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void acceptWaitlistHold_ShouldCreateReservationWithoutClaimingAnotherSeat() {
+        // Given
+        WaitlistPromotionEngine engine = mock(WaitlistPromotionEngine.class);
+        ReflectionTestUtils.setField(reservationService, "promotionEngine", engine);
+        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(gymSession));
+        when(reservationRepository.countByUserIdAndStatusIn(eq(userId), anyList())).thenReturn(0L);
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
+
+        // When
+        ReservationDTO result = reservationService.acceptWaitlistHold(userId, sessionId);
+
+        // Then
+        assertEquals(reservationId, result.getId());
+        verify(engine).takeHold(userId, sessionId);
+        verify(gymSessionRepository, never()).claimSpot(any());
+        verify(notificationService).sendReservationConfirmation(userId, reservationId);
+    }
+
+    @Test
+    void acceptWaitlistHold_WhenUserHasTooManyReservations_ShouldKeepTheHold() {
+        // Given
+        WaitlistPromotionEngine engine = mock(WaitlistPromotionEngine.class);
+        ReflectionTestUtils.setField(reservationService, "promotionEngine", engine);
+        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(gymSession));
+        when(reservationRepository.countByUserIdAndStatusIn(eq(userId), anyList())).thenReturn(5L);
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> reservationService.acceptWaitlistHold(userId, sessionId));
+        assertEquals(PrometeoExceptions.LIMITE_RESERVAS_ALCANZADO, exception.getMessage());
+        verify(engine, never()).takeHold(any(), any());
+    }
+
+    @Test
+    void acceptWaitlistHold_WithoutPromotionEngine_ShouldThrowException() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> reservationService.acceptWaitlistHold(userId, sessionId));
+        assertEquals(PrometeoExceptions.SIN_CUPO_RETENIDO, exception.getMessage());
+    }
+
+    @Test
+    void leaveWaitlist_WithHold_ShouldPassTheSeatOnInsteadOfRemovingTheEntry() {
+        // Given
+        WaitlistPromotionEngine engine = mock(WaitlistPromotionEngine.class);
+        ReflectionTestUtils.setField(reservationService, "promotionEngine", engine);
+        when(engine.releaseHold(userId, sessionId)).thenReturn(true);
+
+        // When
+        boolean result = reservationService.leaveWaitlist(userId, sessionId);
+
+        // Then
+        assertTrue(result);
+        verify(waitlistService, never()).removeFromWaitlist(any(), any());
+    }
+}
@@ -2,20 +2,34 @@ package edu.eci.cvds.prometeo.service.impl;
 
 
 import edu.eci.cvds.prometeo.PrometeoExceptions;
+import edu.eci.cvds.prometeo.dto.RecurrenceRuleDTO;
+import edu.eci.cvds.prometeo.dto.RecurringScheduleDTO;
+import edu.eci.cvds.prometeo.dto.RecurringScheduleResultDTO;
+import edu.eci.cvds.prometeo.dto.TrainerAttendanceStatsDTO;
+import edu.eci.cvds.prometeo.event.GymSessionChangedEvent;
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
 import edu.eci.cvds.prometeo.model.GymSession;
 import edu.eci.cvds.prometeo.model.Reservation;
 import edu.eci.cvds.prometeo.model.User;
+import edu.eci.cvds.prometeo.model.enums.AggregationPeriod;
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
 import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.OccupancyBucketRepository;
 import edu.eci.cvds.prometeo.repository.ReservationRepository;
 import edu.eci.cvds.prometeo.repository.UserRepository;
+import edu.eci.cvds.prometeo.service.rollup.OccupancyRollup;
+import edu.eci.cvds.prometeo.service.waitlist.WaitlistPromotionEngine;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.Assertions.*;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.*;
@@ -23,6 +37,7 @@ import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 
@@ -39,6 +54,9 @@ public class GymSessionServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private GymSessionServiceImpl gymSessionService;
 
@@ -86,9 +104,8 @@ public class GymSessionServiceImplTest {
     @Test
     public void testCreateSession_Success() {
         // Arrange
-        when(gymSessionRepository.findBySessionDateAndStartTimeLessThanEqualAndEndTimeGreaterThanEqual(
-                any(LocalDate.class), any(LocalTime.class), any(LocalTime.class)))
-                .thenReturn(Optional.empty());
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(sessionDate))
+                .thenReturn(Collections.emptyList());
         when(gymSessionRepository.save(any(GymSession.class))).thenReturn(testSession);
 
         // Act
@@ -97,12 +114,12 @@ public class GymSessionServiceImplTest {
         // Assert
         assertEquals(sessionId, result);
         verify(gymSessionRepository).save(any(GymSession.class));
+        verify(eventPublisher).publishEvent(any(GymSessionChangedEvent.class));
     }    @Test
     public void testCreateSession_OverlappingSession_ThrowsException() {
         // Arrange
-        when(gymSessionRepository.findBySessionDateAndStartTimeLessThanEqualAndEndTimeGreaterThanEqual(
-                any(LocalDate.class), any(LocalTime.class), any(LocalTime.class)))
-                .thenReturn(Optional.of(testSession));
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(sessionDate))
+                .thenReturn(Collections.singletonList(testSession));
 
         // Act - should throw exception
         assertThrows(PrometeoExceptions.class, () -> {
@@ -114,16 +131,34 @@ public class GymSessionServiceImplTest {
     public void testUpdateSession_Success() {
         // Arrange
         when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(testSession));
-        when(gymSessionRepository.findBySessionDateAndStartTimeLessThanEqualAndEndTimeGreaterThanEqual(
-                any(LocalDate.class), any(LocalTime.class), any(LocalTime.class)))
-                .thenReturn(Optional.of(testSession));
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(sessionDate))
+                .thenReturn(Collections.singletonList(testSession));
+        when(gymSessionRepository.updateSchedule(sessionId, sessionDate, startTime, endTime, 15, trainerId)).thenReturn(1);
 
         // Act
         boolean result = gymSessionService.updateSession(sessionId, sessionDate, startTime, endTime, 15, trainerId);
 
         // Assert
         assertTrue(result);
-        verify(gymSessionRepository).save(any(GymSession.class));
+        verify(gymSessionRepository).updateSchedule(sessionId, sessionDate, startTime, endTime, 15, trainerId);
+        verify(gymSessionRepository, never()).save(any(GymSession.class));
+    }
+
+    @Test
+    public void testUpdateSession_CapacityBelowReservedSpots_ThrowsException() {
+        // Arrange
+        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(testSession));
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(sessionDate))
+                .thenReturn(Collections.singletonList(testSession));
+        when(gymSessionRepository.updateSchedule(sessionId, sessionDate, startTime, endTime, 2, trainerId)).thenReturn(0);
+
+        // Act
+        PrometeoExceptions ex = assertThrows(PrometeoExceptions.class, () ->
+                gymSessionService.updateSession(sessionId, sessionDate, startTime, endTime, 2, trainerId));
+
+        // Assert
+        assertEquals(PrometeoExceptions.CAPACIDAD_MENOR_A_RESERVADOS, ex.getMessage());
+        verifyNoInteractions(eventPublisher);
     }    @Test
     public void testUpdateSession_SessionNotFound_ThrowsException() {
         // Arrange
@@ -138,11 +173,13 @@ public class GymSessionServiceImplTest {
         // Arrange
         GymSession otherSession = new GymSession();
         otherSession.setId(UUID.randomUUID());
+        otherSession.setSessionDate(sessionDate);
+        otherSession.setStartTime(startTime.plusMinutes(30));
+        otherSession.setEndTime(endTime.plusMinutes(30));
         
         when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(testSession));
-        when(gymSessionRepository.findBySessionDateAndStartTimeLessThanEqualAndEndTimeGreaterThanEqual(
-                any(LocalDate.class), any(LocalTime.class), any(LocalTime.class)))
-                .thenReturn(Optional.of(otherSession));
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(sessionDate))
+                .thenReturn(Arrays.asList(testSession, otherSession));
 
         // Act - should throw exception
         assertThrows(PrometeoExceptions.class, () -> {
@@ -150,6 +187,44 @@ public class GymSessionServiceImplTest {
         });
     }
 
+    @Test
+    public void testUpdateSession_RaisingCapacity_ShouldHoldNewSeatsForTheWaitlist() {
+        // Arrange
+        WaitlistPromotionEngine engine = mock(WaitlistPromotionEngine.class);
+        ReflectionTestUtils.setField(gymSessionService, "promotionEngine", engine);
+        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(testSession));
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(sessionDate))
+                .thenReturn(Collections.singletonList(testSession));
+        when(engine.holdNewSeats(sessionId, 5)).thenReturn(2);
+
+        when(gymSessionRepository.updateSchedule(sessionId, sessionDate, startTime, endTime, 15, trainerId)).thenReturn(1);
+
+        // Act
+        gymSessionService.updateSession(sessionId, sessionDate, startTime, endTime, 15, trainerId);
+
+        // Assert
+        verify(engine).holdNewSeats(sessionId, 5);
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof SessionOccupancyChangedEvent
+                && ((SessionOccupancyChangedEvent) event).getDelta() == 2));
+    }
+
+    @Test
+    public void testUpdateSession_LoweringCapacity_ShouldNotPromoteFromTheWaitlist() {
+        // Arrange
+        WaitlistPromotionEngine engine = mock(WaitlistPromotionEngine.class);
+        ReflectionTestUtils.setField(gymSessionService, "promotionEngine", engine);
+        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(testSession));
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(sessionDate))
+                .thenReturn(Collections.singletonList(testSession));
+        when(gymSessionRepository.updateSchedule(sessionId, sessionDate, startTime, endTime, 8, trainerId)).thenReturn(1);
+
+        // Act
+        gymSessionService.updateSession(sessionId, sessionDate, startTime, endTime, 8, trainerId);
+
+        // Assert
+        verifyNoInteractions(engine);
+    }
+
     @Test
     public void testCancelSession_Success() {
         // Arrange
@@ -227,18 +302,88 @@ public class GymSessionServiceImplTest {
         LocalDate endDate = LocalDate.of(2023, 1, 15);
         int dayOfWeek = 1; // Monday
 
-        when(gymSessionRepository.findBySessionDateAndStartTimeLessThanEqualAndEndTimeGreaterThanEqual(
-                any(LocalDate.class), any(LocalTime.class), any(LocalTime.class)))
-                .thenReturn(Optional.empty());
-        when(gymSessionRepository.save(any(GymSession.class))).thenReturn(testSession);
+        when(gymSessionRepository.findBySessionDateBetween(startDate, endDate))
+                .thenReturn(Collections.emptyList());
+        when(gymSessionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
         int sessionCount = gymSessionService.configureRecurringSessions(
                 dayOfWeek, startTime, endTime, 10, Optional.empty(), trainerId, startDate, endDate);
 
-        // Assert - should create 2 Monday sessions (Jan 2 and Jan 9)
+        // Assert - should create 2 Monday sessions (Jan 2 and Jan 9) in a single batch
         assertEquals(2, sessionCount);
-        verify(gymSessionRepository, times(2)).save(any(GymSession.class));
+        verify(gymSessionRepository).saveAll(anyList());
+        verify(gymSessionRepository, never()).save(any(GymSession.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testConfigureRecurringSchedule_MultipleRulesSkipsConflicts() {
+        // Arrange
+        LocalDate startDate = LocalDate.of(2023, 1, 2); // Monday
+        LocalDate endDate = LocalDate.of(2023, 1, 8);
+
+        GymSession existing = new GymSession();
+        existing.setId(UUID.randomUUID());
+        existing.setSessionDate(LocalDate.of(2023, 1, 4)); // Wednesday
+        existing.setStartTime(LocalTime.of(9, 30));
+        existing.setEndTime(LocalTime.of(10, 30));
+
+        RecurrenceRuleDTO monday = new RecurrenceRuleDTO();
+        monday.setDayOfWeek(1);
+        monday.setStartTime(startTime);
+        monday.setEndTime(endTime);
+        RecurrenceRuleDTO wednesday = new RecurrenceRuleDTO();
+        wednesday.setDayOfWeek(3);
+        wednesday.setStartTime(startTime);
+        wednesday.setEndTime(endTime);
+        wednesday.setCapacity(5);
+
+        RecurringScheduleDTO schedule = new RecurringScheduleDTO();
+        schedule.setStartDate(startDate);
+        schedule.setEndDate(endDate);
+        schedule.setCapacity(10);
+        schedule.setTrainerId(trainerId);
+        schedule.setRules(List.of(monday, wednesday));
+
+        when(gymSessionRepository.findBySessionDateBetween(startDate, endDate)).thenReturn(List.of(existing));
+        when(gymSessionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<GymSession> sessions = invocation.getArgument(0);
+            sessions.forEach(session -> session.setId(UUID.randomUUID()));
+            return sessions;
+        });
+
+        // Act
+        RecurringScheduleResultDTO result = gymSessionService.configureRecurringSchedule(schedule);
+
+        // Assert
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getSessionIds().size());
+        assertEquals(1, result.getConflicts().size());
+        assertEquals(LocalDate.of(2023, 1, 4), result.getConflicts().get(0).getSessionDate());
+        assertEquals(5, result.getConflicts().get(0).getCapacity());
+
+        ArgumentCaptor<List<GymSession>> captor = ArgumentCaptor.forClass(List.class);
+        verify(gymSessionRepository).saveAll(captor.capture());
+        assertEquals(LocalDate.of(2023, 1, 2), captor.getValue().get(0).getSessionDate());
+        verify(eventPublisher).publishEvent(any(GymSessionChangedEvent.class));
+    }
+
+    @Test
+    public void testConfigureRecurringSchedule_InvalidRuleThrows() {
+        RecurrenceRuleDTO rule = new RecurrenceRuleDTO();
+        rule.setDayOfWeek(8);
+        rule.setStartTime(startTime);
+        rule.setEndTime(endTime);
+
+        RecurringScheduleDTO schedule = new RecurringScheduleDTO();
+        schedule.setStartDate(LocalDate.of(2023, 1, 1));
+        schedule.setEndDate(LocalDate.of(2023, 1, 31));
+        schedule.setCapacity(10);
+        schedule.setRules(List.of(rule));
+
+        assertThrows(IllegalArgumentException.class, () -> gymSessionService.configureRecurringSchedule(schedule));
+        verify(gymSessionRepository, never()).findBySessionDateBetween(any(), any());
     }
 
     @Test
@@ -268,21 +413,38 @@ public class GymSessionServiceImplTest {
         assertEquals(Integer.valueOf(50), stats.get(startDate.plusDays(1))); // 10/20 = 50%
     }
 
+    @Test
+    public void testGetOccupancyStatistics_ReadsRollupWhenEnabled() {
+        OccupancyRollup occupancyRollup = mock(OccupancyRollup.class);
+        ReflectionTestUtils.setField(gymSessionService, "occupancyRollup", occupancyRollup);
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 12, 31);
+        OccupancyBucketRepository.DailyTotals day = mock(OccupancyBucketRepository.DailyTotals.class);
+        when(day.getUsageDate()).thenReturn(startDate);
+        when(day.getCapacity()).thenReturn(30L);
+        when(day.getReserved()).thenReturn(20L);
+        when(occupancyRollup.dailyTotals(startDate, endDate)).thenReturn(List.of(day));
+
+        Map<LocalDate, Integer> stats = gymSessionService.getOccupancyStatistics(startDate, endDate);
+
+        assertEquals(Map.of(startDate, 66), stats);
+        verify(gymSessionRepository, never()).findBySessionDateBetween(any(), any());
+    }
+
     @Test
     public void testGetRegisteredStudentsForSession_ReturnsStudentsList() {
         // Arrange
         when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(testSession));
         
-        Reservation reservation = new Reservation();
-        reservation.setId(UUID.randomUUID());
-        reservation.setUserId(userId);
-        reservation.setSessionId(sessionId);
-        reservation.setStatus("CONFIRMED");
-        reservation.setAttended(true);
-        
-        List<Reservation> reservations = Collections.singletonList(reservation);
-        when(reservationRepository.findBySessionId(sessionId)).thenReturn(reservations);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
+        UUID reservationId = UUID.randomUUID();
+        ReservationRepository.RosterRow row = mock(ReservationRepository.RosterRow.class);
+        when(row.getReservationId()).thenReturn(reservationId);
+        when(row.getUserId()).thenReturn(userId);
+        when(row.getName()).thenReturn("Test User");
+        when(row.getInstitutionalId()).thenReturn("12345");
+        when(row.getStatus()).thenReturn(ReservationStatus.CONFIRMED);
+        when(row.getAttended()).thenReturn(true);
+        when(reservationRepository.findRosterBySessionId(sessionId)).thenReturn(List.of(row));
 
         // Act
         List<Map<String, Object>> result = gymSessionService.getRegisteredStudentsForSession(sessionId);
@@ -290,11 +452,16 @@ public class GymSessionServiceImplTest {
         // Assert
         assertEquals(1, result.size());
         Map<String, Object> studentInfo = result.get(0);
+        assertEquals(reservationId, studentInfo.get("reservationId"));
         assertEquals(userId, studentInfo.get("userId"));
         assertEquals("Test User", studentInfo.get("name"));
         assertEquals("12345", studentInfo.get("institutionalId"));
+        assertEquals(ReservationStatus.CONFIRMED, studentInfo.get("status"));
         assertEquals(true, studentInfo.get("attended"));
-    }    @Test
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
     public void testGetRegisteredStudentsForSession_SessionNotFound_ThrowsException() {
         // Arrange
         when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.empty());
@@ -311,20 +478,14 @@ public class GymSessionServiceImplTest {
         LocalDate startDate = LocalDate.now();
         LocalDate endDate = startDate.plusDays(5);
         
-        List<GymSession> sessions = Collections.singletonList(testSession);
-        when(gymSessionRepository.findByTrainerIdAndSessionDateBetween(trainerId, startDate, endDate))
-                .thenReturn(sessions);
-        
-        Reservation reservation1 = new Reservation();
-        reservation1.setId(UUID.randomUUID());
-        reservation1.setAttended(true);
-        
-        Reservation reservation2 = new Reservation();
-        reservation2.setId(UUID.randomUUID());
-        reservation2.setAttended(false);
-        
-        List<Reservation> reservations = Arrays.asList(reservation1, reservation2);
-        when(reservationRepository.findBySessionId(sessionId)).thenReturn(reservations);
+        GymSessionRepository.TrainerDailyAttendance row = mock(GymSessionRepository.TrainerDailyAttendance.class);
+        when(row.getSessionDate()).thenReturn(startDate);
+        when(row.getSessions()).thenReturn(1L);
+        when(row.getCapacity()).thenReturn(10L);
+        when(row.getReserved()).thenReturn(5L);
+        when(row.getAttended()).thenReturn(1L);
+        when(gymSessionRepository.sumAttendanceByTrainerAndDate(List.of(trainerId), startDate, endDate))
+                .thenReturn(List.of(row));
 
         // Act
         Map<String, Object> stats = gymSessionService.getTrainerAttendanceStatistics(trainerId, startDate, endDate);
@@ -336,7 +497,44 @@ public class GymSessionServiceImplTest {
         assertEquals(1, stats.get("totalAttendance"));
         assertEquals(50.0, stats.get("occupancyRate"));
         assertEquals(20.0, stats.get("attendanceRate"));
-    }    @Test
+        assertEquals(Map.of(startDate, 1), stats.get("dailyAttendance"));
+        verify(reservationRepository, never()).findBySessionId(any());
+    }
+
+    @Test
+    public void testGetAttendanceStatistics_WithoutTrainers_AggregatesEveryTrainer() {
+        LocalDate startDate = LocalDate.of(2025, 5, 5);
+        GymSessionRepository.TrainerDailyAttendance row = mock(GymSessionRepository.TrainerDailyAttendance.class);
+        when(row.getTrainerId()).thenReturn(trainerId);
+        when(row.getSessionDate()).thenReturn(startDate.plusDays(2));
+        when(row.getSessions()).thenReturn(2L);
+        when(row.getCapacity()).thenReturn(20L);
+        when(row.getReserved()).thenReturn(10L);
+        when(row.getAttended()).thenReturn(5L);
+        when(gymSessionRepository.sumAttendanceByTrainerAndDate(startDate, startDate.plusDays(6)))
+                .thenReturn(List.of(row));
+
+        List<TrainerAttendanceStatsDTO> stats = gymSessionService.getAttendanceStatistics(
+                Collections.emptyList(), startDate, startDate.plusDays(6), AggregationPeriod.WEEK);
+
+        assertEquals(1, stats.size());
+        assertEquals(trainerId, stats.get(0).getTrainerId());
+        assertEquals(startDate, stats.get(0).getBuckets().get(0).getPeriodStart());
+        assertEquals(50.0, stats.get(0).getOccupancyRate());
+    }
+
+    @Test
+    public void testGetAttendanceStatistics_WithInvertedRange_ThrowsException() {
+        LocalDate startDate = LocalDate.now();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> gymSessionService.getAttendanceStatistics(List.of(trainerId), startDate,
+                        startDate.minusDays(1), AggregationPeriod.DAY));
+
+        assertEquals(PrometeoExceptions.RANGO_FECHAS_NO_VALIDO, exception.getMessage());
+    }
+
+    @Test
     public void testGetSessionById_ReturnsSessionWithTrainer() {
         // Arrange
         when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(testSession));
@@ -0,0 +1,142 @@
+package edu.eci.cvds.prometeo.service.impl;
+
+import edu.eci.cvds.prometeo.dto.CursorPageDTO;
+import edu.eci.cvds.prometeo.dto.ReservationDTO;
+import edu.eci.cvds.prometeo.model.Reservation;
+import edu.eci.cvds.prometeo.model.User;
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import edu.eci.cvds.prometeo.repository.ReservationRepository;
+import edu.eci.cvds.prometeo.repository.UserRepository;
+import edu.eci.cvds.prometeo.service.GymReservationService;
+import edu.eci.cvds.prometeo.service.NotificationService;
+import edu.eci.cvds.prometeo.service.WaitlistService;
+import edu.eci.cvds.prometeo.service.paging.KeysetCursor;
+import edu.eci.cvds.prometeo.service.waitlist.FreedSeatHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keyset pagination and streaming of the reservation and user listings against the
+ * in-memory database.
+ */
+@DataJpaTest
+@Import({GymReservationServiceImpl.class, FreedSeatHandler.class})
+class KeysetListingTest {
+
+    private static final int RESERVATIONS = 120;
+    private static final int USERS = 30;
+
+    @Autowired
+    private GymReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    @MockitoBean
+    private WaitlistService waitlistService;
+
+    private UUID equipmentId;
+
+    @BeforeEach
+    void setUp() {
+        equipmentId = UUID.randomUUID();
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < RESERVATIONS; i++) {
+            Reservation reservation = new Reservation();
+            reservation.setUserId(UUID.randomUUID());
+            reservation.setSessionId(UUID.randomUUID());
+            reservation.setReservationDate(LocalDateTime.now());
+            reservation.setStatus(ReservationStatus.CONFIRMED);
+            reservation.setEquipmentIds(i % 2 == 0 ? List.of(equipmentId) : new ArrayList<>());
+            reservations.add(reservation);
+        }
+        reservationRepository.saveAllAndFlush(reservations);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setName("Student " + i);
+            user.setInstitutionalId("keyset-" + i + "-" + UUID.randomUUID());
+            user.setRole("STUDENT");
+            users.add(user);
+        }
+        userRepository.saveAllAndFlush(users);
+    }
+
+    @Test
+    void getPage_ShouldWalkEveryReservationExactlyOnceInOrder() {
+        List<ReservationDTO> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageDTO<ReservationDTO> page = reservationService.getPage(cursor, 50);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            assertEquals(cursor != null, page.isHasMore());
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(RESERVATIONS, seen.size());
+        assertEquals(RESERVATIONS, seen.stream().map(ReservationDTO::getId).distinct().count());
+        assertEquals(RESERVATIONS / 2, seen.stream().filter(r -> r.getEquipmentIds().contains(equipmentId)).count());
+    }
+
+    @Test
+    void streamAll_ShouldEmitEveryReservationInPageOrder() {
+        List<UUID> streamed = new ArrayList<>();
+        reservationService.streamAll(dto -> streamed.add(dto.getId()));
+
+        List<UUID> paged = reservationService.getPage(null, RESERVATIONS).getItems().stream()
+                .map(ReservationDTO::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(RESERVATIONS, streamed.size());
+        assertEquals(paged, streamed);
+    }
+
+    @Test
+    void userPages_ShouldContinueStrictlyAfterTheCursor() {
+        List<User> first = userRepository.findFirstPage(PageRequest.of(0, 10));
+        User last = first.get(first.size() - 1);
+        List<User> rest = userRepository.findPageAfter(last.getCreatedAt(), last.getId(), PageRequest.of(0, USERS));
+
+        Set<UUID> ids = new HashSet<>();
+        first.forEach(user -> ids.add(user.getId()));
+        rest.forEach(user -> ids.add(user.getId()));
+        assertEquals(10, first.size());
+        assertEquals(USERS - 10, rest.size());
+        assertEquals(USERS, ids.size());
+        KeysetCursor lastSeen = KeysetCursor.of(last.getCreatedAt(), last.getId());
+        assertTrue(rest.stream().noneMatch(user -> user.getId().equals(lastSeen.getId())));
+    }
+
+    @Test
+    void userStream_ShouldReadEveryUser() {
+        try (Stream<User> users = userRepository.streamAllOrdered()) {
+            assertEquals(USERS, users.count());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package edu.eci.cvds.prometeo.service.impl;
+
+import edu.eci.cvds.prometeo.dto.CursorPageDTO;
+import edu.eci.cvds.prometeo.dto.NotificationDTO;
+import edu.eci.cvds.prometeo.model.Notification;
+import edu.eci.cvds.prometeo.repository.NotificationRepository;
+import edu.eci.cvds.prometeo.service.NotificationService;
+import edu.eci.cvds.prometeo.service.notification.UnreadCounterCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Notification inbox paging and unread counters against the in-memory database. Runs
+ * without a test transaction so counters are invalidated after each commit, as they are
+ * in production.
+ */
+@DataJpaTest
+@Import({NotificationServiceImpl.class, UnreadCounterCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationInboxTest {
+
+    private static final int NOTIFICATIONS = 25;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        for (int i = 0; i < NOTIFICATIONS; i++) {
+            notificationService.sendNotification(userId, "Title " + i, "Message", "GENERAL", Optional.empty());
+        }
+        notificationService.sendNotification(UUID.randomUUID(), "Other user", "Message", "GENERAL", Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAll();
+    }
+
+    @Test
+    void getInbox_ShouldWalkTheUsersNotificationsNewestFirst() {
+        List<NotificationDTO> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageDTO<NotificationDTO> page = notificationService.getInbox(userId, false, cursor, 10);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(NOTIFICATIONS, seen.size());
+        assertEquals(NOTIFICATIONS, new HashSet<>(seen.stream().map(NotificationDTO::getId).toList()).size());
+        assertTrue(seen.stream().allMatch(notification -> userId.equals(notification.getUserId())));
+        assertEquals("Title " + (NOTIFICATIONS - 1), seen.get(0).getTitle());
+        assertEquals("Title 0", seen.get(NOTIFICATIONS - 1).getTitle());
+    }
+
+    @Test
+    void getInbox_UnreadOnly_ShouldSkipReadNotifications() {
+        List<UUID> firstPage = notificationService.getInbox(userId, false, null, 5).getItems().stream()
+                .map(NotificationDTO::getId).toList();
+
+        assertEquals(5, notificationService.markAsRead(userId, firstPage));
+
+        CursorPageDTO<NotificationDTO> unread = notificationService.getInbox(userId, true, null, 50);
+        assertEquals(NOTIFICATIONS - 5, unread.getItems().size());
+        assertFalse(unread.isHasMore());
+        assertTrue(unread.getItems().stream().noneMatch(notification -> firstPage.contains(notification.getId())));
+    }
+
+    @Test
+    void getUnreadCount_ShouldBeServedFromTheCacheUntilNotificationsChange() {
+        assertEquals(NOTIFICATIONS, notificationService.getUnreadCount(userId));
+
+        // Una fila escrita sin pasar por el servicio no invalida el contador
+        Notification direct = new Notification();
+        direct.setUserId(userId);
+        direct.setTitle("Direct");
+        direct.setMessage("Message");
+        direct.setType("GENERAL");
+        direct.setNextAttemptAt(LocalDateTime.now());
+        notificationRepository.save(direct);
+        assertEquals(NOTIFICATIONS, notificationService.getUnreadCount(userId));
+
+        notificationService.sendNotification(userId, "New", "Message", "GENERAL", Optional.empty());
+        assertEquals(NOTIFICATIONS + 2, notificationService.getUnreadCount(userId));
+
+        assertEquals(NOTIFICATIONS + 2, notificationService.markAllAsRead(userId));
+        assertEquals(0, notificationService.getUnreadCount(userId));
+    }
+
+    @Test
+    void markAsRead_ShouldIgnoreOtherUsersNotifications() {
+        Set<UUID> others = new HashSet<>();
+        notificationRepository.findAll().stream()
+                .filter(notification -> !userId.equals(notification.getUserId()))
+                .forEach(notification -> others.add(notification.getId()));
+
+        assertEquals(0, notificationService.markAsRead(userId, new ArrayList<>(others)));
+        assertEquals(NOTIFICATIONS, notificationService.getUnreadCount(userId));
+    }
+}
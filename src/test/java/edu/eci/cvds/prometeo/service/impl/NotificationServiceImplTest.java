@@ -1,23 +1,34 @@
 package edu.eci.cvds.prometeo.service.impl;
 
-import edu.eci.cvds.prometeo.model.GymSession;
-import edu.eci.cvds.prometeo.model.Reservation;
-import edu.eci.cvds.prometeo.repository.GymSessionRepository;
-import edu.eci.cvds.prometeo.repository.ReservationRepository;
-import edu.eci.cvds.prometeo.repository.UserRepository;
+import edu.eci.cvds.prometeo.dto.CursorPageDTO;
+import edu.eci.cvds.prometeo.dto.NotificationDTO;
+import edu.eci.cvds.prometeo.event.NotificationsChangedEvent;
+import edu.eci.cvds.prometeo.model.Notification;
+import edu.eci.cvds.prometeo.repository.NotificationRepository;
+import edu.eci.cvds.prometeo.service.notification.NotificationMessages;
+import edu.eci.cvds.prometeo.service.notification.UnreadCounterCache;
+import edu.eci.cvds.prometeo.service.paging.KeysetCursor;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import java.time.LocalDate;
-import java.time.LocalTime;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 
@@ -25,13 +36,10 @@ import static org.mockito.Mockito.*;
 class NotificationServiceImplTest {
 
     @Mock
-    private UserRepository userRepository;
-
-    @Mock
-    private GymSessionRepository gymSessionRepository;
+    private NotificationRepository notificationRepository;
 
     @Mock
-    private ReservationRepository reservationRepository;
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private NotificationServiceImpl notificationService;
@@ -39,145 +47,170 @@ class NotificationServiceImplTest {
     private UUID userId;
     private UUID sessionId;
     private UUID reservationId;
-    private GymSession gymSession;
-    private Reservation reservation;    @BeforeEach
+
+    @BeforeEach
     void setup() {
         userId = UUID.randomUUID();
         sessionId = UUID.randomUUID();
         reservationId = UUID.randomUUID();
+        lenient().when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private Notification queued() {
+        ArgumentCaptor<Notification> captor = ArgumentCaptor.forClass(Notification.class);
+        verify(notificationRepository).save(captor.capture());
+        return captor.getValue();
+    }
 
-        // Create test GymSession
-        gymSession = new GymSession();
-        gymSession.setId(sessionId);
-        gymSession.setSessionDate(LocalDate.now());
-        gymSession.setStartTime(LocalTime.of(10, 0));
-        gymSession.setEndTime(LocalTime.of(11, 0));
-
-        // Create test Reservation
-        reservation = new Reservation();
-        reservation.setId(reservationId);
-        reservation.setSessionId(sessionId);
-        reservation.setUserId(userId);
-    }    @Test
+    @Test
     void testSendNotification() {
         // Arrange
         String title = "Test Title";
         String message = "Test Message";
         String type = "Test Type";
-        Optional<UUID> referenceId = Optional.of(UUID.randomUUID());
+        UUID referenceId = UUID.randomUUID();
 
         // Act
-        boolean result = notificationService.sendNotification(userId, title, message, type, referenceId);
+        boolean result = notificationService.sendNotification(userId, title, message, type, Optional.of(referenceId));
 
         // Assert
         assertTrue(result);
-    }    @Test
-    void testSendSpotAvailableNotification_Success() {
-        // Arrange
-        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(gymSession));
+        Notification notification = queued();
+        assertEquals(userId, notification.getUserId());
+        assertEquals(title, notification.getTitle());
+        assertEquals(message, notification.getMessage());
+        assertEquals(type, notification.getType());
+        assertEquals(referenceId, notification.getRelatedEntityId());
+        assertTrue(notification.isPending());
+        assertNotNull(notification.getNextAttemptAt());
+        assertEquals(0, notification.getDeliveryAttempts());
+        verify(eventPublisher).publishEvent(any(NotificationsChangedEvent.class));
+    }
 
-        // Act
-        boolean result = notificationService.sendSpotAvailableNotification(userId, sessionId);
+    @Test
+    void testSendNotification_WithoutReference() {
+        notificationService.sendNotification(userId, "Title", "Message", "GENERAL", Optional.empty());
 
-        // Assert
-        assertTrue(result);
-        verify(gymSessionRepository).findById(sessionId);
+        assertNull(queued().getRelatedEntityId());
     }
 
     @Test
-    void testSendSpotAvailableNotification_SessionNotFound() {
-        // Arrange
-        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.empty());
-
-        // Act
+    void testSendSpotAvailableNotification_ShouldQueueWithoutReadingTheSession() {
         boolean result = notificationService.sendSpotAvailableNotification(userId, sessionId);
 
-        // Assert
-        assertFalse(result);
-        verify(gymSessionRepository).findById(sessionId);
-    }    @Test
-    void testSendReservationConfirmation_Success() {
-        // Arrange
-        when(reservationRepository.findById(reservationId)).thenReturn(Optional.of(reservation));
-        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(gymSession));
+        assertTrue(result);
+        Notification notification = queued();
+        assertEquals(NotificationMessages.SPOT_AVAILABLE, notification.getType());
+        assertEquals(sessionId, notification.getRelatedEntityId());
+        verifyNoMoreInteractions(notificationRepository);
+    }
 
-        // Act
+    @Test
+    void testSendReservationConfirmation_ShouldQueueWithoutReadingTheReservation() {
         boolean result = notificationService.sendReservationConfirmation(userId, reservationId);
 
-        // Assert
         assertTrue(result);
-        verify(reservationRepository).findById(reservationId);
-        verify(gymSessionRepository).findById(sessionId);
+        Notification notification = queued();
+        assertEquals(NotificationMessages.RESERVATION_CONFIRMATION, notification.getType());
+        assertEquals(reservationId, notification.getRelatedEntityId());
+        assertEquals(userId, notification.getUserId());
+        verifyNoMoreInteractions(notificationRepository);
     }
 
     @Test
-    void testSendReservationConfirmation_ReservationNotFound() {
-        // Arrange
-        when(reservationRepository.findById(reservationId)).thenReturn(Optional.empty());
+    void testSendSessionReminder_ShouldQueueWithoutReadingTheReservation() {
+        boolean result = notificationService.sendSessionReminder(userId, reservationId);
 
-        // Act
-        boolean result = notificationService.sendReservationConfirmation(userId, reservationId);
+        assertTrue(result);
+        Notification notification = queued();
+        assertEquals(NotificationMessages.SESSION_REMINDER, notification.getType());
+        assertEquals(reservationId, notification.getRelatedEntityId());
+        verifyNoMoreInteractions(notificationRepository);
+    }
 
-        // Assert
-        assertFalse(result);
-        verify(reservationRepository).findById(reservationId);
-        verify(gymSessionRepository, never()).findById(any());
+    @Test
+    void testGetInbox_FirstPage() {
+        Notification newest = stored("Newest");
+        Notification older = stored("Older");
+        when(notificationRepository.findInboxFirstPage(eq(userId), eq(List.of(false, true)), any(Pageable.class)))
+                .thenReturn(List.of(newest, older));
+
+        CursorPageDTO<NotificationDTO> page = notificationService.getInbox(userId, false, null, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals("Newest", page.getItems().get(0).getTitle());
+        assertTrue(page.isHasMore());
+        assertEquals(KeysetCursor.of(newest.getCreatedAt(), newest.getId()).encode(), page.getNextCursor());
     }
 
     @Test
-    void testSendReservationConfirmation_SessionNotFound() {
-        // Arrange
-        when(reservationRepository.findById(reservationId)).thenReturn(Optional.of(reservation));
-        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+    void testGetInbox_UnreadOnlyAfterCursor() {
+        Notification last = stored("Last");
+        String cursor = KeysetCursor.of(LocalDateTime.now(), UUID.randomUUID()).encode();
+        KeysetCursor decoded = KeysetCursor.decode(cursor);
+        when(notificationRepository.findInboxPageBefore(eq(userId), eq(List.of(false)), eq(decoded.getCreatedAt()),
+                eq(decoded.getId()), any(Pageable.class))).thenReturn(List.of(last));
+
+        CursorPageDTO<NotificationDTO> page = notificationService.getInbox(userId, true, cursor, 10);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
 
-        // Act
-        boolean result = notificationService.sendReservationConfirmation(userId, reservationId);
+    @Test
+    void testGetInbox_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> notificationService.getInbox(userId, false, "not-a-cursor", 10));
+    }
 
-        // Assert
-        assertFalse(result);
-        verify(reservationRepository).findById(reservationId);
-        verify(gymSessionRepository).findById(sessionId);
-    }    @Test
-    void testSendSessionReminder_Success() {
-        // Arrange
-        when(reservationRepository.findById(reservationId)).thenReturn(Optional.of(reservation));
-        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(gymSession));
+    @Test
+    void testGetUnreadCount_WithoutCache() {
+        when(notificationRepository.countByUserIdAndReadFalseAndDeletedAtIsNull(userId)).thenReturn(4L);
 
-        // Act
-        boolean result = notificationService.sendSessionReminder(userId, reservationId);
+        assertEquals(4, notificationService.getUnreadCount(userId));
+    }
 
-        // Assert
-        assertTrue(result);
-        verify(reservationRepository).findById(reservationId);
-        verify(gymSessionRepository).findById(sessionId);
+    @Test
+    void testGetUnreadCount_WithCache() {
+        UnreadCounterCache cache = mock(UnreadCounterCache.class);
+        when(cache.get(userId)).thenReturn(7L);
+        ReflectionTestUtils.setField(notificationService, "unreadCounterCache", cache);
+
+        assertEquals(7, notificationService.getUnreadCount(userId));
+        verify(notificationRepository, never()).countByUserIdAndReadFalseAndDeletedAtIsNull(any());
     }
 
     @Test
-    void testSendSessionReminder_ReservationNotFound() {
-        // Arrange
-        when(reservationRepository.findById(reservationId)).thenReturn(Optional.empty());
+    void testMarkAsRead() {
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(notificationRepository.markRead(eq(userId), anyCollection())).thenReturn(2);
 
-        // Act
-        boolean result = notificationService.sendSessionReminder(userId, reservationId);
+        assertEquals(2, notificationService.markAsRead(userId, ids));
+        verify(eventPublisher).publishEvent(any(NotificationsChangedEvent.class));
+    }
 
-        // Assert
-        assertFalse(result);
-        verify(reservationRepository).findById(reservationId);
-        verify(gymSessionRepository, never()).findById(any());
+    @Test
+    void testMarkAsRead_WithoutIds() {
+        assertEquals(0, notificationService.markAsRead(userId, List.of()));
+        verify(notificationRepository, never()).markRead(any(), anyCollection());
     }
 
     @Test
-    void testSendSessionReminder_SessionNotFound() {
-        // Arrange
-        when(reservationRepository.findById(reservationId)).thenReturn(Optional.of(reservation));
-        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+    void testMarkAllAsRead_NothingUnread() {
+        when(notificationRepository.markAllRead(userId)).thenReturn(0);
 
-        // Act
-        boolean result = notificationService.sendSessionReminder(userId, reservationId);
+        assertEquals(0, notificationService.markAllAsRead(userId));
+        verifyNoInteractions(eventPublisher);
+    }
 
-        // Assert
-        assertFalse(result);
-        verify(reservationRepository).findById(reservationId);
-        verify(gymSessionRepository).findById(sessionId);
+    private Notification stored(String title) {
+        Notification notification = new Notification();
+        ReflectionTestUtils.setField(notification, "id", UUID.randomUUID());
+        ReflectionTestUtils.setField(notification, "createdAt", LocalDateTime.now());
+        notification.setUserId(userId);
+        notification.setTitle(title);
+        notification.setMessage("Message");
+        notification.setType("GENERAL");
+        return notification;
     }
-}
\ No newline at end of file
+}
@@ -4,15 +4,26 @@ import edu.eci.cvds.prometeo.PrometeoExceptions;
 import edu.eci.cvds.prometeo.model.*;
 import edu.eci.cvds.prometeo.openai.OpenAiClient;
 import edu.eci.cvds.prometeo.repository.*;
+import edu.eci.cvds.prometeo.service.recommendation.LocalRecommendationEngine;
+import edu.eci.cvds.prometeo.service.recommendation.RecommendationCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -227,4 +238,152 @@ public class RecommendationServiceImplTest {
         assertTrue(existingRec.isActive());
         assertEquals(100, existingRec.getWeight());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRecommendRoutinesWithCache_SameGoalsShouldQueryTheModelOnce() {
+        useCache();
+        User other = new User();
+        other.setId(UUID.randomUUID());
+        Goal sameGoal = new Goal();
+        sameGoal.setGoal("perder PESO");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.findById(other.getId())).thenReturn(Optional.of(other));
+        when(goalRepository.findByUserIdAndActive(userId, true)).thenReturn(goals);
+        when(goalRepository.findByUserIdAndActive(other.getId(), true)).thenReturn(List.of(sameGoal));
+        when(routineRepository.findAll()).thenReturn(routines);
+        when(openAiClient.queryModel(anyString())).thenReturn(openAiResponse);
+        when(routineRepository.findById(routines.get(0).getId())).thenReturn(Optional.of(routines.get(0)));
+        when(routineRepository.findById(routines.get(1).getId())).thenReturn(Optional.of(routines.get(1)));
+        when(recommendationRepository.findByUserIdAndRoutineId(any(UUID.class), any(UUID.class))).thenReturn(Optional.empty());
+
+        recommendationService.recommendRoutines(userId);
+        List<Map<Routine, Integer>> result = recommendationService.recommendRoutines(other.getId());
+
+        assertEquals(2, result.size());
+        verify(openAiClient, times(1)).queryModel(anyString());
+        verify(routineRepository, times(1)).findAll();
+        verify(recommendationRepository, times(4)).save(any(Recommendation.class));
+    }
+
+    @Test
+    void testRecommendRoutinesWithCache_FailureShouldNotBeCached() {
+        useCache();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(goalRepository.findByUserIdAndActive(userId, true)).thenReturn(goals);
+        when(routineRepository.findAll()).thenReturn(routines);
+        when(openAiClient.queryModel(anyString())).thenThrow(new RuntimeException("OpenAI error"));
+
+        recommendationService.recommendRoutines(userId);
+        recommendationService.recommendRoutines(userId);
+
+        verify(openAiClient, times(2)).queryModel(anyString());
+    }
+
+    @Test
+    void testRecommendRoutinesShouldDeactivateOnlyRoutinesLeftOutOfTheNewSet() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(goalRepository.findByUserIdAndActive(userId, true)).thenReturn(goals);
+        when(routineRepository.findAll()).thenReturn(routines);
+        UUID keptId = routines.get(0).getId();
+        when(openAiClient.queryModel(anyString()))
+                .thenReturn("{\"choices\":[{\"message\":{\"content\":\"" + keptId + "\"}}]}");
+        when(routineRepository.findById(keptId)).thenReturn(Optional.of(routines.get(0)));
+
+        Recommendation kept = new Recommendation();
+        kept.setRoutine(routines.get(0));
+        kept.setActive(true);
+        Recommendation stale = new Recommendation();
+        stale.setRoutine(routines.get(2));
+        stale.setActive(true);
+        when(recommendationRepository.findByUserIdAndRoutineId(userId, keptId)).thenReturn(Optional.of(kept));
+        when(recommendationRepository.findByUserIdAndActive(userId, true)).thenReturn(List.of(kept, stale));
+
+        recommendationService.recommendRoutines(userId);
+
+        assertTrue(kept.isActive());
+        assertFalse(stale.isActive());
+        verify(recommendationRepository).saveAll(List.of(stale));
+    }
+
+    @Test
+    void testRecommendRoutinesOpenAiExceptionShouldKeepCurrentRecommendations() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(goalRepository.findByUserIdAndActive(userId, true)).thenReturn(goals);
+        when(routineRepository.findAll()).thenReturn(routines);
+        when(openAiClient.queryModel(anyString())).thenThrow(new RuntimeException("OpenAI error"));
+
+        recommendationService.recommendRoutines(userId);
+
+        verify(recommendationRepository, never()).findByUserIdAndActive(any(UUID.class), anyBoolean());
+        verify(recommendationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testRecommendRoutinesWithLocalEngine_UnconfiguredModelShouldUseTheLocalRanking() {
+        LocalRecommendationEngine engine = useLocalEngine();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(goalRepository.findByUserIdAndActive(userId, true)).thenReturn(goals);
+        when(openAiClient.isConfigured()).thenReturn(false);
+        when(engine.recommend(eq(userId), anyList(), any())).thenReturn(List.of(routines.get(2).getId()));
+        when(routineRepository.findById(routines.get(2).getId())).thenReturn(Optional.of(routines.get(2)));
+
+        List<Map<Routine, Integer>> result = recommendationService.recommendRoutines(userId);
+
+        assertEquals(1, result.size());
+        assertTrue(result.get(0).containsKey(routines.get(2)));
+        verify(openAiClient, never()).queryModel(anyString());
+    }
+
+    @Test
+    void testRecommendRoutinesWithLocalEngine_SlowModelShouldFallBackWithinTheBudget() {
+        LocalRecommendationEngine engine = useLocalEngine();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(goalRepository.findByUserIdAndActive(userId, true)).thenReturn(goals);
+        when(routineRepository.findAll()).thenReturn(routines);
+        when(openAiClient.isConfigured()).thenReturn(true);
+        // La respuesta del modelo nunca llega dentro del presupuesto
+        when(openAiClient.queryModelAsync(anyString())).thenReturn(new CompletableFuture<>());
+        when(engine.recommend(eq(userId), anyList(), any())).thenReturn(List.of(routines.get(2).getId()));
+        when(routineRepository.findById(routines.get(2).getId())).thenReturn(Optional.of(routines.get(2)));
+
+        long start = System.nanoTime();
+        List<Map<Routine, Integer>> result = recommendationService.recommendRoutines(userId);
+
+        assertTrue(System.nanoTime() - start < 900_000_000L);
+        assertEquals(1, result.size());
+        verify(engine).blend(List.of(), List.of(routines.get(2).getId()));
+    }
+
+    @Test
+    void testRecommendRoutinesWithLocalEngine_ShouldBlendTheModelAnswer() {
+        LocalRecommendationEngine engine = useLocalEngine();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(goalRepository.findByUserIdAndActive(userId, true)).thenReturn(goals);
+        when(routineRepository.findAll()).thenReturn(routines);
+        when(openAiClient.isConfigured()).thenReturn(true);
+        when(openAiClient.queryModelAsync(anyString())).thenReturn(CompletableFuture.completedFuture(openAiResponse));
+        when(engine.recommend(eq(userId), anyList(), any())).thenReturn(List.of(routines.get(2).getId()));
+
+        recommendationService.recommendRoutines(userId);
+
+        verify(engine).blend(List.of(routines.get(0).getId(), routines.get(1).getId()), List.of(routines.get(2).getId()));
+    }
+
+    private LocalRecommendationEngine useLocalEngine() {
+        LocalRecommendationEngine engine = mock(LocalRecommendationEngine.class);
+        lenient().when(engine.modelBudget()).thenReturn(Duration.ofMillis(100));
+        lenient().when(engine.blend(anyList(), anyList())).thenAnswer(invocation ->
+                invocation.<List<UUID>>getArgument(0).isEmpty() ? invocation.getArgument(1) : invocation.getArgument(0));
+        ReflectionTestUtils.setField(recommendationService, "localEngine", engine);
+        return engine;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void useCache() {
+        ObjectProvider<MeterRegistry> meterRegistry = mock(ObjectProvider.class);
+        when(meterRegistry.getIfAvailable(any())).thenReturn(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(recommendationService, "recommendationCache",
+                new RecommendationCache(meterRegistry, 100, 60));
+    }
+}
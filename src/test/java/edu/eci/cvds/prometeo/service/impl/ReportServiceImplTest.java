@@ -1,12 +1,15 @@
 package edu.eci.cvds.prometeo.service.impl;
 
+import edu.eci.cvds.prometeo.PrometeoExceptions;
 import edu.eci.cvds.prometeo.model.GymSession;
 import edu.eci.cvds.prometeo.model.PhysicalProgress;
 import edu.eci.cvds.prometeo.model.Weight;
 import edu.eci.cvds.prometeo.model.enums.ReportFormat;
 import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.OccupancyBucketRepository;
 import edu.eci.cvds.prometeo.repository.PhysicalProgressRepository;
 import edu.eci.cvds.prometeo.service.report.ReportGenerator;
+import edu.eci.cvds.prometeo.service.rollup.OccupancyRollup;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -383,6 +386,119 @@ public class ReportServiceImplTest {
         reportService.getAttendanceStatistics(LocalDate.now(), LocalDate.now(), ReportFormat.XLSX);
     }
 
+    @Test
+    void testGenerateGymUsageReportFromRollup() throws IOException {
+        OccupancyRollup occupancyRollup = mock(OccupancyRollup.class);
+        ReflectionTestUtils.setField(reportService, "occupancyRollup", occupancyRollup);
+        LocalDate startDate = LocalDate.of(2023, 1, 1);
+        LocalDate endDate = LocalDate.of(2023, 12, 31);
+        OccupancyBucketRepository.DailyTotals day = mock(OccupancyBucketRepository.DailyTotals.class);
+        when(day.getSessions()).thenReturn(2L);
+        when(day.getCapacity()).thenReturn(40L);
+        when(day.getReserved()).thenReturn(30L);
+        when(day.getSessionMinutes()).thenReturn(150L);
+        when(day.getUtilizationSum()).thenReturn(150.0);
+        when(occupancyRollup.dailyTotals(startDate, endDate)).thenReturn(List.of(day));
+        when(reportGeneratorMock.generateJSON(anyList())).thenReturn("json".getBytes());
+
+        reportService.generateGymUsageReport(startDate, endDate, ReportFormat.JSON);
+
+        @SuppressWarnings("unchecked")
+        org.mockito.ArgumentCaptor<List<Map<String, Object>>> captor = org.mockito.ArgumentCaptor.forClass(List.class);
+        verify(reportGeneratorMock).generateJSON(captor.capture());
+        Map<String, Object> metrics = captor.getValue().get(0);
+        assertEquals(2L, metrics.get("totalSessions"));
+        assertEquals(40, metrics.get("totalCapacity"));
+        assertEquals(String.format("%.2f", 75.0) + "%", metrics.get("utilizationRate"));
+        assertEquals(String.format("%.2f", 75.0), metrics.get("averageSessionDurationMinutes"));
+        verifyNoInteractions(gymSessionRepository);
+    }
+
+    @Test
+    void testGenerateGymUsageReportFromRollupRendersOneRowPerDay() throws IOException {
+        OccupancyRollup occupancyRollup = mock(OccupancyRollup.class);
+        ReflectionTestUtils.setField(reportService, "occupancyRollup", occupancyRollup);
+        OccupancyBucketRepository.DailyTotals day = mock(OccupancyBucketRepository.DailyTotals.class);
+        when(day.getUsageDate()).thenReturn(LocalDate.of(2023, 6, 10));
+        when(day.getSessions()).thenReturn(2L);
+        when(day.getCapacity()).thenReturn(40L);
+        when(day.getReserved()).thenReturn(20L);
+        when(day.getSessionMinutes()).thenReturn(120L);
+        when(day.getUtilizationSum()).thenReturn(100.0);
+        when(occupancyRollup.dailyTotals(any(), any())).thenReturn(List.of(day));
+
+        doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            java.util.function.Function<OccupancyBucketRepository.DailyTotals, List<String>> rowMapper =
+                (java.util.function.Function<OccupancyBucketRepository.DailyTotals, List<String>>) invocation.getArgument(2);
+            assertEquals(List.of("2023-06-10", "40", "20", String.format("%.2f", 50.0) + "%",
+                    String.format("%.2f", 50.0), String.format("%.2f", 60.0)), rowMapper.apply(day));
+            return "test".getBytes();
+        }).when(reportGeneratorMock).generateCSV(anyList(), anyList(), any());
+
+        reportService.generateGymUsageReport(LocalDate.now(), LocalDate.now(), ReportFormat.CSV);
+
+        verify(reportGeneratorMock).generateCSV(eq(List.of(day)), anyList(), any());
+    }
+
+    @Test
+    void testGetAttendanceStatisticsFromRollup() throws IOException {
+        OccupancyRollup occupancyRollup = mock(OccupancyRollup.class);
+        ReflectionTestUtils.setField(reportService, "occupancyRollup", occupancyRollup);
+        LocalDate date = LocalDate.of(2023, 6, 10);
+        OccupancyBucketRepository.DailyTotals day = mock(OccupancyBucketRepository.DailyTotals.class);
+        when(day.getUsageDate()).thenReturn(date);
+        when(day.getReserved()).thenReturn(35L);
+        when(occupancyRollup.dailyTotals(date, date)).thenReturn(List.of(day));
+        when(reportGeneratorMock.generateJSON(anyList())).thenReturn("json".getBytes());
+
+        reportService.getAttendanceStatistics(date, date, ReportFormat.JSON);
+
+        verify(reportGeneratorMock).generateJSON(List.of(Map.of(date, 35)));
+        verifyNoInteractions(gymSessionRepository);
+    }
+
+    @Test
+    void testGetAttendanceStatisticsAddsSessionsOfTheSameDay() throws IOException {
+        LocalDate date = LocalDate.of(2023, 6, 10);
+        when(gymSessionRepository.findBySessionDateBetween(date, date)).thenReturn(List.of(
+                createTestSession(date, 20, 15, 60), createTestSession(date, 20, 5, 60)));
+        when(reportGeneratorMock.generateJSON(anyList())).thenReturn("json".getBytes());
+
+        reportService.getAttendanceStatistics(date, date, ReportFormat.JSON);
+
+        verify(reportGeneratorMock).generateJSON(List.of(Map.of(date, 20)));
+    }
+
+    @Test
+    void testRebuildOccupancyRollup() {
+        OccupancyRollup occupancyRollup = mock(OccupancyRollup.class);
+        ReflectionTestUtils.setField(reportService, "occupancyRollup", occupancyRollup);
+        LocalDate startDate = LocalDate.of(2023, 1, 1);
+        LocalDate endDate = LocalDate.of(2023, 12, 31);
+        when(occupancyRollup.rebuild(startDate, endDate)).thenReturn(730);
+
+        assertEquals(730, reportService.rebuildOccupancyRollup(startDate, endDate));
+    }
+
+    @Test
+    void testRebuildOccupancyRollupWhenDisabled() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> reportService.rebuildOccupancyRollup(LocalDate.now(), LocalDate.now()));
+
+        assertEquals(PrometeoExceptions.RESUMEN_OCUPACION_DESHABILITADO, exception.getMessage());
+    }
+
+    @Test
+    void testRebuildOccupancyRollupWithInvertedRange() {
+        ReflectionTestUtils.setField(reportService, "occupancyRollup", mock(OccupancyRollup.class));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> reportService.rebuildOccupancyRollup(LocalDate.now(), LocalDate.now().minusDays(1)));
+
+        assertEquals(PrometeoExceptions.RANGO_FECHAS_NO_VALIDO, exception.getMessage());
+    }
+
     // Helper methods to create test data
     private PhysicalProgress createTestProgress(UUID userId, LocalDate date, double weightValue, String goal) {
         PhysicalProgress progress = new PhysicalProgress();
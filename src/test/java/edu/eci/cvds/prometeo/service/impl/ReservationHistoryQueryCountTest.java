@@ -0,0 +1,128 @@
+package edu.eci.cvds.prometeo.service.impl;
+
+import edu.eci.cvds.prometeo.dto.ReservationHistoryDTO;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.model.Reservation;
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.ReservationRepository;
+import edu.eci.cvds.prometeo.service.PhysicalProgressService;
+import edu.eci.cvds.prometeo.service.RoutineService;
+import edu.eci.cvds.prometeo.service.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import edu.eci.cvds.prometeo.service.waitlist.FreedSeatHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Regression test for the reservation history views: the number of SQL statements
+ * must not depend on how many reservations the user has.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(UserServiceImpl.class)
+class ReservationHistoryQueryCountTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private GymSessionRepository gymSessionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private PhysicalProgressService physicalProgressService;
+
+    @MockitoBean
+    private RoutineService routineService;
+
+    @MockitoBean
+    private FreedSeatHandler freedSeatHandler;
+
+    @Test
+    void getReservationHistory_ShouldRunConstantNumberOfStatements() {
+        UUID shortHistory = userWithReservations(1, LocalDate.now().minusDays(10));
+        UUID longHistory = userWithReservations(40, LocalDate.now().minusDays(10));
+
+        long shortCount = statementsFor(() -> userService.getReservationHistory(shortHistory, Optional.empty(), Optional.empty()));
+        long longCount = statementsFor(() -> {
+            List<ReservationHistoryDTO> history = userService.getReservationHistory(longHistory, Optional.empty(), Optional.empty());
+            assertEquals(40, history.size());
+            assertTrue(history.stream().allMatch(dto -> dto.getSession() != null));
+        });
+
+        assertEquals(1, shortCount);
+        assertEquals(shortCount, longCount);
+    }
+
+    @Test
+    void getUpcomingReservations_ShouldRunConstantNumberOfStatements() {
+        UUID shortHistory = userWithReservations(1, LocalDate.now().plusDays(1));
+        UUID longHistory = userWithReservations(40, LocalDate.now().plusDays(1));
+
+        long shortCount = statementsFor(() -> userService.getUpcomingReservations(shortHistory));
+        long longCount = statementsFor(() -> {
+            List<ReservationHistoryDTO> upcoming = userService.getUpcomingReservations(longHistory);
+            assertEquals(40, upcoming.size());
+            assertEquals(LocalTime.of(7, 0), upcoming.get(0).getSession().getStartTime());
+        });
+
+        assertEquals(1, shortCount);
+        assertEquals(shortCount, longCount);
+    }
+
+    private UUID userWithReservations(int count, LocalDate firstDate) {
+        UUID userId = UUID.randomUUID();
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            GymSession session = new GymSession();
+            session.setSessionDate(firstDate.plusDays(i % 5));
+            session.setStartTime(LocalTime.of(7, 0));
+            session.setEndTime(LocalTime.of(8, 0));
+            session.setCapacity(20);
+            session.setReservedSpots(1);
+            session = gymSessionRepository.save(session);
+
+            Reservation reservation = new Reservation();
+            reservation.setUserId(userId);
+            reservation.setSessionId(session.getId());
+            reservation.setReservationDate(LocalDateTime.of(session.getSessionDate(), session.getStartTime()));
+            reservation.setStatus(ReservationStatus.CONFIRMED);
+            reservations.add(reservation);
+        }
+        reservationRepository.saveAll(reservations);
+        entityManager.flush();
+        entityManager.clear();
+        return userId;
+    }
+
+    private long statementsFor(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,130 @@
+package edu.eci.cvds.prometeo.service.impl;
+
+import edu.eci.cvds.prometeo.event.AttendanceRecordedEvent;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.model.Reservation;
+import edu.eci.cvds.prometeo.model.User;
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.ReservationRepository;
+import edu.eci.cvds.prometeo.repository.UserRepository;
+import edu.eci.cvds.prometeo.service.GymSessionService;
+import edu.eci.cvds.prometeo.service.roster.SessionRosterCache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement count of the session roster used by the check-in screens.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({GymSessionServiceImpl.class, SessionRosterCache.class})
+class SessionRosterQueryCountTest {
+
+    private static final int STUDENTS = 50;
+
+    @Autowired
+    private GymSessionService gymSessionService;
+
+    @Autowired
+    private SessionRosterCache rosterCache;
+
+    @Autowired
+    private GymSessionRepository gymSessionRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UUID sessionId;
+    private UUID firstReservationId;
+
+    @BeforeEach
+    void setUp() {
+        GymSession session = new GymSession();
+        session.setSessionDate(LocalDate.now());
+        session.setStartTime(LocalTime.of(7, 0));
+        session.setEndTime(LocalTime.of(8, 0));
+        session.setCapacity(STUDENTS);
+        session.setReservedSpots(STUDENTS);
+        sessionId = gymSessionRepository.save(session).getId();
+
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            User user = new User();
+            user.setName(String.format("Student %02d", i));
+            user.setInstitutionalId("roster-" + i + "-" + UUID.randomUUID());
+            user.setRole("STUDENT");
+            user = userRepository.save(user);
+
+            Reservation reservation = new Reservation();
+            reservation.setUserId(user.getId());
+            reservation.setSessionId(sessionId);
+            reservation.setReservationDate(LocalDateTime.of(session.getSessionDate(), session.getStartTime()));
+            reservation.setStatus(ReservationStatus.CONFIRMED);
+            reservations.add(reservation);
+        }
+        firstReservationId = reservationRepository.saveAll(reservations).get(0).getId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getRegisteredStudents_ShouldLoadRosterInOneJoinAndServeRepeatsFromMemory() {
+        List<Map<String, Object>> first = measure(2, () -> gymSessionService.getRegisteredStudentsForSession(sessionId));
+        assertEquals(STUDENTS, first.size());
+        assertEquals("Student 00", first.get(0).get("name"));
+
+        List<Map<String, Object>> second = measure(0, () -> gymSessionService.getRegisteredStudentsForSession(sessionId));
+        assertEquals(first, second);
+    }
+
+    @Test
+    void checkIn_ShouldBeVisibleWithoutReloadingTheRoster() {
+        gymSessionService.getRegisteredStudentsForSession(sessionId);
+        LocalDateTime checkIn = LocalDateTime.now();
+
+        rosterCache.onAttendanceRecorded(new AttendanceRecordedEvent(sessionId, LocalDate.now(), firstReservationId, checkIn));
+
+        List<Map<String, Object>> roster = measure(0, () -> gymSessionService.getRegisteredStudentsForSession(sessionId));
+        Map<String, Object> checkedIn = roster.stream()
+                .filter(entry -> firstReservationId.equals(entry.get("reservationId")))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(true, checkedIn.get("attended"));
+        assertEquals(checkIn, checkedIn.get("attendanceTime"));
+    }
+
+    private <T> T measure(long expectedStatements, Supplier<T> action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = action.get();
+        assertEquals(expectedStatements, statistics.getPrepareStatementCount());
+        return result;
+    }
+}
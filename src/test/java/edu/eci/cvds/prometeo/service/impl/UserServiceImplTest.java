@@ -7,16 +7,25 @@ import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
 import edu.eci.cvds.prometeo.repository.*;
 import edu.eci.cvds.prometeo.service.PhysicalProgressService;
 import edu.eci.cvds.prometeo.service.RoutineService;
+import edu.eci.cvds.prometeo.service.waitlist.FreedSeatHandler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import edu.eci.cvds.prometeo.dto.CursorPageDTO;
+import edu.eci.cvds.prometeo.event.AttendanceRecordedEvent;
+import edu.eci.cvds.prometeo.dto.ReservationHistoryDTO;
+import edu.eci.cvds.prometeo.service.paging.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -57,6 +66,15 @@ public class UserServiceImplTest {
     @Mock
     private RoutineService routineService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private FreedSeatHandler freedSeatHandler;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -155,6 +173,40 @@ public class UserServiceImplTest {
         assertEquals(1, result.size());
         verify(userRepository).findAll();
     }
+
+    @Test
+    void getUsersPage_ShouldReturnLastPageWithoutCursor() {
+        testUser.setCreatedAt(LocalDateTime.of(2025, 4, 1, 9, 0));
+        when(userRepository.findFirstPage(PageRequest.of(0, 11))).thenReturn(List.of(testUser));
+
+        CursorPageDTO<User> page = userService.getUsersPage(null, 10);
+
+        assertEquals(List.of(testUser), page.getItems());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getUsersPage_WithCursor_ShouldReadAfterIt() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 4, 1, 9, 0);
+        UUID lastId = UUID.randomUUID();
+        when(userRepository.findPageAfter(createdAt, lastId, PageRequest.of(0, 11))).thenReturn(List.of(testUser));
+
+        CursorPageDTO<User> page = userService.getUsersPage(KeysetCursor.of(createdAt, lastId).encode(), 10);
+
+        assertEquals(1, page.getItems().size());
+        verify(userRepository, never()).findFirstPage(any());
+    }
+
+    @Test
+    void streamAllUsers_ShouldEmitEveryUser() {
+        when(userRepository.streamAllOrdered()).thenReturn(Stream.of(testUser));
+
+        List<User> emitted = new ArrayList<>();
+        userService.streamAllUsers(emitted::add);
+
+        assertEquals(List.of(testUser), emitted);
+    }
     
     @Test
     void getUsersByRole_ShouldReturnUsersWithRole() {
@@ -287,16 +339,16 @@ public class UserServiceImplTest {
         LocalTime endTime = LocalTime.of(10, 0);
         
         when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(gymSessionRepository.findBySessionDateAndStartTimeLessThanEqualAndEndTimeGreaterThanEqual(
-                eq(date), eq(startTime), eq(endTime))).thenReturn(Optional.of(testGymSession));
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(date))
+                .thenReturn(Collections.singletonList(testGymSession));
+        when(gymSessionRepository.claimSpot(testGymSession.getId())).thenReturn(1);
         when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
         
         UUID result = userService.createGymReservation(userId, date, startTime, endTime, Optional.empty());
           assertNotNull(result);
         verify(userRepository).findById(userId);
-        verify(gymSessionRepository, atLeastOnce()).findBySessionDateAndStartTimeLessThanEqualAndEndTimeGreaterThanEqual(
-                eq(date), eq(startTime), eq(endTime));
-        verify(gymSessionRepository).save(any(GymSession.class));
+        verify(gymSessionRepository).findBySessionDateOrderByStartTime(date);
+        verify(gymSessionRepository).claimSpot(testGymSession.getId());
         verify(reservationRepository).save(any(Reservation.class));
     }
     
@@ -313,25 +365,29 @@ public class UserServiceImplTest {
         assertTrue(result);
         verify(reservationRepository).findById(reservationId);
         verify(gymSessionRepository).findById(testGymSession.getId());
-        verify(gymSessionRepository).save(any(GymSession.class));
+        // El cupo pasa por la misma retención para la lista de espera que GymReservationServiceImpl.delete
+        verify(freedSeatHandler).giveBack(testGymSession);
+        verify(gymSessionRepository, never()).releaseSpot(any());
         verify(reservationRepository).save(any(Reservation.class));
     }
     
     @Test
     void getUpcomingReservations_ShouldReturnUpcomingReservations() {
-        List<Reservation> reservations = Arrays.asList(testReservation);
+        ReservationRepository.ReservationWithSession row = reservationRow(testReservation, testGymSession);
         
-        when(reservationRepository.findByUserIdAndReservationDateGreaterThanEqualAndStatusOrderByReservationDateAsc(
-                eq(userId), any(LocalDateTime.class), eq(ReservationStatus.CONFIRMED))).thenReturn(reservations);
-        when(gymSessionRepository.findById(testGymSession.getId())).thenReturn(Optional.of(testGymSession));
+        when(reservationRepository.findUpcomingWithSession(
+                eq(userId), any(LocalDateTime.class), eq(ReservationStatus.CONFIRMED))).thenReturn(List.of(row));
         
-        List<Object> result = userService.getUpcomingReservations(userId);
+        List<ReservationHistoryDTO> result = userService.getUpcomingReservations(userId);
         
         assertNotNull(result);
-        assertFalse(result.isEmpty());
         assertEquals(1, result.size());
-        verify(reservationRepository).findByUserIdAndReservationDateGreaterThanEqualAndStatusOrderByReservationDateAsc(
+        assertEquals(testReservation.getId(), result.get(0).getId());
+        assertEquals(testGymSession.getId(), result.get(0).getSession().getId());
+        assertEquals(testGymSession.getCapacity(), result.get(0).getSession().getCapacity());
+        verify(reservationRepository).findUpcomingWithSession(
                 eq(userId), any(LocalDateTime.class), eq(ReservationStatus.CONFIRMED));
+        verify(gymSessionRepository, never()).findById(any());
     }
     
     @Test
@@ -340,14 +396,13 @@ public class UserServiceImplTest {
         LocalTime startTime = LocalTime.of(9, 0);
         LocalTime endTime = LocalTime.of(10, 0);
         
-        when(gymSessionRepository.findBySessionDateAndStartTimeLessThanEqualAndEndTimeGreaterThanEqual(
-                eq(date), eq(startTime), eq(endTime))).thenReturn(Optional.of(testGymSession));
+        when(gymSessionRepository.findBySessionDateOrderByStartTime(date))
+                .thenReturn(Collections.singletonList(testGymSession));
         
         boolean result = userService.checkGymAvailability(date, startTime, endTime);
         
         assertTrue(result);
-        verify(gymSessionRepository).findBySessionDateAndStartTimeLessThanEqualAndEndTimeGreaterThanEqual(
-                eq(date), eq(startTime), eq(endTime));
+        verify(gymSessionRepository).findBySessionDateOrderByStartTime(date);
     }
     
     @Test
@@ -367,6 +422,7 @@ public class UserServiceImplTest {
         verify(reservationRepository).findById(reservationId);
         verify(gymSessionRepository).findById(testGymSession.getId());
         verify(reservationRepository).save(any(Reservation.class));
+        verify(eventPublisher).publishEvent(any(AttendanceRecordedEvent.class));
     }
     
     // --------- Additional Tests for Coverage ---------
@@ -454,22 +510,62 @@ public class UserServiceImplTest {
         UUID userId = testUser.getId();
         LocalDate startDate = LocalDate.now().minusDays(30);
         LocalDate endDate = LocalDate.now();
-        List<Reservation> reservations = Arrays.asList(testReservation);
+        ReservationRepository.ReservationWithSession withSession = reservationRow(testReservation, testGymSession);
+        ReservationRepository.ReservationWithSession orphan = reservationRow(testReservation, null);
         
-        when(reservationRepository.findByUserIdAndReservationDateBetweenOrderByReservationDateDesc(
-                any(UUID.class), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(reservations);
-        when(gymSessionRepository.findById(testGymSession.getId())).thenReturn(Optional.of(testGymSession));
+        when(reservationRepository.findHistoryWithSession(
+                any(UUID.class), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(List.of(withSession, orphan));
         
         // Act
-        List<Object> result = userService.getReservationHistory(userId, 
+        List<ReservationHistoryDTO> result = userService.getReservationHistory(userId, 
                 Optional.of(startDate), Optional.of(endDate));
         
         // Assert
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        verify(reservationRepository).findByUserIdAndReservationDateBetweenOrderByReservationDateDesc(
+        assertEquals(2, result.size());
+        assertEquals(testGymSession.getStartTime(), result.get(0).getSession().getStartTime());
+        assertNull(result.get(1).getSession());
+        verify(reservationRepository).findHistoryWithSession(
                 any(UUID.class), any(LocalDateTime.class), any(LocalDateTime.class));
-        verify(gymSessionRepository).findById(testGymSession.getId());
+        verifyNoInteractions(gymSessionRepository);
+    }
+    
+    private ReservationRepository.ReservationWithSession reservationRow(Reservation reservation, GymSession session) {
+        return new ReservationRepository.ReservationWithSession() {
+            @Override
+            public UUID getId() {
+                return reservation.getId();
+            }
+
+            @Override
+            public LocalDateTime getReservationDate() {
+                return reservation.getReservationDate();
+            }
+
+            @Override
+            public ReservationStatus getStatus() {
+                return reservation.getStatus();
+            }
+
+            @Override
+            public UUID getSessionId() {
+                return session != null ? session.getId() : null;
+            }
+
+            @Override
+            public LocalTime getStartTime() {
+                return session != null ? session.getStartTime() : null;
+            }
+
+            @Override
+            public LocalTime getEndTime() {
+                return session != null ? session.getEndTime() : null;
+            }
+
+            @Override
+            public Integer getCapacity() {
+                return session != null ? session.getCapacity() : null;
+            }
+        };
     }
     
     @Test
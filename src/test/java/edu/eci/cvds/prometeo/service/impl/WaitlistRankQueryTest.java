@@ -0,0 +1,193 @@
+package edu.eci.cvds.prometeo.service.impl;
+
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.model.WaitlistEntry;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.WaitlistRepository;
+import edu.eci.cvds.prometeo.service.GymReservationService;
+import edu.eci.cvds.prometeo.service.NotificationService;
+import edu.eci.cvds.prometeo.service.WaitlistService;
+import edu.eci.cvds.prometeo.service.waitlist.FreedSeatHandler;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Waitlist positions computed by the database for a popular session.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({WaitlistServiceImpl.class, GymReservationServiceImpl.class})
+class WaitlistRankQueryTest {
+
+    private static final int WAITING = 300;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private GymReservationService reservationService;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private GymSessionRepository gymSessionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    @MockitoBean
+    private FreedSeatHandler freedSeatHandler;
+
+    private UUID popularSessionId;
+    private UUID otherSessionId;
+    private final List<UUID> queue = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        popularSessionId = gymSessionRepository.save(session(LocalTime.of(7, 0))).getId();
+        otherSessionId = gymSessionRepository.save(session(LocalTime.of(9, 0))).getId();
+
+        for (int i = 0; i < WAITING; i++) {
+            UUID userId = UUID.randomUUID();
+            waitlistRepository.saveAndFlush(entry(userId, popularSessionId));
+            queue.add(userId);
+        }
+        entityManager.clear();
+    }
+
+    @Test
+    void getWaitlistPosition_ShouldMatchTheOrderOfRequests() {
+        List<WaitlistEntry> ordered = waitlistRepository.findBySessionIdOrderByRequestTimeAsc(popularSessionId);
+        assertEquals(WAITING, ordered.stream().map(WaitlistEntry::getRequestTime).distinct().count());
+
+        for (int index : new int[] {0, 1, WAITING / 2, WAITING - 1}) {
+            UUID userId = ordered.get(index).getUserId();
+            int position = measure(1, () -> waitlistService.getWaitlistPosition(userId, popularSessionId));
+            assertEquals(index + 1, position);
+        }
+    }
+
+    @Test
+    void getWaitlistPosition_UserNotWaiting_ShouldReturnZero() {
+        assertEquals(0, waitlistService.getWaitlistPosition(UUID.randomUUID(), popularSessionId));
+        assertEquals(0, waitlistService.getWaitlistPosition(queue.get(0), otherSessionId));
+    }
+
+    @Test
+    void getUserWaitlistSessions_ShouldLoadPositionsAndSessionsInOneStatement() {
+        UUID userId = queue.get(WAITING - 1);
+        waitlistRepository.saveAndFlush(entry(userId, otherSessionId));
+        entityManager.clear();
+
+        List<Map<String, Object>> sessions = measure(1, () -> waitlistService.getUserWaitlistSessions(userId));
+
+        assertEquals(2, sessions.size());
+        assertEquals(WAITING, sessions.get(0).get("position"));
+        assertEquals(1, sessions.get(1).get("position"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> session = (Map<String, Object>) sessions.get(1).get("session");
+        assertEquals(otherSessionId, session.get("id"));
+        assertEquals(LocalTime.of(9, 0), session.get("startTime"));
+    }
+
+    @Test
+    void getWaitlistStats_ShouldAggregateInOneStatementWithoutLoadingEntries() {
+        List<WaitlistEntry> ordered = waitlistRepository.findBySessionIdOrderByRequestTimeAsc(popularSessionId);
+        WaitlistEntry notified = ordered.get(0);
+        notified.setNotificationSent(true);
+        waitlistRepository.saveAndFlush(notified);
+        entityManager.clear();
+
+        Map<String, Object> stats = measure(1, () -> waitlistService.getWaitlistStats(popularSessionId));
+
+        assertEquals((long) WAITING, stats.get("totalCount"));
+        assertEquals(1L, stats.get("notifiedCount"));
+        assertEquals((long) WAITING - 1, stats.get("pendingCount"));
+        assertEquals(ordered.get(0).getRequestTime(), stats.get("oldestRequest"));
+        assertEquals(ordered.get(WAITING - 1).getRequestTime(), stats.get("newestRequest"));
+        assertEquals(0L, waitlistService.getWaitlistStats(otherSessionId).get("totalCount"));
+    }
+
+    @Test
+    void getWaitlistStatus_ShouldReadTheSessionWithoutLoadingEntities() {
+        UUID userId = queue.get(WAITING / 2);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Posición, datos de la sesión y totales de la lista: una consulta cada uno
+        Map<String, Object> status = measure(3, () -> reservationService.getWaitlistStatus(userId, popularSessionId));
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(WAITING / 2 + 1, status.get("position"));
+        assertEquals(LocalTime.of(7, 0), status.get("startTime"));
+        assertEquals(20, status.get("capacity"));
+        assertEquals(20, status.get("reservedSpots"));
+        assertEquals((long) WAITING, status.get("totalInWaitlist"));
+    }
+
+    @Test
+    void findPositions_ShouldRankSeveralUsersInOneStatement() {
+        List<WaitlistEntry> ordered = waitlistRepository.findBySessionIdOrderByRequestTimeAsc(popularSessionId);
+        UUID front = ordered.get(0).getUserId();
+        UUID middle = ordered.get(WAITING / 2).getUserId();
+        UUID stranger = UUID.randomUUID();
+
+        Map<UUID, Long> positions = measure(1, () -> waitlistRepository
+                .findPositions(popularSessionId, List.of(front, middle, stranger)).stream()
+                .collect(Collectors.toMap(WaitlistRepository.UserPosition::getUserId,
+                        WaitlistRepository.UserPosition::getPosition)));
+
+        assertEquals(2, positions.size());
+        assertEquals(1L, positions.get(front));
+        assertEquals(WAITING / 2 + 1L, positions.get(middle));
+    }
+
+    private GymSession session(LocalTime start) {
+        GymSession session = new GymSession();
+        session.setSessionDate(LocalDate.now().plusDays(1));
+        session.setStartTime(start);
+        session.setEndTime(start.plusHours(1));
+        session.setCapacity(20);
+        session.setReservedSpots(20);
+        return session;
+    }
+
+    private static WaitlistEntry entry(UUID userId, UUID sessionId) {
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setUserId(userId);
+        entry.setSessionId(sessionId);
+        return entry;
+    }
+
+    private <T> T measure(long expectedStatements, Supplier<T> action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = action.get();
+        assertEquals(expectedStatements, statistics.getPrepareStatementCount());
+        return result;
+    }
+}
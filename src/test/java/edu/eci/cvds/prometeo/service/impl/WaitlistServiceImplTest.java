@@ -1,16 +1,20 @@
 package edu.eci.cvds.prometeo.service.impl;
 
+import edu.eci.cvds.prometeo.event.WaitlistChangedEvent;
 import edu.eci.cvds.prometeo.model.GymSession;
 import edu.eci.cvds.prometeo.model.WaitlistEntry;
 import edu.eci.cvds.prometeo.repository.GymSessionRepository;
 import edu.eci.cvds.prometeo.repository.UserRepository;
 import edu.eci.cvds.prometeo.repository.WaitlistRepository;
 import edu.eci.cvds.prometeo.service.NotificationService;
+import edu.eci.cvds.prometeo.service.waitlist.WaitlistCounterCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -38,6 +42,9 @@ class WaitlistServiceImplTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private WaitlistServiceImpl waitlistService;
 
@@ -130,30 +137,20 @@ class WaitlistServiceImplTest {
     @Test
     void getWaitlistPosition_UserInWaitlist_ReturnsCorrectPosition() {
         // Arrange
-        WaitlistEntry entry1 = new WaitlistEntry();
-        entry1.setUserId(UUID.randomUUID());
-        
-        WaitlistEntry entry2 = new WaitlistEntry();
-        entry2.setUserId(userId);
-        
-        when(waitlistRepository.findBySessionIdOrderByRequestTimeAsc(sessionId))
-                .thenReturn(Arrays.asList(entry1, entry2));
+        when(waitlistRepository.findPosition(userId, sessionId)).thenReturn(2L);
 
         // Act
         int position = waitlistService.getWaitlistPosition(userId, sessionId);
 
         // Assert
         assertEquals(2, position);
+        verify(waitlistRepository, never()).findBySessionIdOrderByRequestTimeAsc(any());
     }
 
     @Test
     void getWaitlistPosition_UserNotInWaitlist_ReturnsZero() {
         // Arrange
-        WaitlistEntry entry1 = new WaitlistEntry();
-        entry1.setUserId(UUID.randomUUID());
-        
-        when(waitlistRepository.findBySessionIdOrderByRequestTimeAsc(sessionId))
-                .thenReturn(Collections.singletonList(entry1));
+        when(waitlistRepository.findPosition(userId, sessionId)).thenReturn(0L);
 
         // Act
         int position = waitlistService.getWaitlistPosition(userId, sessionId);
@@ -242,9 +239,8 @@ class WaitlistServiceImplTest {
     @Test
     void getWaitlistStats_EmptyWaitlist_ReturnsBasicStats() {
         // Arrange
-        when(waitlistRepository.countBySessionId(sessionId)).thenReturn(0L);
-        when(waitlistRepository.findBySessionIdOrderByRequestTimeAsc(sessionId))
-                .thenReturn(Collections.emptyList());
+        WaitlistRepository.WaitlistStats counters = counters(0, 0, null, null);
+        when(waitlistRepository.aggregateBySessionId(sessionId)).thenReturn(counters);
 
         // Act
         Map<String, Object> stats = waitlistService.getWaitlistStats(sessionId);
@@ -260,19 +256,10 @@ class WaitlistServiceImplTest {
     @Test
     void getWaitlistStats_NonEmptyWaitlist_ReturnsCompleteStats() {
         // Arrange
-        WaitlistEntry entry1 = new WaitlistEntry();
-        entry1.setNotificationSent(false);
-        entry1.setRequestTime(LocalDateTime.now().minusHours(2));
-        
-        WaitlistEntry entry2 = new WaitlistEntry();
-        entry2.setNotificationSent(true);
-        entry2.setRequestTime(LocalDateTime.now().minusHours(1));
-        
-        List<WaitlistEntry> entries = Arrays.asList(entry1, entry2);
-        
-        when(waitlistRepository.countBySessionId(sessionId)).thenReturn(2L);
-        when(waitlistRepository.findBySessionIdOrderByRequestTimeAsc(sessionId))
-                .thenReturn(entries);
+        LocalDateTime oldest = LocalDateTime.now().minusHours(2);
+        LocalDateTime newest = LocalDateTime.now().minusHours(1);
+        WaitlistRepository.WaitlistStats counters = counters(2, 1, oldest, newest);
+        when(waitlistRepository.aggregateBySessionId(sessionId)).thenReturn(counters);
 
         // Act
         Map<String, Object> stats = waitlistService.getWaitlistStats(sessionId);
@@ -281,14 +268,44 @@ class WaitlistServiceImplTest {
         assertEquals(2L, stats.get("totalCount"));
         assertEquals(1L, stats.get("notifiedCount"));
         assertEquals(1L, stats.get("pendingCount"));
-        assertEquals(entry1.getRequestTime(), stats.get("oldestRequest"));
-        assertEquals(entry2.getRequestTime(), stats.get("newestRequest"));
+        assertEquals(oldest, stats.get("oldestRequest"));
+        assertEquals(newest, stats.get("newestRequest"));
+        verify(waitlistRepository, never()).findBySessionIdOrderByRequestTimeAsc(any());
+    }
+
+    @Test
+    void getWaitlistStats_WithCounterCache_ShouldNotQueryTheRepository() {
+        // Arrange
+        WaitlistCounterCache cache = mock(WaitlistCounterCache.class);
+        ReflectionTestUtils.setField(waitlistService, "counterCache", cache);
+        WaitlistRepository.WaitlistStats counters = counters(3, 0, LocalDateTime.now(), LocalDateTime.now());
+        when(cache.get(sessionId)).thenReturn(counters);
+
+        // Act
+        Map<String, Object> stats = waitlistService.getWaitlistStats(sessionId);
+
+        // Assert
+        assertEquals(3L, stats.get("pendingCount"));
+        verifyNoInteractions(waitlistRepository);
+    }
+
+    @Test
+    void removeFromWaitlist_ShouldPublishWaitlistChange() {
+        // Arrange
+        when(waitlistRepository.findByUserIdAndSessionId(userId, sessionId)).thenReturn(List.of(testEntry));
+
+        // Act
+        waitlistService.removeFromWaitlist(userId, sessionId);
+
+        // Assert
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof WaitlistChangedEvent
+                && ((WaitlistChangedEvent) event).getSessionId().equals(sessionId)));
     }
 
     @Test
     void getUserWaitlistSessions_NoEntries_ReturnsEmptyList() {
         // Arrange
-        when(waitlistRepository.findByUserIdAndNotificationSentFalse(userId))
+        when(waitlistRepository.findPendingWithPositionByUserId(userId))
                 .thenReturn(Collections.emptyList());
 
         // Act
@@ -301,12 +318,19 @@ class WaitlistServiceImplTest {
     @Test
     void getUserWaitlistSessions_WithEntries_ReturnsFormattedList() {
         // Arrange
-        when(waitlistRepository.findByUserIdAndNotificationSentFalse(userId))
-                .thenReturn(Collections.singletonList(testEntry));
-        when(gymSessionRepository.findById(sessionId))
-                .thenReturn(Optional.of(testSession));
-        when(waitlistRepository.findBySessionIdOrderByRequestTimeAsc(sessionId))
-                .thenReturn(Collections.singletonList(testEntry));
+        WaitlistRepository.UserWaitlistRow row = mock(WaitlistRepository.UserWaitlistRow.class);
+        when(row.getEntryId()).thenReturn(testEntry.getId());
+        when(row.getSessionId()).thenReturn(sessionId);
+        when(row.getRequestTime()).thenReturn(testEntry.getRequestTime());
+        when(row.getPosition()).thenReturn(1L);
+        when(row.getFoundSessionId()).thenReturn(sessionId);
+        when(row.getSessionDate()).thenReturn(testSession.getSessionDate());
+        when(row.getStartTime()).thenReturn(testSession.getStartTime());
+        when(row.getEndTime()).thenReturn(testSession.getEndTime());
+        when(row.getCapacity()).thenReturn(testSession.getCapacity());
+        when(row.getReservedSpots()).thenReturn(testSession.getReservedSpots());
+        when(waitlistRepository.findPendingWithPositionByUserId(userId))
+                .thenReturn(Collections.singletonList(row));
 
         // Act
         List<Map<String, Object>> result = waitlistService.getUserWaitlistSessions(userId);
@@ -326,5 +350,33 @@ class WaitlistServiceImplTest {
         assertEquals(testSession.getEndTime(), sessionMap.get("endTime"));
         assertEquals(testSession.getCapacity(), sessionMap.get("capacity"));
         assertEquals(testSession.getReservedSpots(), sessionMap.get("reservedSpots"));
+        verify(gymSessionRepository, never()).findById(any());
+    }
+
+    @Test
+    void getUserWaitlistSessions_SessionRemoved_OmitsSessionDetails() {
+        // Arrange
+        WaitlistRepository.UserWaitlistRow row = mock(WaitlistRepository.UserWaitlistRow.class);
+        when(row.getEntryId()).thenReturn(testEntry.getId());
+        when(row.getPosition()).thenReturn(3L);
+        when(waitlistRepository.findPendingWithPositionByUserId(userId))
+                .thenReturn(Collections.singletonList(row));
+
+        // Act
+        List<Map<String, Object>> result = waitlistService.getUserWaitlistSessions(userId);
+
+        // Assert
+        assertEquals(3, result.get(0).get("position"));
+        assertFalse(result.get(0).containsKey("session"));
+    }
+
+    private static WaitlistRepository.WaitlistStats counters(long total, long notified,
+                                                             LocalDateTime oldest, LocalDateTime newest) {
+        WaitlistRepository.WaitlistStats counters = mock(WaitlistRepository.WaitlistStats.class);
+        when(counters.getTotal()).thenReturn(total);
+        when(counters.getNotified()).thenReturn(notified);
+        when(counters.getOldestRequest()).thenReturn(oldest);
+        when(counters.getNewestRequest()).thenReturn(newest);
+        return counters;
     }
-}
\ No newline at end of file
+}
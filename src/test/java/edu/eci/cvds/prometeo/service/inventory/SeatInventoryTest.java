@@ -0,0 +1,164 @@
+package edu.eci.cvds.prometeo.service.inventory;
+
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatInventoryTest {
+
+    @Mock
+    private GymSessionRepository gymSessionRepository;
+
+    private SeatInventory inventory;
+    private GymSession session;
+
+    @BeforeEach
+    void setUp() {
+        inventory = new SeatInventory(gymSessionRepository, 14);
+
+        session = new GymSession();
+        session.setId(UUID.randomUUID());
+        session.setSessionDate(LocalDate.now().plusDays(1));
+        session.setStartTime(LocalTime.of(10, 0));
+        session.setEndTime(LocalTime.of(11, 0));
+        session.setCapacity(3);
+        session.setReservedSpots(0);
+    }
+
+    @Test
+    void tryAcquire_WhenUntracked_ShouldAdmit() {
+        assertTrue(inventory.tryAcquire(UUID.randomUUID()));
+    }
+
+    @Test
+    void tryAcquire_ShouldRejectOnceCapacityIsReached() {
+        inventory.track(session);
+
+        assertTrue(inventory.tryAcquire(session.getId()));
+        assertTrue(inventory.tryAcquire(session.getId()));
+        assertTrue(inventory.tryAcquire(session.getId()));
+        assertFalse(inventory.tryAcquire(session.getId()));
+        assertEquals(0, inventory.availableSpots(session.getId()).getAsInt());
+
+        inventory.release(session.getId());
+        assertEquals(1, inventory.availableSpots(session.getId()).getAsInt());
+        assertTrue(inventory.tryAcquire(session.getId()));
+    }
+
+    @Test
+    void track_ShouldIgnoreSessionsOutsideTheHorizon() {
+        session.setSessionDate(LocalDate.now().minusDays(1));
+        inventory.track(session);
+        assertFalse(inventory.isTracked(session.getId()));
+
+        session.setSessionDate(LocalDate.now().plusDays(30));
+        inventory.track(session);
+        assertFalse(inventory.isTracked(session.getId()));
+    }
+
+    @Test
+    void updateCapacity_ShouldOpenNewSeats() {
+        session.setReservedSpots(3);
+        inventory.track(session);
+        assertFalse(inventory.tryAcquire(session.getId()));
+
+        inventory.updateCapacity(session.getId(), 5);
+
+        assertEquals(2, inventory.availableSpots(session.getId()).getAsInt());
+    }
+
+    @Test
+    void recordClaimed_ShouldTakeSeatsClaimedInBulk() {
+        inventory.track(session);
+
+        inventory.recordClaimed(session.getId(), 2);
+
+        assertEquals(1, inventory.availableSpots(session.getId()).getAsInt());
+        assertTrue(inventory.tryAcquire(session.getId()));
+        assertFalse(inventory.tryAcquire(session.getId()));
+    }
+
+    @Test
+    void recordClaimed_WhenClampedAndRolledBack_ShouldOnlyGiveBackWhatWasAdded() {
+        session.setReservedSpots(2);
+        inventory.track(session);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            inventory.recordClaimed(session.getId(), 3);
+            assertEquals(0, inventory.availableSpots(session.getId()).getAsInt());
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, inventory.availableSpots(session.getId()).getAsInt());
+    }
+
+    @Test
+    void rebuild_ShouldSeedFromReservedSpotsIncludingHeldSeats() {
+        // Dos reservas confirmadas y un cupo retenido para la lista de espera
+        session.setReservedSpots(3);
+        when(gymSessionRepository.findBySessionDateBetween(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of(session));
+
+        inventory.rebuild();
+
+        assertTrue(inventory.isTracked(session.getId()));
+        assertEquals(0, inventory.availableSpots(session.getId()).getAsInt());
+        assertFalse(inventory.tryAcquire(session.getId()));
+    }
+
+    @Test
+    void tryAcquire_WithConcurrentCallers_ShouldNeverExceedCapacity() throws Exception {
+        session.setCapacity(50);
+        inventory.track(session);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return inventory.tryAcquire(session.getId());
+            }));
+        }
+        start.countDown();
+
+        int admitted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(10, TimeUnit.SECONDS)) {
+                admitted++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(50, admitted);
+        assertEquals(0, inventory.availableSpots(session.getId()).getAsInt());
+    }
+}
@@ -0,0 +1,252 @@
+package edu.eci.cvds.prometeo.service.notification;
+
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.model.Notification;
+import edu.eci.cvds.prometeo.model.Reservation;
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.NotificationRepository;
+import edu.eci.cvds.prometeo.repository.ReservationRepository;
+import edu.eci.cvds.prometeo.service.NotificationService;
+import edu.eci.cvds.prometeo.service.impl.NotificationServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+/**
+ * Outbox delivery against the in-memory database. Runs without a test transaction because
+ * the dispatcher leases and records deliveries in transactions of its own.
+ */
+@DataJpaTest(properties = {
+        "prometeo.notification-outbox.batch-size=50",
+        "prometeo.notification-outbox.max-attempts=3",
+        "prometeo.notification-outbox.initial-backoff-seconds=5"
+})
+@Import({NotificationServiceImpl.class, NotificationDispatcher.class, NotificationDispatcherTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationDispatcherTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private GymSessionRepository gymSessionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private NotificationChannel channel;
+
+    // Un segundo adelantado para que las notificaciones encoladas en la prueba ya estén vencidas
+    private final MovableClock clock = new MovableClock(Instant.now().plusSeconds(1));
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        dispatcher.useClock(clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAll();
+        reservationRepository.deleteAll();
+        gymSessionRepository.deleteAll();
+    }
+
+    @Test
+    void sendNotification_InRolledBackTransaction_ShouldNotBeQueued() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            notificationService.sendNotification(userId, "Title", "Message", "GENERAL", Optional.empty());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, notificationRepository.count());
+        assertEquals(0, dispatcher.dispatchBatch());
+    }
+
+    @Test
+    void dispatchBatch_ShouldDeliverWithSessionDetailsAndMarkSent() throws Exception {
+        Reservation reservation = reservation(LocalDate.of(2030, 3, 10), LocalTime.of(7, 0));
+        notificationService.sendReservationConfirmation(userId, reservation.getId());
+        double deliveredBefore = meterRegistry.get("prometeo.notifications.delivered").counter().count();
+
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        verify(channel).deliver(any(Notification.class), contains("Fecha: 10/03/2030, Horario: 07:00 - 08:00"));
+        Notification sent = notificationRepository.findAll().get(0);
+        assertTrue(sent.isSent());
+        assertEquals(1, sent.getDeliveryAttempts());
+        assertEquals(0, dispatcher.dispatchBatch());
+        assertEquals(deliveredBefore + 1, meterRegistry.get("prometeo.notifications.delivered").counter().count());
+    }
+
+    @Test
+    void dispatchBatch_WhenRelatedEntityIsGone_ShouldDeliverTheStoredMessage() throws Exception {
+        notificationService.sendSpotAvailableNotification(userId, UUID.randomUUID());
+
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        verify(channel).deliver(any(Notification.class), eq("Se liberó un cupo en una sesión de tu lista de espera"));
+    }
+
+    @Test
+    void dispatchBatch_WhenChannelFails_ShouldRetryAfterBackoff() throws Exception {
+        doThrow(new IllegalStateException("smtp down")).doNothing()
+                .when(channel).deliver(any(Notification.class), anyString());
+        notificationService.sendNotification(userId, "Title", "Message", "GENERAL", Optional.empty());
+
+        assertEquals(1, dispatcher.dispatchBatch());
+        Notification failed = notificationRepository.findAll().get(0);
+        assertFalse(failed.isSent());
+        assertEquals(1, failed.getDeliveryAttempts());
+        assertEquals("smtp down", failed.getLastError());
+
+        // Aún en espera del primer reintento
+        clock.advance(Duration.ofSeconds(4));
+        assertEquals(0, dispatcher.dispatchBatch());
+
+        clock.advance(Duration.ofSeconds(2));
+        assertEquals(1, dispatcher.dispatchBatch());
+        Notification delivered = notificationRepository.findAll().get(0);
+        assertTrue(delivered.isSent());
+        assertEquals(2, delivered.getDeliveryAttempts());
+        assertNull(delivered.getLastError());
+    }
+
+    @Test
+    void dispatchBatch_AfterMaxAttempts_ShouldStopRetrying() throws Exception {
+        doThrow(new IllegalStateException("unreachable")).when(channel).deliver(any(Notification.class), anyString());
+        notificationService.sendNotification(userId, "Title", "Message", "GENERAL", Optional.empty());
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            assertEquals(1, dispatcher.dispatchBatch());
+            clock.advance(Duration.ofHours(1));
+        }
+        assertEquals(0, dispatcher.dispatchBatch());
+
+        dispatcher.refreshQueueDepth();
+        assertEquals(0, dispatcher.pendingCount());
+        assertEquals(1, dispatcher.deadCount());
+        assertEquals(1.0, meterRegistry.get("prometeo.notifications.outbox.dead").gauge().value());
+        verify(channel, times(3)).deliver(any(Notification.class), anyString());
+    }
+
+    @Test
+    void poll_ShouldDrainTheQueueInBatches() throws Exception {
+        for (int i = 0; i < 120; i++) {
+            notificationService.sendNotification(userId, "Title " + i, "Message", "GENERAL", Optional.empty());
+        }
+        dispatcher.refreshQueueDepth();
+        assertEquals(120.0, meterRegistry.get("prometeo.notifications.outbox.pending").gauge().value());
+
+        // Encolar 120 filas puede tardar más que el adelanto inicial del reloj
+        clock.advance(Duration.ofMinutes(1));
+        dispatcher.poll();
+
+        verify(channel, times(120)).deliver(any(Notification.class), anyString());
+        assertEquals(0, dispatcher.pendingCount());
+        assertEquals(0, notificationRepository.countBySentTimeIsNullAndDeliveryAttemptsLessThan(3));
+    }
+
+    @Test
+    void backoff_ShouldDoubleUpToTheCap() {
+        assertEquals(Duration.ofSeconds(5), dispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(10), dispatcher.backoff(2));
+        assertEquals(Duration.ofSeconds(40), dispatcher.backoff(4));
+        assertEquals(Duration.ofHours(1), dispatcher.backoff(40));
+    }
+
+    private Reservation reservation(LocalDate date, LocalTime start) {
+        GymSession session = new GymSession();
+        session.setSessionDate(date);
+        session.setStartTime(start);
+        session.setEndTime(start.plusHours(1));
+        session.setCapacity(10);
+        session.setReservedSpots(1);
+        session = gymSessionRepository.save(session);
+
+        Reservation reservation = new Reservation();
+        reservation.setUserId(userId);
+        reservation.setSessionId(session.getId());
+        reservation.setReservationDate(LocalDateTime.now());
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+        return reservationRepository.save(reservation);
+    }
+
+    private static final class MovableClock extends Clock {
+        private Instant now;
+
+        private MovableClock(Instant start) {
+            this.now = start;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package edu.eci.cvds.prometeo.service.notification;
+
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.model.Notification;
+import edu.eci.cvds.prometeo.model.Reservation;
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.NotificationRepository;
+import edu.eci.cvds.prometeo.repository.ReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reminder scans against the in-memory database, driven with a movable clock. Runs without
+ * a test transaction because reminders are queued in transactions of their own; each test
+ * gets a new scheduler, as the scanned windows are kept in memory.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SessionReminderSchedulerTest {
+
+    @Autowired
+    private GymSessionRepository gymSessionRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private final MovableClock clock = new MovableClock(LocalDateTime.of(2030, 3, 10, 8, 0));
+    private SessionReminderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = newScheduler();
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAll();
+        reservationRepository.deleteAll();
+        gymSessionRepository.deleteAll();
+    }
+
+    @Test
+    void scan_ShouldRemindConfirmedReservationsOncePerLeadWindow() {
+        GymSession soon = session(clock.now().plusMinutes(30));
+        GymSession today = session(clock.now().plusHours(5));
+        GymSession later = session(clock.now().plusHours(30));
+        Reservation soonReservation = reservation(soon, ReservationStatus.CONFIRMED);
+        reservation(soon, ReservationStatus.CANCELLED);
+        Reservation todayReservation = reservation(today, ReservationStatus.CONFIRMED);
+        reservation(later, ReservationStatus.CONFIRMED);
+
+        assertEquals(2, scheduler.scan());
+
+        assertEquals("REMINDER:" + soonReservation.getId() + ":60", reminderFor(soonReservation).get(0).getDeduplicationKey());
+        Notification reminder = reminderFor(todayReservation).get(0);
+        assertEquals("REMINDER:" + todayReservation.getId() + ":1440", reminder.getDeduplicationKey());
+        assertEquals(NotificationMessages.SESSION_REMINDER, reminder.getType());
+        assertEquals(todayReservation.getUserId(), reminder.getUserId());
+        assertEquals(clock.now(), reminder.getNextAttemptAt());
+        assertFalse(reminder.isSent());
+    }
+
+    @Test
+    void scan_AsTimePasses_ShouldRemindSessionsEnteringEachWindow() {
+        GymSession today = session(clock.now().plusHours(5));
+        GymSession later = session(clock.now().plusHours(30));
+        Reservation todayReservation = reservation(today, ReservationStatus.CONFIRMED);
+        Reservation laterReservation = reservation(later, ReservationStatus.CONFIRMED);
+        assertEquals(1, scheduler.scan());
+
+        // La sesión de hoy entra en la ventana de una hora; la otra aún está a más de 24 horas
+        clock.advance(Duration.ofMinutes(270));
+        assertEquals(1, scheduler.scan());
+        assertEquals(2, reminderFor(todayReservation).size());
+
+        clock.advance(Duration.ofHours(2));
+        assertEquals(1, scheduler.scan());
+        assertEquals(1, reminderFor(laterReservation).size());
+        assertEquals(0, scheduler.scan());
+    }
+
+    @Test
+    void scan_AfterRestart_ShouldNotQueueRemindersTwice() {
+        reservation(session(clock.now().plusMinutes(45)), ReservationStatus.CONFIRMED);
+        reservation(session(clock.now().plusHours(3)), ReservationStatus.CONFIRMED);
+        assertEquals(2, scheduler.scan());
+
+        // Otra instancia (reinicio u otro nodo) vuelve a revisar las ventanas completas
+        assertEquals(0, newScheduler().scan());
+        assertEquals(2, notificationRepository.count());
+    }
+
+    @Test
+    void scan_ShouldCoverSessionsAfterMidnight() {
+        clock.set(LocalDateTime.of(2030, 3, 10, 23, 30));
+        reservation(session(LocalDateTime.of(2030, 3, 11, 0, 15)), ReservationStatus.CONFIRMED);
+        reservation(session(LocalDateTime.of(2030, 3, 11, 23, 0)), ReservationStatus.CONFIRMED);
+        reservation(session(LocalDateTime.of(2030, 3, 11, 23, 45)), ReservationStatus.CONFIRMED);
+
+        assertEquals(2, scheduler.scan());
+    }
+
+    @Test
+    void scan_WithManyReservations_ShouldQueueThemInBatches() {
+        GymSession first = session(clock.now().plusHours(2));
+        GymSession second = session(clock.now().plusHours(3));
+        GymSession third = session(clock.now().plusHours(4));
+        for (int i = 0; i < 60; i++) {
+            reservation(first, ReservationStatus.CONFIRMED);
+            reservation(second, ReservationStatus.CONFIRMED);
+        }
+        reservation(third, ReservationStatus.CONFIRMED);
+
+        assertEquals(121, scheduler.scan());
+        assertEquals(121, notificationRepository.count());
+        assertEquals(0, scheduler.scan());
+    }
+
+    private SessionReminderScheduler newScheduler() {
+        SessionReminderScheduler reminders = new SessionReminderScheduler(gymSessionRepository, reservationRepository,
+                notificationRepository, transactionManager, applicationContext, applicationContext.getBeanProvider(MeterRegistry.class),
+                new int[]{1440, 60}, 50, 2);
+        reminders.useClock(clock);
+        return reminders;
+    }
+
+    private List<Notification> reminderFor(Reservation reservation) {
+        return notificationRepository.findAll().stream()
+                .filter(notification -> reservation.getId().equals(notification.getRelatedEntityId()))
+                .toList();
+    }
+
+    private GymSession session(LocalDateTime start) {
+        GymSession session = new GymSession();
+        session.setSessionDate(start.toLocalDate());
+        session.setStartTime(start.toLocalTime());
+        session.setEndTime(start.toLocalTime().plusMinutes(59));
+        session.setCapacity(200);
+        session.setReservedSpots(0);
+        return gymSessionRepository.save(session);
+    }
+
+    private Reservation reservation(GymSession session, ReservationStatus status) {
+        Reservation reservation = new Reservation();
+        reservation.setUserId(UUID.randomUUID());
+        reservation.setSessionId(session.getId());
+        reservation.setReservationDate(LocalDateTime.of(session.getSessionDate(), session.getStartTime()));
+        reservation.setStatus(status);
+        return reservationRepository.save(reservation);
+    }
+
+    private static final class MovableClock extends Clock {
+        private Instant now;
+
+        private MovableClock(LocalDateTime start) {
+            set(start);
+        }
+
+        void set(LocalDateTime time) {
+            now = time.toInstant(ZoneOffset.UTC);
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        LocalDateTime now() {
+            return LocalDateTime.ofInstant(now, ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package edu.eci.cvds.prometeo.service.notification;
+
+import edu.eci.cvds.prometeo.event.NotificationsChangedEvent;
+import edu.eci.cvds.prometeo.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UnreadCounterCacheTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    private UnreadCounterCache cache;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UnreadCounterCache(notificationRepository, 60);
+        userId = UUID.randomUUID();
+        when(notificationRepository.countByUserIdAndReadFalseAndDeletedAtIsNull(userId)).thenReturn(3L);
+    }
+
+    @Test
+    void get_ShouldCountOncePerUser() {
+        assertEquals(3, cache.get(userId));
+        assertEquals(3, cache.get(userId));
+
+        verify(notificationRepository, times(1)).countByUserIdAndReadFalseAndDeletedAtIsNull(userId);
+    }
+
+    @Test
+    void onNotificationsChanged_ShouldReloadOnNextRead() {
+        cache.get(userId);
+
+        cache.onNotificationsChanged(new NotificationsChangedEvent(List.of(userId, UUID.randomUUID())));
+        cache.get(userId);
+
+        verify(notificationRepository, times(2)).countByUserIdAndReadFalseAndDeletedAtIsNull(userId);
+    }
+
+    @Test
+    void onNotificationsChanged_OtherUser_ShouldKeepCount() {
+        cache.get(userId);
+
+        cache.onNotificationsChanged(new NotificationsChangedEvent(List.of(UUID.randomUUID())));
+        cache.get(userId);
+
+        verify(notificationRepository, times(1)).countByUserIdAndReadFalseAndDeletedAtIsNull(userId);
+    }
+
+    @Test
+    void get_WithZeroTtl_ShouldAlwaysReload() {
+        UnreadCounterCache uncached = new UnreadCounterCache(notificationRepository, 0);
+
+        uncached.get(userId);
+        uncached.get(userId);
+
+        verify(notificationRepository, times(2)).countByUserIdAndReadFalseAndDeletedAtIsNull(userId);
+    }
+}
@@ -0,0 +1,75 @@
+package edu.eci.cvds.prometeo.service.paging;
+
+import edu.eci.cvds.prometeo.PrometeoExceptions;
+import edu.eci.cvds.prometeo.dto.CursorPageDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodeAndDecode_ShouldRoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 4, 1, 10, 15, 30, 123456000);
+        UUID id = UUID.randomUUID();
+
+        KeysetCursor decoded = KeysetCursor.decode(KeysetCursor.of(createdAt, id).encode());
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals(id, decoded.getId());
+    }
+
+    @Test
+    void decode_ShouldReturnNullForFirstPage() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(" "));
+    }
+
+    @Test
+    void decode_ShouldRejectMalformedTokens() {
+        for (String token : List.of("not base64!", "bm8tc2VwYXJhdG9y", "MjAyNS0wNC0wMXxub3QtYS11dWlk")) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(token));
+            assertEquals(PrometeoExceptions.CURSOR_NO_VALIDO, e.getMessage());
+        }
+    }
+
+    @Test
+    void pageSize_ShouldDefaultAndCap() {
+        assertEquals(KeysetCursor.DEFAULT_LIMIT, KeysetCursor.pageSize(null));
+        assertEquals(KeysetCursor.DEFAULT_LIMIT, KeysetCursor.pageSize(0));
+        assertEquals(20, KeysetCursor.pageSize(20));
+        assertEquals(KeysetCursor.MAX_LIMIT, KeysetCursor.pageSize(100_000));
+    }
+
+    @Test
+    void page_ShouldDropTheExtraRowAndPointAtTheLastReturnedRow() {
+        LocalDateTime base = LocalDateTime.of(2025, 4, 1, 8, 0);
+        List<Integer> rows = List.of(1, 2, 3, 4);
+        UUID lastId = UUID.randomUUID();
+
+        CursorPageDTO<String> page = KeysetCursor.page(rows, 3,
+                row -> KeysetCursor.of(base.plusMinutes(row), row == 3 ? lastId : UUID.randomUUID()),
+                window -> window.stream().map(String::valueOf).collect(Collectors.toList()));
+
+        assertEquals(List.of("1", "2", "3"), page.getItems());
+        assertTrue(page.isHasMore());
+        KeysetCursor next = KeysetCursor.decode(page.getNextCursor());
+        assertEquals(base.plusMinutes(3), next.getCreatedAt());
+        assertEquals(lastId, next.getId());
+    }
+
+    @Test
+    void page_ShouldHaveNoCursorOnTheLastPage() {
+        CursorPageDTO<Integer> page = KeysetCursor.page(List.of(1, 2), 3,
+                row -> KeysetCursor.of(LocalDateTime.now(), UUID.randomUUID()), window -> window);
+
+        assertEquals(2, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+}
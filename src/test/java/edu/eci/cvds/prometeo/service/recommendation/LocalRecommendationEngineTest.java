@@ -0,0 +1,170 @@
+package edu.eci.cvds.prometeo.service.recommendation;
+
+import edu.eci.cvds.prometeo.model.Routine;
+import edu.eci.cvds.prometeo.repository.PhysicalProgressRepository;
+import edu.eci.cvds.prometeo.repository.RoutineRepository;
+import edu.eci.cvds.prometeo.repository.UserRoutineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LocalRecommendationEngineTest {
+    private static final Logger logger = LoggerFactory.getLogger(LocalRecommendationEngineTest.class);
+
+    @Mock
+    private RoutineRepository routineRepository;
+
+    @Mock
+    private PhysicalProgressRepository physicalProgressRepository;
+
+    @Mock
+    private UserRoutineRepository userRoutineRepository;
+
+    @Mock
+    private ObjectProvider<RoutineIndex> routineIndexProvider;
+
+    private LocalRecommendationEngine engine;
+    private RoutineIndex index;
+    private List<Routine> catalog;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new ArrayList<>();
+        when(routineRepository.findAll()).thenReturn(catalog);
+        index = new RoutineIndex(routineRepository, 30);
+        when(routineIndexProvider.getIfAvailable(any())).thenReturn(index);
+        when(physicalProgressRepository.findActiveRoutineDifficulties(any(UUID.class), any())).thenReturn(List.of());
+        when(userRoutineRepository.countAssignmentsByRoutine()).thenReturn(List.of());
+        engine = newEngine("blend", 3);
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void recommend_ShouldRankGoalMatchesFirst() {
+        Routine yoga = add("Yoga", "Flexibilidad", "Principiante");
+        Routine legs = add("Pierna", "Ganar músculo", "Principiante");
+        add("Caminata", "Resistencia", "Principiante");
+        add("Core", "Estabilidad", "Principiante");
+
+        List<UUID> ids = engine.recommend(userId, List.of("ganar musculo"), "v1");
+
+        assertEquals(3, ids.size());
+        assertEquals(legs.getId(), ids.get(0));
+        assertNotEquals(yoga.getId(), ids.get(0));
+    }
+
+    @Test
+    void recommend_ShouldPreferTheUsersLevel() {
+        Routine advanced = add("Fuerza avanzada", "Fuerza", "Avanzado");
+        Routine intermediate = add("Fuerza media", "Fuerza", "Intermedio");
+        Routine beginner = add("Fuerza inicial", "Fuerza", "Principiante");
+        when(physicalProgressRepository.findActiveRoutineDifficulties(eq(userId), any())).thenReturn(List.of("Intermedio"));
+
+        List<UUID> ids = engine.recommend(userId, List.of("fuerza"), "v1");
+
+        assertEquals(List.of(intermediate.getId(), advanced.getId(), beginner.getId()), ids);
+    }
+
+    @Test
+    void recommend_WithoutProgress_ShouldStartWithBeginnerRoutines() {
+        add("Fuerza avanzada", "Fuerza", "Avanzado");
+        Routine beginner = add("Fuerza inicial", "Fuerza", "Principiante");
+
+        assertEquals(beginner.getId(), engine.recommend(userId, List.of("fuerza"), "v1").get(0));
+    }
+
+    @Test
+    void recommend_ShouldBreakTiesByPopularity() {
+        add("Cardio A", "Resistencia", "Principiante");
+        Routine popular = add("Cardio B", "Resistencia", "Principiante");
+        UserRoutineRepository.RoutineAssignments assignments = mock(UserRoutineRepository.RoutineAssignments.class);
+        when(assignments.getRoutineId()).thenReturn(popular.getId());
+        when(assignments.getAssignments()).thenReturn(12L);
+        when(userRoutineRepository.countAssignmentsByRoutine()).thenReturn(List.of(assignments));
+
+        assertEquals(popular.getId(), engine.recommend(userId, List.of("cardio"), "v1").get(0));
+    }
+
+    @Test
+    void blend_ShouldRaiseRoutinesBothAgreeOn() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        UUID d = UUID.randomUUID();
+
+        List<UUID> blended = engine.blend(List.of(a, b), List.of(c, b, d));
+
+        assertEquals(3, blended.size());
+        assertEquals(b, blended.get(0));
+        assertEquals(List.of(c, b), engine.blend(List.of(), List.of(c, b)));
+    }
+
+    @Test
+    void difficultyRank_ShouldReadFreeText() {
+        assertEquals(LocalRecommendationEngine.BEGINNER, engine.difficultyRank("Principiante"));
+        assertEquals(LocalRecommendationEngine.INTERMEDIATE, engine.difficultyRank("nivel intermedio"));
+        assertEquals(LocalRecommendationEngine.ADVANCED, engine.difficultyRank("AVANZADO"));
+        assertEquals(LocalRecommendationEngine.UNKNOWN, engine.difficultyRank("libre"));
+        assertEquals(LocalRecommendationEngine.UNKNOWN, engine.difficultyRank(null));
+    }
+
+    @Test
+    void rank_ShouldTakeUnderAMillisecondOnAWarmCatalog() {
+        String[] goals = {"Fuerza", "Resistencia", "Flexibilidad", "Perder peso", "Ganar músculo"};
+        String[] levels = {"Principiante", "Intermedio", "Avanzado"};
+        for (int i = 0; i < 500; i++) {
+            add("Rutina " + i, goals[i % goals.length], levels[i % levels.length]);
+        }
+        LocalRecommendationEngine wide = newEngine("blend", 10);
+        List<String> userGoals = List.of("ganar músculo y fuerza");
+        for (int i = 0; i < 2_000; i++) {
+            wide.rank(index.match(userGoals, "v1"), LocalRecommendationEngine.INTERMEDIATE);
+        }
+
+        // Solo el ranking en memoria; el nivel del usuario es una consulta aparte
+        int runs = 2_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            wide.rank(index.match(userGoals, "v1"), LocalRecommendationEngine.INTERMEDIATE);
+        }
+        long averageNanos = (System.nanoTime() - start) / runs;
+
+        logger.info("Local ranking over {} routines: {} us per request", catalog.size(), averageNanos / 1_000);
+        assertTrue(averageNanos < 1_000_000);
+    }
+
+    private LocalRecommendationEngine newEngine(String mode, int limit) {
+        return new LocalRecommendationEngine(routineRepository, physicalProgressRepository, userRoutineRepository,
+                routineIndexProvider, mode, 100, limit, 10);
+    }
+
+    private Routine add(String name, String goal, String difficulty) {
+        Routine routine = new Routine();
+        routine.setId(UUID.randomUUID());
+        routine.setName(name);
+        routine.setGoal(goal);
+        routine.setDifficulty(difficulty);
+        routine.setDescription(goal + " " + difficulty);
+        catalog.add(routine);
+        return routine;
+    }
+}
@@ -0,0 +1,132 @@
+package edu.eci.cvds.prometeo.service.recommendation;
+
+import edu.eci.cvds.prometeo.repository.RoutineRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecommendationCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private RecommendationCache cache;
+    private MovableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = newCache(2, 60);
+        clock = new MovableClock();
+        cache.useClock(clock);
+    }
+
+    @Test
+    void key_ShouldIgnoreCaseAccentsPunctuationOrderAndDuplicates() {
+        String key = RecommendationCache.key(List.of("Perder peso", "Ganar músculo"), "v1");
+
+        assertEquals(key, RecommendationCache.key(List.of("  ganar   MUSCULO!", "perder peso", "Perder peso."), "v1"));
+        assertNotEquals(key, RecommendationCache.key(List.of("Perder peso"), "v1"));
+        assertNotEquals(key, RecommendationCache.key(List.of("Perder peso", "Ganar músculo"), "v2"));
+    }
+
+    @Test
+    void catalogVersion_ShouldChangeWithTheCatalog() {
+        LocalDateTime time = LocalDateTime.of(2025, 5, 1, 10, 0);
+
+        assertNotEquals(RecommendationCache.catalogVersion(version(3, time, time)),
+                RecommendationCache.catalogVersion(version(3, time, time.plusSeconds(1))));
+        assertNotEquals(RecommendationCache.catalogVersion(version(3, time, time)),
+                RecommendationCache.catalogVersion(version(2, time, time)));
+        assertEquals("", RecommendationCache.catalogVersion(null));
+    }
+
+    @Test
+    void get_ShouldCountHitsAndMisses() {
+        List<UUID> ids = List.of(UUID.randomUUID());
+
+        assertTrue(cache.get("a").isEmpty());
+        cache.put("a", ids);
+
+        assertEquals(ids, cache.get("a").orElseThrow());
+        assertEquals(1, registry.counter("prometeo.recommendations.cache.requests", "result", "hit").count());
+        assertEquals(1, registry.counter("prometeo.recommendations.cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    void put_BeyondTheLimit_ShouldEvictTheLeastRecentlyUsed() {
+        cache.put("a", List.of(UUID.randomUUID()));
+        cache.put("b", List.of(UUID.randomUUID()));
+        cache.get("a");
+
+        cache.put("c", List.of(UUID.randomUUID()));
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.get("a").isPresent());
+        assertTrue(cache.get("b").isEmpty());
+        assertTrue(cache.get("c").isPresent());
+        assertEquals(1, registry.counter("prometeo.recommendations.cache.evictions").count());
+        assertEquals(2, registry.get("prometeo.recommendations.cache.size").gauge().value());
+    }
+
+    @Test
+    void get_AfterTheTtl_ShouldMiss() {
+        cache.put("a", List.of(UUID.randomUUID()));
+
+        clock.advance(Duration.ofMinutes(61));
+
+        assertTrue(cache.get("a").isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private RecommendationCache newCache(int maxEntries, long ttlMinutes) {
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(registry);
+        return new RecommendationCache(provider, maxEntries, ttlMinutes);
+    }
+
+    private static RoutineRepository.CatalogVersion version(long routines, LocalDateTime created, LocalDateTime updated) {
+        RoutineRepository.CatalogVersion version = mock(RoutineRepository.CatalogVersion.class);
+        when(version.getRoutines()).thenReturn(routines);
+        when(version.getLastCreated()).thenReturn(created);
+        when(version.getLastUpdated()).thenReturn(updated);
+        return version;
+    }
+
+    private static final class MovableClock extends Clock {
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
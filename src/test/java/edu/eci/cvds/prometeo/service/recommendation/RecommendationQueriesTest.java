@@ -0,0 +1,74 @@
+package edu.eci.cvds.prometeo.service.recommendation;
+
+import edu.eci.cvds.prometeo.model.Routine;
+import edu.eci.cvds.prometeo.model.UserRoutine;
+import edu.eci.cvds.prometeo.repository.RoutineRepository;
+import edu.eci.cvds.prometeo.repository.UserRoutineRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Catalog version and popularity queries used by the recommendation engine. The user level
+ * query is only parsed here: the physical_progress table cannot be created on H2.
+ */
+@DataJpaTest
+class RecommendationQueriesTest {
+
+    @Autowired
+    private RoutineRepository routineRepository;
+
+    @Autowired
+    private UserRoutineRepository userRoutineRepository;
+
+    @Test
+    void findCatalogVersion_ShouldChangeWhenARoutineIsAdded() {
+        String before = RecommendationCache.catalogVersion(routineRepository.findCatalogVersion());
+
+        routine("Cardio", "Principiante");
+
+        String after = RecommendationCache.catalogVersion(routineRepository.findCatalogVersion());
+        assertNotEquals(before, after);
+        assertEquals(routineRepository.count(), routineRepository.findCatalogVersion().getRoutines());
+    }
+
+    @Test
+    void countAssignmentsByRoutine_ShouldGroupByRoutine() {
+        Routine popular = routine("Popular", "Intermedio");
+        Routine other = routine("Otra", "Intermedio");
+        assign(popular);
+        assign(popular);
+        assign(other);
+
+        Map<UUID, Long> counts = userRoutineRepository.countAssignmentsByRoutine().stream()
+                .collect(Collectors.toMap(UserRoutineRepository.RoutineAssignments::getRoutineId,
+                        UserRoutineRepository.RoutineAssignments::getAssignments));
+
+        assertEquals(2L, counts.get(popular.getId()));
+        assertEquals(1L, counts.get(other.getId()));
+    }
+
+    private Routine routine(String name, String difficulty) {
+        Routine routine = new Routine();
+        routine.setName(name);
+        routine.setDifficulty(difficulty);
+        routine.setCreationDate(LocalDate.now());
+        return routineRepository.saveAndFlush(routine);
+    }
+
+    private void assign(Routine routine) {
+        UserRoutine assignment = new UserRoutine();
+        assignment.setUserId(UUID.randomUUID());
+        assignment.setRoutineId(routine.getId());
+        assignment.setAssignmentDate(LocalDate.now());
+        assignment.setActive(true);
+        userRoutineRepository.saveAndFlush(assignment);
+    }
+}
@@ -0,0 +1,124 @@
+package edu.eci.cvds.prometeo.service.recommendation;
+
+import edu.eci.cvds.prometeo.event.GoalsChangedEvent;
+import edu.eci.cvds.prometeo.service.RecommendationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Debouncing and coalescing with the real executor and a short debounce window.
+ */
+class RecommendationRegeneratorTest {
+
+    private static final long DEBOUNCE_MILLIS = 100;
+
+    private RecommendationService recommendationService;
+    private SimpleMeterRegistry registry;
+    private RecommendationRegenerator regenerator;
+    private UUID userId;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        recommendationService = mock(RecommendationService.class);
+        registry = new SimpleMeterRegistry();
+        ObjectProvider<MeterRegistry> meterRegistry = mock(ObjectProvider.class);
+        when(meterRegistry.getIfAvailable(any())).thenReturn(registry);
+        regenerator = new RecommendationRegenerator(recommendationService, meterRegistry, 2, DEBOUNCE_MILLIS);
+        regenerator.start();
+        userId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        regenerator.stop();
+    }
+
+    @Test
+    void request_Burst_ShouldRegenerateOnce() throws InterruptedException {
+        regenerator.request(userId);
+        regenerator.request(userId);
+        regenerator.onGoalsChanged(new GoalsChangedEvent(userId));
+
+        verify(recommendationService, timeout(2000)).recommendRoutines(userId);
+        awaitIdle();
+        verify(recommendationService, times(1)).recommendRoutines(userId);
+        assertEquals(2, count("coalesced"));
+        assertEquals(1, count("completed"));
+    }
+
+    @Test
+    void request_ShouldReturnBeforeTheRegeneration() {
+        regenerator.request(userId);
+
+        verify(recommendationService, never()).recommendRoutines(any());
+        assertEquals(1, regenerator.pendingCount());
+    }
+
+    @Test
+    void request_WhileRunning_ShouldRunOnceMoreAfterIt() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(recommendationService.recommendRoutines(userId)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(2, TimeUnit.SECONDS);
+            return List.of();
+        }).thenReturn(List.of());
+
+        regenerator.request(userId);
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        regenerator.request(userId);
+        regenerator.request(userId);
+        release.countDown();
+
+        verify(recommendationService, timeout(2000).times(2)).recommendRoutines(userId);
+        awaitIdle();
+        verify(recommendationService, times(2)).recommendRoutines(userId);
+    }
+
+    @Test
+    void request_DifferentUsers_ShouldRegenerateEach() {
+        UUID other = UUID.randomUUID();
+
+        regenerator.request(userId);
+        regenerator.request(other);
+
+        verify(recommendationService, timeout(2000)).recommendRoutines(userId);
+        verify(recommendationService, timeout(2000)).recommendRoutines(other);
+    }
+
+    @Test
+    void request_WhenRegenerationFails_ShouldCountItAndForgetTheUser() throws InterruptedException {
+        when(recommendationService.recommendRoutines(userId)).thenThrow(new RuntimeException("model down"));
+
+        regenerator.request(userId);
+
+        awaitIdle();
+        assertEquals(1, count("failed"));
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (regenerator.pendingCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, regenerator.pendingCount());
+    }
+
+    private double count(String result) {
+        return registry.counter("prometeo.recommendations.regenerations", "result", result).count();
+    }
+}
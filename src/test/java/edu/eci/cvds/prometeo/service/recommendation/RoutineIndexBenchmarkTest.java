@@ -0,0 +1,140 @@
+package edu.eci.cvds.prometeo.service.recommendation;
+
+import edu.eci.cvds.prometeo.model.Goal;
+import edu.eci.cvds.prometeo.model.Routine;
+import edu.eci.cvds.prometeo.model.User;
+import edu.eci.cvds.prometeo.openai.OpenAiClient;
+import edu.eci.cvds.prometeo.repository.GoalRepository;
+import edu.eci.cvds.prometeo.repository.RecommendationRepository;
+import edu.eci.cvds.prometeo.repository.RoutineRepository;
+import edu.eci.cvds.prometeo.repository.UserRepository;
+import edu.eci.cvds.prometeo.service.impl.RecommendationServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Prompt size and in-process latency of {@code recommendRoutines} with the whole catalog
+ * in the prompt, as the service used to build it, and with the candidates of the routine
+ * index, at 100, 1k and 10k routines. The model answers instantly, so latency covers
+ * loading, ranking and prompt building only; the index is built on the first request of
+ * each catalog version and measured apart.
+ */
+class RoutineIndexBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(RoutineIndexBenchmarkTest.class);
+
+    private static final int CANDIDATES = 30;
+    private static final String[] GOALS = {"Perder peso", "Ganar músculo", "Resistencia", "Flexibilidad", "Fuerza"};
+    private static final String[] AREAS = {"piernas", "brazos", "espalda", "core", "glúteos", "hombros", "pecho"};
+    private static final String[] STYLES = {"cardio", "HIIT", "pesas", "yoga", "funcional", "calistenia", "pilates"};
+    private static final String[] LEVELS = {"Principiante", "Intermedio", "Avanzado"};
+
+    @Test
+    void indexedPrompt_ShouldStayBoundedAsTheCatalogGrows() {
+        long[] indexedBytes = new long[3];
+        int[] sizes = {100, 1_000, 10_000};
+        for (int i = 0; i < sizes.length; i++) {
+            List<Routine> catalog = catalog(sizes[i]);
+            // Calentamiento para que la medición no incluya carga de clases
+            run(catalog, false);
+            run(catalog, true);
+
+            Run full = run(catalog, false);
+            Run indexed = run(catalog, true);
+            indexedBytes[i] = indexed.promptBytes;
+            logger.info("{} routines: full catalog {} bytes in {} us, indexed {} bytes in {} us (index build {} us)",
+                    sizes[i], full.promptBytes, full.nanos / 1_000, indexed.promptBytes, indexed.nanos / 1_000,
+                    indexed.firstNanos / 1_000);
+
+            assertTrue(indexed.promptBytes < full.promptBytes);
+        }
+        // El prompt con índice no depende del tamaño del catálogo
+        assertTrue(indexedBytes[2] < indexedBytes[0] * 1.2);
+    }
+
+    private Run run(List<Routine> catalog, boolean useIndex) {
+        RoutineRepository routineRepository = mock(RoutineRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        GoalRepository goalRepository = mock(GoalRepository.class);
+        RecommendationRepository recommendationRepository = mock(RecommendationRepository.class);
+        OpenAiClient openAiClient = mock(OpenAiClient.class);
+
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        Goal goal = new Goal();
+        goal.setGoal("Ganar músculo en piernas y espalda");
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(goalRepository.findByUserIdAndActive(user.getId(), true)).thenReturn(List.of(goal));
+        when(routineRepository.findAll()).thenReturn(catalog);
+        when(routineRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
+        when(recommendationRepository.findByUserIdAndActive(any(UUID.class), anyBoolean())).thenReturn(List.of());
+        String answer = "{\"choices\":[{\"message\":{\"content\":\"" + catalog.get(0).getId() + "\"}}]}";
+        when(openAiClient.queryModel(anyString())).thenReturn(answer);
+
+        RecommendationServiceImpl service = new RecommendationServiceImpl();
+        ReflectionTestUtils.setField(service, "routineRepository", routineRepository);
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "goalRepository", goalRepository);
+        ReflectionTestUtils.setField(service, "recommendationRepository", recommendationRepository);
+        ReflectionTestUtils.setField(service, "openAiClient", openAiClient);
+        if (useIndex) {
+            ReflectionTestUtils.setField(service, "routineIndex", new RoutineIndex(routineRepository, CANDIDATES));
+        }
+
+        long start = System.nanoTime();
+        service.recommendRoutines(user.getId());
+        long firstNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        service.recommendRoutines(user.getId());
+        long nanos = System.nanoTime() - start;
+
+        ArgumentCaptor<String> prompt = ArgumentCaptor.forClass(String.class);
+        verify(openAiClient, times(2)).queryModel(prompt.capture());
+        return new Run(prompt.getValue().getBytes(StandardCharsets.UTF_8).length, firstNanos, nanos);
+    }
+
+    private static List<Routine> catalog(int size) {
+        Random random = new Random(size);
+        List<Routine> routines = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String area = AREAS[random.nextInt(AREAS.length)];
+            String style = STYLES[random.nextInt(STYLES.length)];
+            Routine routine = new Routine();
+            routine.setId(UUID.randomUUID());
+            routine.setName(style + " de " + area + " " + i);
+            routine.setGoal(GOALS[random.nextInt(GOALS.length)]);
+            routine.setDifficulty(LEVELS[random.nextInt(LEVELS.length)]);
+            routine.setDescription("Rutina de " + style + " enfocada en " + area + " con "
+                    + (3 + random.nextInt(5)) + " series por ejercicio y descansos cortos entre bloques");
+            routines.add(routine);
+        }
+        return routines;
+    }
+
+    private static final class Run {
+        private final long promptBytes;
+        private final long firstNanos;
+        private final long nanos;
+
+        private Run(long promptBytes, long firstNanos, long nanos) {
+            this.promptBytes = promptBytes;
+            this.firstNanos = firstNanos;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package edu.eci.cvds.prometeo.service.recommendation;
+
+import edu.eci.cvds.prometeo.model.Routine;
+import edu.eci.cvds.prometeo.repository.RoutineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoutineIndexTest {
+
+    @Mock
+    private RoutineRepository routineRepository;
+
+    private RoutineIndex index;
+    private List<Routine> catalog;
+
+    @BeforeEach
+    void setUp() {
+        index = new RoutineIndex(routineRepository, 3);
+        catalog = new ArrayList<>();
+        catalog.add(routine("Estiramientos", "Flexibilidad", "Principiante", "Movilidad de cadera y hombros"));
+        catalog.add(routine("Pierna pesada", "Ganar músculo", "Avanzado", "Sentadillas y peso muerto para piernas"));
+        catalog.add(routine("Cardio HIIT", "Perder peso", "Intermedio", "Intervalos de alta intensidad para quemar grasa"));
+        catalog.add(routine("Brazos", "Ganar músculo", "Intermedio", "Bíceps y tríceps con mancuernas"));
+        catalog.add(routine("Caminata", "Resistencia", "Principiante", "Cardio suave de bajo impacto"));
+        catalog.add(routine("Core", "Estabilidad", "Principiante", "Planchas y abdominales"));
+        lenient().when(routineRepository.findAll()).thenReturn(catalog);
+    }
+
+    @Test
+    void candidates_ShouldRankMatchingRoutinesFirst() {
+        List<Routine> candidates = index.candidates(List.of("Ganar MÚSCULO en las piernas"), "v1");
+
+        assertEquals(3, candidates.size());
+        assertEquals("Pierna pesada", candidates.get(0).getName());
+        assertEquals("Brazos", candidates.get(1).getName());
+    }
+
+    @Test
+    void candidates_ShouldMatchAcrossGoalsAndDescriptions() {
+        List<Routine> candidates = index.candidates(List.of("perder peso", "hacer cardio"), "v1");
+
+        assertEquals("Cardio HIIT", candidates.get(0).getName());
+        assertTrue(candidates.stream().anyMatch(routine -> routine.getName().equals("Caminata")));
+    }
+
+    @Test
+    void candidates_WithoutMatches_ShouldFillInCatalogOrder() {
+        List<Routine> candidates = index.candidates(List.of("natación"), "v1");
+
+        assertEquals(catalog.subList(0, 3), candidates);
+    }
+
+    @Test
+    void candidates_SmallCatalog_ShouldReturnItWhole() {
+        RoutineIndex wide = new RoutineIndex(routineRepository, 10);
+
+        assertEquals(catalog, wide.candidates(List.of("cardio"), "v1"));
+    }
+
+    @Test
+    void candidates_ShouldRebuildOnlyWhenTheCatalogChanges() {
+        index.candidates(List.of("cardio"), "v1");
+        index.candidates(List.of("fuerza"), "v1");
+        verify(routineRepository, times(1)).findAll();
+
+        catalog.add(routine("Natación", "Resistencia", "Intermedio", "Series en piscina"));
+        List<Routine> candidates = index.candidates(List.of("natación"), "v2");
+
+        verify(routineRepository, times(2)).findAll();
+        assertEquals("Natación", candidates.get(0).getName());
+    }
+
+    @Test
+    void tokens_ShouldDropStopWordsAccentsAndPlurals() {
+        assertEquals(List.of("ganar", "musculo", "pierna"), GoalTerms.tokens("Ganar músculos en las PIERNAS!"));
+        assertTrue(GoalTerms.tokens(null).isEmpty());
+    }
+
+    private static Routine routine(String name, String goal, String difficulty, String description) {
+        Routine routine = new Routine();
+        routine.setId(UUID.randomUUID());
+        routine.setName(name);
+        routine.setGoal(goal);
+        routine.setDifficulty(difficulty);
+        routine.setDescription(description);
+        return routine;
+    }
+}
@@ -0,0 +1,220 @@
+package edu.eci.cvds.prometeo.service.rollup;
+
+import edu.eci.cvds.prometeo.event.AttendanceRecordedEvent;
+import edu.eci.cvds.prometeo.event.GymSessionChangedEvent;
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.model.OccupancyBucket;
+import edu.eci.cvds.prometeo.model.Reservation;
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.OccupancyBucketRepository;
+import edu.eci.cvds.prometeo.repository.ReservationRepository;
+import edu.eci.cvds.prometeo.service.GymSessionService;
+import edu.eci.cvds.prometeo.service.impl.GymSessionServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Maintenance of the occupancy rollup against the in-memory database. Runs without a test
+ * transaction because the rollup writes in transactions of its own; the coalescing interval
+ * is long enough that the tests drive every flush themselves.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "prometeo.occupancy-rollup.coalesce-millis=600000"
+})
+@Import({OccupancyRollup.class, GymSessionServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OccupancyRollupTest {
+
+    @Autowired
+    private OccupancyRollup occupancyRollup;
+
+    @Autowired
+    private GymSessionService gymSessionService;
+
+    @Autowired
+    private GymSessionRepository gymSessionRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private OccupancyBucketRepository bucketRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDate day = LocalDate.of(2025, 3, 10);
+    private final UUID trainerA = UUID.randomUUID();
+    private final UUID trainerB = UUID.randomUUID();
+
+    @AfterEach
+    void tearDown() {
+        bucketRepository.deleteAll();
+        reservationRepository.deleteAll();
+        gymSessionRepository.deleteAll();
+    }
+
+    @Test
+    void rebuild_ShouldGroupSessionsByDateHourAndTrainer() {
+        GymSession morning = session(day, 7, trainerA, 10, 4);
+        session(day, 7, trainerA, 10, 6);
+        session(day, 18, trainerB, 20, 5);
+        reservation(morning, ReservationStatus.CONFIRMED, true);
+        reservation(morning, ReservationStatus.CONFIRMED, false);
+        reservation(morning, ReservationStatus.CANCELLED, false);
+
+        assertEquals(2, occupancyRollup.rebuild(day, day));
+
+        List<OccupancyBucket> buckets = bucketRepository.findAll();
+        buckets.sort(Comparator.comparingInt(OccupancyBucket::getStartHour));
+        OccupancyBucket first = buckets.get(0);
+        assertEquals(7, first.getStartHour());
+        assertEquals(trainerA, first.getTrainerId());
+        assertEquals(2, first.getSessions());
+        assertEquals(20, first.getCapacity());
+        assertEquals(10, first.getReserved());
+        assertEquals(1, first.getAttended());
+        assertEquals(1, first.getCancelled());
+        assertEquals(120, first.getSessionMinutes());
+        assertEquals(100.0, first.getUtilizationSum(), 0.001);
+        assertEquals(trainerB, buckets.get(1).getTrainerId());
+    }
+
+    @Test
+    void rebuild_ShouldReplaceRowsOfSessionsThatNoLongerExist() {
+        GymSession removed = session(day, 9, trainerA, 10, 5);
+        occupancyRollup.rebuild(day, day);
+        gymSessionRepository.delete(removed);
+
+        assertEquals(0, occupancyRollup.rebuild(day, day));
+        assertTrue(bucketRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void onOccupancyChanged_ShouldRefreshTheDateOfTheSession() {
+        GymSession session = session(day, 9, trainerA, 10, 2);
+        occupancyRollup.rebuild(day, day);
+
+        session.setReservedSpots(3);
+        gymSessionRepository.save(session);
+        occupancyRollup.onOccupancyChanged(new SessionOccupancyChangedEvent(session.getId(), day, 1));
+        occupancyRollup.flush();
+
+        assertEquals(3, occupancyRollup.dailyTotals(day, day).get(0).getReserved());
+    }
+
+    @Test
+    void onOccupancyChanged_DuringABurst_ShouldRefreshTheDateOnceOnTheFlush() {
+        GymSession session = session(day, 9, trainerA, 500, 0);
+        occupancyRollup.rebuild(day, day);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        for (int booked = 1; booked <= 50; booked++) {
+            occupancyRollup.onOccupancyChanged(new SessionOccupancyChangedEvent(session.getId(), day, 1));
+        }
+
+        // Los eventos solo marcan la fecha: nada se escribe en el hilo que reserva
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, occupancyRollup.pendingDates());
+
+        session.setReservedSpots(50);
+        gymSessionRepository.save(session);
+        assertEquals(1, occupancyRollup.flush());
+
+        assertEquals(0, occupancyRollup.pendingDates());
+        assertEquals(50, occupancyRollup.dailyTotals(day, day).get(0).getReserved());
+        assertEquals(0, occupancyRollup.flush());
+    }
+
+    @Test
+    void onAttendanceRecorded_ShouldCountTheCheckIn() {
+        GymSession session = session(day, 9, trainerA, 10, 1);
+        Reservation reservation = reservation(session, ReservationStatus.CONFIRMED, false);
+        occupancyRollup.rebuild(day, day);
+
+        reservation.setAttended(true);
+        reservationRepository.save(reservation);
+        occupancyRollup.onAttendanceRecorded(
+                new AttendanceRecordedEvent(session.getId(), day, reservation.getId(), LocalDateTime.now()));
+        occupancyRollup.flush();
+
+        assertEquals(1, occupancyRollup.dailyTotals(day, day).get(0).getAttended());
+    }
+
+    @Test
+    void onSessionChanged_WhenMovedToAnotherDate_ShouldRefreshBothDates() {
+        GymSession session = session(day, 9, trainerA, 10, 2);
+        occupancyRollup.rebuild(day, day);
+
+        LocalDate nextDay = day.plusDays(1);
+        session.setSessionDate(nextDay);
+        gymSessionRepository.save(session);
+        occupancyRollup.onSessionChanged(new GymSessionChangedEvent(
+                session.getId(), GymSessionChangedEvent.Change.UPDATED, nextDay, day));
+
+        List<OccupancyBucketRepository.DailyTotals> totals = occupancyRollup.dailyTotals(day, nextDay);
+        assertEquals(1, totals.size());
+        assertEquals(nextDay, totals.get(0).getUsageDate());
+    }
+
+    @Test
+    void getOccupancyStatistics_ForAYear_ShouldReadTheRollupInOneStatement() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int week = 0; week < 52; week++) {
+            session(start.plusWeeks(week), 8, trainerA, 10, 5);
+            session(start.plusWeeks(week), 8, trainerB, 10, 10);
+        }
+        occupancyRollup.rebuild(start, start.plusYears(1).minusDays(1));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Map<LocalDate, Integer> occupancy = gymSessionService.getOccupancyStatistics(start, start.plusYears(1).minusDays(1));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(52, occupancy.size());
+        assertEquals(75, occupancy.get(start));
+    }
+
+    private GymSession session(LocalDate date, int hour, UUID trainerId, int capacity, int reserved) {
+        GymSession session = new GymSession();
+        session.setSessionDate(date);
+        session.setStartTime(LocalTime.of(hour, 0));
+        session.setEndTime(LocalTime.of(hour + 1, 0));
+        session.setCapacity(capacity);
+        session.setReservedSpots(reserved);
+        session.setTrainerId(trainerId);
+        return gymSessionRepository.save(session);
+    }
+
+    private Reservation reservation(GymSession session, ReservationStatus status, boolean attended) {
+        Reservation reservation = new Reservation();
+        reservation.setUserId(UUID.randomUUID());
+        reservation.setSessionId(session.getId());
+        reservation.setReservationDate(LocalDateTime.of(session.getSessionDate(), session.getStartTime()));
+        reservation.setStatus(status);
+        reservation.setAttended(attended);
+        return reservationRepository.save(reservation);
+    }
+}
@@ -0,0 +1,123 @@
+package edu.eci.cvds.prometeo.service.roster;
+
+import edu.eci.cvds.prometeo.event.AttendanceRecordedEvent;
+import edu.eci.cvds.prometeo.event.GymSessionChangedEvent;
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import edu.eci.cvds.prometeo.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionRosterCacheTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private ReservationRepository.RosterRow row;
+
+    private SessionRosterCache cache;
+    private UUID sessionId;
+    private UUID reservationId;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SessionRosterCache(reservationRepository, 30);
+        sessionId = UUID.randomUUID();
+        reservationId = UUID.randomUUID();
+        today = LocalDate.now();
+    }
+
+    private void stubRoster() {
+        when(row.getReservationId()).thenReturn(reservationId);
+        when(row.getUserId()).thenReturn(UUID.randomUUID());
+        when(row.getName()).thenReturn("Ana");
+        when(row.getStatus()).thenReturn(ReservationStatus.CONFIRMED);
+        when(reservationRepository.findRosterBySessionId(sessionId)).thenReturn(List.of(row));
+    }
+
+    @Test
+    void getRoster_ShouldLoadTodaysRosterOnce() {
+        stubRoster();
+
+        List<RosterEntry> first = cache.getRoster(sessionId, today);
+        List<RosterEntry> second = cache.getRoster(sessionId, today);
+
+        assertEquals(1, first.size());
+        assertSame(first, second);
+        assertSame(first, cache.getCached(sessionId));
+        verify(reservationRepository, times(1)).findRosterBySessionId(sessionId);
+    }
+
+    @Test
+    void getRoster_ShouldNotCacheOtherDays() {
+        stubRoster();
+
+        cache.getRoster(sessionId, today.plusDays(1));
+        cache.getRoster(sessionId, today.plusDays(1));
+
+        assertNull(cache.getCached(sessionId));
+        verify(reservationRepository, times(2)).findRosterBySessionId(sessionId);
+    }
+
+    @Test
+    void onAttendanceRecorded_ShouldPatchEntryWithoutReloading() {
+        stubRoster();
+        cache.getRoster(sessionId, today);
+        LocalDateTime checkIn = LocalDateTime.now();
+
+        cache.onAttendanceRecorded(new AttendanceRecordedEvent(sessionId, LocalDate.now(), reservationId, checkIn));
+
+        RosterEntry entry = cache.getCached(sessionId).get(0);
+        assertTrue(entry.getAttended());
+        assertEquals(checkIn, entry.getAttendanceTime());
+        assertEquals("Ana", entry.getName());
+        verify(reservationRepository, times(1)).findRosterBySessionId(sessionId);
+    }
+
+    @Test
+    void onAttendanceRecorded_ForUnknownReservation_ShouldDropRoster() {
+        stubRoster();
+        cache.getRoster(sessionId, today);
+
+        cache.onAttendanceRecorded(new AttendanceRecordedEvent(sessionId, LocalDate.now(), UUID.randomUUID(), LocalDateTime.now()));
+
+        assertNull(cache.getCached(sessionId));
+    }
+
+    @Test
+    void bookingAndSessionChanges_ShouldDropRoster() {
+        stubRoster();
+        cache.getRoster(sessionId, today);
+        cache.onOccupancyChanged(new SessionOccupancyChangedEvent(sessionId, today, 1));
+        assertNull(cache.getCached(sessionId));
+
+        cache.getRoster(sessionId, today);
+        cache.onSessionChanged(new GymSessionChangedEvent(sessionId, GymSessionChangedEvent.Change.CANCELLED, today));
+        assertNull(cache.getCached(sessionId));
+        verify(reservationRepository, times(2)).findRosterBySessionId(sessionId);
+    }
+
+    @Test
+    void getCached_ShouldIgnoreExpiredRosters() {
+        cache = new SessionRosterCache(reservationRepository, 0);
+        stubRoster();
+
+        cache.getRoster(sessionId, today);
+
+        assertNull(cache.getCached(sessionId));
+    }
+}
@@ -0,0 +1,129 @@
+package edu.eci.cvds.prometeo.service.schedule;
+
+import edu.eci.cvds.prometeo.PrometeoExceptions;
+import edu.eci.cvds.prometeo.dto.RecurrenceRuleDTO;
+import edu.eci.cvds.prometeo.dto.RecurringScheduleDTO;
+import edu.eci.cvds.prometeo.model.GymSession;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurringSchedulePlannerTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 3, 1); // Saturday
+    private static final LocalDate END = LocalDate.of(2025, 3, 31);
+    private static final UUID TRAINER = UUID.randomUUID();
+
+    private RecurrenceRuleDTO rule(int dayOfWeek, int startHour, int endHour) {
+        RecurrenceRuleDTO rule = new RecurrenceRuleDTO();
+        rule.setDayOfWeek(dayOfWeek);
+        rule.setStartTime(LocalTime.of(startHour, 0));
+        rule.setEndTime(LocalTime.of(endHour, 0));
+        return rule;
+    }
+
+    private RecurringScheduleDTO schedule(RecurrenceRuleDTO... rules) {
+        RecurringScheduleDTO schedule = new RecurringScheduleDTO();
+        schedule.setStartDate(START);
+        schedule.setEndDate(END);
+        schedule.setCapacity(20);
+        schedule.setTrainerId(TRAINER);
+        schedule.setRules(List.of(rules));
+        return schedule;
+    }
+
+    @Test
+    void plan_ShouldOnlyProduceMatchingWeekdaysInsideTheRange() {
+        RecurringSchedulePlanner.Plan plan = RecurringSchedulePlanner.plan(
+                schedule(rule(1, 8, 9)), SessionScheduleIndex.of(Collections.emptyList()));
+
+        // Mondays of March 2025: 3, 10, 17, 24, 31
+        assertEquals(5, plan.getSessions().size());
+        assertTrue(plan.getConflicts().isEmpty());
+        for (GymSession session : plan.getSessions()) {
+            assertEquals(DayOfWeek.MONDAY, session.getSessionDate().getDayOfWeek());
+            assertEquals(20, session.getCapacity());
+            assertEquals(0, session.getReservedSpots());
+            assertEquals(TRAINER, session.getTrainerId());
+        }
+        assertEquals(LocalDate.of(2025, 3, 31), plan.getSessions().get(4).getSessionDate());
+    }
+
+    @Test
+    void plan_ShouldMergeRulesInChronologicalOrderAndApplyOverrides() {
+        UUID otherTrainer = UUID.randomUUID();
+        RecurrenceRuleDTO saturday = rule(6, 10, 11);
+        saturday.setCapacity(8);
+        saturday.setTrainerId(otherTrainer);
+
+        RecurringSchedulePlanner.Plan plan = RecurringSchedulePlanner.plan(
+                schedule(rule(1, 8, 9), rule(3, 18, 19), saturday), SessionScheduleIndex.of(Collections.emptyList()));
+
+        // 5 Mondays, 4 Wednesdays and 5 Saturdays
+        assertEquals(14, plan.getSessions().size());
+        GymSession first = plan.getSessions().get(0);
+        assertEquals(START, first.getSessionDate());
+        assertEquals(8, first.getCapacity());
+        assertEquals(otherTrainer, first.getTrainerId());
+        for (int i = 1; i < plan.getSessions().size(); i++) {
+            assertFalse(plan.getSessions().get(i).getSessionDate()
+                    .isBefore(plan.getSessions().get(i - 1).getSessionDate()));
+        }
+    }
+
+    @Test
+    void plan_ShouldReportConflictsWithExistingSessions() {
+        GymSession existing = new GymSession();
+        existing.setId(UUID.randomUUID());
+        existing.setSessionDate(LocalDate.of(2025, 3, 10));
+        existing.setStartTime(LocalTime.of(8, 30));
+        existing.setEndTime(LocalTime.of(9, 30));
+
+        RecurringSchedulePlanner.Plan plan = RecurringSchedulePlanner.plan(
+                schedule(rule(1, 8, 9)), SessionScheduleIndex.of(List.of(existing)));
+
+        assertEquals(4, plan.getSessions().size());
+        assertEquals(1, plan.getConflicts().size());
+        assertEquals(LocalDate.of(2025, 3, 10), plan.getConflicts().get(0).getSessionDate());
+    }
+
+    @Test
+    void plan_ShouldReportConflictsBetweenRulesOfTheSameSchedule() {
+        RecurringSchedulePlanner.Plan plan = RecurringSchedulePlanner.plan(
+                schedule(rule(2, 8, 10), rule(2, 9, 11), rule(2, 10, 12)),
+                SessionScheduleIndex.of(Collections.emptyList()));
+
+        // Tuesdays: 4, 11, 18, 25. 8-10 and 10-12 fit back to back, 9-11 overlaps both
+        assertEquals(8, plan.getSessions().size());
+        assertEquals(4, plan.getConflicts().size());
+        assertTrue(plan.getConflicts().stream().allMatch(s -> s.getStartTime().equals(LocalTime.of(9, 0))));
+    }
+
+    @Test
+    void validate_ShouldRejectInvalidRules() {
+        IllegalArgumentException day = assertThrows(IllegalArgumentException.class,
+                () -> RecurringSchedulePlanner.validate(schedule(rule(0, 8, 9))));
+        assertEquals(PrometeoExceptions.DIA_NO_VALIDO, day.getMessage());
+
+        IllegalArgumentException time = assertThrows(IllegalArgumentException.class,
+                () -> RecurringSchedulePlanner.validate(schedule(rule(1, 9, 8))));
+        assertEquals(PrometeoExceptions.HORA_NO_VALIDA, time.getMessage());
+
+        RecurringScheduleDTO noCapacity = schedule(rule(1, 8, 9));
+        noCapacity.setCapacity(0);
+        IllegalArgumentException capacity = assertThrows(IllegalArgumentException.class,
+                () -> RecurringSchedulePlanner.validate(noCapacity));
+        assertEquals(PrometeoExceptions.CAPACIDAD_NO_VALIDA, capacity.getMessage());
+
+        RecurringScheduleDTO reversed = schedule(rule(1, 8, 9));
+        reversed.setEndDate(START.minusDays(1));
+        assertThrows(IllegalArgumentException.class, () -> RecurringSchedulePlanner.validate(reversed));
+    }
+}
@@ -0,0 +1,140 @@
+package edu.eci.cvds.prometeo.service.schedule;
+
+import edu.eci.cvds.prometeo.model.GymSession;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionIntervalTreeTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 10);
+
+    private GymSession session(int startMinute, int endMinute) {
+        GymSession session = new GymSession();
+        session.setId(UUID.randomUUID());
+        session.setSessionDate(DATE);
+        session.setStartTime(LocalTime.MIN.plusMinutes(startMinute));
+        session.setEndTime(LocalTime.MIN.plusMinutes(endMinute));
+        return session;
+    }
+
+    private LocalTime at(int hour, int minute) {
+        return LocalTime.of(hour, minute);
+    }
+
+    @Test
+    void overlapping_ShouldDetectPartialOverlapsNotOnlyContainment() {
+        GymSession morning = session(8 * 60, 9 * 60);
+        SessionIntervalTree tree = SessionIntervalTree.of(Collections.singletonList(morning));
+
+        assertEquals(1, tree.overlapping(at(8, 30), at(9, 30)).size());
+        assertEquals(1, tree.overlapping(at(7, 30), at(8, 30)).size());
+        assertEquals(1, tree.overlapping(at(7, 0), at(10, 0)).size());
+        assertEquals(1, tree.overlapping(at(8, 15), at(8, 45)).size());
+    }
+
+    @Test
+    void overlapping_ShouldTreatAdjacentSessionsAsFree() {
+        SessionIntervalTree tree = SessionIntervalTree.of(Collections.singletonList(session(8 * 60, 9 * 60)));
+
+        assertTrue(tree.overlapping(at(9, 0), at(10, 0)).isEmpty());
+        assertTrue(tree.overlapping(at(7, 0), at(8, 0)).isEmpty());
+    }
+
+    @Test
+    void overlapping_ShouldReturnEveryMatchSortedByStart() {
+        GymSession a = session(8 * 60, 10 * 60);
+        GymSession b = session(9 * 60, 11 * 60);
+        GymSession c = session(12 * 60, 13 * 60);
+        SessionIntervalTree tree = SessionIntervalTree.of(Arrays.asList(c, b, a));
+
+        assertEquals(Arrays.asList(a, b), tree.overlapping(at(9, 30), at(12, 0)));
+    }
+
+    @Test
+    void overlapsAny_ShouldIgnoreExcludedSession() {
+        GymSession a = session(8 * 60, 9 * 60);
+        SessionIntervalTree tree = SessionIntervalTree.of(Collections.singletonList(a));
+
+        assertFalse(tree.overlapsAny(at(8, 0), at(9, 0), a.getId()));
+        assertTrue(tree.overlapsAny(at(8, 0), at(9, 0), null));
+    }
+
+    @Test
+    void covering_ShouldOnlyReturnSessionsContainingTheRange() {
+        GymSession wide = session(8 * 60, 12 * 60);
+        GymSession narrow = session(9 * 60, 10 * 60);
+        SessionIntervalTree tree = SessionIntervalTree.of(Arrays.asList(narrow, wide));
+
+        assertEquals(Arrays.asList(wide, narrow), tree.covering(at(9, 0), at(10, 0)));
+        assertEquals(Collections.singletonList(wide), tree.covering(at(8, 0), at(11, 0)));
+        assertTrue(tree.findCovering(at(11, 0), at(13, 0)).isEmpty());
+    }
+
+    @Test
+    void with_ShouldIndexNewSessionWithoutChangingOriginal() {
+        SessionIntervalTree tree = SessionIntervalTree.of(Collections.singletonList(session(8 * 60, 9 * 60)));
+
+        SessionIntervalTree extended = tree.with(session(10 * 60, 11 * 60));
+
+        assertEquals(1, tree.size());
+        assertEquals(2, extended.size());
+        assertTrue(extended.overlapsAny(at(10, 30), at(10, 45), null));
+        assertFalse(tree.overlapsAny(at(10, 30), at(10, 45), null));
+    }
+
+    @Test
+    void overlapping_ShouldMatchBruteForceOnRandomSchedules() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<GymSession> sessions = new ArrayList<>();
+            int count = random.nextInt(40);
+            for (int i = 0; i < count; i++) {
+                int start = random.nextInt(22 * 60);
+                sessions.add(session(start, start + 1 + random.nextInt(120)));
+            }
+            SessionIntervalTree tree = SessionIntervalTree.of(sessions);
+
+            int queryStart = random.nextInt(22 * 60);
+            LocalTime start = LocalTime.MIN.plusMinutes(queryStart);
+            LocalTime end = LocalTime.MIN.plusMinutes(queryStart + 1 + random.nextInt(120));
+            List<UUID> expected = sessions.stream()
+                    .filter(s -> s.getStartTime().isBefore(end) && s.getEndTime().isAfter(start))
+                    .map(GymSession::getId)
+                    .sorted()
+                    .collect(Collectors.toList());
+            List<UUID> actual = tree.overlapping(start, end).stream()
+                    .map(GymSession::getId)
+                    .sorted()
+                    .collect(Collectors.toList());
+
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void scheduleIndex_ShouldKeepOneTreePerDate() {
+        GymSession today = session(8 * 60, 9 * 60);
+        SessionScheduleIndex index = SessionScheduleIndex.of(Collections.singletonList(today));
+        GymSession tomorrow = session(8 * 60, 9 * 60);
+        tomorrow.setSessionDate(DATE.plusDays(1));
+
+        assertTrue(index.overlapsAny(DATE, at(8, 30), at(9, 30)));
+        assertFalse(index.overlapsAny(DATE.plusDays(1), at(8, 30), at(9, 30)));
+
+        index.add(tomorrow);
+
+        assertTrue(index.overlapsAny(DATE.plusDays(1), at(8, 30), at(9, 30)));
+        assertFalse(index.overlapsAny(DATE.plusDays(1), at(8, 30), at(9, 30), tomorrow.getId()));
+    }
+}
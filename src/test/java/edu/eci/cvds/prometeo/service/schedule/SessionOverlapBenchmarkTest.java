@@ -0,0 +1,80 @@
+package edu.eci.cvds.prometeo.service.schedule;
+
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares overlap detection through the interval index, loaded once for the whole
+ * range, with one query per candidate slot as the services used to do.
+ */
+@DataJpaTest
+class SessionOverlapBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(SessionOverlapBenchmarkTest.class);
+
+    private static final int DAYS = 30;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+
+    @Autowired
+    private GymSessionRepository gymSessionRepository;
+
+    @Test
+    void indexLoadedOnce_ShouldMatchPerCallQueriesAndBeFaster() {
+        List<GymSession> sessions = new ArrayList<>();
+        for (int day = 0; day < DAYS; day++) {
+            for (int hour = 6; hour < 20; hour += 2) {
+                GymSession session = new GymSession();
+                session.setSessionDate(FIRST_DAY.plusDays(day));
+                session.setStartTime(LocalTime.of(hour, 0));
+                session.setEndTime(LocalTime.of(hour + 1, 15));
+                session.setCapacity(20);
+                sessions.add(session);
+            }
+        }
+        gymSessionRepository.saveAll(sessions);
+        gymSessionRepository.flush();
+
+        List<Boolean> perCall = new ArrayList<>();
+        long perCallStart = System.nanoTime();
+        for (int day = 0; day < DAYS; day++) {
+            LocalDate date = FIRST_DAY.plusDays(day);
+            for (int slot = 0; slot < 28; slot++) {
+                LocalTime start = LocalTime.of(6, 0).plusMinutes(30L * slot);
+                LocalTime end = start.plusMinutes(45);
+                perCall.add(gymSessionRepository.findBySessionDateOrderByStartTime(date).stream()
+                        .anyMatch(s -> s.getStartTime().isBefore(end) && s.getEndTime().isAfter(start)));
+            }
+        }
+        long perCallNanos = System.nanoTime() - perCallStart;
+
+        List<Boolean> indexed = new ArrayList<>();
+        long indexStart = System.nanoTime();
+        SessionScheduleIndex index = SessionScheduleIndex.of(
+                gymSessionRepository.findBySessionDateBetween(FIRST_DAY, FIRST_DAY.plusDays(DAYS - 1L)));
+        for (int day = 0; day < DAYS; day++) {
+            LocalDate date = FIRST_DAY.plusDays(day);
+            for (int slot = 0; slot < 28; slot++) {
+                LocalTime start = LocalTime.of(6, 0).plusMinutes(30L * slot);
+                indexed.add(index.overlapsAny(date, start, start.plusMinutes(45)));
+            }
+        }
+        long indexNanos = System.nanoTime() - indexStart;
+
+        logger.info("Overlap checks for {} candidates: per-call queries {} ms, interval index {} ms",
+                perCall.size(), perCallNanos / 1_000_000, indexNanos / 1_000_000);
+        assertEquals(perCall, indexed);
+        assertTrue(indexed.contains(Boolean.FALSE));
+        assertTrue(indexNanos < perCallNanos);
+    }
+}
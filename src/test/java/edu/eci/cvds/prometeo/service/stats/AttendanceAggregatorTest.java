@@ -0,0 +1,116 @@
+package edu.eci.cvds.prometeo.service.stats;
+
+import edu.eci.cvds.prometeo.dto.AttendanceBucketDTO;
+import edu.eci.cvds.prometeo.dto.TrainerAttendanceStatsDTO;
+import edu.eci.cvds.prometeo.model.enums.AggregationPeriod;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository.TrainerDailyAttendance;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttendanceAggregatorTest {
+
+    private final UUID trainerA = UUID.randomUUID();
+    private final UUID trainerB = UUID.randomUUID();
+
+    // Lunes 5 de mayo de 2025
+    private final LocalDate monday = LocalDate.of(2025, 5, 5);
+
+    @Test
+    void aggregate_ByDay_ShouldKeepOneBucketPerRow() {
+        List<TrainerAttendanceStatsDTO> stats = AttendanceAggregator.aggregate(List.of(
+                row(trainerA, monday, 2, 20, 10, 5),
+                row(trainerA, monday.plusDays(1), 1, 10, 10, 10)), AggregationPeriod.DAY);
+
+        assertEquals(1, stats.size());
+        TrainerAttendanceStatsDTO trainer = stats.get(0);
+        assertEquals(2, trainer.getBuckets().size());
+        assertEquals(monday, trainer.getBuckets().get(0).getPeriodStart());
+        assertEquals(50.0, trainer.getBuckets().get(0).getOccupancyRate());
+        assertEquals(100.0, trainer.getBuckets().get(1).getAttendanceRate());
+        assertEquals(3, trainer.getSessions());
+        assertEquals(30, trainer.getCapacity());
+        assertEquals(20, trainer.getReserved());
+        assertEquals(15, trainer.getAttended());
+        assertEquals(66.67, trainer.getOccupancyRate());
+        assertEquals(75.0, trainer.getAttendanceRate());
+    }
+
+    @Test
+    void aggregate_ByWeek_ShouldStartBucketsOnMonday() {
+        List<TrainerAttendanceStatsDTO> stats = AttendanceAggregator.aggregate(List.of(
+                row(trainerA, monday.plusDays(2), 1, 10, 5, 5),
+                row(trainerA, monday.plusDays(6), 1, 10, 5, 0),
+                row(trainerA, monday.plusDays(7), 1, 10, 10, 5)), AggregationPeriod.WEEK);
+
+        List<AttendanceBucketDTO> buckets = stats.get(0).getBuckets();
+        assertEquals(2, buckets.size());
+        assertEquals(monday, buckets.get(0).getPeriodStart());
+        assertEquals(2, buckets.get(0).getSessions());
+        assertEquals(50.0, buckets.get(0).getAttendanceRate());
+        assertEquals(monday.plusDays(7), buckets.get(1).getPeriodStart());
+    }
+
+    @Test
+    void aggregate_ByMonth_ShouldKeepTrainersSeparateAndInQueryOrder() {
+        List<TrainerAttendanceStatsDTO> stats = AttendanceAggregator.aggregate(List.of(
+                row(trainerB, LocalDate.of(2025, 4, 30), 1, 10, 5, 5),
+                row(trainerB, LocalDate.of(2025, 5, 1), 1, 10, 5, 5),
+                row(trainerA, LocalDate.of(2025, 5, 20), 1, 10, 0, 0)), AggregationPeriod.MONTH);
+
+        assertEquals(List.of(trainerB, trainerA), stats.stream().map(TrainerAttendanceStatsDTO::getTrainerId).toList());
+        assertEquals(List.of(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 5, 1)),
+                stats.get(0).getBuckets().stream().map(AttendanceBucketDTO::getPeriodStart).toList());
+        assertEquals(0.0, stats.get(1).getAttendanceRate());
+    }
+
+    @Test
+    void aggregate_WithoutRows_ShouldReturnEmptyList() {
+        assertTrue(AttendanceAggregator.aggregate(List.of(), AggregationPeriod.WEEK).isEmpty());
+    }
+
+    @Test
+    void rate_ShouldRoundToTwoDecimalsAndGuardAgainstZero() {
+        assertEquals(33.33, AttendanceAggregator.rate(1, 3));
+        assertEquals(0.0, AttendanceAggregator.rate(5, 0));
+    }
+
+    private static TrainerDailyAttendance row(UUID trainerId, LocalDate date, long sessions, long capacity,
+                                              long reserved, long attended) {
+        return new TrainerDailyAttendance() {
+            @Override
+            public UUID getTrainerId() {
+                return trainerId;
+            }
+
+            @Override
+            public LocalDate getSessionDate() {
+                return date;
+            }
+
+            @Override
+            public long getSessions() {
+                return sessions;
+            }
+
+            @Override
+            public long getCapacity() {
+                return capacity;
+            }
+
+            @Override
+            public long getReserved() {
+                return reserved;
+            }
+
+            @Override
+            public long getAttended() {
+                return attended;
+            }
+        };
+    }
+}
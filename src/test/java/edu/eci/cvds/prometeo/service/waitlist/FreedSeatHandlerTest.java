@@ -0,0 +1,107 @@
+package edu.eci.cvds.prometeo.service.waitlist;
+
+import edu.eci.cvds.prometeo.event.SessionOccupancyChangedEvent;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.service.WaitlistService;
+import edu.eci.cvds.prometeo.service.inventory.SeatInventory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FreedSeatHandlerTest {
+
+    @Mock
+    private GymSessionRepository gymSessionRepository;
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<WaitlistPromotionEngine> promotionEngineProvider;
+
+    @Mock
+    private ObjectProvider<SeatInventory> seatInventoryProvider;
+
+    @Mock
+    private WaitlistPromotionEngine engine;
+
+    private FreedSeatHandler handler;
+    private GymSession session;
+
+    @BeforeEach
+    void setUp() {
+        handler = new FreedSeatHandler(gymSessionRepository, waitlistService, eventPublisher,
+                promotionEngineProvider, seatInventoryProvider);
+        session = new GymSession();
+        session.setId(UUID.randomUUID());
+        session.setSessionDate(LocalDate.now().plusDays(1));
+        session.setStartTime(LocalTime.of(10, 0));
+        session.setEndTime(LocalTime.of(11, 0));
+        session.setCapacity(2);
+        session.setReservedSpots(2);
+    }
+
+    @Test
+    void giveBack_WithSomeoneWaiting_ShouldKeepTheSeatHeldForTheWaitlist() {
+        when(promotionEngineProvider.getIfAvailable()).thenReturn(engine);
+        when(engine.holdFreedSeat(session.getId())).thenReturn(true);
+
+        assertTrue(handler.giveBack(session));
+
+        verify(gymSessionRepository, never()).releaseSpot(any());
+        verify(waitlistService, never()).notifyNextInWaitlist(any());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof SessionOccupancyChangedEvent
+                && ((SessionOccupancyChangedEvent) event).getDelta() == 0));
+    }
+
+    @Test
+    void giveBack_WithNobodyWaiting_ShouldReleaseTheSeat() {
+        when(promotionEngineProvider.getIfAvailable()).thenReturn(engine);
+        when(engine.holdFreedSeat(session.getId())).thenReturn(false);
+
+        assertFalse(handler.giveBack(session));
+
+        verify(gymSessionRepository).releaseSpot(session.getId());
+        verify(waitlistService).notifyNextInWaitlist(session.getId());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof SessionOccupancyChangedEvent
+                && ((SessionOccupancyChangedEvent) event).getDelta() == -1));
+    }
+
+    @Test
+    void giveBack_WithoutPromotionEngine_ShouldReleaseTheSeatAndNotifyTheWaitlist() {
+        assertFalse(handler.giveBack(session));
+
+        verify(gymSessionRepository).releaseSpot(session.getId());
+        verify(waitlistService).notifyNextInWaitlist(session.getId());
+    }
+
+    @Test
+    void giveBack_WithSeatInventory_ShouldGiveTheSeatBackToTheInventory() {
+        SeatInventory inventory = new SeatInventory(gymSessionRepository, 14);
+        inventory.track(session);
+        when(seatInventoryProvider.getIfAvailable()).thenReturn(inventory);
+
+        handler.giveBack(session);
+
+        assertEquals(1, inventory.availableSpots(session.getId()).getAsInt());
+        verify(gymSessionRepository).releaseSpot(session.getId());
+    }
+}
@@ -0,0 +1,91 @@
+package edu.eci.cvds.prometeo.service.waitlist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HoldTimerWheelTest {
+
+    private static final long TICK = 1000;
+    private static final long START = 1_000_000;
+
+    @Test
+    void advance_ShouldReturnKeysOnlyOnceTheirDeadlineHasPassed() {
+        HoldTimerWheel wheel = new HoldTimerWheel(TICK, 8, START);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        wheel.schedule(first, START + 2_000);
+        wheel.schedule(second, START + 5_000);
+
+        assertTrue(wheel.advance(START + 1_000).isEmpty());
+        assertEquals(List.of(first), wheel.advance(START + 2_000));
+        assertTrue(wheel.advance(START + 4_999).isEmpty());
+        assertEquals(List.of(second), wheel.advance(START + 5_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_ShouldKeepDeadlinesBeyondOneTurnUntilTheirOwnTurn() {
+        HoldTimerWheel wheel = new HoldTimerWheel(TICK, 4, START);
+        UUID near = UUID.randomUUID();
+        UUID far = UUID.randomUUID();
+        // Ambos caen en la misma casilla de una rueda de 4 ticks
+        wheel.schedule(near, START + 1_000);
+        wheel.schedule(far, START + 9_000);
+
+        assertEquals(List.of(near), wheel.advance(START + 1_000));
+        assertTrue(wheel.advance(START + 5_000).isEmpty());
+        assertEquals(List.of(far), wheel.advance(START + 9_000));
+    }
+
+    @Test
+    void advance_AfterLongPause_ShouldReturnEveryOverdueKey() {
+        HoldTimerWheel wheel = new HoldTimerWheel(TICK, 4, START);
+        for (int i = 1; i <= 20; i++) {
+            wheel.schedule(UUID.randomUUID(), START + i * 1_000L);
+        }
+
+        assertEquals(20, wheel.advance(START + 60_000).size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancel_ShouldPreventExpiry() {
+        HoldTimerWheel wheel = new HoldTimerWheel(TICK, 8, START);
+        UUID key = UUID.randomUUID();
+        wheel.schedule(key, START + 2_000);
+
+        assertTrue(wheel.cancel(key));
+        assertFalse(wheel.cancel(key));
+        assertTrue(wheel.advance(START + 10_000).isEmpty());
+    }
+
+    @Test
+    void schedule_SameKeyTwice_ShouldKeepOnlyTheLatestDeadline() {
+        HoldTimerWheel wheel = new HoldTimerWheel(TICK, 8, START);
+        UUID key = UUID.randomUUID();
+        wheel.schedule(key, START + 2_000);
+        wheel.schedule(key, START + 6_000);
+
+        assertEquals(1, wheel.size());
+        assertTrue(wheel.advance(START + 3_000).isEmpty());
+        assertEquals(List.of(key), wheel.advance(START + 6_000));
+    }
+
+    @Test
+    void schedule_PastDeadline_ShouldExpireOnNextTick() {
+        HoldTimerWheel wheel = new HoldTimerWheel(TICK, 8, START);
+        UUID key = UUID.randomUUID();
+        wheel.schedule(key, START - 30_000);
+
+        assertEquals(List.of(key), wheel.advance(START + 1_000));
+    }
+
+    @Test
+    void constructor_WithInvalidTick_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new HoldTimerWheel(0, 8, START));
+    }
+}
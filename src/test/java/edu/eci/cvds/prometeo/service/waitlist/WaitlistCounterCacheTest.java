@@ -0,0 +1,84 @@
+package edu.eci.cvds.prometeo.service.waitlist;
+
+import edu.eci.cvds.prometeo.event.GymSessionChangedEvent;
+import edu.eci.cvds.prometeo.event.WaitlistChangedEvent;
+import edu.eci.cvds.prometeo.repository.WaitlistRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistCounterCacheTest {
+
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
+    @Mock
+    private WaitlistRepository.WaitlistStats stats;
+
+    private WaitlistCounterCache cache;
+    private UUID sessionId;
+
+    @BeforeEach
+    void setUp() {
+        cache = new WaitlistCounterCache(waitlistRepository, 30);
+        sessionId = UUID.randomUUID();
+        when(waitlistRepository.aggregateBySessionId(sessionId)).thenReturn(stats);
+    }
+
+    @Test
+    void get_ShouldAggregateOncePerSession() {
+        assertSame(stats, cache.get(sessionId));
+        assertSame(stats, cache.get(sessionId));
+
+        verify(waitlistRepository, times(1)).aggregateBySessionId(sessionId);
+    }
+
+    @Test
+    void onWaitlistChanged_ShouldReloadOnNextRead() {
+        cache.get(sessionId);
+
+        cache.onWaitlistChanged(new WaitlistChangedEvent(sessionId));
+        cache.get(sessionId);
+
+        verify(waitlistRepository, times(2)).aggregateBySessionId(sessionId);
+    }
+
+    @Test
+    void onWaitlistChanged_OtherSession_ShouldKeepCounters() {
+        cache.get(sessionId);
+
+        cache.onWaitlistChanged(new WaitlistChangedEvent(UUID.randomUUID()));
+        cache.get(sessionId);
+
+        verify(waitlistRepository, times(1)).aggregateBySessionId(sessionId);
+    }
+
+    @Test
+    void onSessionChanged_ShouldReloadOnNextRead() {
+        cache.get(sessionId);
+
+        cache.onSessionChanged(new GymSessionChangedEvent(sessionId, GymSessionChangedEvent.Change.CANCELLED, LocalDate.now()));
+        cache.get(sessionId);
+
+        verify(waitlistRepository, times(2)).aggregateBySessionId(sessionId);
+    }
+
+    @Test
+    void get_WithZeroTtl_ShouldAlwaysReload() {
+        WaitlistCounterCache uncached = new WaitlistCounterCache(waitlistRepository, 0);
+
+        uncached.get(sessionId);
+        uncached.get(sessionId);
+
+        verify(waitlistRepository, times(2)).aggregateBySessionId(sessionId);
+    }
+}
@@ -0,0 +1,324 @@
+package edu.eci.cvds.prometeo.service.waitlist;
+
+import edu.eci.cvds.prometeo.PrometeoExceptions;
+import edu.eci.cvds.prometeo.dto.ReservationDTO;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.model.Reservation;
+import edu.eci.cvds.prometeo.model.User;
+import edu.eci.cvds.prometeo.model.WaitlistEntry;
+import edu.eci.cvds.prometeo.model.enums.ReservationStatus;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.ReservationRepository;
+import edu.eci.cvds.prometeo.repository.UserRepository;
+import edu.eci.cvds.prometeo.repository.WaitlistRepository;
+import edu.eci.cvds.prometeo.service.GymReservationService;
+import edu.eci.cvds.prometeo.service.GymSessionService;
+import edu.eci.cvds.prometeo.service.NotificationService;
+import edu.eci.cvds.prometeo.service.PhysicalProgressService;
+import edu.eci.cvds.prometeo.service.RoutineService;
+import edu.eci.cvds.prometeo.service.UserService;
+import edu.eci.cvds.prometeo.service.WaitlistService;
+import edu.eci.cvds.prometeo.service.impl.GymReservationServiceImpl;
+import edu.eci.cvds.prometeo.service.impl.GymSessionServiceImpl;
+import edu.eci.cvds.prometeo.service.impl.UserServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Waitlist promotion against the in-memory database. Runs without a test transaction so
+ * that holds are scheduled after each commit, as they are in production; the ticker thread
+ * is stopped and expiry is driven with a movable clock.
+ */
+@DataJpaTest(properties = "prometeo.waitlist-promotion.hold-minutes=15")
+@Import({WaitlistPromotionEngine.class, FreedSeatHandler.class, GymReservationServiceImpl.class, GymSessionServiceImpl.class,
+        UserServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WaitlistPromotionEngineTest {
+
+    @Autowired
+    private WaitlistPromotionEngine engine;
+
+    @Autowired
+    private GymReservationService reservationService;
+
+    @Autowired
+    private GymSessionService gymSessionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private GymSessionRepository gymSessionRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    @MockitoBean
+    private WaitlistService waitlistService;
+
+    @MockitoBean
+    private PhysicalProgressService physicalProgressService;
+
+    @MockitoBean
+    private RoutineService routineService;
+
+    private final MovableClock clock = new MovableClock();
+    private GymSession session;
+    private UUID booker;
+    private UUID first;
+    private UUID second;
+
+    @BeforeEach
+    void setUp() {
+        engine.stop();
+        engine.useClock(clock);
+
+        booker = user("booker");
+        first = user("first");
+        second = user("second");
+        session = session(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        waitlistRepository.deleteAll();
+        reservationRepository.deleteAll();
+        gymSessionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void delete_WithWaitlist_ShouldHoldTheSeatForTheFirstInLine() {
+        Reservation reservation = reservation(booker);
+        waitFor(first);
+        waitFor(second);
+
+        reservationService.delete(reservation.getId());
+
+        assertEquals(1, reservedSpots());
+        assertNotNull(entryOf(first).getHoldExpiresAt());
+        assertNull(entryOf(second).getHoldExpiresAt());
+        assertEquals(1, engine.pendingHolds());
+        verify(notificationService).sendNotification(eq(first), anyString(), anyString(), eq("WAITLIST_HOLD"), eq(Optional.of(session.getId())));
+        verify(waitlistService, never()).notifyNextInWaitlist(any());
+
+        // El cupo retenido no está disponible para otros usuarios
+        ReservationDTO dto = new ReservationDTO();
+        dto.setUserId(user("latecomer"));
+        dto.setSessionId(session.getId());
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> reservationService.create(dto));
+        assertEquals(PrometeoExceptions.CAPACIDAD_EXCEDIDA, ex.getMessage());
+    }
+
+    @Test
+    void delete_WithoutWaitlist_ShouldReleaseTheSeat() {
+        Reservation reservation = reservation(booker);
+
+        reservationService.delete(reservation.getId());
+
+        assertEquals(0, reservedSpots());
+        assertEquals(0, engine.pendingHolds());
+    }
+
+    @Test
+    void acceptWaitlistHold_ShouldTurnTheHoldIntoAReservation() {
+        Reservation reservation = reservation(booker);
+        waitFor(first);
+        reservationService.delete(reservation.getId());
+
+        ReservationDTO accepted = reservationService.acceptWaitlistHold(first, session.getId());
+
+        assertEquals(ReservationStatus.CONFIRMED, accepted.getStatus());
+        assertEquals(1, reservedSpots());
+        assertEquals(0, waitlistRepository.countBySessionId(session.getId()));
+        assertEquals(0, engine.pendingHolds());
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> reservationService.acceptWaitlistHold(first, session.getId()));
+        assertEquals(PrometeoExceptions.SIN_CUPO_RETENIDO, ex.getMessage());
+    }
+
+    @Test
+    void acceptWaitlistHold_AfterTheWindow_ShouldBeRejected() {
+        Reservation reservation = reservation(booker);
+        waitFor(first);
+        reservationService.delete(reservation.getId());
+
+        clock.advance(Duration.ofMinutes(16));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> reservationService.acceptWaitlistHold(first, session.getId()));
+        assertEquals(PrometeoExceptions.SIN_CUPO_RETENIDO, ex.getMessage());
+        assertEquals(1, reservationRepository.findBySessionId(session.getId()).size());
+    }
+
+    @Test
+    void expireDue_ShouldPassTheSeatDownTheLineAndReleaseItAtTheEnd() {
+        Reservation reservation = reservation(booker);
+        waitFor(first);
+        waitFor(second);
+        reservationService.delete(reservation.getId());
+
+        assertEquals(0, engine.expireDue(clock.millis() + Duration.ofMinutes(10).toMillis()));
+
+        clock.advance(Duration.ofMinutes(16));
+        assertEquals(1, engine.expireDue(clock.millis()));
+        assertTrue(waitlistRepository.findByUserIdAndSessionId(first, session.getId()).isEmpty());
+        assertNotNull(entryOf(second).getHoldExpiresAt());
+        assertEquals(1, reservedSpots());
+
+        clock.advance(Duration.ofMinutes(16));
+        assertEquals(1, engine.expireDue(clock.millis()));
+        assertEquals(0, waitlistRepository.countBySessionId(session.getId()));
+        assertEquals(0, reservedSpots());
+    }
+
+    @Test
+    void leaveWaitlist_WithHold_ShouldPassTheSeatToTheNextInLine() {
+        Reservation reservation = reservation(booker);
+        waitFor(first);
+        waitFor(second);
+        reservationService.delete(reservation.getId());
+
+        assertTrue(reservationService.leaveWaitlist(first, session.getId()));
+
+        assertTrue(waitlistRepository.findByUserIdAndSessionId(first, session.getId()).isEmpty());
+        assertNotNull(entryOf(second).getHoldExpiresAt());
+        assertEquals(1, reservedSpots());
+        assertEquals(1, engine.pendingHolds());
+    }
+
+    @Test
+    void cancelGymReservation_WithWaitlist_ShouldHoldTheSeatForTheFirstInLine() {
+        Reservation reservation = reservation(booker);
+        waitFor(first);
+
+        userService.cancelGymReservation(reservation.getId(), booker, Optional.empty());
+
+        assertEquals(1, reservedSpots());
+        assertNotNull(entryOf(first).getHoldExpiresAt());
+        assertEquals(1, engine.pendingHolds());
+        verify(waitlistService, never()).notifyNextInWaitlist(any());
+    }
+
+    @Test
+    void updateSession_RaisingCapacity_ShouldHoldNewSeatsForWaitingUsers() {
+        reservation(booker);
+        waitFor(first);
+
+        gymSessionService.updateSession(session.getId(), session.getSessionDate(), session.getStartTime(),
+                session.getEndTime(), 3, session.getTrainerId());
+
+        // Solo hay un usuario esperando: el otro cupo nuevo queda libre
+        assertEquals(2, reservedSpots());
+        assertNotNull(entryOf(first).getHoldExpiresAt());
+        assertEquals(1, engine.pendingHolds());
+    }
+
+    private UUID user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setInstitutionalId("promotion-" + name + "-" + UUID.randomUUID());
+        user.setRole("STUDENT");
+        return userRepository.save(user).getId();
+    }
+
+    private GymSession session(int capacity) {
+        GymSession gymSession = new GymSession();
+        gymSession.setSessionDate(LocalDate.now().plusDays(2));
+        gymSession.setStartTime(LocalTime.of(10, 0));
+        gymSession.setEndTime(LocalTime.of(11, 0));
+        gymSession.setCapacity(capacity);
+        gymSession.setReservedSpots(0);
+        gymSession.setTrainerId(UUID.randomUUID());
+        return gymSessionRepository.save(gymSession);
+    }
+
+    private Reservation reservation(UUID userId) {
+        Reservation reservation = new Reservation();
+        reservation.setUserId(userId);
+        reservation.setSessionId(session.getId());
+        reservation.setReservationDate(LocalDateTime.now());
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+        session.setReservedSpots(session.getReservedSpots() + 1);
+        session = gymSessionRepository.save(session);
+        return reservationRepository.save(reservation);
+    }
+
+    private void waitFor(UUID userId) {
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setUserId(userId);
+        entry.setSessionId(session.getId());
+        waitlistRepository.saveAndFlush(entry);
+        // Orden de llegada estricto entre entradas consecutivas
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private WaitlistEntry entryOf(UUID userId) {
+        return waitlistRepository.findByUserIdAndSessionId(userId, session.getId()).get(0);
+    }
+
+    private int reservedSpots() {
+        return gymSessionRepository.findById(session.getId()).orElseThrow().getReservedSpots();
+    }
+
+    private static final class MovableClock extends Clock {
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
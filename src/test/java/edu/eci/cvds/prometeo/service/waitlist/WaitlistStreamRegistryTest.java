@@ -0,0 +1,201 @@
+package edu.eci.cvds.prometeo.service.waitlist;
+
+import edu.eci.cvds.prometeo.event.GymSessionChangedEvent;
+import edu.eci.cvds.prometeo.event.WaitlistChangedEvent;
+import edu.eci.cvds.prometeo.model.GymSession;
+import edu.eci.cvds.prometeo.repository.GymSessionRepository;
+import edu.eci.cvds.prometeo.repository.WaitlistRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WaitlistStreamRegistryTest {
+
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
+    @Mock
+    private GymSessionRepository gymSessionRepository;
+
+    private final Deque<SseEmitter> emitters = new ArrayDeque<>();
+    private WaitlistStreamRegistry registry;
+    private UUID sessionId;
+    private UUID first;
+    private UUID second;
+    private GymSession session;
+
+    @BeforeEach
+    void setUp() {
+        registry = new WaitlistStreamRegistry(waitlistRepository, gymSessionRepository, 30, 500, 25_000) {
+            @Override
+            SseEmitter createEmitter() {
+                SseEmitter emitter = mock(SseEmitter.class);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        sessionId = UUID.randomUUID();
+        first = UUID.randomUUID();
+        second = UUID.randomUUID();
+        session = new GymSession();
+        session.setId(sessionId);
+        session.setSessionDate(LocalDate.now().plusDays(1));
+        session.setCapacity(10);
+        when(gymSessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+    }
+
+    @Test
+    void subscribe_ShouldSendTheCurrentStateRightAway() throws IOException {
+        when(waitlistRepository.findPositions(sessionId, Set.of(first))).thenReturn(List.of(position(first, 3, null)));
+
+        registry.subscribe(first, sessionId);
+
+        verify(emitters.getLast(), times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(1, registry.subscriberCount());
+    }
+
+    @Test
+    void onWaitlistChanged_ShouldPushOnlyToSubscribersWhosePositionChanged() throws IOException {
+        when(waitlistRepository.findPositions(sessionId, Set.of(first))).thenReturn(List.of(position(first, 1, null)));
+        when(waitlistRepository.findPositions(sessionId, Set.of(second))).thenReturn(List.of(position(second, 3, null)));
+        registry.subscribe(first, sessionId);
+        SseEmitter firstEmitter = emitters.getLast();
+        registry.subscribe(second, sessionId);
+        SseEmitter secondEmitter = emitters.getLast();
+
+        // Alguien entre los dos sale de la lista: solo cambia la posición del segundo
+        when(waitlistRepository.findPositions(eq(sessionId), eq(Set.of(first, second))))
+                .thenReturn(List.of(position(first, 1, null), position(second, 2, null)));
+        registry.onWaitlistChanged(new WaitlistChangedEvent(sessionId));
+        registry.flush();
+
+        verify(firstEmitter, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(secondEmitter, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(waitlistRepository, times(1)).findPositions(eq(sessionId), eq(Set.of(first, second)));
+    }
+
+    @Test
+    void onWaitlistChanged_WhenASeatIsHeld_ShouldPushTheHold() throws IOException {
+        when(waitlistRepository.findPositions(sessionId, Set.of(first))).thenReturn(List.of(position(first, 1, null)));
+        registry.subscribe(first, sessionId);
+
+        when(waitlistRepository.findPositions(sessionId, Set.of(first)))
+                .thenReturn(List.of(position(first, 1, LocalDateTime.now().plusMinutes(15))));
+        registry.onWaitlistChanged(new WaitlistChangedEvent(sessionId));
+        registry.flush();
+
+        verify(emitters.getLast(), times(2)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void onWaitlistChanged_WithoutSubscribers_ShouldNotQuery() {
+        registry.onWaitlistChanged(new WaitlistChangedEvent(sessionId));
+
+        assertEquals(0, registry.flush());
+        verifyNoInteractions(waitlistRepository);
+    }
+
+    @Test
+    void onWaitlistChanged_ShouldOnlyMarkTheSessionAndCoalesceUntilTheFlush() throws IOException {
+        when(waitlistRepository.findPositions(sessionId, Set.of(first))).thenReturn(List.of(position(first, 3, null)));
+        registry.subscribe(first, sessionId);
+        SseEmitter emitter = emitters.getLast();
+        clearInvocations(waitlistRepository, emitter);
+
+        // El hilo que confirma la reserva no consulta ni escribe a los clientes
+        when(waitlistRepository.findPositions(sessionId, Set.of(first))).thenReturn(List.of(position(first, 1, null)));
+        registry.onWaitlistChanged(new WaitlistChangedEvent(sessionId));
+        registry.onWaitlistChanged(new WaitlistChangedEvent(sessionId));
+        verifyNoInteractions(waitlistRepository);
+        verify(emitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(1, registry.pendingSessions());
+
+        assertEquals(1, registry.flush());
+
+        verify(waitlistRepository, times(1)).findPositions(sessionId, Set.of(first));
+        verify(emitter, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(0, registry.pendingSessions());
+    }
+
+    @Test
+    void onSessionChanged_ShouldPushCapacityChangesOnly() throws IOException {
+        when(waitlistRepository.findPositions(sessionId, Set.of(first))).thenReturn(List.of(position(first, 2, null)));
+        registry.subscribe(first, sessionId);
+
+        when(gymSessionRepository.findAllById(Set.of(sessionId))).thenReturn(List.of(session));
+        registry.onSessionChanged(new GymSessionChangedEvent(sessionId, GymSessionChangedEvent.Change.UPDATED, session.getSessionDate()));
+        registry.flush();
+        session.setCapacity(12);
+        registry.onSessionChanged(new GymSessionChangedEvent(sessionId, GymSessionChangedEvent.Change.UPDATED, session.getSessionDate()));
+        registry.flush();
+
+        verify(emitters.getLast(), times(2)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void onSessionChanged_Cancelled_ShouldNotifyAndCloseTheStream() throws IOException {
+        when(waitlistRepository.findPositions(sessionId, Set.of(first))).thenReturn(List.of(position(first, 2, null)));
+        registry.subscribe(first, sessionId);
+
+        registry.onSessionChanged(new GymSessionChangedEvent(sessionId, GymSessionChangedEvent.Change.CANCELLED, session.getSessionDate()));
+        registry.flush();
+
+        verify(emitters.getLast(), times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitters.getLast()).complete();
+    }
+
+    @Test
+    void heartbeat_ShouldDropStreamsWhoseClientWentAway() throws IOException {
+        when(waitlistRepository.findPositions(eq(sessionId), anyCollection())).thenReturn(List.of());
+        registry.subscribe(first, sessionId);
+        SseEmitter gone = emitters.getLast();
+        registry.subscribe(second, sessionId);
+        doThrow(new IOException("broken pipe")).when(gone).send(any(SseEmitter.SseEventBuilder.class));
+
+        registry.heartbeat();
+
+        assertEquals(1, registry.subscriberCount());
+    }
+
+    private static WaitlistRepository.UserPosition position(UUID userId, long position, LocalDateTime holdExpiresAt) {
+        return new WaitlistRepository.UserPosition() {
+            @Override
+            public UUID getUserId() {
+                return userId;
+            }
+
+            @Override
+            public LocalDateTime getHoldExpiresAt() {
+                return holdExpiresAt;
+            }
+
+            @Override
+            public long getPosition() {
+                return position;
+            }
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package edu.eci.cvds.prometeo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringLoaderTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ExpiringLoader<String, String> loader(Duration ttl, int pruneThreshold) {
+        return new ExpiringLoader<>(key -> key + "-" + loads.incrementAndGet(), ttl, pruneThreshold);
+    }
+
+    @Test
+    void get_ShouldLoadOncePerKeyWhileFresh() {
+        ExpiringLoader<String, String> loader = loader(Duration.ofMinutes(1), 100);
+
+        assertEquals("a-1", loader.get("a"));
+        assertEquals("a-1", loader.get("a"));
+        assertEquals("b-2", loader.get("b"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_WhenExpired_ShouldReload() {
+        ExpiringLoader<String, String> loader = loader(Duration.ZERO, 100);
+
+        loader.get("a");
+
+        assertEquals("a-2", loader.get("a"));
+        assertNull(loader.getIfFresh("a"));
+    }
+
+    @Test
+    void get_WithConcurrentReaders_ShouldLoadOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExpiringLoader<String, Integer> loader = new ExpiringLoader<>(key -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return loads.incrementAndGet();
+        }, Duration.ofMinutes(1), 100);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> loader.get("a")));
+            }
+            release.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(1, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void patch_ShouldReplaceOrDropTheLoadedValue() {
+        ExpiringLoader<String, String> loader = loader(Duration.ofMinutes(1), 100);
+        loader.get("a");
+
+        loader.patch("a", value -> value + "!");
+        assertEquals("a-1!", loader.getIfFresh("a"));
+
+        loader.patch("a", value -> null);
+        assertNull(loader.getIfFresh("a"));
+
+        loader.patch("missing", value -> value + "!");
+        assertNull(loader.getIfFresh("missing"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldDropMatchingValues() {
+        ExpiringLoader<String, String> loader = loader(Duration.ofMinutes(1), 100);
+        loader.get("a");
+        loader.get("b");
+        loader.get("c");
+
+        loader.invalidate("a");
+        loader.invalidate(null);
+        loader.invalidateIf(value -> value.startsWith("b"));
+
+        assertEquals(1, loader.size());
+        assertNotNull(loader.getIfFresh("c"));
+    }
+
+    @Test
+    void get_AbovePruneThreshold_ShouldSweepExpiredValues() {
+        ExpiringLoader<String, String> loader = loader(Duration.ZERO, 2);
+        loader.get("a");
+        loader.get("b");
+        loader.get("c");
+
+        loader.get("d");
+
+        assertEquals(1, loader.size());
+    }
+}